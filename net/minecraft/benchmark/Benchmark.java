@@ -0,0 +1,56 @@
+package net.minecraft.benchmark;
+
+import java.util.function.Supplier;
+
+/**
+ * A named operation measured by the {@link BenchmarkRunner}.
+ *
+ * <p>The setup supplier is called once per run, outside the measurement, and
+ * returns the operation to measure along with whatever state it closes over.
+ */
+public class Benchmark {
+   private final String name;
+   private final int operationsPerInvocation;
+   private final Supplier<Benchmark.Operation> setup;
+
+   public Benchmark(String name, Supplier<Benchmark.Operation> setup) {
+      this(name, 1, setup);
+   }
+
+   /**
+    * @param operationsPerInvocation how many operations one invocation performs,
+    * which the measured time is divided by
+    */
+   public Benchmark(String name, int operationsPerInvocation, Supplier<Benchmark.Operation> setup) {
+      this.name = name;
+      this.operationsPerInvocation = operationsPerInvocation;
+      this.setup = setup;
+   }
+
+   public String getName() {
+      return this.name;
+   }
+
+   public int getOperationsPerInvocation() {
+      return this.operationsPerInvocation;
+   }
+
+   public Benchmark.Operation setUp() {
+      return (Benchmark.Operation)this.setup.get();
+   }
+
+   public String toString() {
+      return this.name;
+   }
+
+   @FunctionalInterface
+   public interface Operation {
+      /**
+       * Performs the measured work once.
+       *
+       * @return a value derived from the work, which the runner consumes so that
+       * the work cannot be optimized away
+       */
+      long run() throws Exception;
+   }
+}
@@ -0,0 +1,821 @@
+package net.minecraft.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import net.minecraft.SharedConstants;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.MarkerEntity;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.nbt.AbstractNbtList;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtDouble;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtFloat;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtTagSizeTracker;
+import net.minecraft.nbt.NbtType;
+import net.minecraft.nbt.NbtTypes;
+import net.minecraft.nbt.visitor.NbtElementVisitor;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.profiler.DummyProfiler;
+import net.minecraft.util.profiler.Profiler;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.CollisionView;
+import net.minecraft.world.World;
+import net.minecraft.world.border.WorldBorder;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkCache;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.light.LevelPropagator;
+import net.minecraft.world.entity.EntityTrackingStatus;
+import net.minecraft.world.entity.SectionedEntityCache;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Builds synthetic game data for benchmarks without a running server or world.
+ *
+ * <p>All fixtures are derived from the given {@link Random}, so a fixed seed
+ * yields the same data on every run.
+ */
+public class BenchmarkFixtures {
+   /**
+    * Block states in rough order of how common they are in generated terrain.
+    */
+   private static final List<BlockState> TERRAIN_STATES;
+   /**
+    * Entity types in rough order of how common they are around farms.
+    */
+   private static final EntityType<?>[] ENTITY_TYPES;
+   private static final String[] PLAYER_ATTRIBUTES = new String[]{"minecraft:generic.max_health", "minecraft:generic.knockback_resistance", "minecraft:generic.movement_speed", "minecraft:generic.armor", "minecraft:generic.armor_toughness", "minecraft:generic.attack_damage", "minecraft:generic.attack_speed", "minecraft:generic.luck"};
+   private static final String[] PLAYER_ITEMS = new String[]{"minecraft:cobblestone", "minecraft:dirt", "minecraft:torch", "minecraft:oak_log", "minecraft:bread", "minecraft:iron_pickaxe", "minecraft:diamond_sword", "minecraft:bow", "minecraft:arrow", "minecraft:redstone"};
+   private static final String[] PLAYER_ENCHANTMENTS = new String[]{"minecraft:efficiency", "minecraft:unbreaking", "minecraft:mending", "minecraft:sharpness", "minecraft:fortune"};
+   public static final int SECTION_COUNT = 16;
+
+   private BenchmarkFixtures() {
+   }
+
+   /**
+    * Returns a section filled with the first {@code stateCount} terrain states,
+    * with the more common states placed more often.
+    */
+   public static ChunkSection createSection(Random random, int y, int stateCount) {
+      ChunkSection chunkSection = new ChunkSection(y << 4);
+      int i = Math.min(stateCount, TERRAIN_STATES.size());
+
+      for(int j = 0; j < 16; ++j) {
+         for(int k = 0; k < 16; ++k) {
+            for(int l = 0; l < 16; ++l) {
+               int m = Math.min(random.nextInt(i), random.nextInt(i));
+               chunkSection.setBlockState(l, j, k, (BlockState)TERRAIN_STATES.get(m), false);
+            }
+         }
+      }
+
+      return chunkSection;
+   }
+
+   /**
+    * Returns chunk NBT shaped like that written by {@link
+    * net.minecraft.world.ChunkSerializer#serialize} for a full chunk, with varied
+    * sections and light but no entities or block entities.
+    */
+   public static NbtCompound createChunkNbt(Random random, int chunkX, int chunkZ) {
+      NbtCompound nbtCompound = new NbtCompound();
+      nbtCompound.putInt("DataVersion", SharedConstants.getGameVersion().getWorldVersion());
+      NbtCompound nbtCompound2 = new NbtCompound();
+      nbtCompound2.putInt("xPos", chunkX);
+      nbtCompound2.putInt("zPos", chunkZ);
+      nbtCompound2.putLong("LastUpdate", 0L);
+      nbtCompound2.putLong("InhabitedTime", 0L);
+      nbtCompound2.putString("Status", "full");
+      nbtCompound2.putBoolean("isLightOn", true);
+      NbtList nbtList = new NbtList();
+
+      for(int i = -1; i <= SECTION_COUNT; ++i) {
+         NbtCompound nbtCompound3 = new NbtCompound();
+         nbtCompound3.putByte("Y", (byte)(i & 255));
+         if (i >= 0 && i < SECTION_COUNT) {
+            ChunkSection chunkSection = createSection(random, i, 2 + random.nextInt(TERRAIN_STATES.size() - 1));
+            chunkSection.getContainer().write(nbtCompound3, "Palette", "BlockStates");
+            nbtCompound3.putByteArray("BlockLight", createLight(random));
+         }
+
+         nbtCompound3.putByteArray("SkyLight", createLight(random));
+         nbtList.add(nbtCompound3);
+      }
+
+      nbtCompound2.put("Sections", nbtList);
+      NbtCompound nbtCompound4 = new NbtCompound();
+      nbtCompound4.putLongArray("MOTION_BLOCKING", createLongs(random, 37));
+      nbtCompound4.putLongArray("MOTION_BLOCKING_NO_LEAVES", createLongs(random, 37));
+      nbtCompound4.putLongArray("OCEAN_FLOOR", createLongs(random, 37));
+      nbtCompound4.putLongArray("WORLD_SURFACE", createLongs(random, 37));
+      nbtCompound2.put("Heightmaps", nbtCompound4);
+      int[] is = new int[1024];
+      Arrays.fill(is, 1);
+      nbtCompound2.putIntArray("Biomes", is);
+      nbtCompound2.put("TileEntities", new NbtList());
+      nbtCompound2.put("Entities", new NbtList());
+      nbtCompound2.put("LiquidTicks", new NbtList());
+      nbtCompound2.put("PostProcessing", new NbtList());
+      nbtCompound2.put("Structures", new NbtCompound());
+      nbtCompound.put("Level", nbtCompound2);
+      return nbtCompound;
+   }
+
+   private static byte[] createLight(Random random) {
+      byte[] bs = new byte[2048];
+      random.nextBytes(bs);
+      return bs;
+   }
+
+   /**
+    * Returns player NBT shaped like that written by {@link
+    * net.minecraft.entity.Entity#writeNbt} for a player, with a full inventory of
+    * plain, damaged and enchanted items, as an example of the many small
+    * compounds that entities and items are saved as.
+    */
+   public static NbtCompound createPlayerNbt(Random random) {
+      NbtCompound nbtCompound = new NbtCompound();
+      nbtCompound.putInt("DataVersion", SharedConstants.getGameVersion().getWorldVersion());
+      nbtCompound.put("Pos", createDoubles(random, 3, 1000.0D));
+      nbtCompound.put("Motion", createDoubles(random, 3, 0.1D));
+      NbtList nbtList = new NbtList();
+      nbtList.add(NbtFloat.of(random.nextFloat() * 360.0F));
+      nbtList.add(NbtFloat.of(random.nextFloat() * 180.0F - 90.0F));
+      nbtCompound.put("Rotation", nbtList);
+      nbtCompound.putFloat("FallDistance", 0.0F);
+      nbtCompound.putShort("Fire", (short)-20);
+      nbtCompound.putShort("Air", (short)300);
+      nbtCompound.putBoolean("OnGround", true);
+      nbtCompound.putBoolean("Invulnerable", false);
+      nbtCompound.putInt("PortalCooldown", 0);
+      nbtCompound.putUuid("UUID", new UUID(random.nextLong(), random.nextLong()));
+      nbtCompound.putFloat("Health", 20.0F);
+      nbtCompound.putShort("HurtTime", (short)0);
+      nbtCompound.putInt("HurtByTimestamp", 0);
+      nbtCompound.putShort("DeathTime", (short)0);
+      nbtCompound.putFloat("AbsorptionAmount", 0.0F);
+      NbtList nbtList2 = new NbtList();
+      String[] var4 = PLAYER_ATTRIBUTES;
+      int var5 = var4.length;
+
+      for(int var6 = 0; var6 < var5; ++var6) {
+         String string = var4[var6];
+         NbtCompound nbtCompound2 = new NbtCompound();
+         nbtCompound2.putString("Name", string);
+         nbtCompound2.putDouble("Base", random.nextDouble());
+         nbtList2.add(nbtCompound2);
+      }
+
+      nbtCompound.put("Attributes", nbtList2);
+      nbtCompound.put("Brain", new NbtCompound());
+      NbtList nbtList3 = new NbtList();
+
+      for(int i = 0; i < 36; ++i) {
+         NbtCompound nbtCompound3 = new NbtCompound();
+         nbtCompound3.putByte("Slot", (byte)i);
+         nbtCompound3.putString("id", PLAYER_ITEMS[random.nextInt(PLAYER_ITEMS.length)]);
+         nbtCompound3.putByte("Count", (byte)(1 + random.nextInt(64)));
+         if (random.nextInt(4) == 0) {
+            NbtCompound nbtCompound4 = new NbtCompound();
+            nbtCompound4.putInt("Damage", random.nextInt(250));
+            if (random.nextBoolean()) {
+               NbtList nbtList4 = new NbtList();
+
+               for(int j = random.nextInt(3); j >= 0; --j) {
+                  NbtCompound nbtCompound5 = new NbtCompound();
+                  nbtCompound5.putString("id", PLAYER_ENCHANTMENTS[random.nextInt(PLAYER_ENCHANTMENTS.length)]);
+                  nbtCompound5.putShort("lvl", (short)(1 + random.nextInt(5)));
+                  nbtList4.add(nbtCompound5);
+               }
+
+               nbtCompound4.put("Enchantments", nbtList4);
+               nbtCompound4.putInt("RepairCost", 1);
+            }
+
+            nbtCompound3.put("tag", nbtCompound4);
+         }
+
+         nbtList3.add(nbtCompound3);
+      }
+
+      nbtCompound.put("Inventory", nbtList3);
+      nbtCompound.put("EnderItems", new NbtList());
+      nbtCompound.putInt("SelectedItemSlot", random.nextInt(9));
+      nbtCompound.putInt("Score", 0);
+      nbtCompound.putInt("XpLevel", random.nextInt(30));
+      nbtCompound.putFloat("XpP", random.nextFloat());
+      nbtCompound.putInt("XpTotal", random.nextInt(1000));
+      nbtCompound.putInt("XpSeed", random.nextInt());
+      nbtCompound.putInt("foodLevel", 20);
+      nbtCompound.putInt("foodTickTimer", 0);
+      nbtCompound.putFloat("foodSaturationLevel", 5.0F);
+      nbtCompound.putFloat("foodExhaustionLevel", 0.0F);
+      NbtCompound nbtCompound6 = new NbtCompound();
+      nbtCompound6.putBoolean("invulnerable", false);
+      nbtCompound6.putBoolean("flying", false);
+      nbtCompound6.putBoolean("mayfly", false);
+      nbtCompound6.putBoolean("instabuild", false);
+      nbtCompound6.putBoolean("mayBuild", true);
+      nbtCompound6.putFloat("flySpeed", 0.05F);
+      nbtCompound6.putFloat("walkSpeed", 0.1F);
+      nbtCompound.put("abilities", nbtCompound6);
+      nbtCompound.putInt("playerGameType", 0);
+      nbtCompound.putString("Dimension", "minecraft:overworld");
+      return nbtCompound;
+   }
+
+   /**
+    * Reads NBT written by {@link net.minecraft.nbt.NbtIo#write} into the tree
+    * form compounds and lists were kept in before they became compact, which
+    * benchmarks compare the compact form against: compounds backed by hash maps
+    * with the keys as read, and lists of elements even when they hold numbers.
+    */
+   public static NbtCompound readTreeNbt(DataInput input) throws IOException {
+      if (input.readByte() != 10) {
+         throw new IOException("Root tag must be a named compound tag");
+      } else {
+         input.readUTF();
+         return (NbtCompound)readTreeNbt(input, (byte)10, 0);
+      }
+   }
+
+   private static NbtElement readTreeNbt(DataInput input, byte type, int depth) throws IOException {
+      if (depth > 512) {
+         throw new RuntimeException("Tried to read NBT tag with too high complexity, depth > 512");
+      } else if (type == 10) {
+         Map<String, NbtElement> map = Maps.newHashMap();
+
+         byte b;
+         while((b = input.readByte()) != 0) {
+            String string = input.readUTF();
+            map.put(string, readTreeNbt(input, b, depth + 1));
+         }
+
+         return new BenchmarkFixtures.TreeNbtCompound(map);
+      } else if (type == 9) {
+         byte c = input.readByte();
+         int i = input.readInt();
+         List<NbtElement> list = Lists.newArrayListWithCapacity(i);
+
+         for(int j = 0; j < i; ++j) {
+            list.add(readTreeNbt(input, c, depth + 1));
+         }
+
+         return new BenchmarkFixtures.TreeNbtList(list, c);
+      } else {
+         return NbtTypes.byId(type).read(input, depth, NbtTagSizeTracker.EMPTY);
+      }
+   }
+
+   private static NbtList createDoubles(Random random, int count, double scale) {
+      NbtList nbtList = new NbtList();
+
+      for(int i = 0; i < count; ++i) {
+         nbtList.add(NbtDouble.of((random.nextDouble() - 0.5D) * scale));
+      }
+
+      return nbtList;
+   }
+
+   private static long[] createLongs(Random random, int count) {
+      long[] ls = new long[count];
+
+      for(int i = 0; i < count; ++i) {
+         ls[i] = random.nextLong();
+      }
+
+      return ls;
+   }
+
+   /**
+    * Returns shapes of small random boxes within a block, like the collision
+    * shapes of stairs, slabs and fences.
+    */
+   public static List<VoxelShape> createBlockShapes(Random random, int count) {
+      List<VoxelShape> list = Lists.newArrayListWithCapacity(count);
+
+      for(int i = 0; i < count; ++i) {
+         double d = (double)random.nextInt(8) / 16.0D;
+         double e = (double)random.nextInt(8) / 16.0D;
+         double f = (double)random.nextInt(8) / 16.0D;
+         list.add(VoxelShapes.cuboid(d, e, f, d + (double)(1 + random.nextInt(8)) / 16.0D, e + (double)(1 + random.nextInt(8)) / 16.0D, f + (double)(1 + random.nextInt(8)) / 16.0D));
+      }
+
+      return list;
+   }
+
+   /**
+    * Returns the collision shapes of the blocks in a {@code size}-wide cube
+    * around the origin, each block being solid with the given chance.
+    */
+   public static List<VoxelShape> createTerrainShapes(Random random, int size, float solidChance) {
+      List<VoxelShape> list = Lists.newArrayList();
+
+      for(int i = 0; i < size; ++i) {
+         for(int j = 0; j < size; ++j) {
+            for(int k = 0; k < size; ++k) {
+               if (random.nextFloat() < solidChance) {
+                  list.add(VoxelShapes.fullCube().offset((double)i, (double)j, (double)k));
+               }
+            }
+         }
+      }
+
+      return list;
+   }
+
+   public static BenchmarkFixtures.GridCollisionView createCollisionView(Random random, int size, float solidChance) {
+      return new BenchmarkFixtures.GridCollisionView(random, size, solidChance);
+   }
+
+   public static BenchmarkFixtures.GridChunkCache createPathfindingView(Random random, int size) {
+      return new BenchmarkFixtures.GridChunkCache(random, size);
+   }
+
+   public static BenchmarkFixtures.GridLightPropagator createLightPropagator(Random random, int size, float opaqueChance) {
+      return new BenchmarkFixtures.GridLightPropagator(random, size, opaqueChance);
+   }
+
+   /**
+    * Returns an entity cache with {@code count} entities of a few mob and item
+    * types spread over a square of {@code size} blocks around the origin, at
+    * ground level. The entities are markers that report the picked types and
+    * have no world, so they must not be ticked.
+    */
+   public static SectionedEntityCache<Entity> createEntityCache(Random random, int count, int size) {
+      SectionedEntityCache<Entity> sectionedEntityCache = new SectionedEntityCache(Entity.class, (chunkPos) -> {
+         return EntityTrackingStatus.TICKING;
+      });
+
+      for(int i = 0; i < count; ++i) {
+         EntityType<?> entityType = ENTITY_TYPES[Math.min(random.nextInt(ENTITY_TYPES.length), random.nextInt(ENTITY_TYPES.length))];
+         double d = (random.nextDouble() - 0.5D) * (double)size;
+         double e = 64.0D + (double)random.nextInt(4);
+         double f = (random.nextDouble() - 0.5D) * (double)size;
+         MarkerEntity markerEntity = new MarkerEntity(entityType, (World)null);
+         markerEntity.setPosition(d, e, f);
+         sectionedEntityCache.getTrackingSection(ChunkSectionPos.toLong(markerEntity.getBlockPos())).add(markerEntity);
+      }
+
+      return sectionedEntityCache;
+   }
+
+   static {
+      ENTITY_TYPES = new EntityType[]{EntityType.ITEM, EntityType.ZOMBIE, EntityType.SKELETON, EntityType.COW, EntityType.CHICKEN, EntityType.EXPERIENCE_ORB};
+      TERRAIN_STATES = ImmutableList.of(Blocks.STONE.getDefaultState(), Blocks.AIR.getDefaultState(), Blocks.DIRT.getDefaultState(), Blocks.DEEPSLATE.getDefaultState(), Blocks.WATER.getDefaultState(), Blocks.GRAVEL.getDefaultState(), Blocks.ANDESITE.getDefaultState(), Blocks.GRANITE.getDefaultState(), Blocks.DIORITE.getDefaultState(), Blocks.COAL_ORE.getDefaultState(), Blocks.IRON_ORE.getDefaultState(), Blocks.COPPER_ORE.getDefaultState(), Blocks.CAVE_AIR.getDefaultState(), Blocks.GRASS_BLOCK.getDefaultState(), Blocks.OAK_LOG.getDefaultState(), Blocks.OAK_LEAVES.getDefaultState(), Blocks.LAVA.getDefaultState(), Blocks.GOLD_ORE.getDefaultState(), Blocks.REDSTONE_ORE.getDefaultState(), Blocks.DIAMOND_ORE.getDefaultState());
+   }
+
+   /**
+    * Propagates block light through a cube of blocks, some of them opaque, in
+    * the same way as {@link net.minecraft.world.chunk.light.ChunkBlockLightProvider}
+    * but without chunk storage.
+    *
+    * <p>Levels follow {@link LevelPropagator}: 0 is a light source at full
+    * brightness and 15 is darkness.
+    */
+   public static class GridLightPropagator extends LevelPropagator {
+      private static final long SOURCE_MARKER = Long.MAX_VALUE;
+      private static final Direction[] DIRECTIONS = Direction.values();
+      private final int size;
+      private final boolean[] opaque;
+      private final boolean[] sources;
+      private final byte[] levels;
+
+      GridLightPropagator(Random random, int size, float opaqueChance) {
+         super(16, 256, 8192);
+         this.size = size;
+         this.opaque = new boolean[size * size * size];
+         this.sources = new boolean[size * size * size];
+         this.levels = new byte[size * size * size];
+         Arrays.fill(this.levels, (byte)15);
+
+         for(int i = 0; i < this.opaque.length; ++i) {
+            this.opaque[i] = random.nextFloat() < opaqueChance;
+         }
+
+      }
+
+      public int getSize() {
+         return this.size;
+      }
+
+      private int getIndex(long id) {
+         int i = BlockPos.unpackLongX(id);
+         int j = BlockPos.unpackLongY(id);
+         int k = BlockPos.unpackLongZ(id);
+         return i >= 0 && j >= 0 && k >= 0 && i < this.size && j < this.size && k < this.size ? (j * this.size + k) * this.size + i : -1;
+      }
+
+      public void setSource(int x, int y, int z, boolean source) {
+         long l = BlockPos.asLong(x, y, z);
+         int i = this.getIndex(l);
+         if (i >= 0 && !this.opaque[i]) {
+            this.sources[i] = source;
+            this.updateLevel(SOURCE_MARKER, l, source ? 0 : 15, source);
+         }
+
+      }
+
+      /**
+       * Applies all pending updates.
+       *
+       * @return the number of updates applied
+       */
+      public int propagate() {
+         return Integer.MAX_VALUE - this.applyPendingUpdates(Integer.MAX_VALUE);
+      }
+
+      public int getLightLevel(int x, int y, int z) {
+         return 15 - this.getLevel(BlockPos.asLong(x, y, z));
+      }
+
+      protected boolean isMarker(long id) {
+         return id == SOURCE_MARKER;
+      }
+
+      protected int recalculateLevel(long id, long excludedId, int maxLevel) {
+         int i = this.getIndex(id);
+         if (i >= 0 && this.sources[i]) {
+            return 0;
+         } else {
+            int j = maxLevel;
+
+            for(Direction direction : DIRECTIONS) {
+               long l = BlockPos.offset(id, direction);
+               if (l != excludedId) {
+                  int k = this.getPropagatedLevel(l, id, this.getLevel(l));
+                  if (k < j) {
+                     j = k;
+                  }
+
+                  if (j == 0) {
+                     break;
+                  }
+               }
+            }
+
+            return j;
+         }
+      }
+
+      protected void propagateLevel(long id, int level, boolean decrease) {
+         for(Direction direction : DIRECTIONS) {
+            long l = BlockPos.offset(id, direction);
+            if (this.getIndex(l) >= 0) {
+               this.propagateLevel(id, l, level, decrease);
+            }
+         }
+
+      }
+
+      protected int getLevel(long id) {
+         if (id == SOURCE_MARKER) {
+            return 0;
+         } else {
+            int i = this.getIndex(id);
+            return i >= 0 ? this.levels[i] : 15;
+         }
+      }
+
+      protected void setLevel(long id, int level) {
+         int i = this.getIndex(id);
+         if (i >= 0) {
+            this.levels[i] = (byte)level;
+         }
+
+      }
+
+      protected int getPropagatedLevel(long sourceId, long targetId, int level) {
+         if (sourceId == SOURCE_MARKER) {
+            return level;
+         } else {
+            int i = this.getIndex(targetId);
+            return i >= 0 && !this.opaque[i] ? level + 1 : 15;
+         }
+      }
+   }
+
+   /**
+    * A square of grass with some water, stone pillars, fences and slabs on it,
+    * that pathfinding can search without a world. Mobs walk at height 1 and
+    * blocks outside the square are air.
+    */
+   public static class GridChunkCache extends ChunkCache {
+      private static final int HEIGHT = 8;
+      private final int size;
+      private final BlockState[] states;
+      private final WorldBorder worldBorder = new WorldBorder();
+
+      GridChunkCache(Random random, int size) {
+         super((World)null, 0, 0, new Chunk[0][0]);
+         this.size = size;
+         this.states = new BlockState[size * HEIGHT * size];
+         Arrays.fill(this.states, Blocks.AIR.getDefaultState());
+
+         for(int i = 0; i < size; ++i) {
+            for(int j = 0; j < size; ++j) {
+               float f = random.nextFloat();
+               this.states[this.getIndex(j, 0, i)] = f < 0.05F ? Blocks.WATER.getDefaultState() : Blocks.GRASS_BLOCK.getDefaultState();
+               if (f >= 0.05F && f < 0.2F) {
+                  int k = 1 + random.nextInt(3);
+
+                  for(int l = 1; l <= k; ++l) {
+                     this.states[this.getIndex(j, l, i)] = Blocks.STONE.getDefaultState();
+                  }
+               } else if (f >= 0.2F && f < 0.23F) {
+                  this.states[this.getIndex(j, 1, i)] = Blocks.OAK_FENCE.getDefaultState();
+               } else if (f >= 0.23F && f < 0.26F) {
+                  this.states[this.getIndex(j, 1, i)] = Blocks.OAK_SLAB.getDefaultState();
+               }
+            }
+         }
+
+      }
+
+      private int getIndex(int x, int y, int z) {
+         return (y * this.size + z) * this.size + x;
+      }
+
+      public int getSize() {
+         return this.size;
+      }
+
+      public WorldBorder getWorldBorder() {
+         return this.worldBorder;
+      }
+
+      public BlockView getChunkAsView(int chunkX, int chunkZ) {
+         return this;
+      }
+
+      @Nullable
+      public BlockEntity getBlockEntity(BlockPos pos) {
+         return null;
+      }
+
+      public BlockState getBlockState(BlockPos pos) {
+         int i = pos.getX();
+         int j = pos.getY();
+         int k = pos.getZ();
+         return i >= 0 && j >= 0 && k >= 0 && i < this.size && j < HEIGHT && k < this.size ? this.states[this.getIndex(i, j, k)] : Blocks.AIR.getDefaultState();
+      }
+
+      public FluidState getFluidState(BlockPos pos) {
+         return this.getBlockState(pos).getFluidState();
+      }
+
+      public int getHeight() {
+         return HEIGHT;
+      }
+
+      public int getBottomY() {
+         return 0;
+      }
+
+      public Profiler getProfiler() {
+         return DummyProfiler.INSTANCE;
+      }
+   }
+
+   /**
+    * A cube of blocks, mostly stone and air with some slabs and fences, that
+    * serves as its own only chunk so collisions can be tested without a world.
+    * Blocks outside the cube are air.
+    */
+   public static class GridCollisionView implements CollisionView {
+      private final int size;
+      private final BlockState[] states;
+      private final WorldBorder worldBorder = new WorldBorder();
+
+      GridCollisionView(Random random, int size, float solidChance) {
+         this.size = size;
+         this.states = new BlockState[size * size * size];
+
+         for(int i = 0; i < this.states.length; ++i) {
+            float f = random.nextFloat();
+            if (f < solidChance) {
+               this.states[i] = Blocks.STONE.getDefaultState();
+            } else if (f < solidChance * 1.2F) {
+               this.states[i] = Blocks.OAK_SLAB.getDefaultState();
+            } else if (f < solidChance * 1.3F) {
+               this.states[i] = Blocks.OAK_FENCE.getDefaultState();
+            } else {
+               this.states[i] = Blocks.AIR.getDefaultState();
+            }
+         }
+
+      }
+
+      public int getSize() {
+         return this.size;
+      }
+
+      public WorldBorder getWorldBorder() {
+         return this.worldBorder;
+      }
+
+      public BlockView getChunkAsView(int chunkX, int chunkZ) {
+         return this;
+      }
+
+      public Stream<VoxelShape> getEntityCollisions(@Nullable Entity entity, Box box, Predicate<Entity> predicate) {
+         return Stream.empty();
+      }
+
+      @Nullable
+      public BlockEntity getBlockEntity(BlockPos pos) {
+         return null;
+      }
+
+      public BlockState getBlockState(BlockPos pos) {
+         int i = pos.getX();
+         int j = pos.getY();
+         int k = pos.getZ();
+         return i >= 0 && j >= 0 && k >= 0 && i < this.size && j < this.size && k < this.size ? this.states[(j * this.size + k) * this.size + i] : Blocks.AIR.getDefaultState();
+      }
+
+      public FluidState getFluidState(BlockPos pos) {
+         return this.getBlockState(pos).getFluidState();
+      }
+
+      public int getHeight() {
+         return this.size;
+      }
+
+      public int getBottomY() {
+         return 0;
+      }
+   }
+
+   /**
+    * A compound backed by a hash map, as compounds were before they became
+    * compact.
+    */
+   public static class TreeNbtCompound extends NbtCompound {
+      TreeNbtCompound(Map<String, NbtElement> entries) {
+         super(entries);
+      }
+
+      public NbtCompound copy() {
+         Map<String, NbtElement> map = Maps.newHashMapWithExpectedSize(this.getSize());
+         Iterator var2 = this.getKeys().iterator();
+
+         while(var2.hasNext()) {
+            String string = (String)var2.next();
+            map.put(string, this.get(string).copy());
+         }
+
+         return new BenchmarkFixtures.TreeNbtCompound(map);
+      }
+   }
+
+   /**
+    * A list of elements, as lists were before lists of numbers became
+    * primitive arrays. It is written like an {@link NbtList}.
+    */
+   public static class TreeNbtList extends AbstractNbtList<NbtElement> {
+      private final List<NbtElement> value;
+      private byte type;
+
+      TreeNbtList(List<NbtElement> value, byte type) {
+         this.value = value;
+         this.type = type;
+      }
+
+      public void write(DataOutput output) throws IOException {
+         this.type = this.value.isEmpty() ? 0 : ((NbtElement)this.value.get(0)).getType();
+         output.writeByte(this.type);
+         output.writeInt(this.value.size());
+         Iterator var2 = this.value.iterator();
+
+         while(var2.hasNext()) {
+            NbtElement nbtElement = (NbtElement)var2.next();
+            nbtElement.write(output);
+         }
+
+      }
+
+      public byte getType() {
+         return 9;
+      }
+
+      public NbtType<NbtList> getNbtType() {
+         return NbtList.TYPE;
+      }
+
+      public String toString() {
+         return this.asString();
+      }
+
+      public NbtElement copy() {
+         List<NbtElement> list = Lists.newArrayListWithCapacity(this.value.size());
+         Iterator var2 = this.value.iterator();
+
+         while(var2.hasNext()) {
+            NbtElement nbtElement = (NbtElement)var2.next();
+            list.add(nbtElement.copy());
+         }
+
+         return new BenchmarkFixtures.TreeNbtList(list, this.type);
+      }
+
+      public void accept(NbtElementVisitor visitor) {
+         NbtList nbtList = new NbtList();
+         nbtList.addAll(this.value);
+         nbtList.accept(visitor);
+      }
+
+      public int size() {
+         return this.value.size();
+      }
+
+      public NbtElement get(int i) {
+         return (NbtElement)this.value.get(i);
+      }
+
+      public NbtElement set(int i, NbtElement nbtElement) {
+         NbtElement nbtElement2 = this.get(i);
+         if (!this.setElement(i, nbtElement)) {
+            throw new UnsupportedOperationException(String.format("Trying to add tag of type %d to list of %d", nbtElement.getType(), this.type));
+         } else {
+            return nbtElement2;
+         }
+      }
+
+      public void add(int i, NbtElement nbtElement) {
+         if (!this.addElement(i, nbtElement)) {
+            throw new UnsupportedOperationException(String.format("Trying to add tag of type %d to list of %d", nbtElement.getType(), this.type));
+         }
+      }
+
+      public NbtElement remove(int i) {
+         NbtElement nbtElement = (NbtElement)this.value.remove(i);
+         if (this.value.isEmpty()) {
+            this.type = 0;
+         }
+
+         return nbtElement;
+      }
+
+      public boolean setElement(int index, NbtElement element) {
+         if (this.canAdd(element)) {
+            this.value.set(index, element);
+            return true;
+         } else {
+            return false;
+         }
+      }
+
+      public boolean addElement(int index, NbtElement element) {
+         if (this.canAdd(element)) {
+            this.value.add(index, element);
+            return true;
+         } else {
+            return false;
+         }
+      }
+
+      private boolean canAdd(NbtElement element) {
+         if (element.getType() == 0) {
+            return false;
+         } else if (this.type == 0) {
+            this.type = element.getType();
+            return true;
+         } else {
+            return this.type == element.getType();
+         }
+      }
+
+      public byte getHeldType() {
+         return this.type;
+      }
+
+      public void clear() {
+         this.value.clear();
+         this.type = 0;
+      }
+   }
+}
@@ -0,0 +1,161 @@
+package net.minecraft.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import net.minecraft.util.Util;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs a {@link Benchmark} for a number of timed iterations, after warmup
+ * iterations whose results are discarded.
+ *
+ * <p>Each iteration invokes the operation until the iteration time has passed and
+ * records the average time per operation. Allocation is measured per thread, so
+ * it is only reported on JVMs that support thread allocation accounting.
+ */
+public class BenchmarkRunner {
+   private static final Logger LOGGER = LogManager.getLogger();
+   private final int warmupIterations;
+   private final int measurementIterations;
+   private final long iterationNanos;
+   /**
+    * Receives the values returned by operations, so that their work stays
+    * observable.
+    */
+   private volatile long sink;
+
+   public BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis) {
+      this.warmupIterations = warmupIterations;
+      this.measurementIterations = measurementIterations;
+      this.iterationNanos = iterationMillis * 1000000L;
+   }
+
+   public BenchmarkRunner.Result run(Benchmark benchmark) throws Exception {
+      Benchmark.Operation operation = benchmark.setUp();
+
+      for(int i = 0; i < this.warmupIterations; ++i) {
+         this.runIteration(operation, benchmark.getOperationsPerInvocation(), (double[])null, 0);
+      }
+
+      double[] ds = new double[this.measurementIterations];
+      double[] es = new double[this.measurementIterations];
+
+      for(int j = 0; j < this.measurementIterations; ++j) {
+         es[j] = this.runIteration(operation, benchmark.getOperationsPerInvocation(), ds, j);
+      }
+
+      BenchmarkRunner.Result result = new BenchmarkRunner.Result(benchmark.getName(), ds, average(es));
+      LOGGER.debug("{}", (Object)result);
+      return result;
+   }
+
+   /**
+    * Runs one iteration, storing its time per operation at {@code index} of
+    * {@code nanosPerOperation} if given.
+    *
+    * @return the bytes allocated per operation, or {@code NaN} if unknown
+    */
+   private double runIteration(Benchmark.Operation operation, int operationsPerInvocation, double[] nanosPerOperation, int index) throws Exception {
+      long l = this.sink;
+      long m = 0L;
+      long n = getAllocatedBytes();
+      long o = Util.getMeasuringTimeNano();
+      long p = o + this.iterationNanos;
+
+      long q;
+      do {
+         l ^= operation.run();
+         ++m;
+         q = Util.getMeasuringTimeNano();
+      } while(q < p);
+
+      long r = getAllocatedBytes();
+      this.sink = l;
+      double d = (double)m * (double)operationsPerInvocation;
+      if (nanosPerOperation != null) {
+         nanosPerOperation[index] = (double)(q - o) / d;
+      }
+
+      return n >= 0L && r >= 0L ? (double)(r - n) / d : Double.NaN;
+   }
+
+   /**
+    * Returns the bytes allocated by the current thread so far, or {@code -1} if
+    * unknown.
+    */
+   static long getAllocatedBytes() {
+      ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+         com.sun.management.ThreadMXBean threadMXBean2 = (com.sun.management.ThreadMXBean)threadMXBean;
+         if (threadMXBean2.isThreadAllocatedMemorySupported() && threadMXBean2.isThreadAllocatedMemoryEnabled()) {
+            return threadMXBean2.getThreadAllocatedBytes(Thread.currentThread().getId());
+         }
+      }
+
+      return -1L;
+   }
+
+   private static double average(double[] values) {
+      double d = 0.0D;
+
+      for(double e : values) {
+         d += e;
+      }
+
+      return values.length > 0 ? d / (double)values.length : Double.NaN;
+   }
+
+   public static class Result {
+      private final String name;
+      private final double[] nanosPerOperation;
+      private final double averageNanos;
+      private final double deviationNanos;
+      private final double bytesPerOperation;
+
+      public Result(String name, double[] nanosPerOperation, double bytesPerOperation) {
+         this.name = name;
+         this.nanosPerOperation = (double[])nanosPerOperation.clone();
+         Arrays.sort(this.nanosPerOperation);
+         this.averageNanos = BenchmarkRunner.average(nanosPerOperation);
+         double d = 0.0D;
+
+         for(double e : nanosPerOperation) {
+            d += (e - this.averageNanos) * (e - this.averageNanos);
+         }
+
+         this.deviationNanos = nanosPerOperation.length > 1 ? Math.sqrt(d / (double)(nanosPerOperation.length - 1)) : 0.0D;
+         this.bytesPerOperation = bytesPerOperation;
+      }
+
+      public String getName() {
+         return this.name;
+      }
+
+      public double getAverageNanos() {
+         return this.averageNanos;
+      }
+
+      public double getDeviationNanos() {
+         return this.deviationNanos;
+      }
+
+      public double getMedianNanos() {
+         int i = this.nanosPerOperation.length;
+         if (i == 0) {
+            return Double.NaN;
+         } else {
+            return i % 2 == 1 ? this.nanosPerOperation[i / 2] : (this.nanosPerOperation[i / 2 - 1] + this.nanosPerOperation[i / 2]) / 2.0D;
+         }
+      }
+
+      public double getBytesPerOperation() {
+         return this.bytesPerOperation;
+      }
+
+      public String toString() {
+         return String.format("%s: %.3f ± %.3f ns/op, %.1f B/op", this.name, this.averageNanos, this.deviationNanos, this.bytesPerOperation);
+      }
+   }
+}
@@ -0,0 +1,729 @@
+package net.minecraft.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import io.netty.buffer.Unpooled;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.ai.pathing.LandPathNodeMaker;
+import net.minecraft.entity.ai.pathing.MobSnapshot;
+import net.minecraft.entity.ai.pathing.Path;
+import net.minecraft.entity.ai.pathing.PathNodeNavigator;
+import net.minecraft.entity.mob.MobEntity;
+import net.minecraft.entity.mob.ZombieEntity;
+import net.minecraft.nbt.AbstractNbtList;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.visitor.SelectiveNbtCollector;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.TypeFilter;
+import net.minecraft.util.collection.PackedIntegerArray;
+import net.minecraft.util.collection.ReusableStream;
+import net.minecraft.util.function.BooleanBiFunction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+import net.minecraft.world.BinaryChunkSerializer;
+import net.minecraft.world.BlockCollisionCursor;
+import net.minecraft.world.ChunkSnapshot;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.entity.SectionedEntityCache;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The benchmarks of server hot paths. Each benchmark builds its fixtures from the
+ * same seed, so results of different builds can be compared.
+ */
+public class Benchmarks {
+   private static final long SEED = 20210706L;
+   private static final int SECTION_VOLUME = 4096;
+   private static final int COLLISION_MOVES = 64;
+   private static final int ENTITY_QUERIES = 64;
+   private static final int PATH_QUERIES = 16;
+   private static final int NBT_PLAYERS = 8;
+   private static final List<Benchmark> ALL = ImmutableList.of(new Benchmark("palettedContainer.get", SECTION_VOLUME, Benchmarks::palettedContainerGet), new Benchmark("palettedContainer.set", SECTION_VOLUME, Benchmarks::palettedContainerSet), new Benchmark("packedIntegerArray.get", SECTION_VOLUME, Benchmarks::packedIntegerArrayGet), new Benchmark("packedIntegerArray.set", SECTION_VOLUME, Benchmarks::packedIntegerArraySet), new Benchmark("voxelShapes.union", Benchmarks::voxelShapesUnion), new Benchmark("voxelShapes.combine", Benchmarks::voxelShapesCombine), new Benchmark("voxelShapes.combineCached", Benchmarks::voxelShapesCombineCached), new Benchmark("voxelShapes.collide", Benchmarks::voxelShapesCollide), new Benchmark("blockCollisions.stream", COLLISION_MOVES, Benchmarks::blockCollisionsStream), new Benchmark("blockCollisions.cursor", COLLISION_MOVES, Benchmarks::blockCollisionsCursor), new Benchmark("chunkSnapshot.fromNbt", Benchmarks::chunkSnapshotFromNbt), new Benchmark("chunkSnapshot.toNbt", Benchmarks::chunkSnapshotToNbt), new Benchmark("binaryChunk.write", Benchmarks::binaryChunkWrite), new Benchmark("binaryChunk.read", Benchmarks::binaryChunkRead), new Benchmark("nbtIo.write", Benchmarks::nbtIoWrite), new Benchmark("nbtIo.read", Benchmarks::nbtIoRead), new Benchmark("nbtIo.scan", Benchmarks::nbtIoScan), new Benchmark("nbtCompound.read.compact", () -> {
+      return nbtCompoundRead(true);
+   }), new Benchmark("nbtCompound.read.tree", () -> {
+      return nbtCompoundRead(false);
+   }), new Benchmark("nbtCompound.write.compact", () -> {
+      return nbtCompoundWrite(true);
+   }), new Benchmark("nbtCompound.write.tree", () -> {
+      return nbtCompoundWrite(false);
+   }), new Benchmark("nbtCompound.get.compact", () -> {
+      return nbtCompoundGet(true);
+   }), new Benchmark("nbtCompound.get.tree", () -> {
+      return nbtCompoundGet(false);
+   }), new Benchmark("nbtCompound.copy.compact", () -> {
+      return nbtCompoundCopy(true);
+   }), new Benchmark("nbtCompound.copy.tree", () -> {
+      return nbtCompoundCopy(false);
+   }), new Benchmark("packetByteBuf.varInt", 1024, Benchmarks::packetByteBufVarInt), new Benchmark("packetByteBuf.nbt", Benchmarks::packetByteBufNbt), new Benchmark("levelPropagator.blockLight", Benchmarks::levelPropagatorBlockLight), new Benchmark("entityCache.collectByClass", ENTITY_QUERIES, Benchmarks::entityCacheCollectByClass), new Benchmark("entityCache.collectByType", ENTITY_QUERIES, Benchmarks::entityCacheCollectByType), new Benchmark("entityCache.countByType", ENTITY_QUERIES, Benchmarks::entityCacheCountByType), new Benchmark("entityCache.nearestByCollect", ENTITY_QUERIES, Benchmarks::entityCacheNearestByCollect), new Benchmark("entityCache.nearest", ENTITY_QUERIES, Benchmarks::entityCacheNearest), new Benchmark("pathNodeNavigator.findPathToAny", PATH_QUERIES, Benchmarks::pathNodeNavigatorFindPathToAny));
+
+   private Benchmarks() {
+   }
+
+   public static List<Benchmark> getAll() {
+      return ALL;
+   }
+
+   private static Random createRandom() {
+      return new Random(SEED);
+   }
+
+   private static Benchmark.Operation palettedContainerGet() {
+      PalettedContainer<BlockState> palettedContainer = BenchmarkFixtures.createSection(createRandom(), 0, 12).getContainer();
+      BlockState blockState = Blocks.STONE.getDefaultState();
+      return () -> {
+         long l = 0L;
+
+         for(int i = 0; i < 16; ++i) {
+            for(int j = 0; j < 16; ++j) {
+               for(int k = 0; k < 16; ++k) {
+                  if (palettedContainer.get(k, i, j) == blockState) {
+                     ++l;
+                  }
+               }
+            }
+         }
+
+         return l;
+      };
+   }
+
+   private static Benchmark.Operation palettedContainerSet() {
+      Random random = createRandom();
+      PalettedContainer<BlockState> palettedContainer = BenchmarkFixtures.createSection(random, 0, 12).getContainer();
+      BlockState[] blockStates = new BlockState[SECTION_VOLUME];
+      int[] is = new int[SECTION_VOLUME];
+
+      for(int i = 0; i < SECTION_VOLUME; ++i) {
+         blockStates[i] = palettedContainer.get(random.nextInt(16), random.nextInt(16), random.nextInt(16));
+         is[i] = random.nextInt(SECTION_VOLUME);
+      }
+
+      return () -> {
+         long l = 0L;
+
+         for(int i = 0; i < SECTION_VOLUME; ++i) {
+            int j = is[i];
+            if (palettedContainer.set(j & 15, j >> 8 & 15, j >> 4 & 15, blockStates[i]) == blockStates[i]) {
+               ++l;
+            }
+         }
+
+         return l;
+      };
+   }
+
+   private static Benchmark.Operation packedIntegerArrayGet() {
+      Random random = createRandom();
+      PackedIntegerArray packedIntegerArray = new PackedIntegerArray(5, SECTION_VOLUME);
+
+      for(int i = 0; i < SECTION_VOLUME; ++i) {
+         packedIntegerArray.set(i, random.nextInt(32));
+      }
+
+      return () -> {
+         long l = 0L;
+
+         for(int i = 0; i < SECTION_VOLUME; ++i) {
+            l += (long)packedIntegerArray.get(i);
+         }
+
+         return l;
+      };
+   }
+
+   private static Benchmark.Operation packedIntegerArraySet() {
+      Random random = createRandom();
+      PackedIntegerArray packedIntegerArray = new PackedIntegerArray(5, SECTION_VOLUME);
+      int[] is = new int[SECTION_VOLUME];
+
+      for(int i = 0; i < SECTION_VOLUME; ++i) {
+         is[i] = random.nextInt(32);
+      }
+
+      return () -> {
+         long l = 0L;
+
+         for(int i = 0; i < SECTION_VOLUME; ++i) {
+            l += (long)packedIntegerArray.setAndGetOldValue(i, is[i]);
+         }
+
+         return l;
+      };
+   }
+
+   private static Benchmark.Operation voxelShapesUnion() {
+      List<VoxelShape> list = BenchmarkFixtures.createBlockShapes(createRandom(), 8);
+      VoxelShape voxelShape = (VoxelShape)list.get(0);
+      VoxelShape[] voxelShapes = (VoxelShape[])list.subList(1, list.size()).toArray(new VoxelShape[0]);
+      return () -> {
+         return VoxelShapes.union(voxelShape, voxelShapes).isEmpty() ? 0L : 1L;
+      };
+   }
+
+   private static Benchmark.Operation voxelShapesCombine() {
+      List<VoxelShape> list = BenchmarkFixtures.createBlockShapes(createRandom(), 64);
+      return () -> {
+         long l = 0L;
+
+         for(int i = 0; i + 1 < list.size(); i += 2) {
+            if (!VoxelShapes.combine((VoxelShape)list.get(i), (VoxelShape)list.get(i + 1), BooleanBiFunction.ONLY_FIRST).isEmpty()) {
+               ++l;
+            }
+         }
+
+         return l;
+      };
+   }
+
+   /**
+    * Runs the same merges as {@link #voxelShapesCombine} on shapes whose merge
+    * results are cached, like the shapes of block states.
+    */
+   private static Benchmark.Operation voxelShapesCombineCached() {
+      List<VoxelShape> list = BenchmarkFixtures.createBlockShapes(createRandom(), 64);
+      list.forEach(VoxelShapes::cacheMerges);
+      return () -> {
+         long l = 0L;
+
+         for(int i = 0; i + 1 < list.size(); i += 2) {
+            if (!VoxelShapes.combine((VoxelShape)list.get(i), (VoxelShape)list.get(i + 1), BooleanBiFunction.ONLY_FIRST).isEmpty()) {
+               ++l;
+            }
+         }
+
+         return l;
+      };
+   }
+
+   private static Benchmark.Operation voxelShapesCollide() {
+      Random random = createRandom();
+      List<VoxelShape> list = BenchmarkFixtures.createTerrainShapes(random, 8, 0.3F);
+      Box box = new Box(3.7D, 4.1D, 3.7D, 4.3D, 5.9D, 4.3D);
+      return () -> {
+         double d = VoxelShapes.calculateMaxOffset(Direction.Axis.Y, box, list.stream(), -1.0D);
+         double e = VoxelShapes.calculateMaxOffset(Direction.Axis.X, box.offset(0.0D, d, 0.0D), list.stream(), 0.5D);
+         double f = VoxelShapes.calculateMaxOffset(Direction.Axis.Z, box.offset(e, d, 0.0D), list.stream(), 0.5D);
+         return Double.doubleToRawLongBits(d + e + f);
+      };
+   }
+
+   /**
+    * Returns the boxes of zombie sized entities at random positions of {@code
+    * view}.
+    */
+   private static Box[] createCollisionBoxes(Random random, BenchmarkFixtures.GridCollisionView view) {
+      Box[] boxs = new Box[COLLISION_MOVES];
+
+      for(int i = 0; i < boxs.length; ++i) {
+         double d = 1.0D + random.nextDouble() * (double)(view.getSize() - 2);
+         double e = 1.0D + random.nextDouble() * (double)(view.getSize() - 3);
+         double f = 1.0D + random.nextDouble() * (double)(view.getSize() - 2);
+         boxs[i] = new Box(d - 0.3D, e, f - 0.3D, d + 0.3D, e + 1.95D, f + 0.3D);
+      }
+
+      return boxs;
+   }
+
+   /**
+    * Returns random movements of up to half a block along each axis.
+    */
+   private static Vec3d[] createCollisionMovements(Random random) {
+      Vec3d[] vec3ds = new Vec3d[COLLISION_MOVES];
+
+      for(int i = 0; i < vec3ds.length; ++i) {
+         vec3ds[i] = new Vec3d(random.nextDouble() - 0.5D, random.nextDouble() - 0.5D, random.nextDouble() - 0.5D);
+      }
+
+      return vec3ds;
+   }
+
+   private static Benchmark.Operation blockCollisionsStream() {
+      Random random = createRandom();
+      BenchmarkFixtures.GridCollisionView gridCollisionView = BenchmarkFixtures.createCollisionView(random, 16, 0.3F);
+      Box[] boxs = createCollisionBoxes(random, gridCollisionView);
+      Vec3d[] vec3ds = createCollisionMovements(random);
+      return () -> {
+         double d = 0.0D;
+
+         for(int i = 0; i < COLLISION_MOVES; ++i) {
+            d += Entity.adjustMovementForCollisions(vec3ds[i], boxs[i], new ReusableStream(gridCollisionView.getBlockCollisions((Entity)null, boxs[i].stretch(vec3ds[i])))).lengthSquared();
+         }
+
+         return Double.doubleToRawLongBits(d);
+      };
+   }
+
+   private static Benchmark.Operation blockCollisionsCursor() {
+      Random random = createRandom();
+      BenchmarkFixtures.GridCollisionView gridCollisionView = BenchmarkFixtures.createCollisionView(random, 16, 0.3F);
+      Box[] boxs = createCollisionBoxes(random, gridCollisionView);
+      Vec3d[] vec3ds = createCollisionMovements(random);
+      ReusableStream<VoxelShape> reusableStream = new ReusableStream(Stream.empty());
+      return () -> {
+         double d = 0.0D;
+         BlockCollisionCursor blockCollisionCursor = new BlockCollisionCursor(gridCollisionView, (Entity)null);
+
+         for(int i = 0; i < COLLISION_MOVES; ++i) {
+            d += Entity.adjustMovementForCollisions(vec3ds[i], boxs[i], blockCollisionCursor, reusableStream).lengthSquared();
+         }
+
+         return Double.doubleToRawLongBits(d);
+      };
+   }
+
+   private static Benchmark.Operation chunkSnapshotFromNbt() {
+      NbtCompound nbtCompound = BenchmarkFixtures.createChunkNbt(createRandom(), 0, 0);
+      return () -> {
+         return ChunkSnapshot.fromNbt(nbtCompound).hasDecodedSections() ? 1L : 0L;
+      };
+   }
+
+   private static Benchmark.Operation chunkSnapshotToNbt() {
+      ChunkSnapshot chunkSnapshot = ChunkSnapshot.fromNbt(BenchmarkFixtures.createChunkNbt(createRandom(), 0, 0));
+      return () -> {
+         return (long)chunkSnapshot.toNbt().getSize();
+      };
+   }
+
+   private static Benchmark.Operation binaryChunkWrite() {
+      ChunkSnapshot chunkSnapshot = ChunkSnapshot.fromNbt(BenchmarkFixtures.createChunkNbt(createRandom(), 0, 0));
+      ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+      DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+      return () -> {
+         byteArrayOutputStream.reset();
+         BinaryChunkSerializer.write(chunkSnapshot, dataOutputStream);
+         return (long)byteArrayOutputStream.size();
+      };
+   }
+
+   private static Benchmark.Operation binaryChunkRead() {
+      byte[] bs = writeBinaryChunk(ChunkSnapshot.fromNbt(BenchmarkFixtures.createChunkNbt(createRandom(), 0, 0)));
+      return () -> {
+         DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(bs));
+         dataInputStream.readByte();
+         return BinaryChunkSerializer.read(dataInputStream).hasDecodedSections() ? 1L : 0L;
+      };
+   }
+
+   private static byte[] writeBinaryChunk(ChunkSnapshot snapshot) {
+      try {
+         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+         BinaryChunkSerializer.write(snapshot, new DataOutputStream(byteArrayOutputStream));
+         return byteArrayOutputStream.toByteArray();
+      } catch (Exception var2) {
+         throw new IllegalStateException("Failed to write benchmark chunk", var2);
+      }
+   }
+
+   private static Benchmark.Operation nbtIoWrite() {
+      NbtCompound nbtCompound = BenchmarkFixtures.createChunkNbt(createRandom(), 0, 0);
+      ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+      DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+      return () -> {
+         byteArrayOutputStream.reset();
+         NbtIo.write(nbtCompound, dataOutputStream);
+         return (long)byteArrayOutputStream.size();
+      };
+   }
+
+   private static Benchmark.Operation nbtIoRead() {
+      byte[] bs = writeNbt(BenchmarkFixtures.createChunkNbt(createRandom(), 0, 0));
+      return () -> {
+         return (long)NbtIo.read(new DataInputStream(new ByteArrayInputStream(bs))).getSize();
+      };
+   }
+
+   private static Benchmark.Operation nbtIoScan() {
+      byte[] bs = writeNbt(BenchmarkFixtures.createChunkNbt(createRandom(), 0, 0));
+      return () -> {
+         SelectiveNbtCollector selectiveNbtCollector = SelectiveNbtCollector.including("DataVersion", "Level.Status");
+         NbtIo.scan(new DataInputStream(new ByteArrayInputStream(bs)), selectiveNbtCollector);
+         return (long)selectiveNbtCollector.getRoot().getSize();
+      };
+   }
+
+   /**
+    * Returns a chunk and the players in it as one compound, the mix of large
+    * and small compounds that the compact and tree benchmarks compare on.
+    */
+   private static NbtCompound createNbtFixture() {
+      Random random = createRandom();
+      NbtCompound nbtCompound = new NbtCompound();
+      nbtCompound.put("Chunk", BenchmarkFixtures.createChunkNbt(random, 0, 0));
+      NbtList nbtList = new NbtList();
+
+      for(int i = 0; i < NBT_PLAYERS; ++i) {
+         nbtList.add(BenchmarkFixtures.createPlayerNbt(random));
+      }
+
+      nbtCompound.put("Players", nbtList);
+      return nbtCompound;
+   }
+
+   /**
+    * Returns the fixture of the compact and tree benchmarks as compounds and
+    * lists of the given form, read back from its serialized bytes as the game
+    * would load it.
+    */
+   private static NbtCompound readNbtFixture(boolean compact) {
+      byte[] bs = writeNbt(createNbtFixture());
+
+      try {
+         return readNbt(bs, compact);
+      } catch (Exception var3) {
+         throw new IllegalStateException("Failed to read benchmark NBT", var3);
+      }
+   }
+
+   /**
+    * Reads NBT into compact compounds with {@link NbtIo#read}, or into the tree
+    * form with {@link BenchmarkFixtures#readTreeNbt}.
+    */
+   private static NbtCompound readNbt(byte[] bytes, boolean compact) throws IOException {
+      DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(bytes));
+      return compact ? NbtIo.read(dataInputStream) : BenchmarkFixtures.readTreeNbt(dataInputStream);
+   }
+
+   /**
+    * Reads the fixture into compounds of the given form. The bytes allocated
+    * per operation are the memory the loaded data takes in that form, plus the
+    * garbage of reading it.
+    */
+   private static Benchmark.Operation nbtCompoundRead(boolean compact) {
+      byte[] bs = writeNbt(createNbtFixture());
+      return () -> {
+         return (long)readNbt(bs, compact).getSize();
+      };
+   }
+
+   private static Benchmark.Operation nbtCompoundWrite(boolean compact) {
+      NbtCompound nbtCompound = readNbtFixture(compact);
+      ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+      DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+      return () -> {
+         byteArrayOutputStream.reset();
+         NbtIo.write(nbtCompound, dataOutputStream);
+         return (long)byteArrayOutputStream.size();
+      };
+   }
+
+   /**
+    * Looks up every key of every compound of the fixture once, with keys that
+    * are equal to but not the same strings as those of the compounds, like the
+    * constants the game looks them up with.
+    */
+   private static Benchmark.Operation nbtCompoundGet(boolean compact) {
+      List<NbtCompound> list = Lists.newArrayList();
+      List<String> list2 = Lists.newArrayList();
+      collectKeys(readNbtFixture(compact), list, list2);
+      NbtCompound[] nbtCompounds = (NbtCompound[])list.toArray(new NbtCompound[0]);
+      String[] strings = (String[])list2.toArray(new String[0]);
+      return () -> {
+         long l = 0L;
+
+         for(int i = 0; i < strings.length; ++i) {
+            l += (long)nbtCompounds[i].get(strings[i]).getType();
+         }
+
+         return l;
+      };
+   }
+
+   private static void collectKeys(NbtElement nbt, List<NbtCompound> compounds, List<String> keys) {
+      if (nbt instanceof NbtCompound) {
+         NbtCompound nbtCompound = (NbtCompound)nbt;
+         Iterator var4 = nbtCompound.getKeys().iterator();
+
+         while(var4.hasNext()) {
+            String string = (String)var4.next();
+            compounds.add(nbtCompound);
+            keys.add(new String(string));
+            collectKeys(nbtCompound.get(string), compounds, keys);
+         }
+      } else if (nbt instanceof AbstractNbtList && ((AbstractNbtList)nbt).getHeldType() == 10) {
+         Iterator var5 = ((AbstractNbtList)nbt).iterator();
+
+         while(var5.hasNext()) {
+            NbtElement nbtElement = (NbtElement)var5.next();
+            collectKeys(nbtElement, compounds, keys);
+         }
+      }
+
+   }
+
+   /**
+    * Copies the fixture into compounds of the given form. The bytes allocated
+    * per operation are the memory the data takes in that form.
+    */
+   private static Benchmark.Operation nbtCompoundCopy(boolean compact) {
+      NbtCompound nbtCompound = readNbtFixture(compact);
+      return () -> {
+         return (long)nbtCompound.copy().getSize();
+      };
+   }
+
+   private static byte[] writeNbt(NbtCompound nbt) {
+      try {
+         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+         NbtIo.write(nbt, new DataOutputStream(byteArrayOutputStream));
+         return byteArrayOutputStream.toByteArray();
+      } catch (Exception var2) {
+         throw new IllegalStateException("Failed to write benchmark NBT", var2);
+      }
+   }
+
+   private static Benchmark.Operation packetByteBufVarInt() {
+      Random random = createRandom();
+      int[] is = new int[1024];
+
+      for(int i = 0; i < is.length; ++i) {
+         is[i] = random.nextInt() >>> random.nextInt(32);
+      }
+
+      PacketByteBuf packetByteBuf = new PacketByteBuf(Unpooled.buffer(is.length * 5));
+      return () -> {
+         packetByteBuf.clear();
+
+         for(int i : is) {
+            packetByteBuf.writeVarInt(i);
+         }
+
+         long l = 0L;
+
+         for(int j = 0; j < is.length; ++j) {
+            l += (long)packetByteBuf.readVarInt();
+         }
+
+         return l;
+      };
+   }
+
+   private static Benchmark.Operation packetByteBufNbt() {
+      NbtCompound nbtCompound = BenchmarkFixtures.createChunkNbt(createRandom(), 0, 0).getCompound("Level").getCompound("Heightmaps");
+      PacketByteBuf packetByteBuf = new PacketByteBuf(Unpooled.buffer());
+      return () -> {
+         packetByteBuf.clear();
+         packetByteBuf.writeNbt(nbtCompound);
+         return (long)packetByteBuf.readNbt().getSize();
+      };
+   }
+
+   private static Benchmark.Operation levelPropagatorBlockLight() {
+      Random random = createRandom();
+      BenchmarkFixtures.GridLightPropagator gridLightPropagator = BenchmarkFixtures.createLightPropagator(random, 32, 0.2F);
+      int i = gridLightPropagator.getSize();
+      return () -> {
+         int j = random.nextInt(i);
+         int k = random.nextInt(i);
+         int l = random.nextInt(i);
+         gridLightPropagator.setSource(j, k, l, true);
+         long m = (long)gridLightPropagator.propagate();
+         gridLightPropagator.setSource(j, k, l, false);
+         return m + (long)gridLightPropagator.propagate();
+      };
+   }
+
+   /**
+    * Returns boxes of 16 blocks around random positions of the area filled by
+    * {@link BenchmarkFixtures#createEntityCache}.
+    */
+   private static Box[] createEntityQueries(Random random, int size) {
+      Box[] boxs = new Box[ENTITY_QUERIES];
+
+      for(int i = 0; i < boxs.length; ++i) {
+         double d = (random.nextDouble() - 0.5D) * (double)size;
+         double e = (random.nextDouble() - 0.5D) * (double)size;
+         boxs[i] = new Box(d - 8.0D, 56.0D, e - 8.0D, d + 8.0D, 72.0D, e + 8.0D);
+      }
+
+      return boxs;
+   }
+
+   private static Benchmark.Operation entityCacheCollectByClass() {
+      Random random = createRandom();
+      SectionedEntityCache<Entity> sectionedEntityCache = BenchmarkFixtures.createEntityCache(random, 4096, 256);
+      Box[] boxs = createEntityQueries(random, 256);
+      TypeFilter<Entity, Entity> typeFilter = TypeFilter.instanceOf(Entity.class);
+      List<Entity> list = Lists.newArrayList();
+      return () -> {
+         long l = 0L;
+
+         for(Box box : boxs) {
+            list.clear();
+            sectionedEntityCache.forEachIntersects(typeFilter, box, (entity) -> {
+               if (entity.getType() == EntityType.ZOMBIE) {
+                  list.add(entity);
+               }
+
+            });
+            l += (long)list.size();
+         }
+
+         return l;
+      };
+   }
+
+   private static Benchmark.Operation entityCacheCollectByType() {
+      Random random = createRandom();
+      SectionedEntityCache<Entity> sectionedEntityCache = BenchmarkFixtures.createEntityCache(random, 4096, 256);
+      Box[] boxs = createEntityQueries(random, 256);
+      List<ZombieEntity> list = Lists.newArrayList();
+      return () -> {
+         long l = 0L;
+
+         for(Box box : boxs) {
+            list.clear();
+            sectionedEntityCache.forEachIntersects(EntityType.ZOMBIE, box, (zombieEntity) -> {
+               list.add(zombieEntity);
+            });
+            l += (long)list.size();
+         }
+
+         return l;
+      };
+   }
+
+   private static Benchmark.Operation entityCacheCountByType() {
+      Random random = createRandom();
+      SectionedEntityCache<Entity> sectionedEntityCache = BenchmarkFixtures.createEntityCache(random, 4096, 256);
+      Box[] boxs = createEntityQueries(random, 256);
+      return () -> {
+         long l = 0L;
+
+         for(Box box : boxs) {
+            l += (long)sectionedEntityCache.count(EntityType.ZOMBIE, box, (entity) -> {
+               return true;
+            });
+         }
+
+         return l;
+      };
+   }
+
+   private static Benchmark.Operation entityCacheNearestByCollect() {
+      Random random = createRandom();
+      SectionedEntityCache<Entity> sectionedEntityCache = BenchmarkFixtures.createEntityCache(random, 4096, 256);
+      Box[] boxs = createEntityQueries(random, 256);
+      List<ZombieEntity> list = Lists.newArrayList();
+      return () -> {
+         long l = 0L;
+
+         for(Box box : boxs) {
+            list.clear();
+            sectionedEntityCache.forEachIntersects(EntityType.ZOMBIE, box, (zombieEntity) -> {
+               list.add(zombieEntity);
+            });
+            Vec3d vec3d = box.getCenter();
+            Entity entity = null;
+            double d = -1.0D;
+
+            for(Entity entity2 : list) {
+               double e = entity2.squaredDistanceTo(vec3d);
+               if (d == -1.0D || e < d) {
+                  d = e;
+                  entity = entity2;
+               }
+            }
+
+            l += entity == null ? 0L : (long)entity.getId();
+         }
+
+         return l;
+      };
+   }
+
+   private static Benchmark.Operation entityCacheNearest() {
+      Random random = createRandom();
+      SectionedEntityCache<Entity> sectionedEntityCache = BenchmarkFixtures.createEntityCache(random, 4096, 256);
+      Box[] boxs = createEntityQueries(random, 256);
+      List<ZombieEntity> list = Lists.newArrayList();
+      return () -> {
+         long l = 0L;
+
+         for(Box box : boxs) {
+            list.clear();
+            Vec3d vec3d = box.getCenter();
+            sectionedEntityCache.collectNearest(EntityType.ZOMBIE, box, 1, (entity) -> {
+               return true;
+            }, (entity) -> {
+               return entity.squaredDistanceTo(vec3d);
+            }, list);
+            l += list.isEmpty() ? 0L : (long)((ZombieEntity)list.get(0)).getId();
+         }
+
+         return l;
+      };
+   }
+
+   /**
+    * Finds paths for zombies between random open positions up to 24 blocks
+    * apart, reading {@link MobSnapshot}s like the searches of the pathfinding
+    * service.
+    */
+   private static Benchmark.Operation pathNodeNavigatorFindPathToAny() {
+      Random random = createRandom();
+      BenchmarkFixtures.GridChunkCache gridChunkCache = BenchmarkFixtures.createPathfindingView(random, 64);
+      MobSnapshot[] mobSnapshots = new MobSnapshot[PATH_QUERIES];
+      List<Set<BlockPos>> list = Lists.newArrayList();
+
+      for(int i = 0; i < PATH_QUERIES; ++i) {
+         BlockPos blockPos = findOpenPos(random, gridChunkCache, (BlockPos)null);
+         mobSnapshots[i] = new MobSnapshot(EntityType.ZOMBIE, (double)blockPos.getX() + 0.5D, (double)blockPos.getY(), (double)blockPos.getZ() + 0.5D);
+         list.add(ImmutableSet.of(findOpenPos(random, gridChunkCache, blockPos)));
+      }
+
+      LandPathNodeMaker landPathNodeMaker = new LandPathNodeMaker();
+      landPathNodeMaker.setCanEnterOpenDoors(true);
+      PathNodeNavigator pathNodeNavigator = new PathNodeNavigator(landPathNodeMaker, 512);
+      return () -> {
+         long l = 0L;
+
+         for(int i = 0; i < PATH_QUERIES; ++i) {
+            landPathNodeMaker.setSnapshot(mobSnapshots[i]);
+            Path path = pathNodeNavigator.findPathToAny(gridChunkCache, (MobEntity)null, (Set)list.get(i), 32.0F, 1, 1.0F);
+            l += path == null ? 0L : (long)path.getLength();
+         }
+
+         return l;
+      };
+   }
+
+   /**
+    * Returns a random position at walking height of {@code view} that is not
+    * blocked, within 24 blocks of {@code origin} if given.
+    */
+   private static BlockPos findOpenPos(Random random, BenchmarkFixtures.GridChunkCache view, @Nullable BlockPos origin) {
+      int i = view.getSize();
+
+      BlockPos blockPos;
+      do {
+         int j = origin != null ? MathHelper.clamp(origin.getX() + random.nextInt(49) - 24, 0, i - 1) : random.nextInt(i);
+         int k = origin != null ? MathHelper.clamp(origin.getZ() + random.nextInt(49) - 24, 0, i - 1) : random.nextInt(i);
+         blockPos = new BlockPos(j, 1, k);
+      } while(!view.getBlockState(blockPos).isAir() || !view.getBlockState(blockPos.down()).isOf(Blocks.GRASS_BLOCK));
+
+      return blockPos;
+   }
+}
@@ -0,0 +1,134 @@
+package net.minecraft.benchmark;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.obfuscate.DontObfuscate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs the {@linkplain Benchmarks benchmarks} and prints their results.
+ *
+ * <p>Results can be written to a file with {@code --output} and compared
+ * against an earlier file with {@code --baseline}, to check the effect of a
+ * change before it is deployed.
+ *
+ * <p>The benchmarks run in this harness rather than in JMH, as the game is not
+ * built with a benchmark module. It follows the JMH model of warmup and timed
+ * iterations with operations whose results are consumed, but runs all
+ * benchmarks in one JVM without forking.
+ */
+public class Main {
+   private static final Logger LOGGER = LogManager.getLogger();
+
+   @DontObfuscate
+   public static void main(String[] args) throws Exception {
+      SharedConstants.createGameVersion();
+      OptionParser optionParser = new OptionParser();
+      OptionSpec<Void> optionSpec = optionParser.accepts("help", "Show the help menu").forHelp();
+      OptionSpec<Void> optionSpec2 = optionParser.accepts("list", "List the benchmarks without running them");
+      OptionSpec<String> optionSpec3 = optionParser.accepts("filter", "Only run benchmarks whose name matches this pattern").withRequiredArg().defaultsTo(".*");
+      OptionSpec<Integer> optionSpec4 = optionParser.accepts("warmup", "Warmup iterations per benchmark").withRequiredArg().ofType(Integer.class).defaultsTo(5);
+      OptionSpec<Integer> optionSpec5 = optionParser.accepts("iterations", "Measured iterations per benchmark").withRequiredArg().ofType(Integer.class).defaultsTo(10);
+      OptionSpec<Integer> optionSpec6 = optionParser.accepts("time", "Milliseconds per iteration").withRequiredArg().ofType(Integer.class).defaultsTo(1000);
+      OptionSpec<String> optionSpec7 = optionParser.accepts("output", "File to write the results to").withRequiredArg();
+      OptionSpec<String> optionSpec8 = optionParser.accepts("baseline", "Results file to compare against").withRequiredArg();
+      OptionSet optionSet = optionParser.parse(args);
+      if (optionSet.has((OptionSpec)optionSpec)) {
+         optionParser.printHelpOn((OutputStream)System.out);
+      } else {
+         Pattern pattern = Pattern.compile((String)optionSpec3.value(optionSet));
+         List<Benchmark> list = Lists.newArrayList();
+
+         for(Benchmark benchmark : Benchmarks.getAll()) {
+            if (pattern.matcher(benchmark.getName()).find()) {
+               list.add(benchmark);
+            }
+         }
+
+         if (optionSet.has((OptionSpec)optionSpec2)) {
+            list.forEach((benchmarkx) -> {
+               System.out.println(benchmarkx.getName());
+            });
+         } else {
+            Bootstrap.initialize();
+            Map<String, Double> map = optionSet.has((OptionSpec)optionSpec8) ? readResults(Paths.get((String)optionSpec8.value(optionSet))) : Maps.newHashMap();
+            BenchmarkRunner benchmarkRunner = new BenchmarkRunner((Integer)optionSpec4.value(optionSet), (Integer)optionSpec5.value(optionSet), (long)(Integer)optionSpec6.value(optionSet));
+            List<BenchmarkRunner.Result> list2 = Lists.newArrayList();
+            System.out.println(String.format("%-32s %14s %12s %12s %12s", "Benchmark", "ns/op", "error", "B/op", "baseline"));
+
+            for(Benchmark benchmark2 : list) {
+               BenchmarkRunner.Result result = benchmarkRunner.run(benchmark2);
+               list2.add(result);
+               Double double_ = (Double)map.get(result.getName());
+               String string = double_ != null ? String.format("%+.1f%%", (result.getAverageNanos() / double_ - 1.0D) * 100.0D) : "";
+               System.out.println(String.format("%-32s %14.3f %12.3f %12.1f %12s", result.getName(), result.getAverageNanos(), result.getDeviationNanos(), result.getBytesPerOperation(), string));
+            }
+
+            if (optionSet.has((OptionSpec)optionSpec7)) {
+               writeResults(Paths.get((String)optionSpec7.value(optionSet)), list2);
+            }
+         }
+      }
+   }
+
+   /**
+    * Writes results as tab-separated lines of name, average, error and bytes
+    * per operation.
+    */
+   private static void writeResults(Path path, List<BenchmarkRunner.Result> results) throws IOException {
+      BufferedWriter bufferedWriter = Files.newBufferedWriter(path);
+
+      try {
+         for(BenchmarkRunner.Result result : results) {
+            bufferedWriter.write(String.format("%s\t%s\t%s\t%s\n", result.getName(), result.getAverageNanos(), result.getDeviationNanos(), result.getBytesPerOperation()));
+         }
+      } catch (Throwable var6) {
+         if (bufferedWriter != null) {
+            try {
+               bufferedWriter.close();
+            } catch (Throwable var5) {
+               var6.addSuppressed(var5);
+            }
+         }
+
+         throw var6;
+      }
+
+      if (bufferedWriter != null) {
+         bufferedWriter.close();
+      }
+
+   }
+
+   private static Map<String, Double> readResults(Path path) throws IOException {
+      Map<String, Double> map = Maps.newHashMap();
+
+      for(String string : Files.readAllLines(path)) {
+         String[] strings = string.split("\t");
+         if (strings.length >= 2) {
+            try {
+               map.put(strings[0], Double.parseDouble(strings[1]));
+            } catch (NumberFormatException var7) {
+               LOGGER.warn("Ignoring invalid baseline line: {}", (Object)string);
+            }
+         }
+      }
+
+      return map;
+   }
+}
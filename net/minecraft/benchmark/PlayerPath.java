@@ -0,0 +1,134 @@
+package net.minecraft.benchmark;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * The position and rotation of a scripted player on each tick, repeating once
+ * the path ends.
+ */
+public class PlayerPath {
+   private final List<PlayerPath.Point> points;
+   private final boolean onSurface;
+
+   private PlayerPath(List<PlayerPath.Point> points, boolean onSurface) {
+      if (points.isEmpty()) {
+         throw new IllegalArgumentException("Path has no points");
+      } else {
+         this.points = points;
+         this.onSurface = onSurface;
+      }
+   }
+
+   public PlayerPath.Point get(int tick) {
+      return (PlayerPath.Point)this.points.get(Math.floorMod(tick, this.points.size()));
+   }
+
+   public int getLength() {
+      return this.points.size();
+   }
+
+   /**
+    * Returns whether the heights of the points should be replaced by the height
+    * of the surface below them.
+    */
+   public boolean isOnSurface() {
+      return this.onSurface;
+   }
+
+   /**
+    * Reads recorded paths from lines of {@code <player> <x> <y> <z> <yaw>
+    * <pitch>}, where the n-th line of a player gives its point on the n-th tick.
+    * Empty lines and lines starting with {@code #} are ignored.
+    *
+    * @return the paths by player name, in the order the players first appear
+    */
+   public static Map<String, PlayerPath> read(Path path) throws IOException {
+      Map<String, List<PlayerPath.Point>> map = Maps.newLinkedHashMap();
+      int i = 0;
+
+      for(String string : Files.readAllLines(path)) {
+         ++i;
+         String string2 = string.trim();
+         if (!string2.isEmpty() && !string2.startsWith("#")) {
+            String[] strings = string2.split("\\s+");
+            if (strings.length != 6) {
+               throw new IOException("Expected 6 values on line " + i + " of " + path + ", got " + strings.length);
+            }
+
+            try {
+               Vec3d vec3d = new Vec3d(Double.parseDouble(strings[1]), Double.parseDouble(strings[2]), Double.parseDouble(strings[3]));
+               ((List)map.computeIfAbsent(strings[0], (name) -> {
+                  return Lists.newArrayList();
+               })).add(new PlayerPath.Point(vec3d, Float.parseFloat(strings[4]), Float.parseFloat(strings[5])));
+            } catch (NumberFormatException var8) {
+               throw new IOException("Invalid number on line " + i + " of " + path, var8);
+            }
+         }
+      }
+
+      Map<String, PlayerPath> map2 = Maps.newLinkedHashMap();
+      map.forEach((name, points) -> {
+         map2.put(name, new PlayerPath(points, false));
+      });
+      return map2;
+   }
+
+   /**
+    * Creates a walk at sprinting speed that turns randomly and stays within
+    * {@code radius} blocks of {@code center}, following the surface.
+    */
+   public static PlayerPath createWalk(Random random, Vec3d center, double radius, int length) {
+      List<PlayerPath.Point> list = Lists.newArrayListWithCapacity(length);
+      double d = center.x;
+      double e = center.z;
+      float f = random.nextFloat() * 360.0F;
+
+      for(int i = 0; i < length; ++i) {
+         f += (random.nextFloat() - 0.5F) * 20.0F;
+         double g = d - center.x;
+         double h = e - center.z;
+         if (g * g + h * h > radius * radius) {
+            f = (float)(MathHelper.atan2(-g, h) * 57.2957763671875D) + 180.0F;
+         }
+
+         d += (double)(-MathHelper.sin(f * 0.017453292F)) * 0.28D;
+         e += (double)MathHelper.cos(f * 0.017453292F) * 0.28D;
+         list.add(new PlayerPath.Point(new Vec3d(d, center.y, e), MathHelper.wrapDegrees(f), 0.0F));
+      }
+
+      return new PlayerPath(list, true);
+   }
+
+   public static class Point {
+      private final Vec3d pos;
+      private final float yaw;
+      private final float pitch;
+
+      public Point(Vec3d pos, float yaw, float pitch) {
+         this.pos = pos;
+         this.yaw = yaw;
+         this.pitch = pitch;
+      }
+
+      public Vec3d getPos() {
+         return this.pos;
+      }
+
+      public float getYaw() {
+         return this.yaw;
+      }
+
+      public float getPitch() {
+         return this.pitch;
+      }
+   }
+}
@@ -0,0 +1,129 @@
+package net.minecraft.benchmark;
+
+import com.google.common.collect.Maps;
+import com.mojang.authlib.GameProfileRepository;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Random;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.obfuscate.DontObfuscate;
+import net.minecraft.resource.DataPackSettings;
+import net.minecraft.resource.FileResourcePackProvider;
+import net.minecraft.resource.ResourcePackManager;
+import net.minecraft.resource.ResourcePackProvider;
+import net.minecraft.resource.ResourcePackSource;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.resource.ServerResourceManager;
+import net.minecraft.resource.VanillaDataPackProvider;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.util.UserCache;
+import net.minecraft.util.Util;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.util.crash.CrashReport;
+import net.minecraft.util.dynamic.RegistryOps;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.registry.DynamicRegistryManager;
+import net.minecraft.world.SaveProperties;
+import net.minecraft.world.level.ServerWorldProperties;
+import net.minecraft.world.level.storage.LevelStorage;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Starts a {@link TickReplayServer} on a fresh copy of a world save, so that
+ * every run starts from the same state.
+ */
+public class TickReplayMain {
+   private static final Logger LOGGER = LogManager.getLogger();
+
+   @DontObfuscate
+   public static void main(String[] args) {
+      SharedConstants.createGameVersion();
+      OptionParser optionParser = new OptionParser();
+      OptionSpec<Void> optionSpec = optionParser.accepts("help", "Show the help menu").forHelp();
+      OptionSpec<String> optionSpec2 = optionParser.accepts("world", "World save to replay on, which is copied and not modified").withRequiredArg().required();
+      OptionSpec<String> optionSpec3 = optionParser.accepts("work", "Folder to copy the world into").withRequiredArg().defaultsTo("replay");
+      OptionSpec<String> optionSpec4 = optionParser.accepts("paths", "File of recorded player paths").withRequiredArg();
+      OptionSpec<Integer> optionSpec5 = optionParser.accepts("players", "Players walking around spawn, if no paths are given").withRequiredArg().ofType(Integer.class).defaultsTo(8);
+      OptionSpec<Integer> optionSpec6 = optionParser.accepts("radius", "How far from spawn generated paths go").withRequiredArg().ofType(Integer.class).defaultsTo(256);
+      OptionSpec<Integer> optionSpec7 = optionParser.accepts("warmup", "Ticks to run before measuring").withRequiredArg().ofType(Integer.class).defaultsTo(600);
+      OptionSpec<Integer> optionSpec8 = optionParser.accepts("ticks", "Ticks to measure").withRequiredArg().ofType(Integer.class).defaultsTo(6000);
+      OptionSpec<Long> optionSpec9 = optionParser.accepts("seed", "Seed for the world randoms and generated paths").withRequiredArg().ofType(Long.class).defaultsTo(0L);
+      OptionSpec<String> optionSpec10 = optionParser.accepts("output", "File to write the report to").withRequiredArg().defaultsTo("replay-report.txt");
+
+      try {
+         OptionSet optionSet = optionParser.parse(args);
+         if (optionSet.has((OptionSpec)optionSpec)) {
+            optionParser.printHelpOn((OutputStream)System.err);
+            return;
+         }
+
+         CrashReport.initCrashReport();
+         Bootstrap.initialize();
+         Bootstrap.logMissing();
+         Util.startTimerHack();
+         DynamicRegistryManager.Impl impl = DynamicRegistryManager.create();
+         File file = new File((String)optionSet.valueOf((OptionSpec)optionSpec2));
+         File file2 = new File((String)optionSet.valueOf((OptionSpec)optionSpec3));
+         String string = file.getName();
+         File file3 = new File(file2, string);
+         FileUtils.deleteDirectory(file3);
+         FileUtils.copyDirectory(file, file3);
+         LevelStorage levelStorage = LevelStorage.create(file2.toPath());
+         LevelStorage.Session session = levelStorage.createSession(string);
+         MinecraftServer.convertLevel(session);
+         DataPackSettings dataPackSettings = session.getDataPackSettings();
+         ResourcePackManager resourcePackManager = new ResourcePackManager(ResourceType.SERVER_DATA, new ResourcePackProvider[]{new VanillaDataPackProvider(), new FileResourcePackProvider(session.getDirectory(WorldSavePath.DATAPACKS).toFile(), ResourcePackSource.PACK_SOURCE_WORLD)});
+         DataPackSettings dataPackSettings2 = MinecraftServer.loadDataPacks(resourcePackManager, dataPackSettings == null ? DataPackSettings.SAFE_MODE : dataPackSettings, false);
+         ServerResourceManager serverResourceManager = (ServerResourceManager)ServerResourceManager.reload(resourcePackManager.createResourcePacks(), impl, CommandManager.RegistrationEnvironment.DEDICATED, 2, Util.getMainWorkerExecutor(), Runnable::run).get();
+         serverResourceManager.loadRegistryTags();
+         RegistryOps<NbtElement> registryOps = RegistryOps.method_36574(NbtOps.INSTANCE, serverResourceManager.getResourceManager(), impl);
+         SaveProperties saveProperties = session.readLevelProperties(registryOps, dataPackSettings2);
+         if (saveProperties == null) {
+            LOGGER.error((String)"No level data found in {}", (Object)file);
+            resourcePackManager.close();
+            return;
+         }
+
+         long l = (Long)optionSet.valueOf((OptionSpec)optionSpec9);
+         Map<String, PlayerPath> map;
+         if (optionSet.has((OptionSpec)optionSpec4)) {
+            map = PlayerPath.read(Paths.get((String)optionSet.valueOf((OptionSpec)optionSpec4)));
+         } else {
+            map = createWalks(saveProperties.getMainWorldProperties(), new Random(l), (Integer)optionSet.valueOf((OptionSpec)optionSpec5), (Integer)optionSet.valueOf((OptionSpec)optionSpec6), (Integer)optionSet.valueOf((OptionSpec)optionSpec8));
+         }
+
+         UserCache userCache = new UserCache((GameProfileRepository)null, new File(file2, MinecraftServer.USER_CACHE_FILE.getName()));
+         Path path = Paths.get((String)optionSet.valueOf((OptionSpec)optionSpec10));
+         TickReplayServer.Options options = new TickReplayServer.Options(map, (Integer)optionSet.valueOf((OptionSpec)optionSpec7), (Integer)optionSet.valueOf((OptionSpec)optionSpec8), l, path);
+         MinecraftServer.startServer((serverThread) -> {
+            return new TickReplayServer(serverThread, impl, session, resourcePackManager, serverResourceManager, saveProperties, userCache, options);
+         });
+      } catch (Exception var24) {
+         LOGGER.fatal((String)"Failed to start the replay server", (Throwable)var24);
+      }
+
+   }
+
+   private static Map<String, PlayerPath> createWalks(ServerWorldProperties properties, Random random, int players, int radius, int length) {
+      Map<String, PlayerPath> map = Maps.newLinkedHashMap();
+      Vec3d vec3d = new Vec3d((double)properties.getSpawnX() + 0.5D, (double)properties.getSpawnY(), (double)properties.getSpawnZ() + 0.5D);
+
+      for(int i = 0; i < players; ++i) {
+         map.put("Replay" + i, PlayerPath.createWalk(random, vec3d, (double)radius, length));
+      }
+
+      return map;
+   }
+}
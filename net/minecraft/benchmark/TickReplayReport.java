@@ -0,0 +1,121 @@
+package net.minecraft.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import net.minecraft.util.profiler.ProfileResult;
+import net.minecraft.util.profiler.ProfilerTiming;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The results of a {@link TickReplayServer} run: tick time percentiles,
+ * allocation, network output and the time spent in each profiler section of the
+ * tick.
+ */
+public class TickReplayReport {
+   private static final double[] PERCENTILES = new double[]{50.0D, 90.0D, 95.0D, 99.0D, 99.9D};
+   private static final String TICK_PATH = "root\u001etick";
+   private final long[] sortedTickNanos;
+   private final double meanNanos;
+   private final long allocatedBytes;
+   private final long sentBytes;
+   private final int players;
+   @Nullable
+   private final ProfileResult profileResult;
+   private final Path dumpPath;
+
+   public TickReplayReport(long[] tickNanos, long allocatedBytes, long sentBytes, int players, @Nullable ProfileResult profileResult, Path dumpPath) {
+      this.sortedTickNanos = (long[])tickNanos.clone();
+      Arrays.sort(this.sortedTickNanos);
+      this.meanNanos = (double)Arrays.stream(tickNanos).sum() / (double)Math.max(tickNanos.length, 1);
+      this.allocatedBytes = allocatedBytes;
+      this.sentBytes = sentBytes;
+      this.players = players;
+      this.profileResult = profileResult;
+      this.dumpPath = dumpPath;
+   }
+
+   private int getTicks() {
+      return this.sortedTickNanos.length;
+   }
+
+   /**
+    * Returns the tick time below which the given percentage of ticks took, by
+    * the nearest rank.
+    */
+   public double getPercentileMillis(double percentile) {
+      if (this.sortedTickNanos.length == 0) {
+         return Double.NaN;
+      } else {
+         int i = (int)Math.ceil(percentile / 100.0D * (double)this.sortedTickNanos.length) - 1;
+         return (double)this.sortedTickNanos[Math.max(0, Math.min(i, this.sortedTickNanos.length - 1))] / 1000000.0D;
+      }
+   }
+
+   public double getMeanMillis() {
+      return this.meanNanos / 1000000.0D;
+   }
+
+   public String getSummary() {
+      return String.format(Locale.ROOT, "%d ticks, mean %.2f ms, p50 %.2f ms, p99 %.2f ms, max %.2f ms", this.getTicks(), this.getMeanMillis(), this.getPercentileMillis(50.0D), this.getPercentileMillis(99.0D), this.getPercentileMillis(100.0D));
+   }
+
+   /**
+    * Writes the report as tab-separated lines of key and value, so that reports
+    * of different builds can be compared line by line.
+    */
+   public void write(Path path) throws IOException {
+      BufferedWriter bufferedWriter = Files.newBufferedWriter(path);
+
+      try {
+         int i = this.getTicks();
+         double d = (double)Arrays.stream(this.sortedTickNanos).sum() / 1.0E9D;
+         bufferedWriter.write(String.format(Locale.ROOT, "ticks\t%d\n", i));
+         bufferedWriter.write(String.format(Locale.ROOT, "players\t%d\n", this.players));
+         bufferedWriter.write(String.format(Locale.ROOT, "mspt.mean\t%.3f\n", this.getMeanMillis()));
+
+         for(double e : PERCENTILES) {
+            bufferedWriter.write(String.format(Locale.ROOT, "mspt.p%s\t%.3f\n", formatPercentile(e), this.getPercentileMillis(e)));
+         }
+
+         bufferedWriter.write(String.format(Locale.ROOT, "mspt.max\t%.3f\n", this.getPercentileMillis(100.0D)));
+         bufferedWriter.write(String.format(Locale.ROOT, "alloc.bytesPerTick\t%.0f\n", (double)this.allocatedBytes / (double)Math.max(i, 1)));
+         bufferedWriter.write(String.format(Locale.ROOT, "alloc.mibPerTickSecond\t%.2f\n", d > 0.0D ? (double)this.allocatedBytes / 1048576.0D / d : 0.0D));
+         bufferedWriter.write(String.format(Locale.ROOT, "net.bytesPerTick\t%.0f\n", (double)this.sentBytes / (double)Math.max(i, 1)));
+         if (this.profileResult != null && this.profileResult.getTickSpan() > 0) {
+            double f = (double)this.profileResult.getTimeSpan() / (double)this.profileResult.getTickSpan() / 1000000.0D;
+            List<ProfilerTiming> list = this.profileResult.getTimings(TICK_PATH);
+
+            for(int j = 1; j < list.size(); ++j) {
+               ProfilerTiming profilerTiming = (ProfilerTiming)list.get(j);
+               bufferedWriter.write(String.format(Locale.ROOT, "section.tick.%s\t%.3f\n", profilerTiming.name, profilerTiming.totalUsagePercentage / 100.0D * f));
+            }
+         }
+
+         bufferedWriter.write("profile\t" + this.dumpPath.toAbsolutePath() + "\n");
+      } catch (Throwable var12) {
+         if (bufferedWriter != null) {
+            try {
+               bufferedWriter.close();
+            } catch (Throwable var11) {
+               var12.addSuppressed(var11);
+            }
+         }
+
+         throw var12;
+      }
+
+      if (bufferedWriter != null) {
+         bufferedWriter.close();
+      }
+
+   }
+
+   private static String formatPercentile(double percentile) {
+      return percentile == Math.floor(percentile) ? String.valueOf((int)percentile) : String.valueOf(percentile).replace('.', '_');
+   }
+}
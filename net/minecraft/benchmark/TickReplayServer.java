@@ -0,0 +1,379 @@
+package net.minecraft.benchmark;
+
+import com.google.common.collect.Lists;
+import com.mojang.authlib.GameProfile;
+import com.mojang.authlib.GameProfileRepository;
+import com.mojang.authlib.minecraft.MinecraftSessionService;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.net.Proxy;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import net.minecraft.datafixer.Schemas;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.network.ClientConnection;
+import net.minecraft.network.DecoderHandler;
+import net.minecraft.network.NetworkSide;
+import net.minecraft.network.NetworkState;
+import net.minecraft.network.PacketEncoder;
+import net.minecraft.network.SizePrepender;
+import net.minecraft.network.packet.c2s.play.KeepAliveC2SPacket;
+import net.minecraft.network.packet.s2c.play.KeepAliveS2CPacket;
+import net.minecraft.resource.ResourcePackManager;
+import net.minecraft.resource.ServerResourceManager;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.PlayerManager;
+import net.minecraft.server.WorldGenerationProgressLogger;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.SystemDetails;
+import net.minecraft.util.UserCache;
+import net.minecraft.util.Util;
+import net.minecraft.util.crash.CrashReport;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.profiler.ProfileResult;
+import net.minecraft.util.registry.DynamicRegistryManager;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.SaveProperties;
+import net.minecraft.world.chunk.WorldChunk;
+import net.minecraft.world.level.storage.LevelStorage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A server without a network that loads a world, moves scripted players along
+ * their paths and measures a fixed number of ticks, for comparing the
+ * performance of builds.
+ *
+ * <p>The players are connected through in-memory channels, so that packets are
+ * still encoded and their keep alives are answered. The channels get the
+ * {@code compress} handler of a real connection with the compression threshold
+ * and level of the server, compressing on the server thread as the channels
+ * have no event loop of their own. After the
+ * warmup ticks, tick times and server thread allocation are measured while the
+ * {@linkplain #setupRecorder debug recorder} profiles the server. Once the
+ * recorder has written its dump, a {@link TickReplayReport} is written and the
+ * server stops.
+ *
+ * <p>All randoms of the game state are seeded from the replay seed: the
+ * world randoms, and through {@link Util#setRandomSeeds} the randoms of
+ * entities, explosions, spawners and the other game objects created during
+ * the run, in the order they are created. Runs of the same build are only
+ * identical as far as that order is, which entity tick islands and worker
+ * threads do not guarantee.
+ */
+public class TickReplayServer extends MinecraftServer {
+   private static final Logger LOGGER = LogManager.getLogger();
+   /**
+    * How long the recorder may run, which is longer than any run is expected to
+    * take since the server stops it.
+    */
+   private static final long MAX_RECORDING_SECONDS = 86400L;
+   private final TickReplayServer.Options options;
+   private final List<TickReplayServer.FakePlayer> players = Lists.newArrayList();
+   private final LongArrayList tickNanos = new LongArrayList();
+   private TickReplayServer.Phase phase;
+   private int replayTicks;
+   private long allocatedBytes;
+   private long sentBytes;
+   @Nullable
+   private ProfileResult profileResult;
+
+   public TickReplayServer(Thread serverThread, DynamicRegistryManager.Impl registryManager, LevelStorage.Session session, ResourcePackManager dataPackManager, ServerResourceManager serverResourceManager, SaveProperties saveProperties, UserCache userCache, TickReplayServer.Options options) {
+      super(serverThread, registryManager, session, saveProperties, dataPackManager, Proxy.NO_PROXY, Schemas.getFixer(), serverResourceManager, (MinecraftSessionService)null, (GameProfileRepository)null, userCache, WorldGenerationProgressLogger::new);
+      this.phase = TickReplayServer.Phase.WARMUP;
+      this.options = options;
+   }
+
+   public boolean setupServer() {
+      this.setPlayerManager(new PlayerManager(this, this.registryManager, this.saveHandler, Math.max(this.options.paths.size(), 1)) {
+      });
+      Random random = new Random(this.options.seed);
+      Util.setRandomSeeds(new Random(random.nextLong()));
+      this.loadWorld();
+      this.getWorlds().forEach((world) -> {
+         world.random.setSeed(random.nextLong());
+      });
+      Iterator var2 = this.options.paths.entrySet().iterator();
+
+      while(var2.hasNext()) {
+         Map.Entry<String, PlayerPath> entry = (Map.Entry)var2.next();
+         this.players.add(this.connect((String)entry.getKey(), (PlayerPath)entry.getValue()));
+      }
+
+      LOGGER.info((String)"Replaying {} ticks with {} players after {} warmup ticks", this.options.ticks, this.players.size(), this.options.warmupTicks);
+      return true;
+   }
+
+   private TickReplayServer.FakePlayer connect(String name, PlayerPath path) {
+      ServerWorld serverWorld = this.getOverworld();
+      ServerPlayerEntity serverPlayerEntity = new ServerPlayerEntity(this, serverWorld, new GameProfile(PlayerEntity.getOfflinePlayerUuid(name), name));
+      final ClientConnection clientConnection = new ClientConnection(NetworkSide.SERVERBOUND);
+      final TickReplayServer.FakeClientHandler fakeClientHandler = new TickReplayServer.FakeClientHandler(this, serverPlayerEntity);
+      new EmbeddedChannel(new ChannelHandler[]{new ChannelInitializer<Channel>() {
+         protected void initChannel(Channel channel) {
+            channel.pipeline().addLast((String)"sink", (ChannelHandler)fakeClientHandler.sink).addLast((String)"decoder", (ChannelHandler)(new DecoderHandler(NetworkSide.SERVERBOUND))).addLast((String)"prepender", (ChannelHandler)(new SizePrepender())).addLast((String)"encoder", (ChannelHandler)(new PacketEncoder(NetworkSide.CLIENTBOUND))).addLast((String)"fake_client", (ChannelHandler)fakeClientHandler).addLast((String)"packet_handler", (ChannelHandler)clientConnection);
+         }
+      }});
+      clientConnection.setState(NetworkState.PLAY);
+      int i = this.getNetworkCompressionThreshold();
+      if (i >= 0) {
+         clientConnection.setCompressionOptions(this.getNetworkCompressionLevel(), (Executor)null);
+         clientConnection.setCompressionThreshold(i, false);
+      }
+
+      this.getPlayerManager().onPlayerConnect(clientConnection, serverPlayerEntity);
+      return new TickReplayServer.FakePlayer(serverPlayerEntity, clientConnection, fakeClientHandler, path);
+   }
+
+   public void tick(BooleanSupplier shouldKeepTicking) {
+      int i = this.replayTicks++;
+      long l = BenchmarkRunner.getAllocatedBytes();
+      long m = Util.getMeasuringTimeNano();
+      this.movePlayers(i);
+      super.tick(shouldKeepTicking);
+      this.tickPlayers();
+      long n = Util.getMeasuringTimeNano() - m;
+      long o = BenchmarkRunner.getAllocatedBytes();
+      if (this.phase == TickReplayServer.Phase.WARMUP) {
+         if (i + 1 >= this.options.warmupTicks) {
+            this.phase = TickReplayServer.Phase.MEASURING;
+            this.sentBytes = this.getSentBytes();
+            this.setupRecorder((result) -> {
+               this.profileResult = result;
+            }, (path) -> {
+               this.execute(() -> {
+                  this.finish(path);
+               });
+            }, MAX_RECORDING_SECONDS);
+         }
+      } else if (this.phase == TickReplayServer.Phase.MEASURING) {
+         this.tickNanos.add(n);
+         this.allocatedBytes += l >= 0L && o >= 0L ? o - l : 0L;
+         if (this.tickNanos.size() >= this.options.ticks) {
+            this.phase = TickReplayServer.Phase.DUMPING;
+            this.sentBytes = this.getSentBytes() - this.sentBytes;
+            this.stopRecorder();
+         }
+      }
+
+   }
+
+   private void movePlayers(int tick) {
+      for(TickReplayServer.FakePlayer fakePlayer : this.players) {
+         PlayerPath.Point point = fakePlayer.path.get(tick);
+         Vec3d vec3d = point.getPos();
+         double d = vec3d.y;
+         ServerPlayerEntity serverPlayerEntity = fakePlayer.player;
+         if (fakePlayer.path.isOnSurface()) {
+            BlockPos blockPos = new BlockPos(vec3d);
+            WorldChunk worldChunk = serverPlayerEntity.getServerWorld().getChunkManager().getWorldChunk(ChunkSectionPos.getSectionCoord(blockPos.getX()), ChunkSectionPos.getSectionCoord(blockPos.getZ()));
+            d = worldChunk != null ? (double)worldChunk.sampleHeightmap(Heightmap.Type.MOTION_BLOCKING, blockPos.getX() & 15, blockPos.getZ() & 15) + 1.0D : serverPlayerEntity.getY();
+         }
+
+         serverPlayerEntity.updatePositionAndAngles(vec3d.x, d, vec3d.z, point.getYaw(), point.getPitch());
+         serverPlayerEntity.getServerWorld().getChunkManager().updatePosition(serverPlayerEntity);
+      }
+
+   }
+
+   private void tickPlayers() {
+      Iterator iterator = this.players.iterator();
+
+      while(iterator.hasNext()) {
+         TickReplayServer.FakePlayer fakePlayer = (TickReplayServer.FakePlayer)iterator.next();
+         if (fakePlayer.connection.isOpen()) {
+            fakePlayer.connection.tick();
+         } else {
+            LOGGER.warn((String)"Scripted player {} was disconnected", (Object)fakePlayer.player.getName().getString());
+            fakePlayer.connection.handleDisconnection();
+            iterator.remove();
+         }
+      }
+
+   }
+
+   private long getSentBytes() {
+      long l = 0L;
+
+      for(TickReplayServer.FakePlayer fakePlayer : this.players) {
+         l += fakePlayer.handler.sink.bytes;
+      }
+
+      return l;
+   }
+
+   private void finish(Path dumpPath) {
+      TickReplayReport tickReplayReport = new TickReplayReport(this.tickNanos.toLongArray(), this.allocatedBytes, this.sentBytes, this.players.size(), this.profileResult, dumpPath);
+      LOGGER.info((String)"Replay finished: {}", (Object)tickReplayReport.getSummary());
+
+      try {
+         tickReplayReport.write(this.options.output);
+         LOGGER.info((String)"Wrote replay report to {}", (Object)this.options.output.toAbsolutePath());
+      } catch (Exception var4) {
+         LOGGER.error((String)"Failed to write replay report", (Throwable)var4);
+      }
+
+      this.stop(false);
+   }
+
+   public SystemDetails addExtraSystemDetails(SystemDetails details) {
+      details.addSection("Type", "Tick replay benchmark server");
+      return details;
+   }
+
+   public void setCrashReport(CrashReport report) {
+      LOGGER.error(report.asString());
+      System.exit(1);
+   }
+
+   public void exit() {
+      super.exit();
+      System.exit(0);
+   }
+
+   public boolean isHardcore() {
+      return false;
+   }
+
+   public int getOpPermissionLevel() {
+      return 0;
+   }
+
+   public int getFunctionPermissionLevel() {
+      return 4;
+   }
+
+   public boolean shouldBroadcastRconToOps() {
+      return false;
+   }
+
+   public boolean isDedicated() {
+      return false;
+   }
+
+   public int getRateLimit() {
+      return 0;
+   }
+
+   public boolean isUsingNativeTransport() {
+      return false;
+   }
+
+   public boolean areCommandBlocksEnabled() {
+      return true;
+   }
+
+   public boolean isRemote() {
+      return false;
+   }
+
+   public boolean shouldBroadcastConsoleToOps() {
+      return false;
+   }
+
+   public boolean isHost(GameProfile profile) {
+      return false;
+   }
+
+   public Optional<String> getModdedStatusMessage() {
+      return Optional.empty();
+   }
+
+   public static class Options {
+      final Map<String, PlayerPath> paths;
+      final int warmupTicks;
+      final int ticks;
+      final long seed;
+      final Path output;
+
+      public Options(Map<String, PlayerPath> paths, int warmupTicks, int ticks, long seed, Path output) {
+         this.paths = paths;
+         this.warmupTicks = warmupTicks;
+         this.ticks = ticks;
+         this.seed = seed;
+         this.output = output;
+      }
+   }
+
+   static enum Phase {
+      WARMUP,
+      MEASURING,
+      DUMPING;
+   }
+
+   static class FakePlayer {
+      final ServerPlayerEntity player;
+      final ClientConnection connection;
+      final TickReplayServer.FakeClientHandler handler;
+      final PlayerPath path;
+
+      FakePlayer(ServerPlayerEntity player, ClientConnection connection, TickReplayServer.FakeClientHandler handler, PlayerPath path) {
+         this.player = player;
+         this.connection = connection;
+         this.handler = handler;
+         this.path = path;
+      }
+   }
+
+   /**
+    * Plays the part of a client: answers keep alives as the packets are sent.
+    */
+   static class FakeClientHandler extends ChannelOutboundHandlerAdapter {
+      private final MinecraftServer server;
+      private final ServerPlayerEntity player;
+      final TickReplayServer.ByteSink sink = new TickReplayServer.ByteSink();
+
+      FakeClientHandler(MinecraftServer server, ServerPlayerEntity player) {
+         this.server = server;
+         this.player = player;
+      }
+
+      public void write(ChannelHandlerContext context, Object message, ChannelPromise promise) throws Exception {
+         if (message instanceof KeepAliveS2CPacket) {
+            KeepAliveC2SPacket keepAliveC2SPacket = new KeepAliveC2SPacket(((KeepAliveS2CPacket)message).getId());
+            this.server.execute(() -> {
+               this.player.networkHandler.onKeepAlive(keepAliveC2SPacket);
+            });
+         }
+
+         super.write(context, message, promise);
+      }
+   }
+
+   /**
+    * Discards the encoded bytes sent to a player, counting them.
+    */
+   static class ByteSink extends ChannelOutboundHandlerAdapter {
+      long bytes;
+
+      public void write(ChannelHandlerContext context, Object message, ChannelPromise promise) {
+         if (message instanceof ByteBuf) {
+            this.bytes += (long)((ByteBuf)message).readableBytes();
+         }
+
+         ReferenceCountUtil.release(message);
+         promise.setSuccess();
+      }
+
+      public void flush(ChannelHandlerContext context) {
+      }
+   }
+}
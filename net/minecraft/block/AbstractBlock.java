@@ -1089,11 +1089,11 @@ public abstract class AbstractBlock {
 
                for(int var6 = 0; var6 < var5; ++var6) {
                   Direction direction = var4[var6];
-                  this.extrudedFaces[direction.ordinal()] = VoxelShapes.extrudeFace(voxelShape, direction);
+                  this.extrudedFaces[direction.ordinal()] = VoxelShapes.cacheMerges(VoxelShapes.extrudeFace(voxelShape, direction));
                }
             }
 
-            this.collisionShape = block.getCollisionShape(state, EmptyBlockView.INSTANCE, BlockPos.ORIGIN, ShapeContext.absent());
+            this.collisionShape = VoxelShapes.cacheMerges(block.getCollisionShape(state, EmptyBlockView.INSTANCE, BlockPos.ORIGIN, ShapeContext.absent()));
             if (!this.collisionShape.isEmpty() && block.getOffsetType() != AbstractBlock.OffsetType.NONE) {
                throw new IllegalStateException(String.format("%s has a collision shape and an offset type, but is not marked as dynamicShape in its properties.", Registry.BLOCK.getId(block)));
             } else {
@@ -2,11 +2,13 @@ package net.minecraft.block;
 
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.predicate.entity.EntityPredicates;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.sound.SoundEvents;
 import net.minecraft.state.StateManager;
 import net.minecraft.state.property.IntProperty;
 import net.minecraft.state.property.Properties;
+import net.minecraft.util.TypeFilter;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
@@ -23,7 +25,7 @@ public class WeightedPressurePlateBlock extends AbstractPressurePlateBlock {
    }
 
    protected int getRedstoneOutput(World world, BlockPos pos) {
-      int i = Math.min(world.getNonSpectatingEntities(Entity.class, BOX.offset(pos)).size(), this.weight);
+      int i = Math.min(world.countEntitiesByType(TypeFilter.instanceOf(Entity.class), BOX.offset(pos), EntityPredicates.EXCEPT_SPECTATOR), this.weight);
       if (i > 0) {
          float f = (float)Math.min(this.weight, i) / (float)this.weight;
          return MathHelper.ceil(f * 15.0F);
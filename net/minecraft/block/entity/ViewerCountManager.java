@@ -65,7 +65,7 @@ public abstract class ViewerCountManager {
       int k = pos.getZ();
       float f = 5.0F;
       Box box = new Box((double)((float)i - 5.0F), (double)((float)j - 5.0F), (double)((float)k - 5.0F), (double)((float)(i + 1) + 5.0F), (double)((float)(j + 1) + 5.0F), (double)((float)(k + 1) + 5.0F));
-      return world.getEntitiesByType(TypeFilter.instanceOf(PlayerEntity.class), box, this::isPlayerViewing).size();
+      return world.countEntitiesByType(TypeFilter.instanceOf(PlayerEntity.class), box, this::isPlayerViewing);
    }
 
    public void updateViewerCount(World world, BlockPos pos, BlockState state) {
@@ -59,6 +59,7 @@ import net.minecraft.server.command.CommandOutput;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.EntityTickIslands;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.sound.BlockSoundGroup;
 import net.minecraft.sound.SoundCategory;
@@ -96,6 +97,7 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.registry.RegistryKey;
 import net.minecraft.util.shape.VoxelShape;
 import net.minecraft.util.shape.VoxelShapes;
+import net.minecraft.world.BlockCollisionCursor;
 import net.minecraft.world.BlockLocating;
 import net.minecraft.world.BlockView;
 import net.minecraft.world.GameRules;
@@ -244,7 +246,7 @@ public abstract class Entity implements Nameable, EntityLike, CommandOutput {
       this.entityBounds = NULL_BOX;
       this.movementMultiplier = Vec3d.ZERO;
       this.nextStepSoundDistance = 1.0F;
-      this.random = new Random();
+      this.random = Util.createRandom();
       this.fireTicks = -this.getBurningDuration();
       this.fluidHeight = new Object2DoubleArrayMap(2);
       this.firstUpdate = true;
@@ -829,23 +831,24 @@ public abstract class Entity implements Nameable, EntityLike, CommandOutput {
          return true;
       });
       ReusableStream<VoxelShape> reusableStream = new ReusableStream(Stream.concat(stream2, stream));
-      Vec3d vec3d = movement.lengthSquared() == 0.0D ? movement : adjustMovementForCollisions(this, movement, box, this.world, shapeContext, reusableStream);
+      BlockCollisionCursor blockCollisionCursor = new BlockCollisionCursor(this.world, this, shapeContext);
+      Vec3d vec3d = movement.lengthSquared() == 0.0D ? movement : adjustMovementForCollisions(this, movement, box, this.world, shapeContext, blockCollisionCursor, reusableStream);
       boolean bl = movement.x != vec3d.x;
       boolean bl2 = movement.y != vec3d.y;
       boolean bl3 = movement.z != vec3d.z;
       boolean bl4 = this.onGround || bl2 && movement.y < 0.0D;
       if (this.stepHeight > 0.0F && bl4 && (bl || bl3)) {
-         Vec3d vec3d2 = adjustMovementForCollisions(this, new Vec3d(movement.x, (double)this.stepHeight, movement.z), box, this.world, shapeContext, reusableStream);
-         Vec3d vec3d3 = adjustMovementForCollisions(this, new Vec3d(0.0D, (double)this.stepHeight, 0.0D), box.stretch(movement.x, 0.0D, movement.z), this.world, shapeContext, reusableStream);
+         Vec3d vec3d2 = adjustMovementForCollisions(this, new Vec3d(movement.x, (double)this.stepHeight, movement.z), box, this.world, shapeContext, blockCollisionCursor, reusableStream);
+         Vec3d vec3d3 = adjustMovementForCollisions(this, new Vec3d(0.0D, (double)this.stepHeight, 0.0D), box.stretch(movement.x, 0.0D, movement.z), this.world, shapeContext, blockCollisionCursor, reusableStream);
          if (vec3d3.y < (double)this.stepHeight) {
-            Vec3d vec3d4 = adjustMovementForCollisions(this, new Vec3d(movement.x, 0.0D, movement.z), box.offset(vec3d3), this.world, shapeContext, reusableStream).add(vec3d3);
+            Vec3d vec3d4 = adjustMovementForCollisions(this, new Vec3d(movement.x, 0.0D, movement.z), box.offset(vec3d3), this.world, shapeContext, blockCollisionCursor, reusableStream).add(vec3d3);
             if (vec3d4.horizontalLengthSquared() > vec3d2.horizontalLengthSquared()) {
                vec3d2 = vec3d4;
             }
          }
 
          if (vec3d2.horizontalLengthSquared() > vec3d.horizontalLengthSquared()) {
-            return vec3d2.add(adjustMovementForCollisions(this, new Vec3d(0.0D, -vec3d2.y + movement.y, 0.0D), box.offset(vec3d2), this.world, shapeContext, reusableStream));
+            return vec3d2.add(adjustMovementForCollisions(this, new Vec3d(0.0D, -vec3d2.y + movement.y, 0.0D), box.offset(vec3d2), this.world, shapeContext, blockCollisionCursor, reusableStream));
          }
       }
 
@@ -853,12 +856,20 @@ public abstract class Entity implements Nameable, EntityLike, CommandOutput {
    }
 
    public static Vec3d adjustMovementForCollisions(@Nullable Entity entity, Vec3d movement, Box entityBoundingBox, World world, ShapeContext context, ReusableStream<VoxelShape> collisions) {
+      return adjustMovementForCollisions(entity, movement, entityBoundingBox, world, context, new BlockCollisionCursor(world, entity, context), collisions);
+   }
+
+   /**
+    * Clips {@code movement} against {@code collisions} and the blocks of {@code
+    * world}, walking the blocks with {@code cursor} instead of streaming their
+    * collision shapes.
+    */
+   public static Vec3d adjustMovementForCollisions(@Nullable Entity entity, Vec3d movement, Box entityBoundingBox, World world, ShapeContext context, BlockCollisionCursor cursor, ReusableStream<VoxelShape> collisions) {
       boolean bl = movement.x == 0.0D;
       boolean bl2 = movement.y == 0.0D;
       boolean bl3 = movement.z == 0.0D;
       if ((!bl || !bl2) && (!bl || !bl3) && (!bl2 || !bl3)) {
-         ReusableStream<VoxelShape> reusableStream = new ReusableStream(Stream.concat(collisions.stream(), world.getBlockCollisions(entity, entityBoundingBox.stretch(movement))));
-         return adjustMovementForCollisions(movement, entityBoundingBox, reusableStream);
+         return adjustMovementForCollisions(movement, entityBoundingBox, cursor, collisions);
       } else {
          return adjustSingleAxisMovementForCollisions(movement, entityBoundingBox, world, context, collisions);
       }
@@ -897,6 +908,39 @@ public abstract class Entity implements Nameable, EntityLike, CommandOutput {
       return new Vec3d(d, e, f);
    }
 
+   public static Vec3d adjustMovementForCollisions(Vec3d movement, Box entityBoundingBox, BlockCollisionCursor cursor, ReusableStream<VoxelShape> collisions) {
+      double d = movement.x;
+      double e = movement.y;
+      double f = movement.z;
+      if (e != 0.0D) {
+         e = cursor.calculateMaxOffset(Direction.Axis.Y, entityBoundingBox, VoxelShapes.calculateMaxOffset(Direction.Axis.Y, entityBoundingBox, collisions.stream(), e));
+         if (e != 0.0D) {
+            entityBoundingBox = entityBoundingBox.offset(0.0D, e, 0.0D);
+         }
+      }
+
+      boolean bl = Math.abs(d) < Math.abs(f);
+      if (bl && f != 0.0D) {
+         f = cursor.calculateMaxOffset(Direction.Axis.Z, entityBoundingBox, VoxelShapes.calculateMaxOffset(Direction.Axis.Z, entityBoundingBox, collisions.stream(), f));
+         if (f != 0.0D) {
+            entityBoundingBox = entityBoundingBox.offset(0.0D, 0.0D, f);
+         }
+      }
+
+      if (d != 0.0D) {
+         d = cursor.calculateMaxOffset(Direction.Axis.X, entityBoundingBox, VoxelShapes.calculateMaxOffset(Direction.Axis.X, entityBoundingBox, collisions.stream(), d));
+         if (!bl && d != 0.0D) {
+            entityBoundingBox = entityBoundingBox.offset(d, 0.0D, 0.0D);
+         }
+      }
+
+      if (!bl && f != 0.0D) {
+         f = cursor.calculateMaxOffset(Direction.Axis.Z, entityBoundingBox, VoxelShapes.calculateMaxOffset(Direction.Axis.Z, entityBoundingBox, collisions.stream(), f));
+      }
+
+      return new Vec3d(d, e, f);
+   }
+
    public static Vec3d adjustSingleAxisMovementForCollisions(Vec3d movement, Box entityBoundingBox, WorldView world, ShapeContext context, ReusableStream<VoxelShape> collisions) {
       double d = movement.x;
       double e = movement.y;
@@ -2392,7 +2436,12 @@ public abstract class Entity implements Nameable, EntityLike, CommandOutput {
     */
    @Nullable
    public Entity moveToWorld(ServerWorld destination) {
-      if (this.world instanceof ServerWorld && !this.isRemoved()) {
+      if (EntityTickIslands.isWorkerThread()) {
+         EntityTickIslands.defer(() -> {
+            this.moveToWorld(destination);
+         });
+         return null;
+      } else if (this.world instanceof ServerWorld && !this.isRemoved()) {
          this.world.getProfiler().push("changeDimension");
          this.detach();
          this.world.getProfiler().push("reposition");
@@ -6,6 +6,7 @@ import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.ai.TargetPredicate;
 import net.minecraft.entity.ai.brain.MemoryModuleType;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Util;
 
 /**
  * A sensor can update memories over time in a brain. The sensor's computation
@@ -29,7 +30,8 @@ public abstract class Sensor<E extends LivingEntity> {
 
    public Sensor(int senseInterval) {
       this.senseInterval = senseInterval;
-      this.lastSenseTime = (long)RANDOM.nextInt(senseInterval);
+      Random random = Util.getRandomSeeds();
+      this.lastSenseTime = (long)(random != null ? random : RANDOM).nextInt(senseInterval);
    }
 
    public Sensor() {
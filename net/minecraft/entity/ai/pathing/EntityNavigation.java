@@ -2,6 +2,8 @@ package net.minecraft.entity.ai.pathing;
 
 import com.google.common.collect.ImmutableSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import net.minecraft.block.BlockState;
@@ -9,6 +11,8 @@ import net.minecraft.entity.Entity;
 import net.minecraft.entity.attribute.EntityAttributes;
 import net.minecraft.entity.mob.MobEntity;
 import net.minecraft.server.network.DebugInfoSender;
+import net.minecraft.server.world.EntityTickIslands;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.tag.BlockTags;
 import net.minecraft.util.Util;
 import net.minecraft.util.math.BlockPos;
@@ -17,9 +21,12 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.Vec3i;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.ChunkCache;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
 
 public abstract class EntityNavigation {
+   private static final Logger LOGGER = LogManager.getLogger();
    private static final int RECALCULATE_COOLDOWN = 20;
    protected final MobEntity entity;
    protected final World world;
@@ -46,6 +53,14 @@ public abstract class EntityNavigation {
    private float rangeMultiplier;
    private final PathNodeNavigator pathNodeNavigator;
    private boolean nearPathStartPos;
+   private final int range;
+   @Nullable
+   private LandPathNodeMaker asyncNodeMaker;
+   @Nullable
+   private PathNodeNavigator asyncPathNodeNavigator;
+   @Nullable
+   private EntityNavigation.PendingPath pendingPath;
+   private boolean mayFindPathAsync;
 
    public EntityNavigation(MobEntity mob, World world) {
       this.pathStartPos = Vec3d.ZERO;
@@ -55,6 +70,7 @@ public abstract class EntityNavigation {
       this.entity = mob;
       this.world = world;
       int i = MathHelper.floor(mob.getAttributeValue(EntityAttributes.GENERIC_FOLLOW_RANGE) * 16.0D);
+      this.range = i;
       this.pathNodeNavigator = this.createPathNodeNavigator(i);
    }
 
@@ -72,6 +88,18 @@ public abstract class EntityNavigation {
 
    protected abstract PathNodeNavigator createPathNodeNavigator(int range);
 
+   /**
+    * Creates a node maker like {@link #nodeMaker} for searches on worker
+    * threads, or returns {@code null} if this navigation always finds its paths
+    * on the thread ticking it. Searches off thread read a {@link MobSnapshot}
+    * of the entity, so only node makers that read nothing else of it can be
+    * used there.
+    */
+   @Nullable
+   protected LandPathNodeMaker createAsyncNodeMaker() {
+      return null;
+   }
+
    public void setSpeed(double speed) {
       this.speed = speed;
    }
@@ -83,8 +111,11 @@ public abstract class EntityNavigation {
    public void recalculatePath() {
       if (this.world.getTime() - this.lastRecalculateTime > 20L) {
          if (this.currentTarget != null) {
-            this.currentPath = null;
-            this.currentPath = this.findPathTo(this.currentTarget, this.currentDistance);
+            if (this.isIdle() || !this.findPathAsync(ImmutableSet.of(this.currentTarget), 8, false, this.currentDistance, (float)this.entity.getAttributeValue(EntityAttributes.GENERIC_FOLLOW_RANGE), true)) {
+               this.currentPath = null;
+               this.currentPath = this.findPathTo(this.currentTarget, this.currentDistance);
+            }
+
             this.lastRecalculateTime = this.world.getTime();
             this.shouldRecalculate = false;
          }
@@ -139,6 +170,8 @@ public abstract class EntityNavigation {
          return null;
       } else if (this.currentPath != null && !this.currentPath.isFinished() && positions.contains(this.currentTarget)) {
          return this.currentPath;
+      } else if (this.mayFindPathAsync && !this.isIdle() && this.findPathAsync(positions, range, useHeadPos, distance, followRange, false)) {
+         return this.currentPath;
       } else {
          this.world.getProfiler().push("pathfind");
          BlockPos blockPos = useHeadPos ? this.entity.getBlockPos().up() : this.entity.getBlockPos();
@@ -156,12 +189,98 @@ public abstract class EntityNavigation {
       }
    }
 
+   /**
+    * Finds a path to any of {@code positions} on a worker thread, to replace
+    * the current path on a later tick, while the entity keeps following the
+    * current one.
+    *
+    * <p>At most one search runs per navigation; requests made while it runs are
+    * dropped, since the goal making them repeats them until its target is
+    * reached. The result is dropped if the current path changes before it
+    * arrives.
+    *
+    * @param replaceWithNull whether the current path should be dropped if no path
+    * is found, like {@link #recalculatePath} does
+    * @return {@code false} if paths cannot be found off thread, in which case
+    * the caller has to find the path itself
+    */
+   private boolean findPathAsync(Set<BlockPos> positions, int range, boolean useHeadPos, int distance, float followRange, boolean replaceWithNull) {
+      PathfindingService pathfindingService = this.world instanceof ServerWorld ? ((ServerWorld)this.world).getPathfindingService() : null;
+      if (pathfindingService == null) {
+         return false;
+      } else if (this.pendingPath != null && !this.pendingPath.isDone()) {
+         return true;
+      } else {
+         if (this.asyncPathNodeNavigator == null) {
+            this.asyncNodeMaker = this.createAsyncNodeMaker();
+            if (this.asyncNodeMaker == null) {
+               return false;
+            }
+
+            this.asyncPathNodeNavigator = new PathNodeNavigator(this.asyncNodeMaker, this.range);
+         }
+
+         EntityNavigation.PendingPath pendingPath = new EntityNavigation.PendingPath(this.currentPath, distance, replaceWithNull);
+         this.pendingPath = pendingPath;
+         Runnable runnable = () -> {
+            this.asyncNodeMaker.setCanEnterOpenDoors(this.nodeMaker.canEnterOpenDoors());
+            this.asyncNodeMaker.setCanOpenDoors(this.nodeMaker.canOpenDoors());
+            this.asyncNodeMaker.setCanSwim(this.nodeMaker.canSwim());
+            BlockPos blockPos = useHeadPos ? this.entity.getBlockPos().up() : this.entity.getBlockPos();
+            pendingPath.future = pathfindingService.findPath(this.asyncPathNodeNavigator, this.asyncNodeMaker, this.entity, positions, blockPos, (int)(followRange + (float)range), followRange, distance, this.rangeMultiplier);
+         };
+         if (EntityTickIslands.isWorkerThread()) {
+            EntityTickIslands.defer(runnable);
+         } else {
+            runnable.run();
+         }
+
+         return true;
+      }
+   }
+
+   /**
+    * Replaces the current path with the result of the pending search, unless the
+    * current path changed since it was requested.
+    */
+   private void applyPendingPath() {
+      EntityNavigation.PendingPath pendingPath = this.pendingPath;
+      this.pendingPath = null;
+      if (pendingPath.basePath == this.currentPath) {
+         Path path;
+         try {
+            path = (Path)pendingPath.future.join();
+         } catch (CompletionException var4) {
+            LOGGER.warn("Failed to find path for {}", this.entity, var4);
+            return;
+         }
+
+         if (path != null) {
+            if (path.getTarget() != null) {
+               this.currentTarget = path.getTarget();
+               this.currentDistance = pendingPath.distance;
+               this.resetNode();
+            }
+
+            this.startMovingAlong(path, this.speed);
+         } else if (pendingPath.replaceWithNull) {
+            this.currentPath = null;
+         }
+
+      }
+   }
+
    public boolean startMovingTo(double x, double y, double z, double speed) {
-      return this.startMovingAlong(this.findPathTo(x, y, z, 1), speed);
+      this.mayFindPathAsync = true;
+      Path path = this.findPathTo(x, y, z, 1);
+      this.mayFindPathAsync = false;
+      return this.startMovingAlong(path, speed);
    }
 
    public boolean startMovingTo(Entity entity, double speed) {
+      this.mayFindPathAsync = true;
       Path path = this.findPathTo((Entity)entity, 1);
+      this.mayFindPathAsync = false;
       return path != null && this.startMovingAlong(path, speed);
    }
 
@@ -198,6 +317,10 @@ public abstract class EntityNavigation {
 
    public void tick() {
       ++this.tickCount;
+      if (this.pendingPath != null && this.pendingPath.isDone()) {
+         this.applyPendingPath();
+      }
+
       if (this.shouldRecalculate) {
          this.recalculatePath();
       }
@@ -378,4 +501,23 @@ public abstract class EntityNavigation {
    public boolean isNearPathStartPos() {
       return this.nearPathStartPos;
    }
+
+   static class PendingPath {
+      @Nullable
+      final Path basePath;
+      final int distance;
+      final boolean replaceWithNull;
+      @Nullable
+      CompletableFuture<Path> future;
+
+      PendingPath(@Nullable Path basePath, int distance, boolean replaceWithNull) {
+         this.basePath = basePath;
+         this.distance = distance;
+         this.replaceWithNull = replaceWithNull;
+      }
+
+      boolean isDone() {
+         return this.future != null && this.future.isDone();
+      }
+   }
 }
@@ -35,26 +35,67 @@ public class LandPathNodeMaker extends PathNodeMaker {
    protected float waterPathNodeTypeWeight;
    private final Long2ObjectMap<PathNodeType> nodeTypes = new Long2ObjectOpenHashMap();
    private final Object2BooleanMap<Box> collidedBoxes = new Object2BooleanOpenHashMap();
+   @Nullable
+   private MobSnapshot snapshot;
+   private MobSnapshot mob;
+
+   /**
+    * Makes the following searches read {@code snapshot} instead of the mob they
+    * are given, so that they neither read nor change the mob and can run on
+    * another thread, or read the mob again if {@code snapshot} is {@code null}.
+    *
+    * <p>Collisions are checked without the mob then, so blocks whose collision
+    * shape depends on the colliding entity use their shape for no entity.
+    */
+   public void setSnapshot(@Nullable MobSnapshot snapshot) {
+      this.snapshot = snapshot;
+   }
 
    public void init(ChunkCache cachedWorld, MobEntity entity) {
-      super.init(cachedWorld, entity);
-      this.waterPathNodeTypeWeight = entity.getPathfindingPenalty(PathNodeType.WATER);
+      if (this.snapshot != null) {
+         this.cachedWorld = cachedWorld;
+         this.entity = entity;
+         this.pathNodeCache.clear();
+         this.entityBlockXSize = MathHelper.floor(this.snapshot.getWidth() + 1.0F);
+         this.entityBlockYSize = MathHelper.floor(this.snapshot.getHeight() + 1.0F);
+         this.entityBlockZSize = MathHelper.floor(this.snapshot.getWidth() + 1.0F);
+         this.mob = this.snapshot;
+      } else {
+         super.init(cachedWorld, entity);
+         this.mob = new MobSnapshot(entity);
+      }
+
+      this.waterPathNodeTypeWeight = this.getPathfindingPenalty(entity, PathNodeType.WATER);
    }
 
    public void clear() {
-      this.entity.setPathfindingPenalty(PathNodeType.WATER, this.waterPathNodeTypeWeight);
+      if (this.snapshot == null) {
+         this.entity.setPathfindingPenalty(PathNodeType.WATER, this.waterPathNodeTypeWeight);
+      }
+
       this.nodeTypes.clear();
       this.collidedBoxes.clear();
+      this.mob = null;
       super.clear();
    }
 
+   /**
+    * Returns the pathfinding penalty of {@code nodeType} for {@code mob}, or the
+    * one of the snapshot if searches read one. Otherwise penalties are read from
+    * the mob rather than from the state captured in {@link #init}, as subclasses
+    * change them after initializing.
+    */
+   private float getPathfindingPenalty(MobEntity mob, PathNodeType nodeType) {
+      return this.snapshot != null ? this.snapshot.getPathfindingPenalty(nodeType) : mob.getPathfindingPenalty(nodeType);
+   }
+
    public PathNode getStart() {
       BlockPos.Mutable mutable = new BlockPos.Mutable();
-      int i = this.entity.getBlockY();
-      BlockState blockState = this.cachedWorld.getBlockState(mutable.set(this.entity.getX(), (double)i, this.entity.getZ()));
+      int i = this.mob.getBlockPos().getY();
+      BlockState blockState = this.cachedWorld.getBlockState(mutable.set(this.mob.getX(), (double)i, this.mob.getZ()));
       BlockPos blockPos;
-      if (!this.entity.canWalkOnFluid(blockState.getFluidState().getFluid())) {
-         if (this.canSwim() && this.entity.isTouchingWater()) {
+      if (!this.mob.canWalkOnFluid(blockState.getFluidState().getFluid())) {
+         if (this.canSwim() && this.mob.isTouchingWater()) {
             while(true) {
                if (!blockState.isOf(Blocks.WATER) && blockState.getFluidState() != Fluids.WATER.getStill(false)) {
                   --i;
@@ -62,49 +103,49 @@ public class LandPathNodeMaker extends PathNodeMaker {
                }
 
                ++i;
-               blockState = this.cachedWorld.getBlockState(mutable.set(this.entity.getX(), (double)i, this.entity.getZ()));
+               blockState = this.cachedWorld.getBlockState(mutable.set(this.mob.getX(), (double)i, this.mob.getZ()));
             }
-         } else if (this.entity.isOnGround()) {
-            i = MathHelper.floor(this.entity.getY() + 0.5D);
+         } else if (this.mob.isOnGround()) {
+            i = MathHelper.floor(this.mob.getY() + 0.5D);
          } else {
-            for(blockPos = this.entity.getBlockPos(); (this.cachedWorld.getBlockState(blockPos).isAir() || this.cachedWorld.getBlockState(blockPos).canPathfindThrough(this.cachedWorld, blockPos, NavigationType.LAND)) && blockPos.getY() > this.entity.world.getBottomY(); blockPos = blockPos.down()) {
+            for(blockPos = this.mob.getBlockPos(); (this.cachedWorld.getBlockState(blockPos).isAir() || this.cachedWorld.getBlockState(blockPos).canPathfindThrough(this.cachedWorld, blockPos, NavigationType.LAND)) && blockPos.getY() > this.cachedWorld.getBottomY(); blockPos = blockPos.down()) {
             }
 
             i = blockPos.up().getY();
          }
       } else {
          while(true) {
-            if (!this.entity.canWalkOnFluid(blockState.getFluidState().getFluid())) {
+            if (!this.mob.canWalkOnFluid(blockState.getFluidState().getFluid())) {
                --i;
                break;
             }
 
             ++i;
-            blockState = this.cachedWorld.getBlockState(mutable.set(this.entity.getX(), (double)i, this.entity.getZ()));
+            blockState = this.cachedWorld.getBlockState(mutable.set(this.mob.getX(), (double)i, this.mob.getZ()));
          }
       }
 
-      blockPos = this.entity.getBlockPos();
+      blockPos = this.mob.getBlockPos();
       PathNodeType pathNodeType = this.getNodeType(this.entity, blockPos.getX(), i, blockPos.getZ());
-      if (this.entity.getPathfindingPenalty(pathNodeType) < 0.0F) {
-         Box box = this.entity.getBoundingBox();
+      if (this.getPathfindingPenalty(this.entity, pathNodeType) < 0.0F) {
+         Box box = this.mob.getBoundingBox();
          if (this.canPathThrough(mutable.set(box.minX, (double)i, box.minZ)) || this.canPathThrough(mutable.set(box.minX, (double)i, box.maxZ)) || this.canPathThrough(mutable.set(box.maxX, (double)i, box.minZ)) || this.canPathThrough(mutable.set(box.maxX, (double)i, box.maxZ))) {
             PathNode pathNode = this.getNode(mutable);
             pathNode.type = this.getNodeType(this.entity, pathNode.getBlockPos());
-            pathNode.penalty = this.entity.getPathfindingPenalty(pathNode.type);
+            pathNode.penalty = this.getPathfindingPenalty(this.entity, pathNode.type);
             return pathNode;
          }
       }
 
       PathNode pathNode2 = this.getNode(blockPos.getX(), i, blockPos.getZ());
       pathNode2.type = this.getNodeType(this.entity, pathNode2.getBlockPos());
-      pathNode2.penalty = this.entity.getPathfindingPenalty(pathNode2.type);
+      pathNode2.penalty = this.getPathfindingPenalty(this.entity, pathNode2.type);
       return pathNode2;
    }
 
    private boolean canPathThrough(BlockPos pos) {
       PathNodeType pathNodeType = this.getNodeType(this.entity, pos);
-      return this.entity.getPathfindingPenalty(pathNodeType) >= 0.0F;
+      return this.getPathfindingPenalty(this.entity, pathNodeType) >= 0.0F;
    }
 
    public TargetPathNode getNode(double x, double y, double z) {
@@ -116,8 +157,8 @@ public class LandPathNodeMaker extends PathNodeMaker {
       int j = 0;
       PathNodeType pathNodeType = this.getNodeType(this.entity, node.x, node.y + 1, node.z);
       PathNodeType pathNodeType2 = this.getNodeType(this.entity, node.x, node.y, node.z);
-      if (this.entity.getPathfindingPenalty(pathNodeType) >= 0.0F && pathNodeType2 != PathNodeType.STICKY_HONEY) {
-         j = MathHelper.floor(Math.max(1.0F, this.entity.stepHeight));
+      if (this.getPathfindingPenalty(this.entity, pathNodeType) >= 0.0F && pathNodeType2 != PathNodeType.STICKY_HONEY) {
+         j = MathHelper.floor(Math.max(1.0F, this.mob.getStepHeight()));
       }
 
       double d = this.method_37003(new BlockPos(node.x, node.y, node.z));
@@ -174,7 +215,7 @@ public class LandPathNodeMaker extends PathNodeMaker {
             return false;
          } else if (xDiagNode.y <= xNode.y && zNode.y <= xNode.y) {
             if (zNode.type != PathNodeType.WALKABLE_DOOR && xDiagNode.type != PathNodeType.WALKABLE_DOOR && zDiagNode.type != PathNodeType.WALKABLE_DOOR) {
-               boolean bl = xDiagNode.type == PathNodeType.FENCE && zNode.type == PathNodeType.FENCE && (double)this.entity.getWidth() < 0.5D;
+               boolean bl = xDiagNode.type == PathNodeType.FENCE && zNode.type == PathNodeType.FENCE && (double)this.mob.getWidth() < 0.5D;
                return zDiagNode.penalty >= 0.0F && (xDiagNode.y < xNode.y || xDiagNode.penalty >= 0.0F || bl) && (zNode.y < xNode.y || zNode.penalty >= 0.0F || bl);
             } else {
                return false;
@@ -188,8 +229,8 @@ public class LandPathNodeMaker extends PathNodeMaker {
    }
 
    private boolean isBlocked(PathNode node) {
-      Vec3d vec3d = new Vec3d((double)node.x - this.entity.getX(), (double)node.y - this.entity.getY(), (double)node.z - this.entity.getZ());
-      Box box = this.entity.getBoundingBox();
+      Vec3d vec3d = new Vec3d((double)node.x - this.mob.getX(), (double)node.y - this.mob.getY(), (double)node.z - this.mob.getZ());
+      Box box = this.mob.getBoundingBox();
       int i = MathHelper.ceil(vec3d.length() / box.getAverageSideLength());
       vec3d = vec3d.multiply((double)(1.0F / (float)i));
 
@@ -226,8 +267,8 @@ public class LandPathNodeMaker extends PathNodeMaker {
          return null;
       } else {
          PathNodeType pathNodeType = this.getNodeType(this.entity, x, y, z);
-         float f = this.entity.getPathfindingPenalty(pathNodeType);
-         double e = (double)this.entity.getWidth() / 2.0D;
+         float f = this.getPathfindingPenalty(this.entity, pathNodeType);
+         double e = (double)this.mob.getWidth() / 2.0D;
          if (f >= 0.0F) {
             pathNode = this.getNode(x, y, z);
             pathNode.type = pathNodeType;
@@ -243,10 +284,10 @@ public class LandPathNodeMaker extends PathNodeMaker {
          } else {
             if ((pathNode == null || pathNode.penalty < 0.0F) && maxYStep > 0 && pathNodeType != PathNodeType.FENCE && pathNodeType != PathNodeType.UNPASSABLE_RAIL && pathNodeType != PathNodeType.TRAPDOOR && pathNodeType != PathNodeType.POWDER_SNOW) {
                pathNode = this.getPathNode(x, y + 1, z, maxYStep - 1, prevFeetY, direction, nodeType);
-               if (pathNode != null && (pathNode.type == PathNodeType.OPEN || pathNode.type == PathNodeType.WALKABLE) && this.entity.getWidth() < 1.0F) {
+               if (pathNode != null && (pathNode.type == PathNodeType.OPEN || pathNode.type == PathNodeType.WALKABLE) && this.mob.getWidth() < 1.0F) {
                   double g = (double)(x - direction.getOffsetX()) + 0.5D;
                   double h = (double)(z - direction.getOffsetZ()) + 0.5D;
-                  Box box = new Box(g - e, getFeetY(this.cachedWorld, mutable.set(g, (double)(y + 1), h)) + 0.001D, h - e, g + e, (double)this.entity.getHeight() + getFeetY(this.cachedWorld, mutable.set((double)pathNode.x, (double)pathNode.y, (double)pathNode.z)) - 0.002D, h + e);
+                  Box box = new Box(g - e, getFeetY(this.cachedWorld, mutable.set(g, (double)(y + 1), h)) + 0.001D, h - e, g + e, (double)this.mob.getHeight() + getFeetY(this.cachedWorld, mutable.set((double)pathNode.x, (double)pathNode.y, (double)pathNode.z)) - 0.002D, h + e);
                   if (this.checkBoxCollision(box)) {
                      pathNode = null;
                   }
@@ -258,7 +299,7 @@ public class LandPathNodeMaker extends PathNodeMaker {
                   return pathNode;
                }
 
-               while(y > this.entity.world.getBottomY()) {
+               while(y > this.cachedWorld.getBottomY()) {
                   --y;
                   pathNodeType = this.getNodeType(this.entity, x, y, z);
                   if (pathNodeType != PathNodeType.WATER) {
@@ -267,7 +308,7 @@ public class LandPathNodeMaker extends PathNodeMaker {
 
                   pathNode = this.getNode(x, y, z);
                   pathNode.type = pathNodeType;
-                  pathNode.penalty = Math.max(pathNode.penalty, this.entity.getPathfindingPenalty(pathNodeType));
+                  pathNode.penalty = Math.max(pathNode.penalty, this.getPathfindingPenalty(this.entity, pathNodeType));
                }
             }
 
@@ -278,14 +319,14 @@ public class LandPathNodeMaker extends PathNodeMaker {
                while(pathNodeType == PathNodeType.OPEN) {
                   --y;
                   PathNode pathNode4;
-                  if (y < this.entity.world.getBottomY()) {
+                  if (y < this.cachedWorld.getBottomY()) {
                      pathNode4 = this.getNode(x, j, z);
                      pathNode4.type = PathNodeType.BLOCKED;
                      pathNode4.penalty = -1.0F;
                      return pathNode4;
                   }
 
-                  if (i++ >= this.entity.getSafeFallDistance()) {
+                  if (i++ >= this.mob.getSafeFallDistance()) {
                      pathNode4 = this.getNode(x, y, z);
                      pathNode4.type = PathNodeType.BLOCKED;
                      pathNode4.penalty = -1.0F;
@@ -293,7 +334,7 @@ public class LandPathNodeMaker extends PathNodeMaker {
                   }
 
                   pathNodeType = this.getNodeType(this.entity, x, y, z);
-                  f = this.entity.getPathfindingPenalty(pathNodeType);
+                  f = this.getPathfindingPenalty(this.entity, pathNodeType);
                   if (pathNodeType != PathNodeType.OPEN && f >= 0.0F) {
                      pathNode = this.getNode(x, y, z);
                      pathNode.type = pathNodeType;
@@ -324,14 +365,14 @@ public class LandPathNodeMaker extends PathNodeMaker {
 
    private boolean checkBoxCollision(Box box) {
       return (Boolean)this.collidedBoxes.computeIfAbsent(box, (box2) -> {
-         return !this.cachedWorld.isSpaceEmpty(this.entity, box);
+         return !this.cachedWorld.isSpaceEmpty(this.snapshot != null ? null : this.entity, box);
       });
    }
 
    public PathNodeType getNodeType(BlockView world, int x, int y, int z, MobEntity mob, int sizeX, int sizeY, int sizeZ, boolean canOpenDoors, boolean canEnterOpenDoors) {
       EnumSet<PathNodeType> enumSet = EnumSet.noneOf(PathNodeType.class);
       PathNodeType pathNodeType = PathNodeType.BLOCKED;
-      BlockPos blockPos = mob.getBlockPos();
+      BlockPos blockPos = this.snapshot != null ? this.snapshot.getBlockPos() : mob.getBlockPos();
       pathNodeType = this.findNearbyNodeTypes(world, x, y, z, sizeX, sizeY, sizeZ, canOpenDoors, canEnterOpenDoors, enumSet, pathNodeType, blockPos);
       if (enumSet.contains(PathNodeType.FENCE)) {
          return PathNodeType.FENCE;
@@ -343,16 +384,16 @@ public class LandPathNodeMaker extends PathNodeMaker {
 
          while(var15.hasNext()) {
             PathNodeType pathNodeType3 = (PathNodeType)var15.next();
-            if (mob.getPathfindingPenalty(pathNodeType3) < 0.0F) {
+            if (this.getPathfindingPenalty(mob, pathNodeType3) < 0.0F) {
                return pathNodeType3;
             }
 
-            if (mob.getPathfindingPenalty(pathNodeType3) >= mob.getPathfindingPenalty(pathNodeType2)) {
+            if (this.getPathfindingPenalty(mob, pathNodeType3) >= this.getPathfindingPenalty(mob, pathNodeType2)) {
                pathNodeType2 = pathNodeType3;
             }
          }
 
-         if (pathNodeType == PathNodeType.OPEN && mob.getPathfindingPenalty(pathNodeType2) == 0.0F && sizeX <= 1) {
+         if (pathNodeType == PathNodeType.OPEN && this.getPathfindingPenalty(mob, pathNodeType2) == 0.0F && sizeX <= 1) {
             return PathNodeType.OPEN;
          } else {
             return pathNodeType2;
@@ -9,6 +9,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
 
 public class MobNavigation extends EntityNavigation {
    private boolean avoidSunlight;
@@ -23,6 +24,15 @@ public class MobNavigation extends EntityNavigation {
       return new PathNodeNavigator(this.nodeMaker, range);
    }
 
+   /**
+    * Only plain land node makers search off thread; the subclasses some mobs
+    * use change the pathfinding penalties of the entity while they search.
+    */
+   @Nullable
+   protected LandPathNodeMaker createAsyncNodeMaker() {
+      return this.nodeMaker.getClass() == LandPathNodeMaker.class ? new LandPathNodeMaker() : null;
+   }
+
    protected boolean isAtValidPosition() {
       return this.entity.isOnGround() || this.isInLiquid() || this.entity.hasVehicle();
    }
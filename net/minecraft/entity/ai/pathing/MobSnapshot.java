@@ -0,0 +1,141 @@
+package net.minecraft.entity.ai.pathing;
+
+import com.google.common.collect.Sets;
+import java.util.Iterator;
+import java.util.Set;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.mob.MobEntity;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.registry.Registry;
+
+/**
+ * The state of a mob that a {@link LandPathNodeMaker} reads during a search,
+ * captured on the thread ticking the mob so that a search can run on another
+ * thread without touching the mob.
+ */
+public class MobSnapshot {
+   private static final PathNodeType[] NODE_TYPES = PathNodeType.values();
+   private final double x;
+   private final double y;
+   private final double z;
+   private final BlockPos blockPos;
+   private final Box boundingBox;
+   private final float width;
+   private final float height;
+   private final float stepHeight;
+   private final int safeFallDistance;
+   private final boolean onGround;
+   private final boolean touchingWater;
+   private final float[] pathfindingPenalties;
+   private final Set<Fluid> walkableFluids;
+
+   public MobSnapshot(MobEntity mob) {
+      this.x = mob.getX();
+      this.y = mob.getY();
+      this.z = mob.getZ();
+      this.blockPos = mob.getBlockPos();
+      this.boundingBox = mob.getBoundingBox();
+      this.width = mob.getWidth();
+      this.height = mob.getHeight();
+      this.stepHeight = mob.stepHeight;
+      this.safeFallDistance = mob.getSafeFallDistance();
+      this.onGround = mob.isOnGround();
+      this.touchingWater = mob.isTouchingWater();
+      this.pathfindingPenalties = new float[NODE_TYPES.length];
+
+      for(int i = 0; i < NODE_TYPES.length; ++i) {
+         this.pathfindingPenalties[i] = mob.getPathfindingPenalty(NODE_TYPES[i]);
+      }
+
+      this.walkableFluids = Sets.newIdentityHashSet();
+      Iterator var4 = Registry.FLUID.iterator();
+
+      while(var4.hasNext()) {
+         Fluid fluid = (Fluid)var4.next();
+         if (mob.canWalkOnFluid(fluid)) {
+            this.walkableFluids.add(fluid);
+         }
+      }
+
+   }
+
+   /**
+    * Captures a mob of {@code type} as it spawns, standing on the ground at the
+    * given position with the default pathfinding penalties, for searches that
+    * have no mob.
+    */
+   public MobSnapshot(EntityType<?> type, double x, double y, double z) {
+      this.x = x;
+      this.y = y;
+      this.z = z;
+      this.blockPos = new BlockPos(x, y, z);
+      this.boundingBox = type.createSimpleBoundingBox(x, y, z);
+      this.width = type.getWidth();
+      this.height = type.getHeight();
+      this.stepHeight = 0.6F;
+      this.safeFallDistance = 3;
+      this.onGround = true;
+      this.touchingWater = false;
+      this.pathfindingPenalties = new float[NODE_TYPES.length];
+
+      for(int i = 0; i < NODE_TYPES.length; ++i) {
+         this.pathfindingPenalties[i] = NODE_TYPES[i].getDefaultPenalty();
+      }
+
+      this.walkableFluids = Sets.newIdentityHashSet();
+   }
+
+   public double getX() {
+      return this.x;
+   }
+
+   public double getY() {
+      return this.y;
+   }
+
+   public double getZ() {
+      return this.z;
+   }
+
+   public BlockPos getBlockPos() {
+      return this.blockPos;
+   }
+
+   public Box getBoundingBox() {
+      return this.boundingBox;
+   }
+
+   public float getWidth() {
+      return this.width;
+   }
+
+   public float getHeight() {
+      return this.height;
+   }
+
+   public float getStepHeight() {
+      return this.stepHeight;
+   }
+
+   public int getSafeFallDistance() {
+      return this.safeFallDistance;
+   }
+
+   public boolean isOnGround() {
+      return this.onGround;
+   }
+
+   public boolean isTouchingWater() {
+      return this.touchingWater;
+   }
+
+   public float getPathfindingPenalty(PathNodeType nodeType) {
+      return this.pathfindingPenalties[nodeType.ordinal()];
+   }
+
+   public boolean canWalkOnFluid(Fluid fluid) {
+      return this.walkableFluids.contains(fluid);
+   }
+}
@@ -0,0 +1,63 @@
+package net.minecraft.entity.ai.pathing;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.mob.MobEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.SnapshotChunkCache;
+
+/**
+ * Finds paths for the navigations of a world on the worker executor.
+ *
+ * <p>The blocks around a mob are captured in a {@link SnapshotChunkCache} on
+ * the server thread when a path is requested, so the search never reads the
+ * live world. Section snapshots are shared by all requests of a tick, so mobs
+ * near each other only copy their sections once. The mob is captured in a
+ * {@link MobSnapshot} at the same time, so the search neither reads nor
+ * changes the mob while it keeps ticking.
+ */
+public class PathfindingService {
+   private final ServerWorld world;
+   private final Long2ObjectMap<PalettedContainer<BlockState>.Snapshot> sections = new Long2ObjectOpenHashMap();
+   private long sectionsTime = Long.MIN_VALUE;
+
+   public PathfindingService(ServerWorld world) {
+      this.world = world;
+   }
+
+   /**
+    * Starts finding a path with {@code navigator} from {@code mob} to any of
+    * {@code positions}, through the blocks within {@code radius} of {@code
+    * center}. Must be called on the server thread, and {@code navigator} and
+    * {@code nodeMaker}, the node maker it uses, must not be used again until the
+    * returned future is done.
+    */
+   public CompletableFuture<Path> findPath(PathNodeNavigator navigator, LandPathNodeMaker nodeMaker, MobEntity mob, Set<BlockPos> positions, BlockPos center, int radius, float followRange, int distance, float rangeMultiplier) {
+      long l = this.world.getTime();
+      if (l != this.sectionsTime) {
+         this.sectionsTime = l;
+         this.sections.clear();
+      }
+
+      SnapshotChunkCache snapshotChunkCache = new SnapshotChunkCache(this.world, center.add(-radius, -radius, -radius), center.add(radius, radius, radius), this.sections);
+      MobSnapshot mobSnapshot = new MobSnapshot(mob);
+      return CompletableFuture.supplyAsync(() -> {
+         nodeMaker.setSnapshot(mobSnapshot);
+
+         Path var8;
+         try {
+            var8 = navigator.findPathToAny(snapshotChunkCache, mob, positions, followRange, distance, rangeMultiplier);
+         } finally {
+            nodeMaker.setSnapshot((MobSnapshot)null);
+         }
+
+         return var8;
+      }, Util.getMainWorkerExecutor());
+   }
+}
@@ -37,6 +37,7 @@ import net.minecraft.server.world.ChunkHolder;
 import net.minecraft.server.world.ChunkTicketType;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.TranslatableText;
+import net.minecraft.util.TypeFilter;
 import net.minecraft.util.Unit;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
@@ -365,7 +366,7 @@ public class EnderDragonFight {
       this.endCrystalsAlive = 0;
 
       EndSpikeFeature.Spike spike;
-      for(Iterator var1 = EndSpikeFeature.getSpikes(this.world).iterator(); var1.hasNext(); this.endCrystalsAlive += this.world.getNonSpectatingEntities(EndCrystalEntity.class, spike.getBoundingBox()).size()) {
+      for(Iterator var1 = EndSpikeFeature.getSpikes(this.world).iterator(); var1.hasNext(); this.endCrystalsAlive += this.world.countEntitiesByType(TypeFilter.instanceOf(EndCrystalEntity.class), spike.getBoundingBox(), EntityPredicates.EXCEPT_SPECTATOR)) {
          spike = (EndSpikeFeature.Spike)var1.next();
       }
 
@@ -418,7 +418,7 @@ public class ShulkerEntity extends GolemEntity implements Monster {
       Vec3d vec3d = this.getPos();
       Box box = this.getBoundingBox();
       if (!this.isClosed() && this.tryTeleport()) {
-         int i = this.world.getEntitiesByType(EntityType.SHULKER, box.expand(8.0D), Entity::isAlive).size();
+         int i = this.world.countEntitiesByType(EntityType.SHULKER, box.expand(8.0D), Entity::isAlive);
          float f = (float)(i - 1) / 5.0F;
          if (!(this.world.random.nextFloat() < f)) {
             ShulkerEntity shulkerEntity = (ShulkerEntity)EntityType.SHULKER.create(this.world);
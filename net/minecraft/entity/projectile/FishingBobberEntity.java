@@ -35,6 +35,7 @@ import net.minecraft.stat.Stats;
 import net.minecraft.tag.FluidTags;
 import net.minecraft.tag.ItemTags;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
 import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.hit.EntityHitResult;
 import net.minecraft.util.hit.HitResult;
@@ -65,7 +66,7 @@ public class FishingBobberEntity extends ProjectileEntity {
 
    private FishingBobberEntity(EntityType<? extends FishingBobberEntity> type, World world, int lureLevel, int luckOfTheSeaLevel) {
       super(type, world);
-      this.velocityRandom = new Random();
+      this.velocityRandom = Util.createRandom();
       this.inOpenWater = true;
       this.state = FishingBobberEntity.State.FLYING;
       this.ignoreCameraFrustum = true;
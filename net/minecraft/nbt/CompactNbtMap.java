@@ -0,0 +1,254 @@
+package net.minecraft.nbt;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Maps;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The entries of an {@link NbtCompound}, kept in flat key and value arrays while
+ * there are few of them and in a hash map once there are more.
+ *
+ * <p>Most compounds hold a handful of entries, for which a linear scan is about
+ * as fast as hashing and needs no per-entry nodes. Keys read from serialized NBT
+ * are interned, so the many compounds loaded with the same keys share them and
+ * lookups usually succeed on identity.
+ */
+final class CompactNbtMap extends AbstractMap<String, NbtElement> {
+   private static final int MAX_FLAT_SIZE = 8;
+   private static final Interner<String> KEYS = Interners.newWeakInterner();
+   private String[] keys;
+   private NbtElement[] values;
+   private int size;
+   @Nullable
+   private Map<String, NbtElement> map;
+   private int modCount;
+
+   CompactNbtMap() {
+      this(4);
+   }
+
+   CompactNbtMap(int capacity) {
+      if (capacity > MAX_FLAT_SIZE) {
+         this.map = Maps.newHashMapWithExpectedSize(capacity);
+      } else {
+         this.keys = new String[capacity];
+         this.values = new NbtElement[capacity];
+      }
+
+   }
+
+   CompactNbtMap(Map<String, NbtElement> entries) {
+      this(entries.size());
+      this.putAll(entries);
+   }
+
+   static String intern(String key) {
+      return (String)KEYS.intern(key);
+   }
+
+   private int indexOf(Object key) {
+      for(int i = 0; i < this.size; ++i) {
+         if (this.keys[i] == key) {
+            return i;
+         }
+      }
+
+      for(int j = 0; j < this.size; ++j) {
+         if (this.keys[j].equals(key)) {
+            return j;
+         }
+      }
+
+      return -1;
+   }
+
+   public int size() {
+      return this.map != null ? this.map.size() : this.size;
+   }
+
+   public boolean containsKey(Object key) {
+      return this.map != null ? this.map.containsKey(key) : this.indexOf(key) >= 0;
+   }
+
+   public NbtElement get(Object key) {
+      if (this.map != null) {
+         return (NbtElement)this.map.get(key);
+      } else {
+         int i = this.indexOf(key);
+         return i >= 0 ? this.values[i] : null;
+      }
+   }
+
+   public NbtElement put(String key, NbtElement value) {
+      if (this.map != null) {
+         return (NbtElement)this.map.put(key, value);
+      } else {
+         int i = this.indexOf(key);
+         if (i >= 0) {
+            NbtElement nbtElement = this.values[i];
+            this.values[i] = value;
+            return nbtElement;
+         } else {
+            if (this.size == MAX_FLAT_SIZE) {
+               this.map = Maps.newHashMapWithExpectedSize(MAX_FLAT_SIZE * 2);
+
+               for(int j = 0; j < this.size; ++j) {
+                  this.map.put(this.keys[j], this.values[j]);
+               }
+
+               this.keys = null;
+               this.values = null;
+               this.size = 0;
+               this.map.put(key, value);
+            } else {
+               if (this.size == this.keys.length) {
+                  int k = Math.min(Math.max(this.size * 2, 2), MAX_FLAT_SIZE);
+                  this.keys = (String[])Arrays.copyOf(this.keys, k);
+                  this.values = (NbtElement[])Arrays.copyOf(this.values, k);
+               }
+
+               this.keys[this.size] = key;
+               this.values[this.size] = value;
+               ++this.size;
+            }
+
+            ++this.modCount;
+            return null;
+         }
+      }
+   }
+
+   public NbtElement remove(Object key) {
+      if (this.map != null) {
+         return (NbtElement)this.map.remove(key);
+      } else {
+         int i = this.indexOf(key);
+         return i >= 0 ? this.removeAt(i) : null;
+      }
+   }
+
+   private NbtElement removeAt(int index) {
+      NbtElement nbtElement = this.values[index];
+      int i = this.size - index - 1;
+      if (i > 0) {
+         System.arraycopy(this.keys, index + 1, this.keys, index, i);
+         System.arraycopy(this.values, index + 1, this.values, index, i);
+      }
+
+      --this.size;
+      this.keys[this.size] = null;
+      this.values[this.size] = null;
+      ++this.modCount;
+      return nbtElement;
+   }
+
+   public void clear() {
+      if (this.map != null) {
+         this.map.clear();
+      } else {
+         Arrays.fill(this.keys, 0, this.size, (Object)null);
+         Arrays.fill(this.values, 0, this.size, (Object)null);
+         this.size = 0;
+         ++this.modCount;
+      }
+
+   }
+
+   public Set<Entry<String, NbtElement>> entrySet() {
+      return (Set)(this.map != null ? this.map.entrySet() : new CompactNbtMap.EntrySet());
+   }
+
+   class EntrySet extends AbstractSet<Entry<String, NbtElement>> {
+      public int size() {
+         return CompactNbtMap.this.size;
+      }
+
+      public void clear() {
+         CompactNbtMap.this.clear();
+      }
+
+      public Iterator<Entry<String, NbtElement>> iterator() {
+         return new Iterator<Entry<String, NbtElement>>() {
+            private int index;
+            private int lastIndex = -1;
+            private int expectedModCount;
+
+            {
+               this.expectedModCount = CompactNbtMap.this.modCount;
+            }
+
+            public boolean hasNext() {
+               return this.index < CompactNbtMap.this.size;
+            }
+
+            public Entry<String, NbtElement> next() {
+               if (CompactNbtMap.this.modCount != this.expectedModCount || CompactNbtMap.this.map != null) {
+                  throw new ConcurrentModificationException();
+               } else if (this.index >= CompactNbtMap.this.size) {
+                  throw new NoSuchElementException();
+               } else {
+                  this.lastIndex = this.index++;
+                  return CompactNbtMap.this.new FlatEntry(this.lastIndex);
+               }
+            }
+
+            public void remove() {
+               if (this.lastIndex < 0) {
+                  throw new IllegalStateException();
+               } else if (CompactNbtMap.this.modCount != this.expectedModCount) {
+                  throw new ConcurrentModificationException();
+               } else {
+                  CompactNbtMap.this.removeAt(this.lastIndex);
+                  this.index = this.lastIndex;
+                  this.lastIndex = -1;
+                  this.expectedModCount = CompactNbtMap.this.modCount;
+               }
+            }
+         };
+      }
+   }
+
+   class FlatEntry implements Entry<String, NbtElement> {
+      private final int index;
+
+      FlatEntry(int index) {
+         this.index = index;
+      }
+
+      public String getKey() {
+         return CompactNbtMap.this.keys[this.index];
+      }
+
+      public NbtElement getValue() {
+         return CompactNbtMap.this.values[this.index];
+      }
+
+      public NbtElement setValue(NbtElement value) {
+         NbtElement nbtElement = CompactNbtMap.this.values[this.index];
+         CompactNbtMap.this.values[this.index] = value;
+         return nbtElement;
+      }
+
+      public boolean equals(Object o) {
+         if (!(o instanceof Entry)) {
+            return false;
+         } else {
+            Entry<?, ?> entry = (Entry)o;
+            return this.getKey().equals(entry.getKey()) && this.getValue().equals(entry.getValue());
+         }
+      }
+
+      public int hashCode() {
+         return this.getKey().hashCode() ^ this.getValue().hashCode();
+      }
+   }
+}
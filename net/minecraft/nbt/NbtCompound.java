@@ -1,6 +1,5 @@
 package net.minecraft.nbt;
 
-import com.google.common.collect.Maps;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.Dynamic;
@@ -8,13 +7,13 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.Map.Entry;
 import net.minecraft.nbt.visitor.NbtElementVisitor;
 import net.minecraft.util.crash.CrashException;
 import net.minecraft.util.crash.CrashReport;
@@ -36,7 +35,7 @@ public class NbtCompound implements NbtElement {
    }
 
    public NbtCompound() {
-      this(Maps.newHashMap());
+      this(new CompactNbtMap());
    }
 
    public void write(DataOutput output) throws IOException {
@@ -364,7 +363,14 @@ public class NbtCompound implements NbtElement {
    }
 
    public NbtCompound copy() {
-      Map<String, NbtElement> map = Maps.newHashMap(Maps.transformValues(this.entries, NbtElement::copy));
+      Map<String, NbtElement> map = new CompactNbtMap(this.entries.size());
+      Iterator var2 = this.entries.entrySet().iterator();
+
+      while(var2.hasNext()) {
+         Entry<String, NbtElement> entry = (Entry)var2.next();
+         map.put((String)entry.getKey(), ((NbtElement)entry.getValue()).copy());
+      }
+
       return new NbtCompound(map);
    }
 
@@ -450,11 +456,11 @@ public class NbtCompound implements NbtElement {
             if (i > 512) {
                throw new RuntimeException("Tried to read NBT tag with too high complexity, depth > 512");
             } else {
-               HashMap map = Maps.newHashMap();
+               CompactNbtMap map = new CompactNbtMap();
 
                byte b;
                while((b = NbtCompound.readByte(dataInput, nbtTagSizeTracker)) != 0) {
-                  String string = NbtCompound.readString(dataInput, nbtTagSizeTracker);
+                  String string = CompactNbtMap.intern(NbtCompound.readString(dataInput, nbtTagSizeTracker));
                   nbtTagSizeTracker.add((long)(224 + 16 * string.length()));
                   NbtElement nbtElement = NbtCompound.read(NbtTypes.byId(b), string, dataInput, i + 1, nbtTagSizeTracker);
                   if (map.put(string, nbtElement) != null) {
@@ -14,6 +14,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import net.minecraft.nbt.visitor.NbtScanner;
 import net.minecraft.util.crash.CrashException;
 import net.minecraft.util.crash.CrashReport;
 import net.minecraft.util.crash.CrashReportSection;
@@ -60,6 +61,24 @@ public class NbtIo {
       return var2;
    }
 
+   public static void scanCompressed(File file, NbtScanner scanner) throws IOException {
+      DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))));
+
+      try {
+         scan(dataInputStream, scanner);
+      } catch (Throwable var6) {
+         try {
+            dataInputStream.close();
+         } catch (Throwable var5) {
+            var6.addSuppressed(var5);
+         }
+
+         throw var6;
+      }
+
+      dataInputStream.close();
+   }
+
    public static void writeCompressed(NbtCompound compound, File file) throws IOException {
       FileOutputStream outputStream = new FileOutputStream(file);
 
@@ -180,6 +199,211 @@ public class NbtIo {
       }
    }
 
+   /**
+    * Feeds the root compound in {@code input} to {@code scanner}, skipping
+    * whatever it does not ask for. If the scanner halts, the rest of the input is
+    * left unread.
+    */
+   public static void scan(DataInput input, NbtScanner scanner) throws IOException {
+      byte b = input.readByte();
+      if (b != 10) {
+         throw new IOException("Root tag must be a named compound tag");
+      } else {
+         skip(input, (byte)8, 0);
+         scanCompound(input, scanner, 0);
+      }
+   }
+
+   private static NbtScanner.Result scanCompound(DataInput input, NbtScanner scanner, int depth) throws IOException {
+      if (depth > 512) {
+         throw new RuntimeException("Tried to read NBT tag with too high complexity, depth > 512");
+      } else {
+         byte b;
+         while((b = input.readByte()) != 0) {
+            NbtScanner.Result result = scan(input, b, scanner.visitEntry(b, input.readUTF()), scanner, depth);
+            if (result == NbtScanner.Result.HALT) {
+               return result;
+            }
+
+            if (result == NbtScanner.Result.BREAK) {
+               while((b = input.readByte()) != 0) {
+                  skip(input, (byte)8, depth + 1);
+                  skip(input, b, depth + 1);
+               }
+
+               break;
+            }
+         }
+
+         return scanner.endNested();
+      }
+   }
+
+   private static NbtScanner.Result scanList(DataInput input, NbtScanner scanner, int depth) throws IOException {
+      if (depth > 512) {
+         throw new RuntimeException("Tried to read NBT tag with too high complexity, depth > 512");
+      } else {
+         byte b = input.readByte();
+         int i = input.readInt();
+
+         for(int j = 0; j < i; ++j) {
+            NbtScanner.Result result = scan(input, b, scanner.visitListItem(b, j), scanner, depth);
+            if (result == NbtScanner.Result.HALT) {
+               return result;
+            }
+
+            if (result == NbtScanner.Result.BREAK) {
+               skipList(input, b, i - j - 1, depth + 1);
+               break;
+            }
+         }
+
+         return scanner.endNested();
+      }
+   }
+
+   private static NbtScanner.Result scan(DataInput input, byte type, NbtScanner.Action action, NbtScanner scanner, int depth) throws IOException {
+      switch(action) {
+      case HALT:
+         return NbtScanner.Result.HALT;
+      case BREAK:
+         skip(input, type, depth + 1);
+         return NbtScanner.Result.BREAK;
+      case SKIP:
+         skip(input, type, depth + 1);
+         return NbtScanner.Result.CONTINUE;
+      case ENTER:
+         if (type == 10) {
+            return scanCompound(input, scanner, depth + 1);
+         }
+
+         if (type == 9) {
+            return scanList(input, scanner, depth + 1);
+         }
+      default:
+         return scanner.visitElement(NbtTypes.byId(type).read(input, depth + 1, NbtTagSizeTracker.EMPTY));
+      }
+   }
+
+   /**
+    * Skips a value of the given type without allocating. A type of {@code 8}
+    * also skips the key of a compound entry, which is encoded the same way.
+    * Compounds and lists nested deeper than {@code 512} are rejected as they
+    * are when read, and so are negative or overflowing lengths.
+    */
+   private static void skip(DataInput input, byte type, int depth) throws IOException {
+      switch(type) {
+      case 1:
+         skipFully(input, 1L);
+         break;
+      case 2:
+         skipFully(input, 2L);
+         break;
+      case 3:
+      case 5:
+         skipFully(input, 4L);
+         break;
+      case 4:
+      case 6:
+         skipFully(input, 8L);
+         break;
+      case 7:
+         skipFully(input, (long)readLength(input));
+         break;
+      case 8:
+         skipFully(input, (long)input.readUnsignedShort());
+         break;
+      case 9:
+         checkDepth(depth);
+         byte b = input.readByte();
+         skipList(input, b, readLength(input), depth + 1);
+         break;
+      case 10:
+         checkDepth(depth);
+
+         byte c;
+         while((c = input.readByte()) != 0) {
+            skip(input, (byte)8, depth + 1);
+            skip(input, c, depth + 1);
+         }
+
+         break;
+      case 11:
+         skipFully(input, (long)readLength(input) * 4L);
+         break;
+      case 12:
+         skipFully(input, (long)readLength(input) * 8L);
+         break;
+      default:
+         if (type != 0) {
+            throw new IOException("Invalid tag id: " + type);
+         }
+      }
+
+   }
+
+   private static void skipList(DataInput input, byte type, int count, int depth) throws IOException {
+      int i = getFixedSize(type);
+      if (i >= 0) {
+         skipFully(input, (long)i * (long)count);
+      } else {
+         for(int j = 0; j < count; ++j) {
+            skip(input, type, depth);
+         }
+      }
+
+   }
+
+   private static void checkDepth(int depth) {
+      if (depth > 512) {
+         throw new RuntimeException("Tried to read NBT tag with too high complexity, depth > 512");
+      }
+   }
+
+   /**
+    * Reads the length of an array or list, which must not be negative.
+    */
+   private static int readLength(DataInput input) throws IOException {
+      int i = input.readInt();
+      if (i < 0) {
+         throw new IOException("Negative length " + i);
+      } else {
+         return i;
+      }
+   }
+
+   private static int getFixedSize(byte type) {
+      switch(type) {
+      case 0:
+         return 0;
+      case 1:
+         return 1;
+      case 2:
+         return 2;
+      case 3:
+      case 5:
+         return 4;
+      case 4:
+      case 6:
+         return 8;
+      default:
+         return -1;
+      }
+   }
+
+   private static void skipFully(DataInput input, long length) throws IOException {
+      while(length > 0L) {
+         int i = input.skipBytes((int)Math.min(length, 2147483647L));
+         if (i <= 0) {
+            input.readByte();
+            i = 1;
+         }
+
+         length -= (long)i;
+      }
+
+   }
+
    public static void write(NbtCompound compound, DataOutput output) throws IOException {
       write((NbtElement)compound, (DataOutput)output);
    }
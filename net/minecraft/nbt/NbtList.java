@@ -31,14 +31,21 @@ public class NbtList extends AbstractNbtList<NbtElement> {
                throw new RuntimeException("Missing type on ListTag");
             } else {
                nbtTagSizeTracker.add(32L * (long)j);
-               NbtType<?> nbtType = NbtTypes.byId(b);
-               List<NbtElement> list = Lists.newArrayListWithCapacity(j);
-
-               for(int k = 0; k < j; ++k) {
-                  list.add(nbtType.read(dataInput, i + 1, nbtTagSizeTracker));
+               if (PrimitiveNbtList.supports(b)) {
+                  nbtTagSizeTracker.add(PrimitiveNbtList.getTrackedSize(b) * (long)j);
+                  PrimitiveNbtList primitiveNbtList = new PrimitiveNbtList(b, j);
+                  primitiveNbtList.read(dataInput, j);
+                  return new NbtList(primitiveNbtList, b);
+               } else {
+                  NbtType<?> nbtType = NbtTypes.byId(b);
+                  List<NbtElement> list = Lists.newArrayListWithCapacity(j);
+
+                  for(int k = 0; k < j; ++k) {
+                     list.add(nbtType.read(dataInput, i + 1, nbtTagSizeTracker));
+                  }
+
+                  return new NbtList(list, b);
                }
-
-               return new NbtList(list, b);
             }
          }
       }
@@ -51,7 +58,11 @@ public class NbtList extends AbstractNbtList<NbtElement> {
          return "TAG_List";
       }
    };
-   private final List<NbtElement> value;
+   /**
+    * The items of this list, kept in a {@link PrimitiveNbtList} while the list holds
+    * numbers so that they are not boxed into elements.
+    */
+   private List<NbtElement> value;
    private byte type;
 
    NbtList(List<NbtElement> list, byte type) {
@@ -72,11 +83,15 @@ public class NbtList extends AbstractNbtList<NbtElement> {
 
       output.writeByte(this.type);
       output.writeInt(this.value.size());
-      Iterator var2 = this.value.iterator();
+      if (this.value instanceof PrimitiveNbtList) {
+         ((PrimitiveNbtList)this.value).write(output);
+      } else {
+         Iterator var2 = this.value.iterator();
 
-      while(var2.hasNext()) {
-         NbtElement nbtElement = (NbtElement)var2.next();
-         nbtElement.write(output);
+         while(var2.hasNext()) {
+            NbtElement nbtElement = (NbtElement)var2.next();
+            nbtElement.write(output);
+         }
       }
 
    }
@@ -134,6 +149,10 @@ public class NbtList extends AbstractNbtList<NbtElement> {
 
    public short getShort(int index) {
       if (index >= 0 && index < this.value.size()) {
+         if (this.value instanceof PrimitiveNbtList) {
+            return this.type == 2 ? ((PrimitiveNbtList)this.value).getShort(index) : 0;
+         }
+
          NbtElement nbtElement = (NbtElement)this.value.get(index);
          if (nbtElement.getType() == 2) {
             return ((NbtShort)nbtElement).shortValue();
@@ -145,6 +164,10 @@ public class NbtList extends AbstractNbtList<NbtElement> {
 
    public int getInt(int index) {
       if (index >= 0 && index < this.value.size()) {
+         if (this.value instanceof PrimitiveNbtList) {
+            return this.type == 3 ? ((PrimitiveNbtList)this.value).getInt(index) : 0;
+         }
+
          NbtElement nbtElement = (NbtElement)this.value.get(index);
          if (nbtElement.getType() == 3) {
             return ((NbtInt)nbtElement).intValue();
@@ -178,6 +201,10 @@ public class NbtList extends AbstractNbtList<NbtElement> {
 
    public double getDouble(int index) {
       if (index >= 0 && index < this.value.size()) {
+         if (this.value instanceof PrimitiveNbtList) {
+            return this.type == 6 ? ((PrimitiveNbtList)this.value).getDouble(index) : 0;
+         }
+
          NbtElement nbtElement = (NbtElement)this.value.get(index);
          if (nbtElement.getType() == 6) {
             return ((NbtDouble)nbtElement).doubleValue();
@@ -189,6 +216,10 @@ public class NbtList extends AbstractNbtList<NbtElement> {
 
    public float getFloat(int index) {
       if (index >= 0 && index < this.value.size()) {
+         if (this.value instanceof PrimitiveNbtList) {
+            return this.type == 5 ? ((PrimitiveNbtList)this.value).getFloat(index) : 0;
+         }
+
          NbtElement nbtElement = (NbtElement)this.value.get(index);
          if (nbtElement.getType() == 5) {
             return ((NbtFloat)nbtElement).floatValue();
@@ -253,6 +284,14 @@ public class NbtList extends AbstractNbtList<NbtElement> {
          return false;
       } else if (this.type == 0) {
          this.type = element.getType();
+         if (this.value.isEmpty()) {
+            if (PrimitiveNbtList.supports(this.type)) {
+               this.value = new PrimitiveNbtList(this.type, 4);
+            } else if (this.value instanceof PrimitiveNbtList) {
+               this.value = Lists.newArrayList();
+            }
+         }
+
          return true;
       } else {
          return this.type == element.getType();
@@ -260,9 +299,13 @@ public class NbtList extends AbstractNbtList<NbtElement> {
    }
 
    public NbtList copy() {
-      Iterable<NbtElement> iterable = NbtTypes.byId(this.type).isImmutable() ? this.value : Iterables.transform(this.value, NbtElement::copy);
-      List<NbtElement> list = Lists.newArrayList((Iterable)iterable);
-      return new NbtList(list, this.type);
+      if (this.value instanceof PrimitiveNbtList) {
+         return new NbtList(((PrimitiveNbtList)this.value).copy(), this.type);
+      } else {
+         Iterable<NbtElement> iterable = NbtTypes.byId(this.type).isImmutable() ? this.value : Iterables.transform(this.value, NbtElement::copy);
+         List<NbtElement> list = Lists.newArrayList((Iterable)iterable);
+         return new NbtList(list, this.type);
+      }
    }
 
    public boolean equals(Object o) {
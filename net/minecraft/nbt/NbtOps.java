@@ -2,7 +2,6 @@ package net.minecraft.nbt;
 
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.collect.PeekingIterator;
 import com.mojang.datafixers.DataFixUtils;
 import com.mojang.datafixers.util.Pair;
@@ -416,7 +415,7 @@ public class NbtOps implements DynamicOps<NbtElement> {
             if (!(nbtElement instanceof NbtCompound)) {
                return DataResult.error("mergeToMap called with not a map: " + nbtElement, (Object)nbtElement);
             } else {
-               NbtCompound nbtCompound2 = new NbtCompound(Maps.newHashMap(((NbtCompound)nbtElement).toMap()));
+               NbtCompound nbtCompound2 = new NbtCompound(new CompactNbtMap(((NbtCompound)nbtElement).toMap()));
                Iterator var4 = nbtCompound.toMap().entrySet().iterator();
 
                while(var4.hasNext()) {
@@ -0,0 +1,196 @@
+package net.minecraft.nbt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * The items of an {@link NbtList} of numbers, stored unboxed.
+ *
+ * <p>Elements are only created when items are accessed as elements, rather than
+ * through the typed getters of the list or when reading and writing it.
+ */
+final class PrimitiveNbtList extends AbstractList<NbtElement> {
+   private final byte type;
+   private long[] values;
+   private int size;
+
+   PrimitiveNbtList(byte type, int capacity) {
+      this.type = type;
+      this.values = new long[Math.max(capacity, 2)];
+   }
+
+   private PrimitiveNbtList(byte type, long[] values, int size) {
+      this.type = type;
+      this.values = values;
+      this.size = size;
+   }
+
+   /**
+    * Returns whether items of the given NBT type can be stored unboxed.
+    */
+   static boolean supports(byte type) {
+      return type >= 1 && type <= 6;
+   }
+
+   static long getTrackedSize(byte type) {
+      switch(type) {
+      case 1:
+         return 72L;
+      case 2:
+         return 80L;
+      case 3:
+      case 5:
+         return 96L;
+      default:
+         return 128L;
+      }
+   }
+
+   public int size() {
+      return this.size;
+   }
+
+   public NbtElement get(int index) {
+      this.checkIndex(index);
+      long l = this.values[index];
+      switch(this.type) {
+      case 1:
+         return NbtByte.of((byte)((int)l));
+      case 2:
+         return NbtShort.of((short)((int)l));
+      case 3:
+         return NbtInt.of((int)l);
+      case 4:
+         return NbtLong.of(l);
+      case 5:
+         return NbtFloat.of(Float.intBitsToFloat((int)l));
+      default:
+         return NbtDouble.of(Double.longBitsToDouble(l));
+      }
+   }
+
+   public NbtElement set(int index, NbtElement element) {
+      NbtElement nbtElement = this.get(index);
+      this.values[index] = this.unbox(element);
+      return nbtElement;
+   }
+
+   public void add(int index, NbtElement element) {
+      if (index < 0 || index > this.size) {
+         throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+      } else {
+         long l = this.unbox(element);
+         if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+         }
+
+         System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+         this.values[index] = l;
+         ++this.size;
+         ++this.modCount;
+      }
+   }
+
+   public NbtElement remove(int index) {
+      NbtElement nbtElement = this.get(index);
+      System.arraycopy(this.values, index + 1, this.values, index, this.size - index - 1);
+      --this.size;
+      ++this.modCount;
+      return nbtElement;
+   }
+
+   public void clear() {
+      this.size = 0;
+      ++this.modCount;
+   }
+
+   private void checkIndex(int index) {
+      if (index < 0 || index >= this.size) {
+         throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+      }
+   }
+
+   private long unbox(NbtElement element) {
+      AbstractNbtNumber abstractNbtNumber = (AbstractNbtNumber)element;
+      switch(this.type) {
+      case 5:
+         return (long)Float.floatToRawIntBits(abstractNbtNumber.floatValue());
+      case 6:
+         return Double.doubleToRawLongBits(abstractNbtNumber.doubleValue());
+      default:
+         return abstractNbtNumber.longValue();
+      }
+   }
+
+   short getShort(int index) {
+      return (short)((int)this.values[index]);
+   }
+
+   int getInt(int index) {
+      return (int)this.values[index];
+   }
+
+   float getFloat(int index) {
+      return Float.intBitsToFloat((int)this.values[index]);
+   }
+
+   double getDouble(int index) {
+      return Double.longBitsToDouble(this.values[index]);
+   }
+
+   void read(DataInput input, int count) throws IOException {
+      for(int i = 0; i < count; ++i) {
+         long l;
+         switch(this.type) {
+         case 1:
+            l = (long)input.readByte();
+            break;
+         case 2:
+            l = (long)input.readShort();
+            break;
+         case 3:
+         case 5:
+            l = (long)input.readInt();
+            break;
+         default:
+            l = input.readLong();
+         }
+
+         if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+         }
+
+         this.values[this.size++] = l;
+      }
+
+      ++this.modCount;
+   }
+
+   void write(DataOutput output) throws IOException {
+      for(int i = 0; i < this.size; ++i) {
+         long l = this.values[i];
+         switch(this.type) {
+         case 1:
+            output.writeByte((int)l);
+            break;
+         case 2:
+            output.writeShort((int)l);
+            break;
+         case 3:
+         case 5:
+            output.writeInt((int)l);
+            break;
+         default:
+            output.writeLong(l);
+         }
+      }
+
+   }
+
+   PrimitiveNbtList copy() {
+      return new PrimitiveNbtList(this.type, Arrays.copyOf(this.values, Math.max(this.size, 2)), this.size);
+   }
+}
@@ -0,0 +1,49 @@
+package net.minecraft.nbt.visitor;
+
+import net.minecraft.nbt.NbtElement;
+
+/**
+ * A visitor that is driven directly by the bytes of serialized NBT, see {@link
+ * net.minecraft.nbt.NbtIo#scan}.
+ *
+ * <p>Before each compound entry or list item is read, the scanner decides whether
+ * to enter it, read it as an element, or skip it without allocating. Every
+ * compound or list that is entered is closed by {@link #endNested}, including the
+ * root compound.
+ */
+public interface NbtScanner {
+   NbtScanner.Action visitEntry(byte type, String key);
+
+   NbtScanner.Action visitListItem(byte type, int index);
+
+   /**
+    * Receives an element that the scanner asked to {@link NbtScanner.Action#READ}.
+    */
+   NbtScanner.Result visitElement(NbtElement element);
+
+   NbtScanner.Result endNested();
+
+   public static enum Action {
+      /**
+       * Visits the entries of a compound or the items of a list. Other types are
+       * read instead.
+       */
+      ENTER,
+      READ,
+      SKIP,
+      /**
+       * Skips this value and the rest of the enclosing compound or list.
+       */
+      BREAK,
+      /**
+       * Stops scanning without reading anything further.
+       */
+      HALT;
+   }
+
+   public static enum Result {
+      CONTINUE,
+      BREAK,
+      HALT;
+   }
+}
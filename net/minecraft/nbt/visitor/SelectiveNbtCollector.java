@@ -0,0 +1,100 @@
+package net.minecraft.nbt.visitor;
+
+import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
+import java.util.Deque;
+import java.util.Set;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+
+/**
+ * Collects part of a compound into a tree of the same shape, given dotted paths
+ * such as {@code Level.Status}.
+ *
+ * <p>An including collector reads only the elements at its paths, skipping
+ * everything else, and halts once all of them have been read. An excluding
+ * collector reads everything except the elements at its paths.
+ */
+public class SelectiveNbtCollector implements NbtScanner {
+   private final Set<String> paths = Sets.newHashSet();
+   private final Set<String> parentPaths = Sets.newHashSet();
+   private final boolean including;
+   private final NbtCompound root = new NbtCompound();
+   private final Deque<NbtCompound> compounds = Queues.newArrayDeque();
+   private final Deque<String> compoundPaths = Queues.newArrayDeque();
+   private String key = "";
+   private int remaining;
+
+   private SelectiveNbtCollector(boolean including, String... paths) {
+      this.including = including;
+
+      for(String string : paths) {
+         this.paths.add(string);
+
+         for(int i = string.indexOf(46); i >= 0; i = string.indexOf(46, i + 1)) {
+            this.parentPaths.add(string.substring(0, i));
+         }
+      }
+
+      this.remaining = this.paths.size();
+      this.compounds.push(this.root);
+      this.compoundPaths.push("");
+   }
+
+   public static SelectiveNbtCollector including(String... paths) {
+      return new SelectiveNbtCollector(true, paths);
+   }
+
+   public static SelectiveNbtCollector excluding(String... paths) {
+      return new SelectiveNbtCollector(false, paths);
+   }
+
+   public NbtScanner.Action visitEntry(byte type, String key) {
+      String string = (String)this.compoundPaths.peek();
+      String string2 = string.isEmpty() ? key : string + "." + key;
+      if (this.paths.contains(string2)) {
+         if (this.including) {
+            this.key = key;
+            return NbtScanner.Action.READ;
+         } else {
+            return NbtScanner.Action.SKIP;
+         }
+      } else if (type == 10 && this.parentPaths.contains(string2)) {
+         NbtCompound nbtCompound = new NbtCompound();
+         ((NbtCompound)this.compounds.peek()).put(key, nbtCompound);
+         this.compounds.push(nbtCompound);
+         this.compoundPaths.push(string2);
+         return NbtScanner.Action.ENTER;
+      } else if (this.including) {
+         return NbtScanner.Action.SKIP;
+      } else {
+         this.key = key;
+         return NbtScanner.Action.READ;
+      }
+   }
+
+   public NbtScanner.Action visitListItem(byte type, int index) {
+      return NbtScanner.Action.SKIP;
+   }
+
+   public NbtScanner.Result visitElement(NbtElement element) {
+      ((NbtCompound)this.compounds.peek()).put(this.key, element);
+      return this.including && --this.remaining <= 0 ? NbtScanner.Result.HALT : NbtScanner.Result.CONTINUE;
+   }
+
+   public NbtScanner.Result endNested() {
+      if (this.compounds.size() > 1) {
+         this.compounds.pop();
+         this.compoundPaths.pop();
+      }
+
+      return NbtScanner.Result.CONTINUE;
+   }
+
+   /**
+    * Returns the collected compound, in which missing paths are simply absent.
+    */
+   public NbtCompound getRoot() {
+      return this.root;
+   }
+}
@@ -29,12 +29,14 @@ import io.netty.util.concurrent.GenericFutureListener;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.Queue;
+import java.util.concurrent.Executor;
 import javax.crypto.Cipher;
 import net.minecraft.network.encryption.PacketDecryptor;
 import net.minecraft.network.encryption.PacketEncryptor;
 import net.minecraft.network.listener.PacketListener;
 import net.minecraft.network.packet.s2c.login.LoginDisconnectS2CPacket;
 import net.minecraft.network.packet.s2c.play.DisconnectS2CPacket;
+import net.minecraft.network.packet.s2c.play.KeepAliveS2CPacket;
 import net.minecraft.server.network.ServerLoginNetworkHandler;
 import net.minecraft.server.network.ServerPlayNetworkHandler;
 import net.minecraft.text.Text;
@@ -90,6 +92,10 @@ public class ClientConnection extends SimpleChannelInboundHandler<Packet<?>> {
    private float averagePacketsSent;
    private int ticks;
    private boolean errored;
+   private volatile boolean batchingPackets;
+   private int compressionLevel = -1;
+   @Nullable
+   private Executor compressionExecutor;
 
    public ClientConnection(NetworkSide side) {
       this.side = side;
@@ -194,7 +200,7 @@ public class ClientConnection extends SimpleChannelInboundHandler<Packet<?>> {
    }
 
    private void sendImmediately(Packet<?> packet, @Nullable GenericFutureListener<? extends Future<? super Void>> callback) {
-      NetworkState networkState = NetworkState.getPacketHandlerState(packet);
+      NetworkState networkState = NetworkState.getPacketHandlerState(packet instanceof EncodedPacket ? ((EncodedPacket)packet).getPacket() : packet);
       NetworkState networkState2 = this.getState();
       ++this.packetsSentCounter;
       if (networkState2 != networkState) {
@@ -217,7 +223,13 @@ public class ClientConnection extends SimpleChannelInboundHandler<Packet<?>> {
          this.setState(networkState);
       }
 
-      ChannelFuture channelFuture = this.channel.writeAndFlush(packet);
+      ChannelFuture channelFuture;
+      if (this.batchingPackets && callback == null && networkState == networkState2 && networkState == NetworkState.PLAY && !shouldFlushImmediately(packet)) {
+         channelFuture = this.channel.write(packet);
+      } else {
+         channelFuture = this.channel.writeAndFlush(packet);
+      }
+
       if (callback != null) {
          channelFuture.addListener(callback);
       }
@@ -225,6 +237,53 @@ public class ClientConnection extends SimpleChannelInboundHandler<Packet<?>> {
       channelFuture.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
    }
 
+   /**
+    * Returns whether {@code packet} is flushed as soon as it is written even
+    * when this connection batches packets, because the client times out or
+    * the connection closes without it.
+    */
+   private static boolean shouldFlushImmediately(Packet<?> packet) {
+      return packet instanceof KeepAliveS2CPacket || packet instanceof DisconnectS2CPacket || packet instanceof LoginDisconnectS2CPacket;
+   }
+
+   /**
+    * Sets whether packets sent through this connection are only written to the
+    * channel, to be sent together by the next {@link #flush}.
+    *
+    * <p>Only play packets are batched. Packets with a callback, packets that
+    * change the network state and keep-alive and disconnect packets are still
+    * flushed immediately.
+    */
+   public void setBatchingPackets(boolean batchingPackets) {
+      this.batchingPackets = batchingPackets;
+   }
+
+   public boolean isBatchingPackets() {
+      return this.batchingPackets;
+   }
+
+   /**
+    * Sets how packets are compressed once a compression threshold is set, and
+    * must be called before it is.
+    * 
+    * @param compressionLevel the deflater level, or {@code -1} for the default level
+    * @param compressionExecutor the executor compressing large packets off the event loop, or {@code null} to compress them on it
+    */
+   public void setCompressionOptions(int compressionLevel, @Nullable Executor compressionExecutor) {
+      this.compressionLevel = compressionLevel;
+      this.compressionExecutor = compressionExecutor;
+   }
+
+   /**
+    * Sends the packets written to the channel since the last flush.
+    */
+   public void flush() {
+      if (this.channel != null) {
+         this.channel.flush();
+      }
+
+   }
+
    /**
     * Returns the current network state of this connection.
     */
@@ -258,8 +317,8 @@ public class ClientConnection extends SimpleChannelInboundHandler<Packet<?>> {
          this.handleDisconnection();
       }
 
-      if (this.channel != null) {
-         this.channel.flush();
+      if (!this.batchingPackets) {
+         this.flush();
       }
 
       if (this.ticks++ % 20 == 0) {
@@ -397,7 +456,7 @@ public class ClientConnection extends SimpleChannelInboundHandler<Packet<?>> {
          if (this.channel.pipeline().get("compress") instanceof PacketDeflater) {
             ((PacketDeflater)this.channel.pipeline().get("compress")).setCompressionThreshold(compressionThreshold);
          } else {
-            this.channel.pipeline().addBefore("encoder", "compress", new PacketDeflater(compressionThreshold));
+            this.channel.pipeline().addBefore("encoder", "compress", new PacketDeflater(compressionThreshold, this.compressionLevel, this.compressionExecutor, this.side.getOpposite()));
          }
       } else {
          if (this.channel.pipeline().get("decompress") instanceof PacketInflater) {
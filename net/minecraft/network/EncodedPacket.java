@@ -0,0 +1,90 @@
+package net.minecraft.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Wraps a packet sent to many connections so that it is only encoded once.
+ *
+ * <p>The first connection writing it in the play state encodes the wrapped
+ * packet, and the others write retained duplicates of that buffer. Compressed
+ * buffers are shared the same way by connections with the same compression
+ * threshold. Connections in other states and local connections, which pass
+ * packets as objects, use the wrapped packet as usual.
+ *
+ * <p>The shared buffers are unpooled heap buffers, which are left to the garbage
+ * collector instead of being released once every connection has written them.
+ */
+public class EncodedPacket<T extends PacketListener> implements Packet<T> {
+   private final Packet<T> packet;
+   @Nullable
+   private ByteBuf encoded;
+   @Nullable
+   private ByteBuf compressed;
+   private int compressionThreshold;
+
+   public EncodedPacket(Packet<T> packet) {
+      this.packet = packet;
+   }
+
+   public Packet<T> getPacket() {
+      return this.packet;
+   }
+
+   public void write(PacketByteBuf buf) {
+      this.packet.write(buf);
+   }
+
+   public void apply(T listener) {
+      this.packet.apply(listener);
+   }
+
+   public boolean isWritingErrorSkippable() {
+      return this.packet.isWritingErrorSkippable();
+   }
+
+   /**
+    * Returns a retained duplicate of the wrapped packet as encoded by {@code
+    * encoder}, encoding it if no connection did yet.
+    */
+   synchronized ByteBuf getEncoded(PacketEncoder encoder, ChannelHandlerContext ctx) throws Exception {
+      if (this.encoded == null) {
+         ByteBuf byteBuf = Unpooled.buffer();
+         encoder.encode(ctx, this.packet, byteBuf);
+         this.encoded = byteBuf;
+      }
+
+      return this.encoded.retainedDuplicate();
+   }
+
+   /**
+    * Returns a retained duplicate of the wrapped packet as compressed by {@code
+    * deflater}. Only the buffer of the first compression threshold used is kept,
+    * so connections with other thresholds compress the packet each time.
+    */
+   synchronized ByteBuf getCompressed(PacketEncoder encoder, ChannelHandlerContext ctx, PacketDeflater deflater) throws Exception {
+      int i = deflater.getCompressionThreshold();
+      if (this.compressed != null && this.compressionThreshold == i) {
+         return this.compressed.retainedDuplicate();
+      } else {
+         ByteBuf byteBuf = this.getEncoded(encoder, ctx);
+         ByteBuf byteBuf2 = Unpooled.buffer();
+
+         try {
+            deflater.compress(byteBuf, byteBuf2, true);
+         } finally {
+            byteBuf.release();
+         }
+
+         if (this.compressed == null) {
+            this.compressed = byteBuf2;
+            this.compressionThreshold = i;
+            return byteBuf2.retainedDuplicate();
+         } else {
+            return byteBuf2;
+         }
+      }
+   }
+}
@@ -5,6 +5,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -204,6 +205,11 @@ public enum NetworkState {
       return ((NetworkState.PacketHandler)this.packetHandlers.get(side)).createPacket(packetId, buf);
    }
 
+   @Nullable
+   public Class<? extends Packet<?>> getPacketType(NetworkSide side, int packetId) {
+      return ((NetworkState.PacketHandler)this.packetHandlers.get(side)).getType(packetId);
+   }
+
    public int getId() {
       return this.stateId;
    }
@@ -285,6 +291,22 @@ public enum NetworkState {
          return function != null ? (Packet)function.apply(buf) : null;
       }
 
+      @Nullable
+      public Class<? extends Packet<?>> getType(int id) {
+         ObjectIterator var2 = this.packetIds.object2IntEntrySet().iterator();
+
+         Object2IntMap.Entry entry;
+         do {
+            if (!var2.hasNext()) {
+               return null;
+            }
+
+            entry = (Object2IntMap.Entry)var2.next();
+         } while(entry.getIntValue() != id);
+
+         return (Class)entry.getKey();
+      }
+
       public Iterable<Class<? extends Packet<?>>> getPacketTypes() {
          return Iterables.unmodifiableIterable((Iterable)this.packetIds.keySet());
       }
@@ -0,0 +1,70 @@
+package net.minecraft.network;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import net.minecraft.util.Util;
+
+/**
+ * Counts the play packets compressed towards one side, and their bytes before
+ * and after compression, by packet type.
+ *
+ * <p>Packets under the compression threshold are counted too, as they still
+ * go through the compression handler. A packet compressed once for several
+ * connections is only counted once.
+ */
+public class PacketCompressionStats {
+   private static final Map<NetworkSide, PacketCompressionStats> BY_SIDE = (Map)Util.make(Maps.newEnumMap(NetworkSide.class), (map) -> {
+      NetworkSide[] var1 = NetworkSide.values();
+      int var2 = var1.length;
+
+      for(int var3 = 0; var3 < var2; ++var3) {
+         NetworkSide networkSide = var1[var3];
+         map.put(networkSide, new PacketCompressionStats(networkSide));
+      }
+
+   });
+   private final NetworkSide side;
+   private final AtomicLongArray packets = new AtomicLongArray(256);
+   private final AtomicLongArray uncompressedBytes = new AtomicLongArray(256);
+   private final AtomicLongArray compressedBytes = new AtomicLongArray(256);
+
+   private PacketCompressionStats(NetworkSide side) {
+      this.side = side;
+   }
+
+   public static PacketCompressionStats get(NetworkSide side) {
+      return (PacketCompressionStats)BY_SIDE.get(side);
+   }
+
+   public void record(int packetId, int uncompressedSize, int compressedSize) {
+      if (packetId >= 0 && packetId <= 255) {
+         this.packets.incrementAndGet(packetId);
+         this.uncompressedBytes.addAndGet(packetId, (long)uncompressedSize);
+         this.compressedBytes.addAndGet(packetId, (long)compressedSize);
+      }
+
+   }
+
+   /**
+    * Returns a line for each packet type counted so far, with its packet count
+    * and total bytes before and after compression.
+    */
+   public List<String> describe() {
+      List<String> list = Lists.newArrayList();
+
+      for(int i = 0; i <= 255; ++i) {
+         long l = this.packets.get(i);
+         if (l > 0L) {
+            Class<?> class_ = NetworkState.PLAY.getPacketType(this.side, i);
+            long m = this.uncompressedBytes.get(i);
+            long n = this.compressedBytes.get(i);
+            list.add(String.format("%s packets=%d uncompressed=%d compressed=%d ratio=%.3f", class_ != null ? class_.getSimpleName() : "#" + i, l, m, n, m > 0L ? (double)n / (double)m : 1.0D));
+         }
+      }
+
+      return list;
+   }
+}
@@ -1,39 +1,206 @@
 package net.minecraft.network;
 
+import com.google.common.collect.Queues;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.EncoderException;
+import io.netty.util.ReferenceCountUtil;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.zip.Deflater;
+import org.jetbrains.annotations.Nullable;
 
-public class PacketDeflater extends MessageToByteEncoder<ByteBuf> {
+/**
+ * Compresses the encoded packets written to a connection.
+ *
+ * <p>With a compression executor, packets of at least {@value
+ * #OFF_LOOP_COMPRESSION_SIZE} bytes are compressed on it instead of on the
+ * event loop, with a deflater of the worker thread. The writes that follow one
+ * are held back until it is compressed, so packets still leave in the order
+ * they were written.
+ */
+public class PacketDeflater extends ChannelOutboundHandlerAdapter {
+   private static final int OFF_LOOP_COMPRESSION_SIZE = 32768;
+   private static final ThreadLocal<PacketDeflater.WorkerDeflater> WORKER_DEFLATER = ThreadLocal.withInitial(PacketDeflater.WorkerDeflater::new);
    private final byte[] deflateBuffer = new byte[8192];
    private final Deflater deflater;
+   private final int compressionLevel;
+   @Nullable
+   private final Executor compressionExecutor;
+   private final PacketCompressionStats stats;
+   private final Queue<PacketDeflater.PendingWrite> pendingWrites = Queues.newArrayDeque();
+   private boolean flushPending;
    private int compressionThreshold;
 
-   public PacketDeflater(int compressionThreshold) {
+   /**
+    * @param compressionLevel the deflater level, or {@code -1} for the default level
+    * @param compressionExecutor the executor compressing large packets, or {@code null} to compress every packet on the event loop
+    * @param side the side the packets are sent to
+    */
+   public PacketDeflater(int compressionThreshold, int compressionLevel, @Nullable Executor compressionExecutor, NetworkSide side) {
       this.compressionThreshold = compressionThreshold;
-      this.deflater = new Deflater();
+      this.compressionLevel = compressionLevel;
+      this.compressionExecutor = compressionExecutor;
+      this.stats = PacketCompressionStats.get(side);
+      this.deflater = new Deflater(compressionLevel);
    }
 
-   protected void encode(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, ByteBuf byteBuf2) {
+   public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+      if (msg instanceof ByteBuf) {
+         ByteBuf byteBuf = (ByteBuf)msg;
+         boolean bl = ctx.channel().attr(ClientConnection.PROTOCOL_ATTRIBUTE_KEY).get() == NetworkState.PLAY;
+         if (this.compressionExecutor != null && byteBuf.readableBytes() >= 32768) {
+            this.compressOffLoop(ctx, byteBuf, bl, promise);
+         } else {
+            ByteBuf byteBuf2 = ctx.alloc().ioBuffer();
+
+            try {
+               this.compress(byteBuf, byteBuf2, bl);
+            } catch (Throwable var11) {
+               byteBuf2.release();
+               throw new EncoderException(var11);
+            } finally {
+               byteBuf.release();
+            }
+
+            this.writeInOrder(ctx, byteBuf2, promise);
+         }
+      } else {
+         this.writeInOrder(ctx, msg, promise);
+      }
+
+   }
+
+   public void flush(ChannelHandlerContext ctx) {
+      if (!this.pendingWrites.isEmpty()) {
+         this.flushPending = true;
+      }
+
+      ctx.flush();
+   }
+
+   public void handlerRemoved(ChannelHandlerContext ctx) {
+      Iterator var2 = this.pendingWrites.iterator();
+
+      while(var2.hasNext()) {
+         PacketDeflater.PendingWrite pendingWrite = (PacketDeflater.PendingWrite)var2.next();
+         pendingWrite.cancel();
+      }
+
+      this.pendingWrites.clear();
+   }
+
+   /**
+    * Writes an already compressed packet after the packets still being
+    * compressed.
+    */
+   void writeCompressed(ChannelHandlerContext ctx, ByteBuf buf, ChannelPromise promise) {
+      this.writeInOrder(ctx, buf, promise);
+   }
+
+   private void writeInOrder(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+      if (this.pendingWrites.isEmpty()) {
+         ctx.write(msg, promise);
+      } else {
+         this.pendingWrites.add(new PacketDeflater.PendingWrite(msg, promise));
+      }
+
+   }
+
+   private void compressOffLoop(ChannelHandlerContext ctx, ByteBuf byteBuf, boolean play, ChannelPromise promise) {
+      PacketDeflater.PendingWrite pendingWrite = new PacketDeflater.PendingWrite((Object)null, promise);
+      this.pendingWrites.add(pendingWrite);
+      int i = this.compressionThreshold;
+
+      CompletableFuture<ByteBuf> completableFuture;
+      try {
+         completableFuture = CompletableFuture.supplyAsync(() -> {
+            ByteBuf byteBuf2 = ctx.alloc().ioBuffer();
+
+            try {
+               ((PacketDeflater.WorkerDeflater)WORKER_DEFLATER.get()).compress(byteBuf, byteBuf2, i, this.compressionLevel, play ? this.stats : null);
+               return byteBuf2;
+            } catch (Throwable var10) {
+               byteBuf2.release();
+               throw var10;
+            } finally {
+               byteBuf.release();
+            }
+         }, this.compressionExecutor);
+      } catch (Throwable var8) {
+         byteBuf.release();
+         completableFuture = new CompletableFuture();
+         completableFuture.completeExceptionally(var8);
+      }
+
+      completableFuture.whenComplete((buf, throwable) -> {
+         ctx.executor().execute(() -> {
+            pendingWrite.complete(buf, throwable);
+            this.writeReady(ctx);
+         });
+      });
+   }
+
+   /**
+    * Writes the held back packets up to the first one still being compressed,
+    * and flushes them if the connection was flushed while they were held back.
+    */
+   private void writeReady(ChannelHandlerContext ctx) {
+      boolean bl = false;
+
+      while(!this.pendingWrites.isEmpty() && ((PacketDeflater.PendingWrite)this.pendingWrites.peek()).isReady()) {
+         ((PacketDeflater.PendingWrite)this.pendingWrites.poll()).write(ctx);
+         bl = true;
+      }
+
+      if (bl && this.flushPending) {
+         if (this.pendingWrites.isEmpty()) {
+            this.flushPending = false;
+         }
+
+         ctx.flush();
+      }
+
+   }
+
+   /**
+    * Writes the encoded packet in {@code byteBuf} to {@code byteBuf2}, prefixed
+    * with its uncompressed length and deflated if it is at least as long as the
+    * compression threshold, or with zero otherwise.
+    */
+   void compress(ByteBuf byteBuf, ByteBuf byteBuf2, boolean play) {
+      compress(byteBuf, byteBuf2, this.compressionThreshold, this.deflater, this.deflateBuffer, play ? this.stats : null);
+   }
+
+   private static void compress(ByteBuf byteBuf, ByteBuf byteBuf2, int compressionThreshold, Deflater deflater, byte[] deflateBuffer, @Nullable PacketCompressionStats stats) {
       int i = byteBuf.readableBytes();
+      int j = stats != null ? (new PacketByteBuf(byteBuf.duplicate())).readVarInt() : -1;
+      int k = byteBuf2.writerIndex();
       PacketByteBuf packetByteBuf = new PacketByteBuf(byteBuf2);
-      if (i < this.compressionThreshold) {
+      if (i < compressionThreshold) {
          packetByteBuf.writeVarInt(0);
          packetByteBuf.writeBytes(byteBuf);
       } else {
          byte[] bs = new byte[i];
          byteBuf.readBytes(bs);
          packetByteBuf.writeVarInt(bs.length);
-         this.deflater.setInput(bs, 0, i);
-         this.deflater.finish();
+         deflater.setInput(bs, 0, i);
+         deflater.finish();
 
-         while(!this.deflater.finished()) {
-            int j = this.deflater.deflate(this.deflateBuffer);
-            packetByteBuf.writeBytes((byte[])this.deflateBuffer, 0, j);
+         while(!deflater.finished()) {
+            int l = deflater.deflate(deflateBuffer);
+            packetByteBuf.writeBytes((byte[])deflateBuffer, 0, l);
          }
 
-         this.deflater.reset();
+         deflater.reset();
+      }
+
+      if (stats != null) {
+         stats.record(j, i, byteBuf2.writerIndex() - k);
       }
 
    }
@@ -45,4 +212,82 @@ public class PacketDeflater extends MessageToByteEncoder<ByteBuf> {
    public void setCompressionThreshold(int compressionThreshold) {
       this.compressionThreshold = compressionThreshold;
    }
+
+   /**
+    * The deflater of a compression worker thread, recreated when the thread
+    * compresses a packet for a connection with another compression level.
+    */
+   static class WorkerDeflater {
+      private final byte[] deflateBuffer = new byte[8192];
+      @Nullable
+      private Deflater deflater;
+      private int compressionLevel;
+
+      void compress(ByteBuf byteBuf, ByteBuf byteBuf2, int compressionThreshold, int compressionLevel, @Nullable PacketCompressionStats stats) {
+         if (this.deflater == null || this.compressionLevel != compressionLevel) {
+            if (this.deflater != null) {
+               this.deflater.end();
+            }
+
+            this.deflater = new Deflater(compressionLevel);
+            this.compressionLevel = compressionLevel;
+         }
+
+         PacketDeflater.compress(byteBuf, byteBuf2, compressionThreshold, this.deflater, this.deflateBuffer, stats);
+      }
+   }
+
+   /**
+    * A write held back behind a packet being compressed off the event loop.
+    * Its message is {@code null} until the compressed packet is ready.
+    */
+   static class PendingWrite {
+      @Nullable
+      private Object msg;
+      @Nullable
+      private Throwable failure;
+      private final ChannelPromise promise;
+      private boolean ready;
+      private boolean cancelled;
+
+      PendingWrite(@Nullable Object msg, ChannelPromise promise) {
+         this.msg = msg;
+         this.promise = promise;
+         this.ready = msg != null;
+      }
+
+      boolean isReady() {
+         return this.ready;
+      }
+
+      void complete(@Nullable ByteBuf buf, @Nullable Throwable failure) {
+         if (this.cancelled) {
+            ReferenceCountUtil.release(buf);
+         } else {
+            this.msg = buf;
+            this.failure = failure;
+            this.ready = true;
+         }
+
+      }
+
+      void write(ChannelHandlerContext ctx) {
+         if (this.failure != null) {
+            this.promise.tryFailure(new EncoderException(this.failure));
+         } else {
+            ctx.write(this.msg, this.promise);
+         }
+
+      }
+
+      void cancel() {
+         this.cancelled = true;
+         if (this.ready) {
+            ReferenceCountUtil.release(this.msg);
+            this.msg = null;
+         }
+
+         this.promise.tryFailure(new EncoderException("Compression handler removed"));
+      }
+   }
 }
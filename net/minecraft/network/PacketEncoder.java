@@ -2,6 +2,7 @@ package net.minecraft.network;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToByteEncoder;
 import java.io.IOException;
 import org.apache.logging.log4j.LogManager;
@@ -18,7 +19,33 @@ public class PacketEncoder extends MessageToByteEncoder<Packet<?>> {
       this.side = side;
    }
 
+   /**
+    * Writes the shared buffer of an {@link EncodedPacket} instead of encoding it
+    * again. If the connection compresses packets, the compressed buffer is
+    * handed to the compression handler, which writes it in order with the
+    * packets it is still compressing.
+    */
+   public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+      if (msg instanceof EncodedPacket && ctx.channel().attr(ClientConnection.PROTOCOL_ATTRIBUTE_KEY).get() == NetworkState.PLAY) {
+         EncodedPacket<?> encodedPacket = (EncodedPacket)msg;
+         ChannelHandlerContext channelHandlerContext = ctx.pipeline().context("compress");
+         if (channelHandlerContext != null && channelHandlerContext.handler() instanceof PacketDeflater) {
+            PacketDeflater packetDeflater = (PacketDeflater)channelHandlerContext.handler();
+            packetDeflater.writeCompressed(channelHandlerContext, encodedPacket.getCompressed(this, ctx, packetDeflater), promise);
+         } else {
+            ctx.write(encodedPacket.getEncoded(this, ctx), promise);
+         }
+      } else {
+         super.write(ctx, msg, promise);
+      }
+
+   }
+
    protected void encode(ChannelHandlerContext channelHandlerContext, Packet<?> packet, ByteBuf byteBuf) throws Exception {
+      if (packet instanceof EncodedPacket) {
+         packet = ((EncodedPacket)packet).getPacket();
+      }
+
       NetworkState networkState = (NetworkState)channelHandlerContext.channel().attr(ClientConnection.PROTOCOL_ATTRIBUTE_KEY).get();
       if (networkState == null) {
          throw new RuntimeException("ConnectionProtocol unknown: " + packet);
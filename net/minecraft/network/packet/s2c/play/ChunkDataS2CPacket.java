@@ -30,28 +30,28 @@ public class ChunkDataS2CPacket implements Packet<ClientPlayPacketListener> {
    private final List<NbtCompound> blockEntities;
 
    public ChunkDataS2CPacket(WorldChunk chunk) {
+      this(chunk, new ChunkDataS2CPacket.ChunkData(chunk));
+   }
+
+   /**
+    * Creates a packet with the given block data of {@code chunk}, which may be
+    * shared with other packets, and the current data of its block entities.
+    * 
+    * @see WorldChunk#getPacketData()
+    */
+   public ChunkDataS2CPacket(WorldChunk chunk, ChunkDataS2CPacket.ChunkData chunkData) {
       ChunkPos chunkPos = chunk.getPos();
       this.chunkX = chunkPos.x;
       this.chunkZ = chunkPos.z;
-      this.heightmaps = new NbtCompound();
-      Iterator var3 = chunk.getHeightmaps().iterator();
-
-      Entry entry2;
-      while(var3.hasNext()) {
-         entry2 = (Entry)var3.next();
-         if (((Heightmap.Type)entry2.getKey()).shouldSendToClient()) {
-            this.heightmaps.put(((Heightmap.Type)entry2.getKey()).getName(), new NbtLongArray(((Heightmap)entry2.getValue()).asLongArray()));
-         }
-      }
-
-      this.biomeArray = chunk.getBiomeArray().toIntArray();
-      this.data = new byte[this.getDataSize(chunk)];
-      this.verticalStripBitmask = this.writeData(new PacketByteBuf(this.getWriteBuffer()), chunk);
+      this.heightmaps = chunkData.heightmaps;
+      this.biomeArray = chunkData.biomeArray;
+      this.data = chunkData.data;
+      this.verticalStripBitmask = chunkData.verticalStripBitmask;
       this.blockEntities = Lists.newArrayList();
-      var3 = chunk.getBlockEntities().entrySet().iterator();
+      Iterator var4 = chunk.getBlockEntities().entrySet().iterator();
 
-      while(var3.hasNext()) {
-         entry2 = (Entry)var3.next();
+      while(var4.hasNext()) {
+         Entry entry2 = (Entry)var4.next();
          BlockEntity blockEntity = (BlockEntity)entry2.getValue();
          NbtCompound nbtCompound = blockEntity.toInitialChunkDataNbt();
          this.blockEntities.add(nbtCompound);
@@ -98,13 +98,7 @@ public class ChunkDataS2CPacket implements Packet<ClientPlayPacketListener> {
       return new PacketByteBuf(Unpooled.wrappedBuffer(this.data));
    }
 
-   private ByteBuf getWriteBuffer() {
-      ByteBuf byteBuf = Unpooled.wrappedBuffer(this.data);
-      byteBuf.writerIndex(0);
-      return byteBuf;
-   }
-
-   public BitSet writeData(PacketByteBuf buf, WorldChunk chunk) {
+   public static BitSet writeData(PacketByteBuf buf, WorldChunk chunk) {
       BitSet bitSet = new BitSet();
       ChunkSection[] chunkSections = chunk.getSectionArray();
       int i = 0;
@@ -120,7 +114,7 @@ public class ChunkDataS2CPacket implements Packet<ClientPlayPacketListener> {
       return bitSet;
    }
 
-   protected int getDataSize(WorldChunk chunk) {
+   protected static int getDataSize(WorldChunk chunk) {
       int i = 0;
       ChunkSection[] chunkSections = chunk.getSectionArray();
       int j = 0;
@@ -158,4 +152,34 @@ public class ChunkDataS2CPacket implements Packet<ClientPlayPacketListener> {
    public int[] getBiomeArray() {
       return this.biomeArray;
    }
+
+   /**
+    * The heightmaps, biomes and encoded sections of a chunk, which only change
+    * when its blocks change. Packets built from the same data share its arrays,
+    * which are never modified.
+    */
+   public static class ChunkData {
+      final BitSet verticalStripBitmask;
+      final NbtCompound heightmaps;
+      final int[] biomeArray;
+      final byte[] data;
+
+      public ChunkData(WorldChunk chunk) {
+         this.heightmaps = new NbtCompound();
+         Iterator var2 = chunk.getHeightmaps().iterator();
+
+         while(var2.hasNext()) {
+            Entry entry = (Entry)var2.next();
+            if (((Heightmap.Type)entry.getKey()).shouldSendToClient()) {
+               this.heightmaps.put(((Heightmap.Type)entry.getKey()).getName(), new NbtLongArray(((Heightmap)entry.getValue()).asLongArray()));
+            }
+         }
+
+         this.biomeArray = chunk.getBiomeArray().toIntArray();
+         this.data = new byte[ChunkDataS2CPacket.getDataSize(chunk)];
+         ByteBuf byteBuf = Unpooled.wrappedBuffer(this.data);
+         byteBuf.writerIndex(0);
+         this.verticalStripBitmask = ChunkDataS2CPacket.writeData(new PacketByteBuf(byteBuf), chunk);
+      }
+   }
 }
@@ -57,7 +57,8 @@ public class LightUpdateS2CPacket implements Packet<ClientPlayPacketListener> {
             bitSet2.set(i);
          } else {
             bitSet.set(i);
-            list.add((byte[])chunkNibbleArray.asByteArray().clone());
+            byte[] bs = chunkNibbleArray.asReadOnlyByteArray();
+            list.add(chunkNibbleArray.isUniform() ? bs : (byte[])bs.clone());
          }
       }
 
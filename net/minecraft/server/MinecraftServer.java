@@ -59,6 +59,8 @@ import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.loot.LootManager;
 import net.minecraft.loot.condition.LootConditionManager;
 import net.minecraft.loot.function.LootFunctionManager;
+import net.minecraft.network.NetworkSide;
+import net.minecraft.network.PacketCompressionStats;
 import net.minecraft.network.encryption.NetworkEncryptionException;
 import net.minecraft.network.encryption.NetworkEncryptionUtils;
 import net.minecraft.network.packet.s2c.play.DifficultyS2CPacket;
@@ -119,6 +121,8 @@ import net.minecraft.util.registry.DynamicRegistryManager;
 import net.minecraft.util.registry.Registry;
 import net.minecraft.util.registry.RegistryKey;
 import net.minecraft.util.registry.SimpleRegistry;
+import net.minecraft.util.shape.ShapeMergeCache;
+import net.minecraft.util.shape.VoxelShapes;
 import net.minecraft.util.snooper.Snooper;
 import net.minecraft.util.snooper.SnooperListener;
 import net.minecraft.util.thread.ReentrantThreadExecutor;
@@ -152,6 +156,7 @@ import net.minecraft.world.level.LevelInfo;
 import net.minecraft.world.level.ServerWorldProperties;
 import net.minecraft.world.level.UnmodifiableLevelProperties;
 import net.minecraft.world.level.storage.LevelStorage;
+import net.minecraft.world.storage.RegionStorageOptions;
 import org.apache.commons.lang3.Validate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -205,6 +210,7 @@ public abstract class MinecraftServer extends ReentrantThreadExecutor<ServerTask
    private Consumer<ProfileResult> recorderResultConsumer;
    private Consumer<Path> recorderDumpConsumer;
    private boolean needsRecorderSetup;
+   private long recorderMaxDuration;
    @Nullable
    private MinecraftServer.DebugStart debugStart;
    private boolean needsDebugSetup;
@@ -288,6 +294,7 @@ public abstract class MinecraftServer extends ReentrantThreadExecutor<ServerTask
       };
       this.recorderDumpConsumer = (path) -> {
       };
+      this.recorderMaxDuration = (long)DebugRecorder.MAX_DURATION_IN_SECONDS;
       this.metadata = new ServerMetadata();
       this.random = new Random();
       this.serverPort = -1;
@@ -918,7 +925,9 @@ public abstract class MinecraftServer extends ReentrantThreadExecutor<ServerTask
       }
 
       this.profiler.pop();
-      this.profiler.push("tallying");
+      this.profiler.push("flush");
+      this.getNetworkIo().flushConnections();
+      this.profiler.swap("tallying");
       long m = this.lastTickLengths[this.ticks % 100] = Util.getMeasuringTimeNano() - l;
       this.tickTime = this.tickTime * 0.8F + (float)m / 1000000.0F * 0.19999999F;
       long n = Util.getMeasuringTimeNano();
@@ -1662,6 +1671,19 @@ public abstract class MinecraftServer extends ReentrantThreadExecutor<ServerTask
          writer.write(String.format("average_tick_time: %f\n", this.getTickTime()));
          writer.write(String.format("tick_times: %s\n", Arrays.toString(this.lastTickLengths)));
          writer.write(String.format("queue: %s\n", Util.getMainWorkerExecutor()));
+         Iterator var3 = VoxelShapes.getMergeCaches().iterator();
+
+         while(var3.hasNext()) {
+            ShapeMergeCache<?> shapeMergeCache = (ShapeMergeCache)var3.next();
+            writer.write(String.format("shape_merge_cache: %s\n", shapeMergeCache));
+         }
+
+         Iterator var4 = PacketCompressionStats.get(NetworkSide.CLIENTBOUND).describe().iterator();
+
+         while(var4.hasNext()) {
+            String string = (String)var4.next();
+            writer.write(String.format("packet_compression: %s\n", string));
+         }
       } catch (Throwable var6) {
          if (writer != null) {
             try {
@@ -1786,7 +1808,7 @@ public abstract class MinecraftServer extends ReentrantThreadExecutor<ServerTask
                this.dump(path.resolve("server"));
             });
             this.recorderDumpConsumer.accept(path);
-         });
+         }, this.recorderMaxDuration);
          this.needsRecorderSetup = false;
       }
 
@@ -1805,6 +1827,15 @@ public abstract class MinecraftServer extends ReentrantThreadExecutor<ServerTask
    }
 
    public void setupRecorder(Consumer<ProfileResult> resultConsumer, Consumer<Path> dumpConsumer) {
+      this.setupRecorder(resultConsumer, dumpConsumer, (long)DebugRecorder.MAX_DURATION_IN_SECONDS);
+   }
+
+   /**
+    * Starts recording from the next tick, for at most {@code maxDurationInSeconds}
+    * unless {@linkplain #stopRecorder stopped} earlier.
+    */
+   public void setupRecorder(Consumer<ProfileResult> resultConsumer, Consumer<Path> dumpConsumer, long maxDurationInSeconds) {
+      this.recorderMaxDuration = maxDurationInSeconds;
       this.recorderResultConsumer = (result) -> {
          this.resetRecorder();
          resultConsumer.accept(result);
@@ -1829,6 +1860,93 @@ public abstract class MinecraftServer extends ReentrantThreadExecutor<ServerTask
       return true;
    }
 
+   public RegionStorageOptions getRegionStorageOptions() {
+      return RegionStorageOptions.DEFAULT;
+   }
+
+   /**
+    * Returns how many milliseconds per tick each world may spend serializing
+    * chunks queued by an autosave, or {@code 0} to save every chunk during the
+    * autosave tick itself.
+    */
+   public int getAutosaveBudgetMillis() {
+      return 0;
+   }
+
+   /**
+    * Returns whether each world runs its block and sky light engines side by
+    * side on the worker executor instead of one after the other on the light
+    * thread.
+    */
+   public boolean usesParallelLightEngine() {
+      return false;
+   }
+
+   /**
+    * Returns whether natural spawning skips the spawn rules of positions that a
+    * per-section cache of possible spawn positions rules out.
+    */
+   public boolean usesSpawnCandidateCache() {
+      return false;
+   }
+
+   /**
+    * Returns whether worlds tick their entities on a pool of workers, split into
+    * {@linkplain net.minecraft.server.world.EntityTickIslands islands} that do
+    * not interact.
+    */
+   public boolean usesParallelEntityTicking() {
+      return false;
+   }
+
+   /**
+    * Returns whether mobs that are already following a path find their next
+    * path on worker threads, from a snapshot of the blocks around them.
+    */
+   public boolean usesAsyncPathfinding() {
+      return false;
+   }
+
+   /**
+    * Returns whether connections only write the packets sent during a tick, and
+    * flush them together at the end of the tick.
+    */
+   public boolean usesPacketBatching() {
+      return false;
+   }
+
+   /**
+    * Returns whether packets that entity trackers send to several players are
+    * encoded and compressed once for all of them.
+    */
+   public boolean usesSharedPacketEncoding() {
+      return false;
+   }
+
+   /**
+    * Returns whether chunks keep the encoded sections of their last chunk data
+    * packet for later packets, until one of their blocks changes.
+    */
+   public boolean usesChunkPacketCache() {
+      return false;
+   }
+
+   /**
+    * Returns the deflater level connections compress packets with, from {@code
+    * 0} to {@code 9}, or {@code -1} for the default level.
+    */
+   public int getNetworkCompressionLevel() {
+      return -1;
+   }
+
+   /**
+    * Returns the number of threads compressing large packets off the network
+    * event loops, or {@code 0} to compress every packet on the event loops.
+    */
+   public int getNetworkCompressionThreads() {
+      return 0;
+   }
+
    public StructureManager getStructureManager() {
       return this.structureManager;
    }
@@ -29,6 +29,8 @@ import java.net.SocketAddress;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import net.minecraft.network.ClientConnection;
 import net.minecraft.network.DecoderHandler;
@@ -62,6 +64,14 @@ public class ServerNetworkIo {
    public volatile boolean active;
    private final List<ChannelFuture> channels = Collections.synchronizedList(Lists.newArrayList());
    final List<ClientConnection> connections = Collections.synchronizedList(Lists.newArrayList());
+   /**
+    * The threads compressing large packets off the event loops, created when
+    * the server first binds since the server properties are not loaded yet when
+    * this is constructed. It is {@code null} before that, and if no compression
+    * threads are configured.
+    */
+   @Nullable
+   private volatile ExecutorService compressionExecutor;
 
    public ServerNetworkIo(MinecraftServer server) {
       this.server = server;
@@ -70,6 +80,13 @@ public class ServerNetworkIo {
 
    public void bind(@Nullable InetAddress address, int port) throws IOException {
       synchronized(this.channels) {
+         if (this.compressionExecutor == null) {
+            int i = this.server.getNetworkCompressionThreads();
+            if (i > 0) {
+               this.compressionExecutor = Executors.newFixedThreadPool(i, (new ThreadFactoryBuilder()).setNameFormat("Netty Compression #%d").setDaemon(true).build());
+            }
+         }
+
          Class class2;
          Lazy lazy2;
          if (Epoll.isAvailable() && this.server.isUsingNativeTransport()) {
@@ -92,6 +109,8 @@ public class ServerNetworkIo {
                channel.pipeline().addLast((String)"timeout", (ChannelHandler)(new ReadTimeoutHandler(30))).addLast((String)"legacy_query", (ChannelHandler)(new LegacyQueryHandler(ServerNetworkIo.this))).addLast((String)"splitter", (ChannelHandler)(new SplitterHandler())).addLast((String)"decoder", (ChannelHandler)(new DecoderHandler(NetworkSide.SERVERBOUND))).addLast((String)"prepender", (ChannelHandler)(new SizePrepender())).addLast((String)"encoder", (ChannelHandler)(new PacketEncoder(NetworkSide.CLIENTBOUND)));
                int i = ServerNetworkIo.this.server.getRateLimit();
                ClientConnection clientConnection = i > 0 ? new RateLimitedConnection(i) : new ClientConnection(NetworkSide.SERVERBOUND);
+               ((ClientConnection)clientConnection).setBatchingPackets(ServerNetworkIo.this.server.usesPacketBatching());
+               ((ClientConnection)clientConnection).setCompressionOptions(ServerNetworkIo.this.server.getNetworkCompressionLevel(), ServerNetworkIo.this.compressionExecutor);
                ServerNetworkIo.this.connections.add(clientConnection);
                channel.pipeline().addLast((String)"packet_handler", (ChannelHandler)clientConnection);
                ((ClientConnection)clientConnection).setPacketListener(new ServerHandshakeNetworkHandler(ServerNetworkIo.this.server, (ClientConnection)clientConnection));
@@ -131,6 +150,14 @@ public class ServerNetworkIo {
          }
       }
 
+      synchronized(this.channels) {
+         ExecutorService executorService = this.compressionExecutor;
+         if (executorService != null) {
+            this.compressionExecutor = null;
+            executorService.shutdown();
+         }
+      }
+
    }
 
    public void tick() {
@@ -172,6 +199,23 @@ public class ServerNetworkIo {
       }
    }
 
+   /**
+    * Sends the packets batched by each connection during this tick.
+    */
+   public void flushConnections() {
+      synchronized(this.connections) {
+         Iterator iterator = this.connections.iterator();
+
+         while(iterator.hasNext()) {
+            ClientConnection clientConnection = (ClientConnection)iterator.next();
+            if (clientConnection.isBatchingPackets()) {
+               clientConnection.flush();
+            }
+         }
+
+      }
+   }
+
    public MinecraftServer getServer() {
       return this.server;
    }
@@ -56,6 +56,7 @@ import net.minecraft.world.GameRules;
 import net.minecraft.world.SaveProperties;
 import net.minecraft.world.World;
 import net.minecraft.world.level.storage.LevelStorage;
+import net.minecraft.world.storage.RegionStorageOptions;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
@@ -271,6 +272,20 @@ public class MinecraftDedicatedServer extends MinecraftServer implements Dedicat
 
       try {
          writer.write(String.format("sync-chunk-writes=%s%n", serverPropertiesHandler.syncChunkWrites));
+         writer.write(String.format("region-file-compression=%s%n", serverPropertiesHandler.regionFileCompression.getName()));
+         writer.write(String.format("region-file-memory-mapped=%s%n", serverPropertiesHandler.regionFileMemoryMapped));
+         writer.write(String.format("region-file-io-threads=%d%n", serverPropertiesHandler.regionFileIoThreads));
+         writer.write(String.format("region-file-binary-chunks=%s%n", serverPropertiesHandler.regionFileBinaryChunks));
+         writer.write(String.format("autosave-budget-ms=%d%n", serverPropertiesHandler.autosaveBudgetMillis));
+         writer.write(String.format("parallel-light-engine=%s%n", serverPropertiesHandler.parallelLightEngine));
+         writer.write(String.format("spawn-candidate-cache=%s%n", serverPropertiesHandler.spawnCandidateCache));
+         writer.write(String.format("parallel-entity-ticking=%s%n", serverPropertiesHandler.parallelEntityTicking));
+         writer.write(String.format("async-pathfinding=%s%n", serverPropertiesHandler.asyncPathfinding));
+         writer.write(String.format("packet-batching=%s%n", serverPropertiesHandler.packetBatching));
+         writer.write(String.format("shared-packet-encoding=%s%n", serverPropertiesHandler.sharedPacketEncoding));
+         writer.write(String.format("chunk-packet-cache=%s%n", serverPropertiesHandler.chunkPacketCache));
+         writer.write(String.format("network-compression-level=%d%n", serverPropertiesHandler.networkCompressionLevel));
+         writer.write(String.format("network-compression-threads=%d%n", serverPropertiesHandler.networkCompressionThreads));
          writer.write(String.format("gamemode=%s%n", serverPropertiesHandler.gameMode));
          writer.write(String.format("spawn-monsters=%s%n", serverPropertiesHandler.spawnMonsters));
          writer.write(String.format("entity-broadcast-range-percentage=%d%n", serverPropertiesHandler.entityBroadcastRangePercentage));
@@ -568,6 +583,51 @@ public class MinecraftDedicatedServer extends MinecraftServer implements Dedicat
       return this.propertiesLoader.getPropertiesHandler().syncChunkWrites;
    }
 
+   public int getAutosaveBudgetMillis() {
+      return this.propertiesLoader.getPropertiesHandler().autosaveBudgetMillis;
+   }
+
+   public boolean usesParallelLightEngine() {
+      return this.propertiesLoader.getPropertiesHandler().parallelLightEngine;
+   }
+
+   public boolean usesSpawnCandidateCache() {
+      return this.propertiesLoader.getPropertiesHandler().spawnCandidateCache;
+   }
+
+   public boolean usesParallelEntityTicking() {
+      return this.propertiesLoader.getPropertiesHandler().parallelEntityTicking;
+   }
+
+   public boolean usesAsyncPathfinding() {
+      return this.propertiesLoader.getPropertiesHandler().asyncPathfinding;
+   }
+
+   public boolean usesPacketBatching() {
+      return this.propertiesLoader.getPropertiesHandler().packetBatching;
+   }
+
+   public boolean usesSharedPacketEncoding() {
+      return this.propertiesLoader.getPropertiesHandler().sharedPacketEncoding;
+   }
+
+   public boolean usesChunkPacketCache() {
+      return this.propertiesLoader.getPropertiesHandler().chunkPacketCache;
+   }
+
+   public int getNetworkCompressionLevel() {
+      return this.propertiesLoader.getPropertiesHandler().networkCompressionLevel;
+   }
+
+   public int getNetworkCompressionThreads() {
+      return this.propertiesLoader.getPropertiesHandler().networkCompressionThreads;
+   }
+
+   public RegionStorageOptions getRegionStorageOptions() {
+      ServerPropertiesHandler serverPropertiesHandler = this.propertiesLoader.getPropertiesHandler();
+      return new RegionStorageOptions(serverPropertiesHandler.regionFileCompression, serverPropertiesHandler.regionFileMemoryMapped, serverPropertiesHandler.regionFileIoThreads, serverPropertiesHandler.regionFileBinaryChunks);
+   }
+
    public TextStream createFilterer(ServerPlayerEntity player) {
       return this.filterer != null ? this.filterer.createFilterer(player.getGameProfile()) : TextStream.UNFILTERED;
    }
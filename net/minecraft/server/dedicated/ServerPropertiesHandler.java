@@ -8,6 +8,7 @@ import net.minecraft.util.registry.DynamicRegistryManager;
 import net.minecraft.world.Difficulty;
 import net.minecraft.world.GameMode;
 import net.minecraft.world.gen.GeneratorOptions;
+import net.minecraft.world.storage.ChunkStreamVersion;
 import org.jetbrains.annotations.Nullable;
 
 public class ServerPropertiesHandler extends AbstractPropertiesHandler<ServerPropertiesHandler> {
@@ -54,6 +55,20 @@ public class ServerPropertiesHandler extends AbstractPropertiesHandler<ServerPro
    public final boolean broadcastConsoleToOps;
    public final int maxWorldSize;
    public final boolean syncChunkWrites;
+   public final ChunkStreamVersion regionFileCompression;
+   public final boolean regionFileMemoryMapped;
+   public final int regionFileIoThreads;
+   public final boolean regionFileBinaryChunks;
+   public final int autosaveBudgetMillis;
+   public final boolean parallelLightEngine;
+   public final boolean spawnCandidateCache;
+   public final boolean parallelEntityTicking;
+   public final boolean asyncPathfinding;
+   public final boolean packetBatching;
+   public final boolean sharedPacketEncoding;
+   public final boolean chunkPacketCache;
+   public final int networkCompressionLevel;
+   public final int networkCompressionThreads;
    public final boolean enableJmxMonitoring;
    public final boolean enableStatus;
    public final int entityBroadcastRangePercentage;
@@ -100,6 +115,28 @@ public class ServerPropertiesHandler extends AbstractPropertiesHandler<ServerPro
          return MathHelper.clamp((int)maxWorldSize, (int)1, (int)29999984);
       }, 29999984);
       this.syncChunkWrites = this.parseBoolean("sync-chunk-writes", true);
+      this.regionFileCompression = (ChunkStreamVersion)this.get("region-file-compression", ChunkStreamVersion::byName, ChunkStreamVersion::getName, ChunkStreamVersion.DEFLATE);
+      this.regionFileMemoryMapped = this.parseBoolean("region-file-memory-mapped", false);
+      this.regionFileIoThreads = this.transformedParseInt("region-file-io-threads", (threads) -> {
+         return MathHelper.clamp((int)threads, (int)1, (int)16);
+      }, 1);
+      this.regionFileBinaryChunks = this.parseBoolean("region-file-binary-chunks", false);
+      this.autosaveBudgetMillis = this.transformedParseInt("autosave-budget-ms", (budget) -> {
+         return MathHelper.clamp((int)budget, (int)0, (int)50);
+      }, 0);
+      this.parallelLightEngine = this.parseBoolean("parallel-light-engine", false);
+      this.spawnCandidateCache = this.parseBoolean("spawn-candidate-cache", false);
+      this.parallelEntityTicking = this.parseBoolean("parallel-entity-ticking", false);
+      this.asyncPathfinding = this.parseBoolean("async-pathfinding", false);
+      this.packetBatching = this.parseBoolean("packet-batching", false);
+      this.sharedPacketEncoding = this.parseBoolean("shared-packet-encoding", false);
+      this.chunkPacketCache = this.parseBoolean("chunk-packet-cache", false);
+      this.networkCompressionLevel = this.transformedParseInt("network-compression-level", (level) -> {
+         return MathHelper.clamp((int)level, (int)-1, (int)9);
+      }, -1);
+      this.networkCompressionThreads = this.transformedParseInt("network-compression-threads", (threads) -> {
+         return Math.max(0, (int)threads);
+      }, 0);
       this.enableJmxMonitoring = this.parseBoolean("enable-jmx-monitoring", false);
       this.enableStatus = this.parseBoolean("enable-status", true);
       this.entityBroadcastRangePercentage = this.transformedParseInt("entity-broadcast-range-percentage", (percentage) -> {
@@ -10,7 +10,6 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
-import java.util.Random;
 import java.util.UUID;
 import net.minecraft.advancement.PlayerAdvancementTracker;
 import net.minecraft.advancement.criterion.Criteria;
@@ -265,7 +264,7 @@ public class ServerPlayerEntity extends PlayerEntity {
          long m = l * l;
          int k = m > 2147483647L ? Integer.MAX_VALUE : (int)m;
          int n = this.calculateSpawnOffsetMultiplier(k);
-         int o = (new Random()).nextInt(k);
+         int o = Util.createRandom().nextInt(k);
 
          for(int p = 0; p < k; ++p) {
             int q = (o + n * p) % k;
@@ -0,0 +1,406 @@
+package net.minecraft.server.world;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.boss.dragon.EnderDragonEntity;
+import net.minecraft.entity.decoration.EndCrystalEntity;
+import net.minecraft.entity.mob.EndermanEntity;
+import net.minecraft.entity.mob.ZombieEntity;
+import net.minecraft.entity.passive.BeeEntity;
+import net.minecraft.entity.passive.FoxEntity;
+import net.minecraft.entity.passive.IronGolemEntity;
+import net.minecraft.entity.passive.MerchantEntity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.projectile.ProjectileEntity;
+import net.minecraft.entity.raid.RaiderEntity;
+import net.minecraft.util.logging.UncaughtExceptionLogger;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.EntityList;
+import net.minecraft.world.World;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Ticks the entities of a world on a pool of workers, split into islands that
+ * are far enough apart not to interact within a tick.
+ *
+ * <p>Entities share an island when their chunk columns are at most {@link
+ * #MARGIN} columns apart, directly or through other entities. Each island ticks
+ * its entities in entity list order on one worker. Whatever an entity tick does
+ * to state shared between islands, such as adding entities, moving them between
+ * sections of the entity cache, removing them, scheduling ticks and block events,
+ * updating neighboring blocks or notifying other mobs of collision changes, is
+ * handed to {@link #defer} and applied on the server thread once all islands are
+ * done, island by island in the order the islands were formed.
+ *
+ * <p>Each island draws from its own random, seeded from the world random when
+ * the islands are formed, so the world random is neither shared between workers
+ * nor drawn from in an order that depends on thread scheduling.
+ *
+ * <p>Islands with entities that reach beyond the margin or into world-wide
+ * state, like players, villagers, raiders, mobs looking up points of interest
+ * and endermen, which teleport up to 32 blocks away, or whose surroundings are
+ * not fully loaded, tick on the server thread before the others. Workers never load chunks, and a chunk that
+ * is not loaded reads as empty to them.
+ */
+public final class EntityTickIslands {
+   private static final Logger LOGGER = LogManager.getLogger();
+   /**
+    * The distance in chunk columns up to which the entities of two columns are
+    * assumed to interact. Islands are at least one column further apart, so two
+    * entities of different islands that each reach up to two columns away in a
+    * tick, by moving and then interacting with their surroundings, cannot meet.
+    */
+   public static final int MARGIN = 4;
+   private static final AtomicInteger NEXT_WORKER_ID = new AtomicInteger(1);
+   @Nullable
+   private static ForkJoinPool pool;
+
+   private static ForkJoinPool getPool() {
+      if (pool == null) {
+         int i = MathHelper.clamp((int)(Runtime.getRuntime().availableProcessors() - 1), (int)1, (int)7);
+         pool = new ForkJoinPool(i, (forkJoinPool) -> {
+            EntityTickIslands.Worker worker = new EntityTickIslands.Worker(forkJoinPool);
+            worker.setName("Worker-Entities-" + NEXT_WORKER_ID.getAndIncrement());
+            return worker;
+         }, new UncaughtExceptionLogger(LOGGER), false);
+      }
+
+      return pool;
+   }
+
+   @Nullable
+   private static EntityTickIslands.Island getCurrentIsland() {
+      Thread thread = Thread.currentThread();
+      return thread instanceof EntityTickIslands.Worker ? ((EntityTickIslands.Worker)thread).island : null;
+   }
+
+   /**
+    * Returns whether the current thread is ticking an island, in which case
+    * changes to state shared between islands have to go through {@link #defer}.
+    */
+   public static boolean isWorkerThread() {
+      return getCurrentIsland() != null;
+   }
+
+   /**
+    * Queues an action to run on the server thread after all islands of this tick
+    * are done.
+    *
+    * @throws IllegalStateException if the current thread is not ticking an island
+    */
+   public static void defer(Runnable action) {
+      EntityTickIslands.Island island = getCurrentIsland();
+      if (island == null) {
+         throw new IllegalStateException("Not ticking an entity island");
+      } else {
+         island.deferred.add(action);
+      }
+   }
+
+   /**
+    * Claims the UUID of an entity added by the current island, so that the add
+    * can be deferred and still be rejected right away when another island of
+    * this tick already added an entity with the same UUID.
+    *
+    * @return whether no other entity added during this tick has the UUID
+    * @throws IllegalStateException if the current thread is not ticking an island
+    */
+   public static boolean claimUuid(UUID uuid) {
+      EntityTickIslands.Island island = getCurrentIsland();
+      if (island == null) {
+         throw new IllegalStateException("Not ticking an entity island");
+      } else {
+         return island.addedUuids.add(uuid);
+      }
+   }
+
+   /**
+    * Returns whether an entity only reaches state its island owns.
+    *
+    * <p>Besides villagers, bees and raiders, zombies, foxes and iron golems have
+    * goals that look up points of interest, which updates and loads the point of
+    * interest storage of the world, so they tick on the server thread too.
+    */
+   private static boolean canTickInParallel(Entity entity) {
+      if (!(entity instanceof PlayerEntity) && !(entity instanceof MerchantEntity) && !(entity instanceof BeeEntity) && !(entity instanceof RaiderEntity) && !(entity instanceof ZombieEntity) && !(entity instanceof FoxEntity) && !(entity instanceof IronGolemEntity) && !(entity instanceof EnderDragonEntity) && !(entity instanceof EndCrystalEntity) && !(entity instanceof EndermanEntity)) {
+         return !(entity instanceof ProjectileEntity) || !(((ProjectileEntity)entity).getOwner() instanceof PlayerEntity);
+      } else {
+         return false;
+      }
+   }
+
+   /**
+    * Ticks the entities of {@code entityList} with {@code ticker}, which has
+    * to check by itself whether an entity is still to be ticked.
+    */
+   public void tick(World world, EntityList entityList, Consumer<Entity> ticker) {
+      List<Entity> list = Lists.newArrayList();
+      Objects.requireNonNull(list);
+      entityList.forEach(list::add);
+      List<EntityTickIslands.Island> list2 = createIslands(world, list);
+      List<EntityTickIslands.Island> list3 = Lists.newArrayList();
+      Iterator var7 = list2.iterator();
+
+      while(var7.hasNext()) {
+         EntityTickIslands.Island island = (EntityTickIslands.Island)var7.next();
+         if (island.parallel) {
+            list3.add(island);
+         }
+      }
+
+      if (list3.size() < 2) {
+         list.forEach(ticker);
+      } else {
+         var7 = list2.iterator();
+
+         while(var7.hasNext()) {
+            EntityTickIslands.Island island2 = (EntityTickIslands.Island)var7.next();
+            if (!island2.parallel) {
+               island2.entities.forEach(ticker);
+            }
+         }
+
+         this.tickInParallel(world, list3, ticker);
+      }
+
+   }
+
+   private void tickInParallel(World world, List<EntityTickIslands.Island> islands, Consumer<Entity> ticker) {
+      ForkJoinPool forkJoinPool = getPool();
+      CompletableFuture<?>[] completableFutures = new CompletableFuture[islands.size()];
+      Set<UUID> set = Sets.newConcurrentHashSet();
+
+      for(int i = 0; i < completableFutures.length; ++i) {
+         EntityTickIslands.Island island = (EntityTickIslands.Island)islands.get(i);
+         island.random = new Random(world.random.nextLong());
+         island.addedUuids = set;
+         completableFutures[i] = CompletableFuture.runAsync(() -> {
+            EntityTickIslands.Worker worker = (EntityTickIslands.Worker)Thread.currentThread();
+            worker.island = island;
+
+            try {
+               island.entities.forEach(ticker);
+            } finally {
+               worker.island = null;
+            }
+
+         }, forkJoinPool);
+      }
+
+      CompletableFuture<Void> completableFuture = CompletableFuture.allOf(completableFutures);
+
+      try {
+         completableFuture.join();
+      } catch (CompletionException var9) {
+         Throwable throwable = var9.getCause();
+         if (throwable instanceof RuntimeException) {
+            throw (RuntimeException)throwable;
+         }
+
+         if (throwable instanceof Error) {
+            throw (Error)throwable;
+         }
+
+         throw var9;
+      }
+
+      Iterator var11 = islands.iterator();
+
+      while(var11.hasNext()) {
+         EntityTickIslands.Island island2 = (EntityTickIslands.Island)var11.next();
+         island2.deferred.forEach(Runnable::run);
+      }
+
+   }
+
+   /**
+    * Groups entities into islands by joining the chunk columns they are in with
+    * all occupied columns within the margin, ordered by their first entity.
+    */
+   private static List<EntityTickIslands.Island> createIslands(World world, List<Entity> entities) {
+      Long2IntOpenHashMap long2IntOpenHashMap = new Long2IntOpenHashMap();
+      long2IntOpenHashMap.defaultReturnValue(-1);
+      LongArrayList longArrayList = new LongArrayList();
+      IntArrayList intArrayList = new IntArrayList();
+      int[] is = new int[entities.size()];
+
+      int j;
+      for(int i = 0; i < is.length; ++i) {
+         Entity entity = (Entity)entities.get(i);
+         long l = ChunkPos.toLong(ChunkSectionPos.getSectionCoord(entity.getBlockX()), ChunkSectionPos.getSectionCoord(entity.getBlockZ()));
+         j = long2IntOpenHashMap.get(l);
+         if (j == -1) {
+            j = longArrayList.size();
+            long2IntOpenHashMap.put(l, j);
+            longArrayList.add(l);
+            intArrayList.add(j);
+         }
+
+         is[i] = j;
+      }
+
+      for(j = 0; j < longArrayList.size(); ++j) {
+         long m = longArrayList.getLong(j);
+         int k = ChunkPos.getPackedX(m);
+         int n = ChunkPos.getPackedZ(m);
+
+         for(int o = -MARGIN; o <= MARGIN; ++o) {
+            for(int p = -MARGIN; p <= MARGIN; ++p) {
+               int q = long2IntOpenHashMap.get(ChunkPos.toLong(k + o, n + p));
+               if (q != -1) {
+                  union(intArrayList, j, q);
+               }
+            }
+         }
+      }
+
+      List<EntityTickIslands.Island> list = Lists.newArrayList();
+      Int2ObjectOpenHashMap<EntityTickIslands.Island> int2ObjectOpenHashMap = new Int2ObjectOpenHashMap();
+
+      for(int r = 0; r < is.length; ++r) {
+         int s = find(intArrayList, is[r]);
+         EntityTickIslands.Island island = (EntityTickIslands.Island)int2ObjectOpenHashMap.get(s);
+         if (island == null) {
+            island = new EntityTickIslands.Island();
+            int2ObjectOpenHashMap.put(s, island);
+            list.add(island);
+         }
+
+         long t = longArrayList.getLong(is[r]);
+         island.add((Entity)entities.get(r), ChunkPos.getPackedX(t), ChunkPos.getPackedZ(t));
+      }
+
+      Iterator var23 = list.iterator();
+
+      while(var23.hasNext()) {
+         EntityTickIslands.Island island2 = (EntityTickIslands.Island)var23.next();
+         if (island2.parallel && !island2.isSurroundingLoaded(world)) {
+            island2.parallel = false;
+         }
+      }
+
+      return list;
+   }
+
+   private static int find(IntArrayList parents, int i) {
+      while(parents.getInt(i) != i) {
+         int j = parents.getInt(parents.getInt(i));
+         parents.set(i, j);
+         i = j;
+      }
+
+      return i;
+   }
+
+   private static void union(IntArrayList parents, int i, int j) {
+      int k = find(parents, i);
+      int l = find(parents, j);
+      if (k != l) {
+         parents.set(Math.max(k, l), Math.min(k, l));
+      }
+
+   }
+
+   static final class Island {
+      final List<Entity> entities = Lists.newArrayList();
+      final List<Runnable> deferred = Lists.newArrayList();
+      Random random;
+      Set<UUID> addedUuids;
+      boolean parallel = true;
+      int minX = Integer.MAX_VALUE;
+      int minZ = Integer.MAX_VALUE;
+      int maxX = Integer.MIN_VALUE;
+      int maxZ = Integer.MIN_VALUE;
+
+      void add(Entity entity, int chunkX, int chunkZ) {
+         this.entities.add(entity);
+         this.parallel &= EntityTickIslands.canTickInParallel(entity);
+         this.minX = Math.min(this.minX, chunkX);
+         this.minZ = Math.min(this.minZ, chunkZ);
+         this.maxX = Math.max(this.maxX, chunkX);
+         this.maxZ = Math.max(this.maxZ, chunkZ);
+      }
+
+      /**
+       * Returns whether all chunks within the margin of this island are loaded,
+       * so that its entities can read them without loading any.
+       */
+      boolean isSurroundingLoaded(World world) {
+         for(int i = this.minX - EntityTickIslands.MARGIN; i <= this.maxX + EntityTickIslands.MARGIN; ++i) {
+            for(int j = this.minZ - EntityTickIslands.MARGIN; j <= this.maxZ + EntityTickIslands.MARGIN; ++j) {
+               if (!world.isChunkLoaded(i, j)) {
+                  return false;
+               }
+            }
+         }
+
+         return true;
+      }
+   }
+
+   /**
+    * The random of a world, which draws from the random of the current island
+    * on island workers and behaves as a plain random on any other thread.
+    */
+   public static class WorldRandom extends Random {
+      protected int next(int bits) {
+         EntityTickIslands.Island island = EntityTickIslands.getCurrentIsland();
+         return island != null ? island.random.nextInt() >>> 32 - bits : super.next(bits);
+      }
+
+      public double nextGaussian() {
+         EntityTickIslands.Island island = EntityTickIslands.getCurrentIsland();
+         return island != null ? island.random.nextGaussian() : super.nextGaussian();
+      }
+
+      public void setSeed(long seed) {
+         EntityTickIslands.Island island = EntityTickIslands.getCurrentIsland();
+         if (island != null) {
+            island.random.setSeed(seed);
+         } else {
+            super.setSeed(seed);
+         }
+
+      }
+   }
+
+   static final class Worker extends ForkJoinWorkerThread {
+      @Nullable
+      EntityTickIslands.Island island;
+
+      Worker(ForkJoinPool pool) {
+         super(pool);
+      }
+
+      protected void onTermination(Throwable throwable) {
+         if (throwable != null) {
+            EntityTickIslands.LOGGER.warn((String)"{} died", (Object)this.getName(), (Object)throwable);
+         } else {
+            EntityTickIslands.LOGGER.debug((String)"{} shutdown", (Object)this.getName());
+         }
+
+         super.onTermination(throwable);
+      }
+   }
+}
@@ -0,0 +1,67 @@
+package net.minecraft.server.world;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.List;
+import java.util.Set;
+import net.minecraft.util.math.ChunkPos;
+
+/**
+ * Groups entity trackers by the chunk column of the position last sent to
+ * clients for their entity, so the trackers a player could start or stop
+ * watching can be found without visiting every tracker.
+ */
+class EntityTrackerIndex<T> {
+   private final Long2ObjectMap<Set<T>> trackersByChunk = new Long2ObjectOpenHashMap();
+
+   public void add(long chunkPos, T tracker) {
+      ((Set)this.trackersByChunk.computeIfAbsent(chunkPos, (pos) -> {
+         return Sets.newIdentityHashSet();
+      })).add(tracker);
+   }
+
+   public void remove(long chunkPos, T tracker) {
+      Set<T> set = (Set)this.trackersByChunk.get(chunkPos);
+      if (set != null && set.remove(tracker) && set.isEmpty()) {
+         this.trackersByChunk.remove(chunkPos);
+      }
+
+   }
+
+   /**
+    * Returns the trackers in the chunk columns between the given chunk
+    * coordinates, inclusive.
+    */
+   public List<T> collect(int minX, int minZ, int maxX, int maxZ) {
+      List<T> list = Lists.newArrayList();
+      long l = (long)(maxX - minX + 1) * (long)(maxZ - minZ + 1);
+      if (l > (long)this.trackersByChunk.size()) {
+         ObjectIterator var8 = Long2ObjectMaps.fastIterable(this.trackersByChunk).iterator();
+
+         while(var8.hasNext()) {
+            Long2ObjectMap.Entry<Set<T>> entry = (Long2ObjectMap.Entry)var8.next();
+            long m = entry.getLongKey();
+            int i = ChunkPos.getPackedX(m);
+            int j = ChunkPos.getPackedZ(m);
+            if (i >= minX && i <= maxX && j >= minZ && j <= maxZ) {
+               list.addAll((Set)entry.getValue());
+            }
+         }
+      } else {
+         for(int k = minX; k <= maxX; ++k) {
+            for(int n = minZ; n <= maxZ; ++n) {
+               Set<T> set = (Set)this.trackersByChunk.get(ChunkPos.toLong(k, n));
+               if (set != null) {
+                  list.addAll(set);
+               }
+            }
+         }
+      }
+
+      return list;
+   }
+}
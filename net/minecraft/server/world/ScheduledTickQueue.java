@@ -0,0 +1,246 @@
+package net.minecraft.server.world;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectRBTreeMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.ScheduledTick;
+import net.minecraft.world.TickPriority;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The pending ticks of a {@link ServerTickScheduler}, bucketed by the time they
+ * are due and indexed by chunk.
+ *
+ * <p>Ticks are deduplicated by position and object like {@link
+ * ScheduledTick#equals}. A bucket keeps one list per priority in the order the
+ * ticks were added, which is their id order, so draining buckets in time order
+ * yields ticks in the order of {@link ScheduledTick#getComparator()}. Removing a
+ * tick only unlinks it from the position and chunk indices; its bucket drops it
+ * when the bucket is next drained.
+ */
+final class ScheduledTickQueue<T> {
+   private static final int PRIORITIES = TickPriority.values().length;
+   private final Comparator<ScheduledTick<T>> comparator = ScheduledTick.getComparator();
+   private final Long2ObjectRBTreeMap<ScheduledTickQueue.Bucket<T>> bucketsByTime = new Long2ObjectRBTreeMap();
+   private final Long2ObjectOpenHashMap<Set<ScheduledTick<T>>> ticksByChunk = new Long2ObjectOpenHashMap();
+   /**
+    * The tick of each position; a position only rarely has ticks for several
+    * objects, and all but the first of them are kept in {@link #collidingTicks}.
+    */
+   private final Long2ObjectOpenHashMap<ScheduledTick<T>> ticksByPos = new Long2ObjectOpenHashMap();
+   private final Map<ScheduledTick<T>, ScheduledTick<T>> collidingTicks = Maps.newHashMap();
+
+   @Nullable
+   public ScheduledTick<T> get(BlockPos pos, T object) {
+      ScheduledTick<T> scheduledTick = (ScheduledTick)this.ticksByPos.get(pos.asLong());
+      if (scheduledTick != null && scheduledTick.getObject() == object) {
+         return scheduledTick;
+      } else {
+         return this.collidingTicks.isEmpty() ? null : (ScheduledTick)this.collidingTicks.get(new ScheduledTick(pos, object));
+      }
+   }
+
+   public boolean contains(BlockPos pos, T object) {
+      return this.get(pos, object) != null;
+   }
+
+   private boolean isQueued(ScheduledTick<T> tick) {
+      return this.get(tick.pos, tick.getObject()) == tick;
+   }
+
+   public int size() {
+      return this.ticksByPos.size() + this.collidingTicks.size();
+   }
+
+   /**
+    * Adds a tick unless one for the same position and object is queued.
+    */
+   public void add(ScheduledTick<T> tick) {
+      long l = tick.pos.asLong();
+      ScheduledTick<T> scheduledTick = (ScheduledTick)this.ticksByPos.get(l);
+      if (scheduledTick == null) {
+         this.ticksByPos.put(l, tick);
+      } else {
+         if (scheduledTick.getObject() == tick.getObject() || this.collidingTicks.containsKey(tick)) {
+            return;
+         }
+
+         this.collidingTicks.put(tick, tick);
+      }
+
+      ((Set)this.ticksByChunk.computeIfAbsent(getChunkPos(tick.pos), (chunkPos) -> {
+         return new ReferenceOpenHashSet();
+      })).add(tick);
+      ((ScheduledTickQueue.Bucket)this.bucketsByTime.computeIfAbsent(tick.time, (time) -> {
+         return new ScheduledTickQueue.Bucket();
+      })).add(tick, this.comparator);
+   }
+
+   public void remove(ScheduledTick<T> tick) {
+      long l = tick.pos.asLong();
+      if (this.ticksByPos.get(l) == tick) {
+         this.ticksByPos.remove(l);
+         if (!this.collidingTicks.isEmpty()) {
+            this.promoteCollidingTick(tick.pos);
+         }
+      } else if (this.collidingTicks.get(tick) == tick) {
+         this.collidingTicks.remove(tick);
+      } else {
+         return;
+      }
+
+      long m = getChunkPos(tick.pos);
+      Set<ScheduledTick<T>> set = (Set)this.ticksByChunk.get(m);
+      set.remove(tick);
+      if (set.isEmpty()) {
+         this.ticksByChunk.remove(m);
+      }
+
+   }
+
+   private void promoteCollidingTick(BlockPos pos) {
+      for(ScheduledTick<T> scheduledTick : this.collidingTicks.keySet()) {
+         if (scheduledTick.pos.equals(pos)) {
+            this.collidingTicks.remove(scheduledTick);
+            this.ticksByPos.put(pos.asLong(), scheduledTick);
+            break;
+         }
+      }
+
+   }
+
+   /**
+    * Moves ticks that are due at {@code time} and whose position passes {@code
+    * predicate} to {@code dst} in tick order, until {@code max} ticks were moved.
+    * Ticks that do not pass stay queued.
+    */
+   public void transferDue(long time, int max, Predicate<BlockPos> predicate, Collection<ScheduledTick<T>> dst) {
+      int i = max;
+      ObjectIterator<Long2ObjectMap.Entry<ScheduledTickQueue.Bucket<T>>> objectIterator = this.bucketsByTime.long2ObjectEntrySet().iterator();
+
+      while(i > 0 && objectIterator.hasNext()) {
+         Long2ObjectMap.Entry<ScheduledTickQueue.Bucket<T>> entry = (Long2ObjectMap.Entry)objectIterator.next();
+         if (entry.getLongKey() > time) {
+            break;
+         }
+
+         ScheduledTickQueue.Bucket<T> bucket = (ScheduledTickQueue.Bucket)entry.getValue();
+
+         for(int j = 0; j < PRIORITIES && i > 0; ++j) {
+            List<ScheduledTick<T>> list = bucket.ticks[j];
+            if (list != null) {
+               int k = 0;
+
+               for(int l = 0; l < list.size(); ++l) {
+                  ScheduledTick<T> scheduledTick = (ScheduledTick)list.get(l);
+                  if (this.isQueued(scheduledTick)) {
+                     if (i > 0 && predicate.test(scheduledTick.pos)) {
+                        this.remove(scheduledTick);
+                        dst.add(scheduledTick);
+                        --i;
+                     } else {
+                        list.set(k++, scheduledTick);
+                     }
+                  }
+               }
+
+               list.subList(k, list.size()).clear();
+            }
+         }
+
+         if (bucket.isEmpty()) {
+            objectIterator.remove();
+         }
+      }
+
+   }
+
+   /**
+    * Returns the ticks whose position lies in {@code bounds}, ignoring their
+    * height and treating the maximum coordinates as exclusive, in tick order.
+    */
+   public List<ScheduledTick<T>> getInBounds(BlockBox bounds, boolean remove) {
+      List<ScheduledTick<T>> list = Lists.newArrayList();
+      int i = ChunkSectionPos.getSectionCoord(bounds.getMinX());
+      int j = ChunkSectionPos.getSectionCoord(bounds.getMaxX() - 1);
+      int k = ChunkSectionPos.getSectionCoord(bounds.getMinZ());
+      int l = ChunkSectionPos.getSectionCoord(bounds.getMaxZ() - 1);
+
+      for(int m = i; m <= j; ++m) {
+         for(int n = k; n <= l; ++n) {
+            Set<ScheduledTick<T>> set = (Set)this.ticksByChunk.get(ChunkPos.toLong(m, n));
+            if (set != null) {
+               for(ScheduledTick<T> scheduledTick : set) {
+                  BlockPos blockPos = scheduledTick.pos;
+                  if (blockPos.getX() >= bounds.getMinX() && blockPos.getX() < bounds.getMaxX() && blockPos.getZ() >= bounds.getMinZ() && blockPos.getZ() < bounds.getMaxZ()) {
+                     list.add(scheduledTick);
+                  }
+               }
+            }
+         }
+      }
+
+      list.sort(this.comparator);
+      if (remove) {
+         for(ScheduledTick<T> scheduledTick2 : list) {
+            this.remove(scheduledTick2);
+         }
+      }
+
+      return list;
+   }
+
+   private static long getChunkPos(BlockPos pos) {
+      return ChunkPos.toLong(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()));
+   }
+
+   static final class Bucket<T> {
+      final List<ScheduledTick<T>>[] ticks;
+
+      Bucket() {
+         this.ticks = new List[ScheduledTickQueue.PRIORITIES];
+      }
+
+      void add(ScheduledTick<T> tick, Comparator<ScheduledTick<T>> comparator) {
+         int i = tick.priority.ordinal();
+         List<ScheduledTick<T>> list = this.ticks[i];
+         if (list == null) {
+            list = Lists.newArrayList();
+            this.ticks[i] = list;
+         }
+
+         if (!list.isEmpty() && comparator.compare((ScheduledTick)list.get(list.size() - 1), tick) > 0) {
+            int j = Collections.binarySearch(list, tick, comparator);
+            list.add(j < 0 ? -j - 1 : j, tick);
+         } else {
+            list.add(tick);
+         }
+
+      }
+
+      boolean isEmpty() {
+         for(List<ScheduledTick<T>> list : this.ticks) {
+            if (list != null && !list.isEmpty()) {
+               return false;
+            }
+         }
+
+         return true;
+      }
+   }
+}
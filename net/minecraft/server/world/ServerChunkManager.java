@@ -40,10 +40,12 @@ import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ChunkManager;
 import net.minecraft.world.chunk.ChunkStatus;
 import net.minecraft.world.chunk.ChunkStatusChangeListener;
+import net.minecraft.world.chunk.EmptyChunk;
 import net.minecraft.world.chunk.WorldChunk;
 import net.minecraft.world.gen.chunk.ChunkGenerator;
 import net.minecraft.world.level.storage.LevelStorage;
 import net.minecraft.world.poi.PointOfInterestStorage;
+import net.minecraft.world.storage.RegionStorageOptions;
 import org.jetbrains.annotations.Nullable;
 
 public class ServerChunkManager extends ChunkManager {
@@ -67,7 +69,7 @@ public class ServerChunkManager extends ChunkManager {
    @Debug
    private SpawnHelper.Info spawnInfo;
 
-   public ServerChunkManager(ServerWorld world, LevelStorage.Session session, DataFixer dataFixer, StructureManager structureManager, Executor workerExecutor, ChunkGenerator chunkGenerator, int viewDistance, boolean bl, WorldGenerationProgressListener worldGenerationProgressListener, ChunkStatusChangeListener chunkStatusChangeListener, Supplier<PersistentStateManager> supplier) {
+   public ServerChunkManager(ServerWorld world, LevelStorage.Session session, DataFixer dataFixer, StructureManager structureManager, Executor workerExecutor, ChunkGenerator chunkGenerator, int viewDistance, RegionStorageOptions options, boolean bl, WorldGenerationProgressListener worldGenerationProgressListener, ChunkStatusChangeListener chunkStatusChangeListener, Supplier<PersistentStateManager> supplier) {
       this.world = world;
       this.mainThreadExecutor = new ServerChunkManager.MainThreadExecutor(world);
       this.chunkGenerator = chunkGenerator;
@@ -76,7 +78,7 @@ public class ServerChunkManager extends ChunkManager {
       File file2 = new File(file, "data");
       file2.mkdirs();
       this.persistentStateManager = new PersistentStateManager(file2, dataFixer);
-      this.threadedAnvilChunkStorage = new ThreadedAnvilChunkStorage(world, session, dataFixer, structureManager, workerExecutor, this.mainThreadExecutor, this, this.getChunkGenerator(), worldGenerationProgressListener, chunkStatusChangeListener, supplier, viewDistance, bl);
+      this.threadedAnvilChunkStorage = new ThreadedAnvilChunkStorage(world, session, dataFixer, structureManager, workerExecutor, this.mainThreadExecutor, this, this.getChunkGenerator(), worldGenerationProgressListener, chunkStatusChangeListener, supplier, viewDistance, options, bl);
       this.lightingProvider = this.threadedAnvilChunkStorage.getLightingProvider();
       this.ticketManager = this.threadedAnvilChunkStorage.getTicketManager();
       this.initChunkCaches();
@@ -109,7 +111,10 @@ public class ServerChunkManager extends ChunkManager {
 
    @Nullable
    public Chunk getChunk(int x, int z, ChunkStatus leastStatus, boolean create) {
-      if (Thread.currentThread() != this.serverThread) {
+      if (EntityTickIslands.isWorkerThread()) {
+         Chunk chunk = this.getLoadedChunk(x, z, leastStatus);
+         return (Chunk)(chunk == null && create ? new EmptyChunk(this.world, new ChunkPos(x, z)) : chunk);
+      } else if (Thread.currentThread() != this.serverThread) {
          return (Chunk)CompletableFuture.supplyAsync(() -> {
             return this.getChunk(x, z, leastStatus, create);
          }, this.mainThreadExecutor).join();
@@ -147,9 +152,25 @@ public class ServerChunkManager extends ChunkManager {
       }
    }
 
+   /**
+    * Returns a chunk that is already loaded to at least {@code leastStatus}
+    * without touching the chunk cache, for entity island workers, which may
+    * neither load chunks nor wait for the server thread. Workers asking for a
+    * chunk that is not loaded get an empty chunk instead.
+    */
+   @Nullable
+   private Chunk getLoadedChunk(int x, int z, ChunkStatus leastStatus) {
+      ChunkHolder chunkHolder = this.getChunkHolder(ChunkPos.toLong(x, z));
+      int i = 33 + ChunkStatus.getDistanceFromFull(leastStatus);
+      return this.isMissingForLevel(chunkHolder, i) ? null : (Chunk)((Either)chunkHolder.getValidFutureFor(leastStatus).getNow(ChunkHolder.UNLOADED_CHUNK)).left().orElse((Object)null);
+   }
+
    @Nullable
    public WorldChunk getWorldChunk(int chunkX, int chunkZ) {
-      if (Thread.currentThread() != this.serverThread) {
+      if (EntityTickIslands.isWorkerThread()) {
+         Chunk chunk = this.getLoadedChunk(chunkX, chunkZ, ChunkStatus.FULL);
+         return chunk instanceof WorldChunk ? (WorldChunk)chunk : null;
+      } else if (Thread.currentThread() != this.serverThread) {
          return null;
       } else {
          this.world.getProfiler().visit("getChunkNow");
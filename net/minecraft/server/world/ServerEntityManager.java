@@ -430,6 +430,8 @@ public class ServerEntityManager<T extends EntityLike> implements AutoCloseable
       private final T entity;
       private long sectionPos;
       private EntityTrackingSection<T> section;
+      private boolean updateDeferred;
+      private boolean removed;
 
       Listener(T entityLike, long l, EntityTrackingSection<T> entityTrackingSection) {
          this.entity = entityLike;
@@ -441,17 +443,30 @@ public class ServerEntityManager<T extends EntityLike> implements AutoCloseable
          BlockPos blockPos = this.entity.getBlockPos();
          long l = ChunkSectionPos.toLong(blockPos);
          if (l != this.sectionPos) {
-            EntityTrackingStatus entityTrackingStatus = this.section.getStatus();
-            if (!this.section.remove(this.entity)) {
-               ServerEntityManager.LOGGER.warn((String)"Entity {} wasn't found in section {} (moving to {})", (Object)this.entity, ChunkSectionPos.from(this.sectionPos), l);
-            }
+            if (EntityTickIslands.isWorkerThread()) {
+               if (!this.updateDeferred) {
+                  this.updateDeferred = true;
+                  EntityTickIslands.defer(() -> {
+                     this.updateDeferred = false;
+                     if (!this.removed) {
+                        this.updateEntityPosition();
+                     }
+
+                  });
+               }
+            } else {
+               EntityTrackingStatus entityTrackingStatus = this.section.getStatus();
+               if (!this.section.remove(this.entity)) {
+                  ServerEntityManager.LOGGER.warn((String)"Entity {} wasn't found in section {} (moving to {})", (Object)this.entity, ChunkSectionPos.from(this.sectionPos), l);
+               }
 
-            ServerEntityManager.this.entityLeftSection(this.sectionPos, this.section);
-            EntityTrackingSection<T> entityTrackingSection = ServerEntityManager.this.cache.getTrackingSection(l);
-            entityTrackingSection.add(this.entity);
-            this.section = entityTrackingSection;
-            this.sectionPos = l;
-            this.updateLoadStatus(entityTrackingStatus, entityTrackingSection.getStatus());
+               ServerEntityManager.this.entityLeftSection(this.sectionPos, this.section);
+               EntityTrackingSection<T> entityTrackingSection = ServerEntityManager.this.cache.getTrackingSection(l);
+               entityTrackingSection.add(this.entity);
+               this.section = entityTrackingSection;
+               this.sectionPos = l;
+               this.updateLoadStatus(entityTrackingStatus, entityTrackingSection.getStatus());
+            }
          }
 
       }
@@ -480,6 +495,18 @@ public class ServerEntityManager<T extends EntityLike> implements AutoCloseable
       }
 
       public void remove(Entity.RemovalReason reason) {
+         this.removed = true;
+         if (EntityTickIslands.isWorkerThread()) {
+            EntityTickIslands.defer(() -> {
+               this.removeFromSection(reason);
+            });
+         } else {
+            this.removeFromSection(reason);
+         }
+
+      }
+
+      private void removeFromSection(Entity.RemovalReason reason) {
          if (!this.section.remove(this.entity)) {
             ServerEntityManager.LOGGER.warn((String)"Entity {} wasn't found in section {} (destroying due to {})", (Object)this.entity, ChunkSectionPos.from(this.sectionPos), reason);
          }
@@ -5,6 +5,7 @@ import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectList;
 import it.unimi.dsi.fastutil.objects.ObjectListIterator;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.IntSupplier;
 import net.minecraft.util.Util;
@@ -31,12 +32,23 @@ public class ServerLightingProvider extends LightingProvider implements AutoClos
    private final MessageListener<ChunkTaskPrioritySystem.Task<Runnable>> executor;
    private volatile int taskBatchSize = 5;
    private final AtomicBoolean ticking = new AtomicBoolean();
+   /**
+    * The executor the block light engine runs on while the sky light engine
+    * runs on the light thread, or {@code null} to run both on the light thread.
+    */
+   @Nullable
+   private final Executor parallelExecutor;
 
    public ServerLightingProvider(ChunkProvider chunkProvider, ThreadedAnvilChunkStorage chunkStorage, boolean hasBlockLight, TaskExecutor<Runnable> processor, MessageListener<ChunkTaskPrioritySystem.Task<Runnable>> executor) {
+      this(chunkProvider, chunkStorage, hasBlockLight, processor, executor, (Executor)null);
+   }
+
+   public ServerLightingProvider(ChunkProvider chunkProvider, ThreadedAnvilChunkStorage chunkStorage, boolean hasBlockLight, TaskExecutor<Runnable> processor, MessageListener<ChunkTaskPrioritySystem.Task<Runnable>> executor, @Nullable Executor parallelExecutor) {
       super(chunkProvider, true, hasBlockLight);
       this.chunkStorage = chunkStorage;
       this.executor = executor;
       this.processor = processor;
+      this.parallelExecutor = parallelExecutor;
    }
 
    public void close() {
@@ -191,7 +203,11 @@ public class ServerLightingProvider extends LightingProvider implements AutoClos
       }
 
       objectListIterator.back(j);
-      super.doLightUpdates(Integer.MAX_VALUE, true, true);
+      if (this.parallelExecutor != null) {
+         this.doLightUpdatesInParallel(this.parallelExecutor);
+      } else {
+         super.doLightUpdates(Integer.MAX_VALUE, true, true);
+      }
 
       for(j = 0; objectListIterator.hasNext() && j < i; ++j) {
          pair2 = (Pair)objectListIterator.next();
@@ -2,16 +2,16 @@ package net.minecraft.server.world;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Queues;
-import com.google.common.collect.Sets;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Queue;
-import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import net.minecraft.block.BlockState;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtList;
@@ -31,8 +31,7 @@ public class ServerTickScheduler<T> implements TickScheduler<T> {
    public static final int field_30975 = 65536;
    protected final Predicate<T> invalidObjPredicate;
    private final Function<T, Identifier> idToName;
-   private final Set<ScheduledTick<T>> scheduledTickActions = Sets.newHashSet();
-   private final Set<ScheduledTick<T>> scheduledTickActionsInOrder = Sets.newTreeSet(ScheduledTick.getComparator());
+   private final ScheduledTickQueue<T> scheduledTickActions = new ScheduledTickQueue();
    private final ServerWorld world;
    private final Queue<ScheduledTick<T>> currentTickActions = Queues.newArrayDeque();
    private final List<ScheduledTick<T>> consumedTickActions = Lists.newArrayList();
@@ -46,54 +45,32 @@ public class ServerTickScheduler<T> implements TickScheduler<T> {
    }
 
    public void tick() {
-      int i = this.scheduledTickActionsInOrder.size();
-      if (i != this.scheduledTickActions.size()) {
-         throw new IllegalStateException("TickNextTick list out of synch");
-      } else {
-         if (i > 65536) {
-            i = 65536;
-         }
-
-         Iterator<ScheduledTick<T>> iterator = this.scheduledTickActionsInOrder.iterator();
-         this.world.getProfiler().push("cleaning");
-
-         ScheduledTick scheduledTick2;
-         while(i > 0 && iterator.hasNext()) {
-            scheduledTick2 = (ScheduledTick)iterator.next();
-            if (scheduledTick2.time > this.world.getTime()) {
-               break;
-            }
-
-            if (this.world.method_37117(scheduledTick2.pos)) {
-               iterator.remove();
-               this.scheduledTickActions.remove(scheduledTick2);
-               this.currentTickActions.add(scheduledTick2);
-               --i;
-            }
-         }
-
-         this.world.getProfiler().swap("ticking");
-
-         while((scheduledTick2 = (ScheduledTick)this.currentTickActions.poll()) != null) {
-            if (this.world.method_37117(scheduledTick2.pos)) {
-               try {
-                  this.consumedTickActions.add(scheduledTick2);
-                  this.tickConsumer.accept(scheduledTick2);
-               } catch (Throwable var7) {
-                  CrashReport crashReport = CrashReport.create(var7, "Exception while ticking");
-                  CrashReportSection crashReportSection = crashReport.addElement("Block being ticked");
-                  CrashReportSection.addBlockInfo(crashReportSection, this.world, scheduledTick2.pos, (BlockState)null);
-                  throw new CrashException(crashReport);
-               }
-            } else {
-               this.schedule(scheduledTick2.pos, scheduledTick2.getObject(), 0);
+      this.world.getProfiler().push("cleaning");
+      ServerWorld var10003 = this.world;
+      Objects.requireNonNull(var10003);
+      this.scheduledTickActions.transferDue(this.world.getTime(), 65536, var10003::method_37117, this.currentTickActions);
+      ScheduledTick scheduledTick2;
+      this.world.getProfiler().swap("ticking");
+
+      while((scheduledTick2 = (ScheduledTick)this.currentTickActions.poll()) != null) {
+         if (this.world.method_37117(scheduledTick2.pos)) {
+            try {
+               this.consumedTickActions.add(scheduledTick2);
+               this.tickConsumer.accept(scheduledTick2);
+            } catch (Throwable var7) {
+               CrashReport crashReport = CrashReport.create(var7, "Exception while ticking");
+               CrashReportSection crashReportSection = crashReport.addElement("Block being ticked");
+               CrashReportSection.addBlockInfo(crashReportSection, this.world, scheduledTick2.pos, (BlockState)null);
+               throw new CrashException(crashReport);
             }
+         } else {
+            this.schedule(scheduledTick2.pos, scheduledTick2.getObject(), 0);
          }
-
-         this.world.getProfiler().pop();
-         this.consumedTickActions.clear();
-         this.currentTickActions.clear();
       }
+
+      this.world.getProfiler().pop();
+      this.consumedTickActions.clear();
+      this.currentTickActions.clear();
    }
 
    public boolean isTicking(BlockPos pos, T object) {
@@ -109,9 +86,9 @@ public class ServerTickScheduler<T> implements TickScheduler<T> {
    }
 
    public List<ScheduledTick<T>> getScheduledTicks(BlockBox bounds, boolean updateState, boolean getStaleTicks) {
-      List<ScheduledTick<T>> list = this.transferTicksInBounds((List)null, this.scheduledTickActionsInOrder, bounds, updateState);
-      if (updateState && list != null) {
-         this.scheduledTickActions.removeAll(list);
+      List<ScheduledTick<T>> list = this.scheduledTickActions.getInBounds(bounds, updateState);
+      if (list.isEmpty()) {
+         list = null;
       }
 
       list = this.transferTicksInBounds(list, this.currentTickActions, bounds, updateState);
@@ -165,6 +142,19 @@ public class ServerTickScheduler<T> implements TickScheduler<T> {
       return serializeScheduledTicks(this.idToName, list, this.world.getTime());
    }
 
+   /**
+    * Captures the ticks scheduled in the chunk now, and returns a supplier of
+    * the NBT that {@link #toNbt(ChunkPos)} returns for them, which may be called
+    * on any thread.
+    */
+   public Supplier<NbtList> toNbtLater(ChunkPos chunkPos) {
+      List<ScheduledTick<T>> list = this.getScheduledTicksInChunk(chunkPos, false, true);
+      long l = this.world.getTime();
+      return () -> {
+         return serializeScheduledTicks(this.idToName, list, l);
+      };
+   }
+
    private static <T> NbtList serializeScheduledTicks(Function<T, Identifier> identifierProvider, Iterable<ScheduledTick<T>> scheduledTicks, long time) {
       NbtList nbtList = new NbtList();
       Iterator var5 = scheduledTicks.iterator();
@@ -185,22 +175,26 @@ public class ServerTickScheduler<T> implements TickScheduler<T> {
    }
 
    public boolean isScheduled(BlockPos pos, T object) {
-      return this.scheduledTickActions.contains(new ScheduledTick(pos, object));
+      return this.scheduledTickActions.contains(pos, object);
    }
 
    public void schedule(BlockPos pos, T object, int delay, TickPriority priority) {
       if (!this.invalidObjPredicate.test(object)) {
-         this.addScheduledTick(new ScheduledTick(pos, object, (long)delay + this.world.getTime(), priority));
+         long l = (long)delay + this.world.getTime();
+         if (EntityTickIslands.isWorkerThread()) {
+            BlockPos blockPos = pos.toImmutable();
+            EntityTickIslands.defer(() -> {
+               this.addScheduledTick(new ScheduledTick(blockPos, object, l, priority));
+            });
+         } else {
+            this.addScheduledTick(new ScheduledTick(pos, object, l, priority));
+         }
       }
 
    }
 
    private void addScheduledTick(ScheduledTick<T> tick) {
-      if (!this.scheduledTickActions.contains(tick)) {
-         this.scheduledTickActions.add(tick);
-         this.scheduledTickActionsInOrder.add(tick);
-      }
-
+      this.scheduledTickActions.add(tick);
    }
 
    public int getTicks() {
@@ -43,6 +43,7 @@ import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.Npc;
 import net.minecraft.entity.SpawnGroup;
 import net.minecraft.entity.ai.pathing.EntityNavigation;
+import net.minecraft.entity.ai.pathing.PathfindingService;
 import net.minecraft.entity.boss.dragon.EnderDragonEntity;
 import net.minecraft.entity.boss.dragon.EnderDragonFight;
 import net.minecraft.entity.boss.dragon.EnderDragonPart;
@@ -96,6 +97,7 @@ import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.profiler.DummyProfiler;
 import net.minecraft.util.profiler.Profiler;
 import net.minecraft.util.registry.DefaultedRegistry;
 import net.minecraft.util.registry.DynamicRegistryManager;
@@ -114,6 +116,7 @@ import net.minecraft.world.LocalDifficulty;
 import net.minecraft.world.PersistentStateManager;
 import net.minecraft.world.PortalForcer;
 import net.minecraft.world.ScheduledTick;
+import net.minecraft.world.SpawnCandidateCache;
 import net.minecraft.world.SpawnHelper;
 import net.minecraft.world.StructureWorldAccess;
 import net.minecraft.world.Vibration;
@@ -139,6 +142,7 @@ import net.minecraft.world.poi.PointOfInterestStorage;
 import net.minecraft.world.poi.PointOfInterestType;
 import net.minecraft.world.storage.ChunkDataAccess;
 import net.minecraft.world.storage.EntityChunkDataAccess;
+import net.minecraft.world.storage.RegionStorageOptions;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
@@ -174,6 +178,12 @@ public class ServerWorld extends World implements StructureWorldAccess {
    final Int2ObjectMap<EnderDragonPart> dragonParts;
    private final StructureAccessor structureAccessor;
    private final boolean shouldTickTime;
+   @Nullable
+   private final SpawnCandidateCache spawnCandidateCache;
+   @Nullable
+   private final EntityTickIslands entityTickIslands;
+   @Nullable
+   private final PathfindingService pathfindingService;
 
    public ServerWorld(MinecraftServer server, Executor workerExecutor, LevelStorage.Session session, ServerWorldProperties properties, RegistryKey<World> worldKey, DimensionType dimensionType, WorldGenerationProgressListener worldGenerationProgressListener, ChunkGenerator chunkGenerator, boolean debugWorld, long seed, List<Spawner> spawners, boolean shouldTickTime) {
       Objects.requireNonNull(server);
@@ -197,17 +207,21 @@ public class ServerWorld extends World implements StructureWorldAccess {
       this.dragonParts = new Int2ObjectOpenHashMap();
       this.shouldTickTime = shouldTickTime;
       this.server = server;
+      this.spawnCandidateCache = server.usesSpawnCandidateCache() ? new SpawnCandidateCache() : null;
+      this.entityTickIslands = server.usesParallelEntityTicking() ? new EntityTickIslands() : null;
+      this.pathfindingService = server.usesAsyncPathfinding() ? new PathfindingService(this) : null;
       this.spawners = spawners;
       this.worldProperties = properties;
       boolean bl = server.syncChunkWrites();
+      RegionStorageOptions regionStorageOptions = server.getRegionStorageOptions();
       DataFixer dataFixer = server.getDataFixer();
-      ChunkDataAccess<Entity> chunkDataAccess = new EntityChunkDataAccess(this, new File(session.getWorldDirectory(worldKey), "entities"), dataFixer, bl, server);
+      ChunkDataAccess<Entity> chunkDataAccess = new EntityChunkDataAccess(this, new File(session.getWorldDirectory(worldKey), "entities"), dataFixer, regionStorageOptions, bl, server);
       this.entityManager = new ServerEntityManager(Entity.class, new ServerWorld.ServerEntityHandler(), chunkDataAccess);
       StructureManager var10006 = server.getStructureManager();
       int var10009 = server.getPlayerManager().getViewDistance();
       ServerEntityManager var10012 = this.entityManager;
       Objects.requireNonNull(var10012);
-      this.chunkManager = new ServerChunkManager(this, session, dataFixer, var10006, workerExecutor, chunkGenerator, var10009, bl, worldGenerationProgressListener, var10012::updateTrackingStatus, () -> {
+      this.chunkManager = new ServerChunkManager(this, session, dataFixer, var10006, workerExecutor, chunkGenerator, var10009, regionStorageOptions, bl, worldGenerationProgressListener, var10012::updateTrackingStatus, () -> {
          return server.getOverworld().getPersistentStateManager();
       });
       this.portalForcer = new PortalForcer(this);
@@ -245,6 +259,24 @@ public class ServerWorld extends World implements StructureWorldAccess {
       return this.getChunkManager().getChunkGenerator().getBiomeSource().getBiomeForNoiseGen(biomeX, biomeY, biomeZ);
    }
 
+   /**
+    * Returns the cache of spawn candidates natural spawning picks from, or
+    * {@code null} if it picks from all positions below the surface.
+    */
+   @Nullable
+   public SpawnCandidateCache getSpawnCandidateCache() {
+      return this.spawnCandidateCache;
+   }
+
+   /**
+    * Returns the service mobs find paths with off the server thread, or {@code
+    * null} if they find all their paths on the thread ticking them.
+    */
+   @Nullable
+   public PathfindingService getPathfindingService() {
+      return this.pathfindingService;
+   }
+
    public StructureAccessor getStructureAccessor() {
       return this.structureAccessor;
    }
@@ -380,29 +412,12 @@ public class ServerWorld extends World implements StructureWorldAccess {
             profiler.pop();
          }
 
-         this.entityList.forEach((entity) -> {
-            if (!entity.isRemoved()) {
-               if (this.shouldCancelSpawn(entity)) {
-                  entity.discard();
-               } else {
-                  profiler.push("checkDespawn");
-                  entity.checkDespawn();
-                  profiler.pop();
-                  Entity entity2 = entity.getVehicle();
-                  if (entity2 != null) {
-                     if (!entity2.isRemoved() && entity2.hasPassenger(entity)) {
-                        return;
-                     }
-
-                     entity.stopRiding();
-                  }
+         if (this.entityTickIslands != null) {
+            this.entityTickIslands.tick(this, this.entityList, this::tickListedEntity);
+         } else {
+            this.entityList.forEach(this::tickListedEntity);
+         }
 
-                  profiler.push("tick");
-                  this.tickEntity(this::tickEntity, entity);
-                  profiler.pop();
-               }
-            }
-         });
          profiler.pop();
          this.tickBlockEntities();
       }
@@ -638,6 +653,35 @@ public class ServerWorld extends World implements StructureWorldAccess {
 
    }
 
+   /**
+    * Ticks an entity of the entity list, unless it is gone or is ticked by its
+    * vehicle. This may run on an {@linkplain EntityTickIslands entity island}
+    * worker, so it goes through {@link #getProfiler} rather than holding on to
+    * the profiler of the tick.
+    */
+   private void tickListedEntity(Entity entity) {
+      if (!entity.isRemoved()) {
+         if (this.shouldCancelSpawn(entity)) {
+            entity.discard();
+         } else {
+            Profiler profiler = this.getProfiler();
+            profiler.push("checkDespawn");
+            entity.checkDespawn();
+            profiler.pop();
+            Entity entity2 = entity.getVehicle();
+            if (entity2 == null || entity2.isRemoved() || !entity2.hasPassenger(entity)) {
+               if (entity2 != null) {
+                  entity.stopRiding();
+               }
+
+               profiler.push("tick");
+               this.tickEntity(this::tickEntity, entity);
+               profiler.pop();
+            }
+         }
+      }
+   }
+
    public void tickEntity(Entity entity) {
       entity.resetPosition();
       Profiler profiler = this.getProfiler();
@@ -805,6 +849,16 @@ public class ServerWorld extends World implements StructureWorldAccess {
       if (entity.isRemoved()) {
          LOGGER.warn((String)"Tried to add entity {} but it was marked as removed already", (Object)EntityType.getId(entity.getType()));
          return false;
+      } else if (EntityTickIslands.isWorkerThread()) {
+         if (!this.entityManager.has(entity.getUuid()) && EntityTickIslands.claimUuid(entity.getUuid())) {
+            EntityTickIslands.defer(() -> {
+               this.entityManager.addEntity(entity);
+            });
+            return true;
+         } else {
+            LOGGER.warn((String)"UUID of added entity already exists: {}", (Object)entity);
+            return false;
+         }
       } else {
          return this.entityManager.addEntity(entity);
       }
@@ -824,6 +878,10 @@ public class ServerWorld extends World implements StructureWorldAccess {
 
    public void unloadEntities(WorldChunk chunk) {
       chunk.removeAllBlockEntities();
+      if (this.spawnCandidateCache != null) {
+         this.spawnCandidateCache.onChunkUnloaded(chunk);
+      }
+
    }
 
    public void removePlayer(ServerPlayerEntity player, Entity.RemovalReason reason) {
@@ -876,17 +934,29 @@ public class ServerWorld extends World implements StructureWorldAccess {
       VoxelShape voxelShape = oldState.getCollisionShape(this, pos);
       VoxelShape voxelShape2 = newState.getCollisionShape(this, pos);
       if (VoxelShapes.matchesAnywhere(voxelShape, voxelShape2, BooleanBiFunction.NOT_SAME)) {
-         Iterator var7 = this.loadedMobs.iterator();
-
-         while(var7.hasNext()) {
-            MobEntity mobEntity = (MobEntity)var7.next();
-            EntityNavigation entityNavigation = mobEntity.getNavigation();
-            if (!entityNavigation.shouldRecalculatePath()) {
-               entityNavigation.onBlockChanged(pos);
-            }
+         if (EntityTickIslands.isWorkerThread()) {
+            BlockPos blockPos = pos.toImmutable();
+            EntityTickIslands.defer(() -> {
+               this.notifyNavigations(blockPos);
+            });
+         } else {
+            this.notifyNavigations(pos);
          }
+      }
+
+   }
 
+   private void notifyNavigations(BlockPos pos) {
+      Iterator var2 = this.loadedMobs.iterator();
+
+      while(var2.hasNext()) {
+         MobEntity mobEntity = (MobEntity)var2.next();
+         EntityNavigation entityNavigation = mobEntity.getNavigation();
+         if (!entityNavigation.shouldRecalculatePath()) {
+            entityNavigation.onBlockChanged(pos);
+         }
       }
+
    }
 
    public void sendEntityStatus(Entity entity, byte status) {
@@ -897,6 +967,16 @@ public class ServerWorld extends World implements StructureWorldAccess {
       return this.chunkManager;
    }
 
+   /**
+    * {@inheritDoc}
+    *
+    * <p>Entity island workers get a profiler that records nothing, as the
+    * profiler of the tick is not thread safe.
+    */
+   public Profiler getProfiler() {
+      return (Profiler)(EntityTickIslands.isWorkerThread() ? DummyProfiler.INSTANCE : super.getProfiler());
+   }
+
    public Explosion createExplosion(@Nullable Entity entity, @Nullable DamageSource damageSource, @Nullable ExplosionBehavior behavior, double x, double y, double z, float power, boolean createFire, Explosion.DestructionType destructionType) {
       Explosion explosion = new Explosion(this, entity, damageSource, behavior, x, y, z, power, createFire, destructionType);
       explosion.collectBlocksAndDamageEntities();
@@ -918,7 +998,15 @@ public class ServerWorld extends World implements StructureWorldAccess {
    }
 
    public void addSyncedBlockEvent(BlockPos pos, Block block, int type, int data) {
-      this.syncedBlockEventQueue.add(new BlockEvent(pos, block, type, data));
+      BlockEvent blockEvent = new BlockEvent(pos.toImmutable(), block, type, data);
+      if (EntityTickIslands.isWorkerThread()) {
+         EntityTickIslands.defer(() -> {
+            this.syncedBlockEventQueue.add(blockEvent);
+         });
+      } else {
+         this.syncedBlockEventQueue.add(blockEvent);
+      }
+
    }
 
    private void processSyncedBlockEvents() {
@@ -1113,6 +1201,17 @@ public class ServerWorld extends World implements StructureWorldAccess {
    }
 
    public void onBlockChanged(BlockPos pos, BlockState oldBlock, BlockState newBlock) {
+      if (this.spawnCandidateCache != null) {
+         if (EntityTickIslands.isWorkerThread()) {
+            BlockPos blockPos = pos.toImmutable();
+            EntityTickIslands.defer(() -> {
+               this.spawnCandidateCache.onBlockChanged(blockPos);
+            });
+         } else {
+            this.spawnCandidateCache.onBlockChanged(pos);
+         }
+      }
+
       Optional<PointOfInterestType> optional = PointOfInterestType.from(oldBlock);
       Optional<PointOfInterestType> optional2 = PointOfInterestType.from(newBlock);
       if (!Objects.equals(optional, optional2)) {
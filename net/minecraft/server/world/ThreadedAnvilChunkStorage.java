@@ -3,6 +3,7 @@ package net.minecraft.server.world;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
 import com.google.common.collect.Sets;
 import com.mojang.datafixers.DataFixer;
@@ -13,6 +14,7 @@ import it.unimi.dsi.fastutil.longs.Long2ByteMap;
 import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap.Entry;
@@ -24,6 +26,7 @@ import java.io.Writer;
 import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
@@ -41,11 +44,13 @@ import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import net.minecraft.SharedConstants;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.boss.dragon.EnderDragonPart;
 import net.minecraft.entity.mob.MobEntity;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.network.EncodedPacket;
 import net.minecraft.network.Packet;
 import net.minecraft.network.packet.s2c.play.ChunkDataS2CPacket;
 import net.minecraft.network.packet.s2c.play.ChunkRenderDistanceCenterS2CPacket;
@@ -63,6 +68,7 @@ import net.minecraft.util.Util;
 import net.minecraft.util.crash.CrashException;
 import net.minecraft.util.crash.CrashReport;
 import net.minecraft.util.crash.CrashReportSection;
+import net.minecraft.util.math.Box;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.MathHelper;
@@ -72,6 +78,7 @@ import net.minecraft.util.thread.MessageListener;
 import net.minecraft.util.thread.TaskExecutor;
 import net.minecraft.util.thread.ThreadExecutor;
 import net.minecraft.world.ChunkSerializer;
+import net.minecraft.world.ChunkSnapshot;
 import net.minecraft.world.GameRules;
 import net.minecraft.world.PersistentStateManager;
 import net.minecraft.world.chunk.Chunk;
@@ -85,6 +92,7 @@ import net.minecraft.world.chunk.WorldChunk;
 import net.minecraft.world.gen.chunk.ChunkGenerator;
 import net.minecraft.world.level.storage.LevelStorage;
 import net.minecraft.world.poi.PointOfInterestStorage;
+import net.minecraft.world.storage.RegionStorageOptions;
 import net.minecraft.world.storage.VersionedChunkStorage;
 import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.apache.logging.log4j.LogManager;
@@ -127,12 +135,22 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
    private final String saveDir;
    private final PlayerChunkWatchingManager playerChunkWatchingManager;
    private final Int2ObjectMap<ThreadedAnvilChunkStorage.EntityTracker> entityTrackers;
+   private final EntityTrackerIndex<ThreadedAnvilChunkStorage.EntityTracker> entityTrackerIndex;
+   /**
+    * The trackers each player is listening to, the inverse of the listeners of
+    * the trackers.
+    */
+   private final Map<EntityTrackingListener, Set<ThreadedAnvilChunkStorage.EntityTracker>> trackersByListener;
+   private final boolean sharesPacketEncoding;
+   private final boolean cachesChunkPacketData;
    private final Long2ByteMap chunkToType;
    private final Queue<Runnable> unloadTaskQueue;
+   private final LongLinkedOpenHashSet autosaveQueue;
+   private long lastBytesWritten;
    int watchDistance;
 
-   public ThreadedAnvilChunkStorage(ServerWorld world, LevelStorage.Session session, DataFixer dataFixer, StructureManager structureManager, Executor executor, ThreadExecutor<Runnable> mainThreadExecutor, ChunkProvider chunkProvider, ChunkGenerator chunkGenerator, WorldGenerationProgressListener worldGenerationProgressListener, ChunkStatusChangeListener chunkStatusChangeListener, Supplier<PersistentStateManager> persistentStateManagerFactory, int viewDistance, boolean dsync) {
-      super(new File(session.getWorldDirectory(world.getRegistryKey()), "region"), dataFixer, dsync);
+   public ThreadedAnvilChunkStorage(ServerWorld world, LevelStorage.Session session, DataFixer dataFixer, StructureManager structureManager, Executor executor, ThreadExecutor<Runnable> mainThreadExecutor, ChunkProvider chunkProvider, ChunkGenerator chunkGenerator, WorldGenerationProgressListener worldGenerationProgressListener, ChunkStatusChangeListener chunkStatusChangeListener, Supplier<PersistentStateManager> persistentStateManagerFactory, int viewDistance, RegionStorageOptions options, boolean dsync) {
+      super(new File(session.getWorldDirectory(world.getRegistryKey()), "region"), dataFixer, options, dsync);
       this.chunkHolders = this.currentChunkHolders.clone();
       this.chunksToUnload = new Long2ObjectLinkedOpenHashMap();
       this.loadedChunks = new LongOpenHashSet();
@@ -140,8 +158,13 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
       this.totalChunksLoadedCount = new AtomicInteger();
       this.playerChunkWatchingManager = new PlayerChunkWatchingManager();
       this.entityTrackers = new Int2ObjectOpenHashMap();
+      this.entityTrackerIndex = new EntityTrackerIndex();
+      this.trackersByListener = Maps.newIdentityHashMap();
+      this.sharesPacketEncoding = world.getServer().usesSharedPacketEncoding();
+      this.cachesChunkPacketData = world.getServer().usesChunkPacketCache();
       this.chunkToType = new Long2ByteOpenHashMap();
       this.unloadTaskQueue = Queues.newConcurrentLinkedQueue();
+      this.autosaveQueue = new LongLinkedOpenHashSet();
       this.structureManager = structureManager;
       File file = session.getWorldDirectory(world.getRegistryKey());
       this.saveDir = file.getName();
@@ -157,10 +180,10 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
       this.chunkTaskPrioritySystem = new ChunkTaskPrioritySystem(ImmutableList.of(taskExecutor, messageListener, taskExecutor2), executor, Integer.MAX_VALUE);
       this.worldGenExecutor = this.chunkTaskPrioritySystem.createExecutor(taskExecutor, false);
       this.mainExecutor = this.chunkTaskPrioritySystem.createExecutor(messageListener, false);
-      this.lightingProvider = new ServerLightingProvider(chunkProvider, this, this.world.getDimension().hasSkyLight(), taskExecutor2, this.chunkTaskPrioritySystem.createExecutor(taskExecutor2, false));
+      this.lightingProvider = new ServerLightingProvider(chunkProvider, this, this.world.getDimension().hasSkyLight(), taskExecutor2, this.chunkTaskPrioritySystem.createExecutor(taskExecutor2, false), this.world.getServer().usesParallelLightEngine() ? executor : null);
       this.ticketManager = new ThreadedAnvilChunkStorage.TicketManager(executor, mainThreadExecutor);
       this.persistentStateManagerFactory = persistentStateManagerFactory;
-      this.pointOfInterestStorage = new PointOfInterestStorage(new File(file, "poi"), dataFixer, dsync, world);
+      this.pointOfInterestStorage = new PointOfInterestStorage(new File(file, "poi"), dataFixer, options, dsync, world);
       this.setViewDistance(viewDistance);
    }
 
@@ -370,6 +393,9 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
             return true;
          });
          this.completeAll();
+         this.autosaveQueue.clear();
+      } else if (this.world.getServer().getAutosaveBudgetMillis() > 0) {
+         this.queueAutosave();
       } else {
          this.chunkHolders.values().stream().filter(ChunkHolder::isAccessible).forEach((chunkHolder) -> {
             Chunk chunk = (Chunk)chunkHolder.getSavingFuture().getNow((Object)null);
@@ -383,10 +409,78 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
 
    }
 
+   /**
+    * Queues every loaded chunk that needs saving, to be serialized over the
+    * following ticks within the autosave budget.
+    *
+    * <p>Chunks still queued from the previous autosave are saved right away, so
+    * no chunk stays dirty for longer than one autosave interval.
+    */
+   private void queueAutosave() {
+      if (!this.autosaveQueue.isEmpty()) {
+         LOGGER.warn("Incremental autosave of {} could not keep up, saving {} remaining chunks now", this.world.getRegistryKey().getValue(), this.autosaveQueue.size());
+         this.saveQueuedChunks(() -> {
+            return true;
+         });
+      }
+
+      ObjectIterator var1 = this.chunkHolders.values().iterator();
+
+      while(var1.hasNext()) {
+         ChunkHolder chunkHolder = (ChunkHolder)var1.next();
+         if (chunkHolder.isAccessible()) {
+            Chunk chunk = (Chunk)chunkHolder.getSavingFuture().getNow((Object)null);
+            if ((chunk instanceof ReadOnlyChunk || chunk instanceof WorldChunk) && chunk.needsSaving()) {
+               this.autosaveQueue.add(chunkHolder.getPos().toLong());
+            }
+         }
+      }
+
+   }
+
+   private void saveQueuedChunks(BooleanSupplier shouldKeepSaving) {
+      int i = 0;
+
+      while(!this.autosaveQueue.isEmpty() && shouldKeepSaving.getAsBoolean()) {
+         ChunkHolder chunkHolder = (ChunkHolder)this.chunkHolders.get(this.autosaveQueue.removeFirstLong());
+         if (chunkHolder != null && chunkHolder.isAccessible()) {
+            Chunk chunk = (Chunk)chunkHolder.getSavingFuture().getNow((Object)null);
+            if (chunk instanceof ReadOnlyChunk || chunk instanceof WorldChunk) {
+               if (this.save(chunk)) {
+                  ++i;
+               }
+
+               chunkHolder.updateAccessibleStatus();
+            }
+         }
+      }
+
+      this.world.getProfiler().visit("autosaveChunks", i);
+   }
+
+   private void tickAutosave() {
+      int i = this.world.getServer().getAutosaveBudgetMillis();
+      if (i > 0 && !this.autosaveQueue.isEmpty()) {
+         long l = Util.getMeasuringTimeNano() + (long)i * 1000000L;
+         this.saveQueuedChunks(() -> {
+            return Util.getMeasuringTimeNano() < l;
+         });
+      }
+
+      long m = this.getBytesWritten();
+      this.world.getProfiler().visit("savedBytes", (int)Math.min(m - this.lastBytesWritten, 2147483647L));
+      this.lastBytesWritten = m;
+   }
+
    protected void tick(BooleanSupplier shouldKeepTicking) {
       Profiler profiler = this.world.getProfiler();
       profiler.push("poi");
       this.pointOfInterestStorage.tick(shouldKeepTicking);
+      profiler.swap("autosave");
+      if (!this.world.isSavingDisabled()) {
+         this.tickAutosave();
+      }
+
       profiler.swap("chunk_unload");
       if (!this.world.isSavingDisabled()) {
          this.unloadChunks(shouldKeepTicking);
@@ -487,11 +581,12 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
       return CompletableFuture.supplyAsync(() -> {
          try {
             this.world.getProfiler().visit("chunkLoad");
-            NbtCompound nbtCompound = this.getUpdatedChunkNbt(pos);
-            if (nbtCompound != null) {
+            ChunkSnapshot chunkSnapshot = this.getUpdatedChunk(pos);
+            if (chunkSnapshot != null) {
+               NbtCompound nbtCompound = chunkSnapshot.getNbt();
                boolean bl = nbtCompound.contains("Level", 10) && nbtCompound.getCompound("Level").contains("Status", 8);
                if (bl) {
-                  Chunk chunk = ChunkSerializer.deserialize(this.world, this.structureManager, this.pointOfInterestStorage, pos, nbtCompound);
+                  Chunk chunk = ChunkSerializer.deserialize(this.world, this.structureManager, this.pointOfInterestStorage, pos, chunkSnapshot);
                   this.method_27053(pos, chunk.getStatus().getChunkType());
                   return Either.left(chunk);
                }
@@ -685,8 +780,7 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
             }
 
             this.world.getProfiler().visit("chunkSave");
-            NbtCompound nbtCompound = ChunkSerializer.serialize(this.world, chunk);
-            this.setNbt(chunkPos, nbtCompound);
+            this.setNbt(chunkPos, ChunkSerializer.createSnapshot(this.world, chunk));
             this.method_27053(chunkPos, chunkStatus.getChunkType());
             return true;
          } catch (Exception var5) {
@@ -701,10 +795,15 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
       if (b != 0) {
          return b == 1;
       } else {
-         NbtCompound nbtCompound2;
+         NbtCompound nbtCompound;
          try {
-            nbtCompound2 = this.getUpdatedChunkNbt(chunkPos);
-            if (nbtCompound2 == null) {
+            nbtCompound = this.getSelectedNbt(chunkPos, "DataVersion", "Level.Status");
+            if (nbtCompound != null && getDataVersion(nbtCompound) < SharedConstants.getGameVersion().getWorldVersion()) {
+               ChunkSnapshot chunkSnapshot = this.getUpdatedChunk(chunkPos);
+               nbtCompound = chunkSnapshot == null ? null : chunkSnapshot.getNbt();
+            }
+
+            if (nbtCompound == null) {
                this.method_27054(chunkPos);
                return false;
             }
@@ -714,7 +813,7 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
             return false;
          }
 
-         ChunkStatus.ChunkType chunkType = ChunkSerializer.getChunkType(nbtCompound2);
+         ChunkStatus.ChunkType chunkType = ChunkSerializer.getChunkType(nbtCompound);
          return this.method_27053(chunkPos, chunkType) == 1;
       }
    }
@@ -810,9 +909,9 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
    }
 
    @Nullable
-   private NbtCompound getUpdatedChunkNbt(ChunkPos pos) throws IOException {
-      NbtCompound nbtCompound = this.getNbt(pos);
-      return nbtCompound == null ? null : this.updateChunkNbt(this.world.getRegistryKey(), this.persistentStateManagerFactory, nbtCompound);
+   private ChunkSnapshot getUpdatedChunk(ChunkPos pos) throws IOException {
+      ChunkSnapshot chunkSnapshot = this.getChunk(pos);
+      return chunkSnapshot == null ? null : this.updateChunk(this.world.getRegistryKey(), this.persistentStateManagerFactory, chunkSnapshot);
    }
 
    boolean isTooFarFromPlayersToSpawnMobs(ChunkPos chunkPos) {
@@ -872,17 +971,12 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
     * @see ServerChunkManager#updatePosition(ServerPlayerEntity)
     */
    public void updatePosition(ServerPlayerEntity player) {
-      ObjectIterator var2 = this.entityTrackers.values().iterator();
-
-      while(var2.hasNext()) {
-         ThreadedAnvilChunkStorage.EntityTracker entityTracker = (ThreadedAnvilChunkStorage.EntityTracker)var2.next();
-         if (entityTracker.entity == player) {
-            entityTracker.updateTrackedStatus(this.world.getPlayers());
-         } else {
-            entityTracker.updateTrackedStatus(player);
-         }
+      ThreadedAnvilChunkStorage.EntityTracker entityTracker = (ThreadedAnvilChunkStorage.EntityTracker)this.entityTrackers.get(player.getId());
+      if (entityTracker != null) {
+         entityTracker.updateTrackedStatus(this.world.getPlayers());
       }
 
+      this.updateTrackedStatusNear(player);
       int i = ChunkSectionPos.getSectionCoord(player.getBlockX());
       int j = ChunkSectionPos.getSectionCoord(player.getBlockZ());
       ChunkSectionPos chunkSectionPos = player.getWatchedSection();
@@ -980,18 +1074,12 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
             } else {
                ThreadedAnvilChunkStorage.EntityTracker entityTracker = new ThreadedAnvilChunkStorage.EntityTracker(entity, i, j, entityType.alwaysUpdateVelocity());
                this.entityTrackers.put(entity.getId(), entityTracker);
+               this.entityTrackerIndex.add(entityTracker.indexedChunkPos, entityTracker);
                entityTracker.updateTrackedStatus(this.world.getPlayers());
                if (entity instanceof ServerPlayerEntity) {
                   ServerPlayerEntity serverPlayerEntity = (ServerPlayerEntity)entity;
                   this.handlePlayerAddedOrRemoved(serverPlayerEntity, true);
-                  ObjectIterator var7 = this.entityTrackers.values().iterator();
-
-                  while(var7.hasNext()) {
-                     ThreadedAnvilChunkStorage.EntityTracker entityTracker2 = (ThreadedAnvilChunkStorage.EntityTracker)var7.next();
-                     if (entityTracker2.entity != serverPlayerEntity) {
-                        entityTracker2.updateTrackedStatus(serverPlayerEntity);
-                     }
-                  }
+                  this.updateTrackedStatusNear(serverPlayerEntity);
                }
 
             }
@@ -1003,16 +1091,20 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
       if (entity instanceof ServerPlayerEntity) {
          ServerPlayerEntity serverPlayerEntity = (ServerPlayerEntity)entity;
          this.handlePlayerAddedOrRemoved(serverPlayerEntity, false);
-         ObjectIterator var3 = this.entityTrackers.values().iterator();
+         Set<ThreadedAnvilChunkStorage.EntityTracker> set = (Set)this.trackersByListener.get(serverPlayerEntity.networkHandler);
+         if (set != null) {
+            Iterator var4 = Lists.newArrayList((Iterable)set).iterator();
 
-         while(var3.hasNext()) {
-            ThreadedAnvilChunkStorage.EntityTracker entityTracker = (ThreadedAnvilChunkStorage.EntityTracker)var3.next();
-            entityTracker.stopTracking(serverPlayerEntity);
+            while(var4.hasNext()) {
+               ThreadedAnvilChunkStorage.EntityTracker entityTracker = (ThreadedAnvilChunkStorage.EntityTracker)var4.next();
+               entityTracker.stopTracking(serverPlayerEntity);
+            }
          }
       }
 
       ThreadedAnvilChunkStorage.EntityTracker entityTracker2 = (ThreadedAnvilChunkStorage.EntityTracker)this.entityTrackers.remove(entity.getId());
       if (entityTracker2 != null) {
+         this.entityTrackerIndex.remove(entityTracker2.indexedChunkPos, entityTracker2);
          entityTracker2.stopTracking();
       }
 
@@ -1023,8 +1115,9 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
     * 
     * <p>This first checks if entities have changed chunk sections, and updates
     * tracking status of those entities to all players. It then checks if any player
-    * has changed chunk sections, and updates all entities tracking status to those
-    * players. This ensures all possible updates are accounted for.
+    * has changed chunk sections, and updates the tracking status of the entities
+    * those players could start or stop tracking. This ensures all possible updates
+    * are accounted for.
     */
    protected void tickEntityMovement() {
       List<ServerPlayerEntity> list = Lists.newArrayList();
@@ -1032,7 +1125,7 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
 
       ObjectIterator var3;
       ThreadedAnvilChunkStorage.EntityTracker entityTracker2;
-      for(var3 = this.entityTrackers.values().iterator(); var3.hasNext(); entityTracker2.entry.tick()) {
+      for(var3 = this.entityTrackers.values().iterator(); var3.hasNext(); entityTracker2.tick()) {
          entityTracker2 = (ThreadedAnvilChunkStorage.EntityTracker)var3.next();
          ChunkSectionPos chunkSectionPos = entityTracker2.trackedSection;
          ChunkSectionPos chunkSectionPos2 = ChunkSectionPos.from(entityTracker2.entity);
@@ -1047,13 +1140,49 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
          }
       }
 
-      if (!list.isEmpty()) {
-         var3 = this.entityTrackers.values().iterator();
+      Iterator var8 = list.iterator();
 
-         while(var3.hasNext()) {
-            entityTracker2 = (ThreadedAnvilChunkStorage.EntityTracker)var3.next();
-            entityTracker2.updateTrackedStatus((List)list);
-         }
+      while(var8.hasNext()) {
+         ServerPlayerEntity serverPlayerEntity = (ServerPlayerEntity)var8.next();
+         this.updateTrackedStatusNear(serverPlayerEntity);
+      }
+
+   }
+
+   /**
+    * Updates the tracked status for {@code player} of the entities it could
+    * start or stop tracking, which are the entities last sent to clients within
+    * the watch distance of the player and the entities it tracks now.
+    * 
+    * @see EntityTracker#updateTrackedStatus(ServerPlayerEntity)
+    */
+   private void updateTrackedStatusNear(ServerPlayerEntity player) {
+      int i = (this.watchDistance - 1) * 16 + 1;
+      List<ThreadedAnvilChunkStorage.EntityTracker> list = this.entityTrackerIndex.collect(ChunkSectionPos.getSectionCoord(player.getX() - (double)i), ChunkSectionPos.getSectionCoord(player.getZ() - (double)i), ChunkSectionPos.getSectionCoord(player.getX() + (double)i), ChunkSectionPos.getSectionCoord(player.getZ() + (double)i));
+      Set<ThreadedAnvilChunkStorage.EntityTracker> set = (Set)this.trackersByListener.get(player.networkHandler);
+      if (set != null) {
+         list.addAll(set);
+      }
+
+      Iterator var5 = list.iterator();
+
+      while(var5.hasNext()) {
+         ThreadedAnvilChunkStorage.EntityTracker entityTracker = (ThreadedAnvilChunkStorage.EntityTracker)var5.next();
+         entityTracker.updateTrackedStatus(player);
+      }
+
+   }
+
+   void onStartListening(EntityTrackingListener listener, ThreadedAnvilChunkStorage.EntityTracker tracker) {
+      ((Set)this.trackersByListener.computeIfAbsent(listener, (listenerx) -> {
+         return Sets.newIdentityHashSet();
+      })).add(tracker);
+   }
+
+   void onStopListening(EntityTrackingListener listener, ThreadedAnvilChunkStorage.EntityTracker tracker) {
+      Set<ThreadedAnvilChunkStorage.EntityTracker> set = (Set)this.trackersByListener.get(listener);
+      if (set != null && set.remove(tracker) && set.isEmpty()) {
+         this.trackersByListener.remove(listener);
       }
 
    }
@@ -1074,9 +1203,16 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
 
    }
 
+   /**
+    * Sends a chunk to a player along with the tracked entities in it. The
+    * entities are looked up in the entity sections of the chunk column and its
+    * neighbors at every height, including outside of the world, where entities
+    * that fall out of it are still tracked. The lookup box is only bounded so
+    * that the section coordinates of its corners fit in an {@code int}.
+    */
    private void sendChunkDataPackets(ServerPlayerEntity player, Packet<?>[] packets, WorldChunk chunk) {
       if (packets[0] == null) {
-         packets[0] = new ChunkDataS2CPacket(chunk);
+         packets[0] = this.cachesChunkPacketData ? new ChunkDataS2CPacket(chunk, chunk.getPacketData()) : new ChunkDataS2CPacket(chunk);
          packets[1] = new LightUpdateS2CPacket(chunk.getPos(), this.lightingProvider, (BitSet)null, (BitSet)null, true);
       }
 
@@ -1084,12 +1220,20 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
       DebugInfoSender.sendChunkWatchingChange(this.world, chunk.getPos());
       List<Entity> list = Lists.newArrayList();
       List<Entity> list2 = Lists.newArrayList();
-      ObjectIterator var6 = this.entityTrackers.values().iterator();
+      List<Entity> list3 = Lists.newArrayList();
+      ChunkPos chunkPos = chunk.getPos();
+      this.world.getEntityLookup().forEachIntersects(new Box((double)(chunkPos.getStartX() - 1), -1.0E9D, (double)(chunkPos.getStartZ() - 1), (double)(chunkPos.getEndX() + 2), 1.0E9D, (double)(chunkPos.getEndZ() + 2)), (entityx) -> {
+         if (entityx != player && entityx.getChunkPos().equals(chunkPos)) {
+            list3.add(entityx);
+         }
+
+      });
+      Iterator var7 = list3.iterator();
 
-      while(var6.hasNext()) {
-         ThreadedAnvilChunkStorage.EntityTracker entityTracker = (ThreadedAnvilChunkStorage.EntityTracker)var6.next();
-         Entity entity = entityTracker.entity;
-         if (entity != player && entity.getChunkPos().equals(chunk.getPos())) {
+      while(var7.hasNext()) {
+         Entity entity = (Entity)var7.next();
+         ThreadedAnvilChunkStorage.EntityTracker entityTracker = (ThreadedAnvilChunkStorage.EntityTracker)this.entityTrackers.get(entity.getId());
+         if (entityTracker != null) {
             entityTracker.updateTrackedStatus(player);
             if (entity instanceof MobEntity && ((MobEntity)entity).getHoldingEntity() != null) {
                list.add(entity);
@@ -1179,6 +1323,12 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
        * {@link #updateTrackedStatus(ServerPlayerEntity) updateTrackedStatus()}.
        */
       ChunkSectionPos trackedSection;
+      /**
+       * The chunk position this tracker is stored at in {@link
+       * ThreadedAnvilChunkStorage#entityTrackerIndex}, which is the chunk of the
+       * {@linkplain EntityTrackerEntry#getLastPos() last position} sent to clients.
+       */
+      long indexedChunkPos;
       private final Set<EntityTrackingListener> listeners = Sets.newIdentityHashSet();
 
       public EntityTracker(Entity entity, int maxDistance, int tickInterval, boolean alwaysUpdateVelocity) {
@@ -1186,6 +1336,27 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
          this.entity = entity;
          this.maxDistance = maxDistance;
          this.trackedSection = ChunkSectionPos.from(entity);
+         this.indexedChunkPos = this.getLastChunkPos();
+      }
+
+      private long getLastChunkPos() {
+         Vec3d vec3d = this.entry.getLastPos();
+         return ChunkPos.toLong(ChunkSectionPos.getSectionCoord(vec3d.x), ChunkSectionPos.getSectionCoord(vec3d.z));
+      }
+
+      /**
+       * Ticks the entry of this tracker, and moves this tracker in the index if
+       * the entry sent a position in another chunk.
+       */
+      public void tick() {
+         this.entry.tick();
+         long l = this.getLastChunkPos();
+         if (l != this.indexedChunkPos) {
+            ThreadedAnvilChunkStorage.this.entityTrackerIndex.remove(this.indexedChunkPos, this);
+            ThreadedAnvilChunkStorage.this.entityTrackerIndex.add(l, this);
+            this.indexedChunkPos = l;
+         }
+
       }
 
       public boolean equals(Object o) {
@@ -1201,6 +1372,10 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
       }
 
       public void sendToOtherNearbyPlayers(Packet<?> packet) {
+         if (ThreadedAnvilChunkStorage.this.sharesPacketEncoding && this.listeners.size() > 1) {
+            packet = new EncodedPacket(packet);
+         }
+
          Iterator var2 = this.listeners.iterator();
 
          while(var2.hasNext()) {
@@ -1223,6 +1398,7 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
 
          while(var1.hasNext()) {
             EntityTrackingListener entityTrackingListener = (EntityTrackingListener)var1.next();
+            ThreadedAnvilChunkStorage.this.onStopListening(entityTrackingListener, this);
             this.entry.stopTracking(entityTrackingListener.getPlayer());
          }
 
@@ -1230,6 +1406,7 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
 
       public void stopTracking(ServerPlayerEntity player) {
          if (this.listeners.remove(player.networkHandler)) {
+            ThreadedAnvilChunkStorage.this.onStopListening(player.networkHandler, this);
             this.entry.stopTracking(player);
          }
 
@@ -1250,9 +1427,11 @@ public class ThreadedAnvilChunkStorage extends VersionedChunkStorage implements
             boolean bl = vec3d.x >= (double)(-i) && vec3d.x <= (double)i && vec3d.z >= (double)(-i) && vec3d.z <= (double)i && this.entity.canBeSpectated(player);
             if (bl) {
                if (this.listeners.add(player.networkHandler)) {
+                  ThreadedAnvilChunkStorage.this.onStartListening(player.networkHandler, this);
                   this.entry.startTracking(player);
                }
             } else if (this.listeners.remove(player.networkHandler)) {
+               ThreadedAnvilChunkStorage.this.onStopListening(player.networkHandler, this);
                this.entry.stopTracking(player);
             }
 
@@ -71,6 +71,8 @@ public class Util {
    private static final ExecutorService MAIN_WORKER_EXECUTOR = createWorker("Main");
    private static final ExecutorService IO_WORKER_EXECUTOR = createIoWorker();
    public static LongSupplier nanoTimeSupplier = System::nanoTime;
+   @Nullable
+   private static volatile Random randomSeeds;
    public static final UUID NIL_UUID = new UUID(0L, 0L);
    public static final FileSystemProvider JAR_FILE_SYSTEM_PROVIDER = (FileSystemProvider)FileSystemProvider.installedProviders().stream().filter((fileSystemProvider) -> {
       return fileSystemProvider.getScheme().equalsIgnoreCase("jar");
@@ -440,6 +442,33 @@ public class Util {
       return list.get(random.nextInt(list.size()));
    }
 
+   /**
+    * Makes {@link #createRandom} seed the randoms it creates from {@code seeds},
+    * in the order they are created, or seed them arbitrarily again if {@code
+    * seeds} is {@code null}. Used by benchmarks to replay the same run.
+    */
+   public static void setRandomSeeds(@Nullable Random seeds) {
+      randomSeeds = seeds;
+   }
+
+   /**
+    * Returns the random that seeds new randoms, or {@code null} if they are
+    * seeded arbitrarily.
+    */
+   @Nullable
+   public static Random getRandomSeeds() {
+      return randomSeeds;
+   }
+
+   /**
+    * Creates a random for the game state, seeded from the {@linkplain
+    * #setRandomSeeds random seeds} if they are set.
+    */
+   public static Random createRandom() {
+      Random random = randomSeeds;
+      return random != null ? new Random(random.nextLong()) : new Random();
+   }
+
    private static BooleanSupplier renameTask(final Path src, final Path dest) {
       return new BooleanSupplier() {
          public boolean getAsBoolean() {
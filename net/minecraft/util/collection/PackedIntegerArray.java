@@ -93,6 +93,10 @@ public class PackedIntegerArray {
       return this.storage;
    }
 
+   public PackedIntegerArray copy() {
+      return new PackedIntegerArray(this.elementBits, this.size, (long[])this.storage.clone());
+   }
+
    public int getSize() {
       return this.size;
    }
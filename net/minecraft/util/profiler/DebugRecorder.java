@@ -34,7 +34,7 @@ public class DebugRecorder implements Recorder {
    private volatile boolean stopping;
    private Set<Sampler> samplers = ImmutableSet.of();
 
-   private DebugRecorder(SamplerSource samplerSource, LongSupplier timeGetter, Executor dumpExecutor, RecordDumper dumper, Consumer<ProfileResult> resultConsumer, Consumer<Path> dumpConsumer) {
+   private DebugRecorder(SamplerSource samplerSource, LongSupplier timeGetter, Executor dumpExecutor, RecordDumper dumper, Consumer<ProfileResult> resultConsumer, Consumer<Path> dumpConsumer, long maxDurationInSeconds) {
       this.samplerSource = samplerSource;
       this.timeGetter = timeGetter;
       this.timeTracker = new TickTimeTracker(timeGetter, () -> {
@@ -44,7 +44,7 @@ public class DebugRecorder implements Recorder {
       this.dumper = dumper;
       this.resultConsumer = resultConsumer;
       this.dumpConsumer = globalDumpConsumer == null ? dumpConsumer : dumpConsumer.andThen(globalDumpConsumer);
-      this.endTime = timeGetter.getAsLong() + TimeUnit.NANOSECONDS.convert(10L, TimeUnit.SECONDS);
+      this.endTime = timeGetter.getAsLong() + TimeUnit.NANOSECONDS.convert(maxDurationInSeconds, TimeUnit.SECONDS);
       this.profiler = new ProfilerSystem(this.timeGetter, () -> {
          return this.ticks;
       }, false);
@@ -52,7 +52,15 @@ public class DebugRecorder implements Recorder {
    }
 
    public static DebugRecorder of(SamplerSource source, LongSupplier timeGetter, Executor dumpExecutor, RecordDumper dumper, Consumer<ProfileResult> resultConsumer, Consumer<Path> dumpConsumer) {
-      return new DebugRecorder(source, timeGetter, dumpExecutor, dumper, resultConsumer, dumpConsumer);
+      return of(source, timeGetter, dumpExecutor, dumper, resultConsumer, dumpConsumer, (long)MAX_DURATION_IN_SECONDS);
+   }
+
+   /**
+    * Creates a recorder that stops by itself after {@code maxDurationInSeconds}
+    * rather than the default {@value #MAX_DURATION_IN_SECONDS} seconds.
+    */
+   public static DebugRecorder of(SamplerSource source, LongSupplier timeGetter, Executor dumpExecutor, RecordDumper dumper, Consumer<ProfileResult> resultConsumer, Consumer<Path> dumpConsumer, long maxDurationInSeconds) {
+      return new DebugRecorder(source, timeGetter, dumpExecutor, dumper, resultConsumer, dumpConsumer, maxDurationInSeconds);
    }
 
    public synchronized void stop() {
@@ -42,6 +42,9 @@ public class DummyProfiler implements ReadableProfiler {
    public void visit(Supplier<String> markerGetter) {
    }
 
+   public void visit(String marker, int num) {
+   }
+
    public ProfileResult getResult() {
       return EmptyProfileResult.INSTANCE;
    }
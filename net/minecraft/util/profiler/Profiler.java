@@ -44,6 +44,17 @@ public interface Profiler {
     */
    void visit(Supplier<String> markerGetter);
 
+   /**
+    * Increment the visit count for a marker by {@code num}.
+    * 
+    * <p>This is useful to keep track of quantities accumulated over a tick,
+    * such as the number of bytes or entries processed.
+    * 
+    * @param marker a unique marker
+    * @param num the amount to add to the count
+    */
+   void visit(String marker, int num);
+
    static Profiler union(final Profiler a, final Profiler b) {
       if (a == DummyProfiler.INSTANCE) {
          return b;
@@ -98,6 +109,11 @@ public interface Profiler {
                a.visit(markerGetter);
                b.visit(markerGetter);
             }
+
+            public void visit(String marker, int num) {
+               a.visit(marker, num);
+               b.visit(marker, num);
+            }
          };
       }
    }
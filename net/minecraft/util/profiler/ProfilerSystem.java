@@ -151,6 +151,10 @@ public class ProfilerSystem implements ReadableProfiler {
       this.getCurrentInfo().counts.addTo((String)markerGetter.get(), 1L);
    }
 
+   public void visit(String marker, int num) {
+      this.getCurrentInfo().counts.addTo(marker, (long)num);
+   }
+
    public ProfileResult getResult() {
       return new ProfileResultImpl(this.locationInfos, this.startTime, this.startTick, this.timeGetter.getAsLong(), this.endTickGetter.getAsInt());
    }
@@ -0,0 +1,87 @@
+package net.minecraft.util.shape;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A bounded cache of the results of one operation of {@link VoxelShapes} on two
+ * shapes, keyed by the identity of the shapes and of the argument of the
+ * operation, such as a {@link net.minecraft.util.function.BooleanBiFunction} or
+ * a {@link net.minecraft.util.math.Direction}.
+ *
+ * <p>Only shapes passed to {@link VoxelShapes#cacheMerges} are looked up, which
+ * are the shapes that block states share. Other shapes are mostly built for a
+ * single query, so caching them would only evict useful entries. The cache may
+ * be used from any thread.
+ */
+public final class ShapeMergeCache<T> {
+   private final String name;
+   private final Cache<ShapeMergeCache.Key, T> cache;
+
+   ShapeMergeCache(String name, long maximumSize) {
+      this.name = name;
+      this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+   }
+
+   /**
+    * Returns the cached result for the given shapes and argument, or computes
+    * and caches it with {@code computer}. Two threads missing at the same time
+    * may both compute the result.
+    */
+   T get(VoxelShape first, VoxelShape second, @Nullable Object argument, Supplier<T> computer) {
+      ShapeMergeCache.Key key = new ShapeMergeCache.Key(first, second, argument);
+      T object = this.cache.getIfPresent(key);
+      if (object == null) {
+         object = computer.get();
+         this.cache.put(key, object);
+      }
+
+      return object;
+   }
+
+   public String getName() {
+      return this.name;
+   }
+
+   public CacheStats getStats() {
+      return this.cache.stats();
+   }
+
+   public String toString() {
+      CacheStats cacheStats = this.cache.stats();
+      return String.format("%s: %d hits, %d misses, %.1f%% hit rate, %d entries", this.name, cacheStats.hitCount(), cacheStats.missCount(), cacheStats.hitRate() * 100.0D, this.cache.size());
+   }
+
+   static final class Key {
+      private final VoxelShape first;
+      private final VoxelShape second;
+      @Nullable
+      private final Object argument;
+      private final int hash;
+
+      Key(VoxelShape first, VoxelShape second, @Nullable Object argument) {
+         this.first = first;
+         this.second = second;
+         this.argument = argument;
+         this.hash = 31 * (31 * System.identityHashCode(first) + System.identityHashCode(second)) + System.identityHashCode(argument);
+      }
+
+      public boolean equals(Object o) {
+         if (this == o) {
+            return true;
+         } else if (!(o instanceof ShapeMergeCache.Key)) {
+            return false;
+         } else {
+            ShapeMergeCache.Key key = (ShapeMergeCache.Key)o;
+            return this.first == key.first && this.second == key.second && this.argument == key.argument;
+         }
+      }
+
+      public int hashCode() {
+         return this.hash;
+      }
+   }
+}
@@ -20,6 +20,12 @@ public abstract class VoxelShape {
    protected final VoxelSet voxels;
    @Nullable
    private VoxelShape[] shapeCache;
+   /**
+    * Whether results of merging this shape are cached.
+    *
+    * @see VoxelShapes#cacheMerges
+    */
+   boolean mergesCached;
 
    VoxelShape(VoxelSet voxels) {
       this.voxels = voxels;
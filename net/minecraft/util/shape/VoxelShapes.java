@@ -1,12 +1,14 @@
 package net.minecraft.util.shape;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.math.DoubleMath;
 import com.google.common.math.IntMath;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import it.unimi.dsi.fastutil.doubles.DoubleList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Stream;
 import net.minecraft.block.BlockState;
@@ -24,6 +26,12 @@ import net.minecraft.world.WorldView;
 public final class VoxelShapes {
    public static final double field_31880 = 1.0E-7D;
    public static final double field_31881 = 1.0E-6D;
+   private static final ShapeMergeCache<VoxelShape> COMBINE_CACHE = new ShapeMergeCache("combine", 2048L);
+   private static final ShapeMergeCache<Boolean> MATCHES_ANYWHERE_CACHE = new ShapeMergeCache("matchesAnywhere", 4096L);
+   private static final ShapeMergeCache<Boolean> SIDE_COVERED_CACHE = new ShapeMergeCache("isSideCovered", 4096L);
+   private static final ShapeMergeCache<Boolean> ADJACENT_SIDES_CACHE = new ShapeMergeCache("adjacentSidesCoverSquare", 4096L);
+   private static final ShapeMergeCache<Boolean> UNION_COVERS_CACHE = new ShapeMergeCache("unionCoversFullCube", 4096L);
+   private static final List<ShapeMergeCache<?>> MERGE_CACHES = ImmutableList.of(COMBINE_CACHE, MATCHES_ANYWHERE_CACHE, SIDE_COVERED_CACHE, ADJACENT_SIDES_CACHE, UNION_COVERS_CACHE);
    private static final VoxelShape FULL_CUBE = (VoxelShape)Util.make(() -> {
       VoxelSet voxelSet = new BitSetVoxelSet(1, 1, 1);
       voxelSet.set(0, 0, 0);
@@ -40,6 +48,24 @@ public final class VoxelShapes {
       return FULL_CUBE;
    }
 
+   /**
+    * Lets the results of merging {@code shape} with other such shapes be
+    * cached. Only shapes that live as long as the game, such as the shapes
+    * block states share, should be passed.
+    */
+   public static VoxelShape cacheMerges(VoxelShape shape) {
+      shape.mergesCached = true;
+      return shape;
+   }
+
+   /**
+    * Returns the caches of merge results, whose hit and miss counts are
+    * reported in debug reports.
+    */
+   public static List<ShapeMergeCache<?>> getMergeCaches() {
+      return MERGE_CACHES;
+   }
+
    public static VoxelShape cuboid(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
       if (!(minX > maxX) && !(minY > maxY) && !(minZ > maxZ)) {
          return cuboidUnchecked(minX, minY, minZ, maxX, maxY, maxZ);
@@ -123,16 +149,24 @@ public final class VoxelShapes {
             return bl2 ? two : empty();
          } else if (two.isEmpty()) {
             return bl ? one : empty();
+         } else if (one.mergesCached && two.mergesCached) {
+            return (VoxelShape)COMBINE_CACHE.get(one, two, function, () -> {
+               return combineNonEmpty(one, two, function, bl, bl2);
+            });
          } else {
-            PairList pairList = createListPair(1, one.getPointPositions(Direction.Axis.X), two.getPointPositions(Direction.Axis.X), bl, bl2);
-            PairList pairList2 = createListPair(pairList.size() - 1, one.getPointPositions(Direction.Axis.Y), two.getPointPositions(Direction.Axis.Y), bl, bl2);
-            PairList pairList3 = createListPair((pairList.size() - 1) * (pairList2.size() - 1), one.getPointPositions(Direction.Axis.Z), two.getPointPositions(Direction.Axis.Z), bl, bl2);
-            BitSetVoxelSet bitSetVoxelSet = BitSetVoxelSet.combine(one.voxels, two.voxels, pairList, pairList2, pairList3, function);
-            return (VoxelShape)(pairList instanceof FractionalPairList && pairList2 instanceof FractionalPairList && pairList3 instanceof FractionalPairList ? new SimpleVoxelShape(bitSetVoxelSet) : new ArrayVoxelShape(bitSetVoxelSet, pairList.getPairs(), pairList2.getPairs(), pairList3.getPairs()));
+            return combineNonEmpty(one, two, function, bl, bl2);
          }
       }
    }
 
+   private static VoxelShape combineNonEmpty(VoxelShape one, VoxelShape two, BooleanBiFunction function, boolean includeFirst, boolean includeSecond) {
+      PairList pairList = createListPair(1, one.getPointPositions(Direction.Axis.X), two.getPointPositions(Direction.Axis.X), includeFirst, includeSecond);
+      PairList pairList2 = createListPair(pairList.size() - 1, one.getPointPositions(Direction.Axis.Y), two.getPointPositions(Direction.Axis.Y), includeFirst, includeSecond);
+      PairList pairList3 = createListPair((pairList.size() - 1) * (pairList2.size() - 1), one.getPointPositions(Direction.Axis.Z), two.getPointPositions(Direction.Axis.Z), includeFirst, includeSecond);
+      BitSetVoxelSet bitSetVoxelSet = BitSetVoxelSet.combine(one.voxels, two.voxels, pairList, pairList2, pairList3, function);
+      return (VoxelShape)(pairList instanceof FractionalPairList && pairList2 instanceof FractionalPairList && pairList3 instanceof FractionalPairList ? new SimpleVoxelShape(bitSetVoxelSet) : new ArrayVoxelShape(bitSetVoxelSet, pairList.getPairs(), pairList2.getPairs(), pairList3.getPairs()));
+   }
+
    public static boolean matchesAnywhere(VoxelShape shape1, VoxelShape shape2, BooleanBiFunction predicate) {
       if (predicate.apply(false, false)) {
          throw (IllegalArgumentException)Util.throwOrPause(new IllegalArgumentException());
@@ -159,10 +193,13 @@ public final class VoxelShapes {
                   }
                }
 
-               PairList pairList = createListPair(1, shape1.getPointPositions(Direction.Axis.X), shape2.getPointPositions(Direction.Axis.X), bl3, bl4);
-               PairList pairList2 = createListPair(pairList.size() - 1, shape1.getPointPositions(Direction.Axis.Y), shape2.getPointPositions(Direction.Axis.Y), bl3, bl4);
-               PairList pairList3 = createListPair((pairList.size() - 1) * (pairList2.size() - 1), shape1.getPointPositions(Direction.Axis.Z), shape2.getPointPositions(Direction.Axis.Z), bl3, bl4);
-               return matchesAnywhere(pairList, pairList2, pairList3, shape1.voxels, shape2.voxels, predicate);
+               if (shape1.mergesCached && shape2.mergesCached) {
+                  return (Boolean)MATCHES_ANYWHERE_CACHE.get(shape1, shape2, predicate, () -> {
+                     return matchesAnywhere(shape1, shape2, predicate, bl3, bl4);
+                  });
+               } else {
+                  return matchesAnywhere(shape1, shape2, predicate, bl3, bl4);
+               }
             }
          } else {
             return predicate.apply(!bl, !bl2);
@@ -170,6 +207,13 @@ public final class VoxelShapes {
       }
    }
 
+   private static boolean matchesAnywhere(VoxelShape shape1, VoxelShape shape2, BooleanBiFunction predicate, boolean includeFirst, boolean includeSecond) {
+      PairList pairList = createListPair(1, shape1.getPointPositions(Direction.Axis.X), shape2.getPointPositions(Direction.Axis.X), includeFirst, includeSecond);
+      PairList pairList2 = createListPair(pairList.size() - 1, shape1.getPointPositions(Direction.Axis.Y), shape2.getPointPositions(Direction.Axis.Y), includeFirst, includeSecond);
+      PairList pairList3 = createListPair((pairList.size() - 1) * (pairList2.size() - 1), shape1.getPointPositions(Direction.Axis.Z), shape2.getPointPositions(Direction.Axis.Z), includeFirst, includeSecond);
+      return matchesAnywhere(pairList, pairList2, pairList3, shape1.voxels, shape2.voxels, predicate);
+   }
+
    private static boolean matchesAnywhere(PairList mergedX, PairList mergedY, PairList mergedZ, VoxelSet shape1, VoxelSet shape2, BooleanBiFunction predicate) {
       return !mergedX.forEachPair((x1, x2, index1) -> {
          return mergedY.forEachPair((y1, y2, index2) -> {
@@ -278,16 +322,24 @@ public final class VoxelShapes {
          return true;
       } else if (neighbor.isEmpty()) {
          return false;
+      } else if (shape.mergesCached && neighbor.mergesCached) {
+         return (Boolean)SIDE_COVERED_CACHE.get(shape, neighbor, direction, () -> {
+            return isSideCoveredUncached(shape, neighbor, direction);
+         });
       } else {
-         Direction.Axis axis = direction.getAxis();
-         Direction.AxisDirection axisDirection = direction.getDirection();
-         VoxelShape voxelShape = axisDirection == Direction.AxisDirection.POSITIVE ? shape : neighbor;
-         VoxelShape voxelShape2 = axisDirection == Direction.AxisDirection.POSITIVE ? neighbor : shape;
-         BooleanBiFunction booleanBiFunction = axisDirection == Direction.AxisDirection.POSITIVE ? BooleanBiFunction.ONLY_FIRST : BooleanBiFunction.ONLY_SECOND;
-         return DoubleMath.fuzzyEquals(voxelShape.getMax(axis), 1.0D, 1.0E-7D) && DoubleMath.fuzzyEquals(voxelShape2.getMin(axis), 0.0D, 1.0E-7D) && !matchesAnywhere(new SlicedVoxelShape(voxelShape, axis, voxelShape.voxels.getSize(axis) - 1), new SlicedVoxelShape(voxelShape2, axis, 0), booleanBiFunction);
+         return isSideCoveredUncached(shape, neighbor, direction);
       }
    }
 
+   private static boolean isSideCoveredUncached(VoxelShape shape, VoxelShape neighbor, Direction direction) {
+      Direction.Axis axis = direction.getAxis();
+      Direction.AxisDirection axisDirection = direction.getDirection();
+      VoxelShape voxelShape = axisDirection == Direction.AxisDirection.POSITIVE ? shape : neighbor;
+      VoxelShape voxelShape2 = axisDirection == Direction.AxisDirection.POSITIVE ? neighbor : shape;
+      BooleanBiFunction booleanBiFunction = axisDirection == Direction.AxisDirection.POSITIVE ? BooleanBiFunction.ONLY_FIRST : BooleanBiFunction.ONLY_SECOND;
+      return DoubleMath.fuzzyEquals(voxelShape.getMax(axis), 1.0D, 1.0E-7D) && DoubleMath.fuzzyEquals(voxelShape2.getMin(axis), 0.0D, 1.0E-7D) && !matchesAnywhere(new SlicedVoxelShape(voxelShape, axis, voxelShape.voxels.getSize(axis) - 1), new SlicedVoxelShape(voxelShape2, axis, 0), booleanBiFunction);
+   }
+
    public static VoxelShape extrudeFace(VoxelShape shape, Direction direction) {
       if (shape == fullCube()) {
          return fullCube();
@@ -309,28 +361,42 @@ public final class VoxelShapes {
 
    public static boolean adjacentSidesCoverSquare(VoxelShape one, VoxelShape two, Direction direction) {
       if (one != fullCube() && two != fullCube()) {
-         Direction.Axis axis = direction.getAxis();
-         Direction.AxisDirection axisDirection = direction.getDirection();
-         VoxelShape voxelShape = axisDirection == Direction.AxisDirection.POSITIVE ? one : two;
-         VoxelShape voxelShape2 = axisDirection == Direction.AxisDirection.POSITIVE ? two : one;
-         if (!DoubleMath.fuzzyEquals(voxelShape.getMax(axis), 1.0D, 1.0E-7D)) {
-            voxelShape = empty();
-         }
-
-         if (!DoubleMath.fuzzyEquals(voxelShape2.getMin(axis), 0.0D, 1.0E-7D)) {
-            voxelShape2 = empty();
+         if (one.mergesCached && two.mergesCached) {
+            return (Boolean)ADJACENT_SIDES_CACHE.get(one, two, direction, () -> {
+               return adjacentSidesCoverSquareUncached(one, two, direction);
+            });
+         } else {
+            return adjacentSidesCoverSquareUncached(one, two, direction);
          }
-
-         return !matchesAnywhere(fullCube(), combine(new SlicedVoxelShape(voxelShape, axis, voxelShape.voxels.getSize(axis) - 1), new SlicedVoxelShape(voxelShape2, axis, 0), BooleanBiFunction.OR), BooleanBiFunction.ONLY_FIRST);
       } else {
          return true;
       }
    }
 
+   private static boolean adjacentSidesCoverSquareUncached(VoxelShape one, VoxelShape two, Direction direction) {
+      Direction.Axis axis = direction.getAxis();
+      Direction.AxisDirection axisDirection = direction.getDirection();
+      VoxelShape voxelShape = axisDirection == Direction.AxisDirection.POSITIVE ? one : two;
+      VoxelShape voxelShape2 = axisDirection == Direction.AxisDirection.POSITIVE ? two : one;
+      if (!DoubleMath.fuzzyEquals(voxelShape.getMax(axis), 1.0D, 1.0E-7D)) {
+         voxelShape = empty();
+      }
+
+      if (!DoubleMath.fuzzyEquals(voxelShape2.getMin(axis), 0.0D, 1.0E-7D)) {
+         voxelShape2 = empty();
+      }
+
+      return !matchesAnywhere(fullCube(), combine(new SlicedVoxelShape(voxelShape, axis, voxelShape.voxels.getSize(axis) - 1), new SlicedVoxelShape(voxelShape2, axis, 0), BooleanBiFunction.OR), BooleanBiFunction.ONLY_FIRST);
+   }
+
    public static boolean unionCoversFullCube(VoxelShape one, VoxelShape two) {
       if (one != fullCube() && two != fullCube()) {
          if (one.isEmpty() && two.isEmpty()) {
             return false;
+         } else if (one.mergesCached && two.mergesCached) {
+            return (Boolean)UNION_COVERS_CACHE.get(one, two, (Object)null, () -> {
+               return !matchesAnywhere(fullCube(), combine(one, two, BooleanBiFunction.OR), BooleanBiFunction.ONLY_FIRST);
+            });
          } else {
             return !matchesAnywhere(fullCube(), combine(one, two, BooleanBiFunction.OR), BooleanBiFunction.ONLY_FIRST);
          }
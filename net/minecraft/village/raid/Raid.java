@@ -47,6 +47,7 @@ import net.minecraft.text.Text;
 import net.minecraft.text.TranslatableText;
 import net.minecraft.util.DyeColor;
 import net.minecraft.util.Formatting;
+import net.minecraft.util.Util;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.MathHelper;
@@ -108,7 +109,7 @@ public class Raid {
 
    public Raid(int id, ServerWorld world, BlockPos pos) {
       this.bar = new ServerBossBar(EVENT_TEXT, BossBar.Color.RED, BossBar.Style.NOTCHED_10);
-      this.random = new Random();
+      this.random = Util.createRandom();
       this.preCalculatedRavagerSpawnLocation = Optional.empty();
       this.id = id;
       this.world = world;
@@ -122,7 +123,7 @@ public class Raid {
 
    public Raid(ServerWorld world, NbtCompound nbt) {
       this.bar = new ServerBossBar(EVENT_TEXT, BossBar.Color.RED, BossBar.Style.NOTCHED_10);
-      this.random = new Random();
+      this.random = Util.createRandom();
       this.preCalculatedRavagerSpawnLocation = Optional.empty();
       this.world = world;
       this.id = nbt.getInt("Id");
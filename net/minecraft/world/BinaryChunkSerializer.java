@@ -0,0 +1,229 @@
+package net.minecraft.world;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Optional;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.visitor.NbtScanner;
+import net.minecraft.state.StateManager;
+import net.minecraft.state.property.Property;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.collection.PackedIntegerArray;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reads and writes chunks in a binary format that stores block sections
+ * directly instead of as NBT.
+ *
+ * <p>The format starts with {@link #MAGIC}, which can never start NBT, and a
+ * format version. Next comes the chunk NBT without its {@code Sections} list,
+ * then each section:
+ * <ul>
+ * <li>the section Y and a byte of {@code HAS_} flags,</li>
+ * <li>if it has block states, the palette as block ids with their properties,
+ * the bits per entry and the packed longs,</li>
+ * <li>the block light and sky light nibbles, if present.</li>
+ * </ul>
+ * Sections are decoded straight into {@link PackedIntegerArray}s, which chunk
+ * sections adopt without copying.
+ */
+public final class BinaryChunkSerializer {
+   private static final Logger LOGGER = LogManager.getLogger();
+   public static final int MAGIC = 67;
+   private static final int FORMAT_VERSION = 1;
+   private static final int HAS_BLOCK_STATES = 1;
+   private static final int HAS_BLOCK_LIGHT = 2;
+   private static final int HAS_SKY_LIGHT = 4;
+   private static final int LIGHT_SIZE = 2048;
+   /**
+    * Only used as the owner of decoded block state snapshots, never modified.
+    */
+   private static final PalettedContainer<BlockState> SNAPSHOT_OWNER = new ChunkSection(0).getContainer();
+
+   private BinaryChunkSerializer() {
+   }
+
+   /**
+    * Returns whether a chunk stream starting with {@code firstByte} is in this
+    * format rather than NBT.
+    */
+   public static boolean isBinary(int firstByte) {
+      return firstByte == MAGIC;
+   }
+
+   public static void write(ChunkSnapshot snapshot, DataOutput output) throws IOException {
+      if (!snapshot.hasDecodedSections()) {
+         snapshot = ChunkSnapshot.fromNbt(snapshot.getNbt());
+      }
+
+      output.writeByte(MAGIC);
+      output.writeByte(FORMAT_VERSION);
+      NbtIo.write(snapshot.getNbt(), output);
+      List<ChunkSnapshot.Section> list = snapshot.getSections();
+      output.writeShort(list.size());
+
+      for(ChunkSnapshot.Section section : list) {
+         PalettedContainer<BlockState>.Snapshot snapshot2 = section.getBlockStates();
+         byte[] bs = section.getBlockLight();
+         byte[] cs = section.getSkyLight();
+         output.writeByte(section.getY());
+         output.writeByte((snapshot2 != null ? HAS_BLOCK_STATES : 0) | (bs != null ? HAS_BLOCK_LIGHT : 0) | (cs != null ? HAS_SKY_LIGHT : 0));
+         if (snapshot2 != null) {
+            writeBlockStates(snapshot2, output);
+         }
+
+         if (bs != null) {
+            output.write(bs);
+         }
+
+         if (cs != null) {
+            output.write(cs);
+         }
+      }
+
+   }
+
+   private static void writeBlockStates(PalettedContainer<BlockState>.Snapshot snapshot, DataOutput output) throws IOException {
+      int i = snapshot.getPaletteLength();
+      output.writeShort(i);
+
+      for(int j = 0; j < i; ++j) {
+         writeBlockState(snapshot.getPaletteEntry(j), output);
+      }
+
+      PackedIntegerArray packedIntegerArray = snapshot.getData();
+      long[] ls = packedIntegerArray.getStorage();
+      output.writeByte(packedIntegerArray.getElementBits());
+      output.writeShort(ls.length);
+
+      for(long l : ls) {
+         output.writeLong(l);
+      }
+
+   }
+
+   private static void writeBlockState(BlockState state, DataOutput output) throws IOException {
+      output.writeUTF(Registry.BLOCK.getId(state.getBlock()).toString());
+      ImmutableMap<Property<?>, Comparable<?>> immutableMap = state.getEntries();
+      output.writeByte(immutableMap.size());
+
+      for(Entry<Property<?>, Comparable<?>> entry : immutableMap.entrySet()) {
+         Property<?> property = (Property)entry.getKey();
+         output.writeUTF(property.getName());
+         output.writeUTF(nameValue(property, (Comparable)entry.getValue()));
+      }
+
+   }
+
+   private static <T extends Comparable<T>> String nameValue(Property<T> property, Comparable<?> value) {
+      return property.name((T)value);
+   }
+
+   /**
+    * Reads a chunk whose first byte, {@link #MAGIC}, has already been consumed.
+    */
+   public static ChunkSnapshot read(DataInput input) throws IOException {
+      readFormatVersion(input);
+      NbtCompound nbtCompound = NbtIo.read(input);
+      int i = input.readUnsignedShort();
+      List<ChunkSnapshot.Section> list = Lists.newArrayListWithCapacity(i);
+
+      for(int j = 0; j < i; ++j) {
+         int k = input.readByte();
+         int l = input.readUnsignedByte();
+         PalettedContainer<BlockState>.Snapshot snapshot = (l & HAS_BLOCK_STATES) != 0 ? readBlockStates(input) : null;
+         byte[] bs = (l & HAS_BLOCK_LIGHT) != 0 ? readLight(input) : null;
+         byte[] cs = (l & HAS_SKY_LIGHT) != 0 ? readLight(input) : null;
+         list.add(new ChunkSnapshot.Section(k, snapshot, bs, cs));
+      }
+
+      return new ChunkSnapshot(nbtCompound, nbtCompound.getCompound("Level"), list);
+   }
+
+   /**
+    * Scans the NBT of a chunk whose first byte, {@link #MAGIC}, has already been
+    * consumed, without reading its sections.
+    */
+   public static void scanNbt(DataInput input, NbtScanner scanner) throws IOException {
+      readFormatVersion(input);
+      NbtIo.scan(input, scanner);
+   }
+
+   private static void readFormatVersion(DataInput input) throws IOException {
+      int i = input.readUnsignedByte();
+      if (i != FORMAT_VERSION) {
+         throw new IOException("Unsupported binary chunk format version " + i);
+      }
+   }
+
+   private static PalettedContainer<BlockState>.Snapshot readBlockStates(DataInput input) throws IOException {
+      int i = input.readUnsignedShort();
+      List<BlockState> list = Lists.newArrayListWithCapacity(i);
+
+      for(int j = 0; j < i; ++j) {
+         list.add(readBlockState(input));
+      }
+
+      int k = input.readUnsignedByte();
+      long[] ls = new long[input.readUnsignedShort()];
+
+      for(int l = 0; l < ls.length; ++l) {
+         ls[l] = input.readLong();
+      }
+
+      PackedIntegerArray packedIntegerArray;
+      try {
+         packedIntegerArray = new PackedIntegerArray(k, 4096, ls);
+      } catch (RuntimeException var7) {
+         throw new IOException("Invalid packed block states", var7);
+      }
+
+      return SNAPSHOT_OWNER.createSnapshot(list, packedIntegerArray);
+   }
+
+   private static BlockState readBlockState(DataInput input) throws IOException {
+      Block block = (Block)Registry.BLOCK.get(new Identifier(input.readUTF()));
+      BlockState blockState = block.getDefaultState();
+      int i = input.readUnsignedByte();
+      StateManager<Block, BlockState> stateManager = block.getStateManager();
+
+      for(int j = 0; j < i; ++j) {
+         String string = input.readUTF();
+         String string2 = input.readUTF();
+         Property<?> property = stateManager.getProperty(string);
+         if (property != null) {
+            blockState = withProperty(blockState, property, string2);
+         }
+      }
+
+      return blockState;
+   }
+
+   private static <T extends Comparable<T>> BlockState withProperty(BlockState state, Property<T> property, String value) {
+      Optional<T> optional = property.parse(value);
+      if (optional.isPresent()) {
+         return (BlockState)state.with(property, (Comparable)optional.get());
+      } else {
+         LOGGER.warn((String)"Unable to read property: {} with value: {} for blockstate: {}", (Object)property.getName(), value, state);
+         return state;
+      }
+   }
+
+   private static byte[] readLight(DataInput input) throws IOException {
+      byte[] bs = new byte[LIGHT_SIZE];
+      input.readFully(bs);
+      return bs;
+   }
+}
@@ -0,0 +1,178 @@
+package net.minecraft.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.ShapeContext;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.function.BooleanBiFunction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+import net.minecraft.world.border.WorldBorder;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Clips movement against the block collision shapes of a world without
+ * creating a stream or an offset shape per block.
+ *
+ * <p>This visits the same blocks and the same world border shape as a {@link
+ * BlockCollisionSpliterator} over the box swept by the movement, and gives the
+ * same results as {@link VoxelShapes#calculateMaxOffset} over its shapes. Empty
+ * shapes are skipped and full cubes are clipped arithmetically; only other
+ * shapes are offset and tested like the spliterator does. A cursor keeps its
+ * position and last chunk between calls, so one cursor should be used for all
+ * the moves of an entity in a tick, and only on one thread.
+ */
+public class BlockCollisionCursor {
+   private final CollisionView world;
+   @Nullable
+   private final Entity entity;
+   private final ShapeContext context;
+   private final BlockPos.Mutable pos = new BlockPos.Mutable();
+   private int chunkX = Integer.MIN_VALUE;
+   private int chunkZ = Integer.MIN_VALUE;
+   @Nullable
+   private BlockView chunk;
+
+   public BlockCollisionCursor(CollisionView world, @Nullable Entity entity) {
+      this(world, entity, entity == null ? ShapeContext.absent() : ShapeContext.of(entity));
+   }
+
+   public BlockCollisionCursor(CollisionView world, @Nullable Entity entity, ShapeContext context) {
+      this.world = world;
+      this.entity = entity;
+      this.context = context;
+   }
+
+   /**
+    * Returns how far {@code box} can move along {@code axis}, up to {@code
+    * maxDist}, before it collides with a block or the world border.
+    */
+   public double calculateMaxOffset(Direction.Axis axis, Box box, double maxDist) {
+      if (Math.abs(maxDist) < 1.0E-7D) {
+         return 0.0D;
+      } else {
+         double d = axis == Direction.Axis.X ? maxDist : 0.0D;
+         double e = axis == Direction.Axis.Y ? maxDist : 0.0D;
+         double f = axis == Direction.Axis.Z ? maxDist : 0.0D;
+         double g = box.minX + Math.min(d, 0.0D);
+         double h = box.minY + Math.min(e, 0.0D);
+         double i = box.minZ + Math.min(f, 0.0D);
+         double j = box.maxX + Math.max(d, 0.0D);
+         double k = box.maxY + Math.max(e, 0.0D);
+         double l = box.maxZ + Math.max(f, 0.0D);
+         if (this.entity != null) {
+            maxDist = this.clipToWorldBorder(axis, box, maxDist);
+            if (Math.abs(maxDist) < 1.0E-7D) {
+               return 0.0D;
+            }
+         }
+
+         int m = MathHelper.floor(g - 1.0E-7D) - 1;
+         int n = MathHelper.floor(j + 1.0E-7D) + 1;
+         int o = MathHelper.floor(h - 1.0E-7D) - 1;
+         int p = MathHelper.floor(k + 1.0E-7D) + 1;
+         int q = MathHelper.floor(i - 1.0E-7D) - 1;
+         int r = MathHelper.floor(l + 1.0E-7D) + 1;
+         VoxelShape voxelShape = null;
+
+         for(int s = m; s <= n; ++s) {
+            int t = s != m && s != n ? 0 : 1;
+
+            for(int u = q; u <= r; ++u) {
+               int v = u != q && u != r ? t : t + 1;
+               BlockView blockView = this.getChunk(s, u);
+               if (blockView != null) {
+                  for(int w = o; w <= p; ++w) {
+                     int x = w != o && w != p ? v : v + 1;
+                     if (x != 3) {
+                        this.pos.set(s, w, u);
+                        BlockState blockState = blockView.getBlockState(this.pos);
+                        if (!blockState.isAir() && (x != 1 || blockState.exceedsCube()) && (x != 2 || blockState.isOf(Blocks.MOVING_PISTON))) {
+                           VoxelShape voxelShape2 = blockState.getCollisionShape(this.world, this.pos, this.context);
+                           if (voxelShape2 == VoxelShapes.fullCube()) {
+                              if (g < (double)s + 1.0D && j > (double)s && h < (double)w + 1.0D && k > (double)w && i < (double)u + 1.0D && l > (double)u) {
+                                 maxDist = clipToCube(axis, box, s, w, u, maxDist);
+                              }
+                           } else if (!voxelShape2.isEmpty()) {
+                              VoxelShape voxelShape3 = voxelShape2.offset((double)s, (double)w, (double)u);
+                              if (voxelShape == null) {
+                                 voxelShape = VoxelShapes.cuboid(g, h, i, j, k, l);
+                              }
+
+                              if (VoxelShapes.matchesAnywhere(voxelShape3, voxelShape, BooleanBiFunction.AND)) {
+                                 maxDist = voxelShape3.calculateMaxDistance(axis, box, maxDist);
+                              }
+                           }
+
+                           if (Math.abs(maxDist) < 1.0E-7D) {
+                              return 0.0D;
+                           }
+                        }
+                     }
+                  }
+               }
+            }
+         }
+
+         return maxDist;
+      }
+   }
+
+   /**
+    * Clips {@code maxDist} like {@link VoxelShape#calculateMaxDistance} does for
+    * a full cube at the given block.
+    */
+   private static double clipToCube(Direction.Axis axis, Box box, int x, int y, int z, double maxDist) {
+      int i = axis.choose(x, y, z);
+      Direction.Axis axis2 = axis == Direction.Axis.X ? Direction.Axis.Y : Direction.Axis.X;
+      Direction.Axis axis3 = axis == Direction.Axis.Z ? Direction.Axis.Y : Direction.Axis.Z;
+      int j = axis2.choose(x, y, z);
+      int k = axis3.choose(x, y, z);
+      if (box.getMin(axis2) + 1.0E-7D < (double)j + 1.0D && box.getMax(axis2) - 1.0E-7D >= (double)j && box.getMin(axis3) + 1.0E-7D < (double)k + 1.0D && box.getMax(axis3) - 1.0E-7D >= (double)k) {
+         if (maxDist > 0.0D) {
+            double d = box.getMax(axis);
+            if (d - 1.0E-7D < (double)i) {
+               return Math.min(maxDist, (double)i - d);
+            }
+         } else if (maxDist < 0.0D) {
+            double e = box.getMin(axis);
+            if (e + 1.0E-7D >= (double)i + 1.0D) {
+               return Math.max(maxDist, (double)i + 1.0D - e);
+            }
+         }
+      }
+
+      return maxDist;
+   }
+
+   private double clipToWorldBorder(Direction.Axis axis, Box box, double maxDist) {
+      WorldBorder worldBorder = this.world.getWorldBorder();
+      Box box2 = this.entity.getBoundingBox();
+      if (!BlockCollisionSpliterator.isIn(worldBorder, box2)) {
+         VoxelShape voxelShape = worldBorder.asVoxelShape();
+         if (!BlockCollisionSpliterator.collidesSlightlySmaller(voxelShape, box2) && BlockCollisionSpliterator.collidesSlightlyLarger(voxelShape, box2)) {
+            return voxelShape.calculateMaxDistance(axis, box, maxDist);
+         }
+      }
+
+      return maxDist;
+   }
+
+   @Nullable
+   private BlockView getChunk(int x, int z) {
+      int i = ChunkSectionPos.getSectionCoord(x);
+      int j = ChunkSectionPos.getSectionCoord(z);
+      if (i != this.chunkX || j != this.chunkZ) {
+         this.chunkX = i;
+         this.chunkZ = j;
+         this.chunk = this.world.getChunkAsView(i, j);
+      }
+
+      return this.chunk;
+   }
+}
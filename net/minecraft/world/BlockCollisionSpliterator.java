@@ -132,14 +132,14 @@ public class BlockCollisionSpliterator extends AbstractSpliterator<VoxelShape> {
    /**
     * {@return whether the world border collides with the slightly expanded entity bounding box}
     */
-   private static boolean collidesSlightlyLarger(VoxelShape worldBorderShape, Box entityBox) {
+   static boolean collidesSlightlyLarger(VoxelShape worldBorderShape, Box entityBox) {
       return VoxelShapes.matchesAnywhere(worldBorderShape, VoxelShapes.cuboid(entityBox.expand(1.0E-7D)), BooleanBiFunction.AND);
    }
 
    /**
     * {@return whether the world border collides with the slightly shrinked entity bounding box}
     */
-   private static boolean collidesSlightlySmaller(VoxelShape worldBorderShape, Box entityBox) {
+   static boolean collidesSlightlySmaller(VoxelShape worldBorderShape, Box entityBox) {
       return VoxelShapes.matchesAnywhere(worldBorderShape, VoxelShapes.cuboid(entityBox.contract(1.0E-7D)), BooleanBiFunction.AND);
    }
 
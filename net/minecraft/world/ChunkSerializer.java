@@ -1,5 +1,6 @@
 package net.minecraft.world;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
@@ -9,11 +10,13 @@ import java.util.Arrays;
 import java.util.BitSet;
 import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Map.Entry;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import net.minecraft.SharedConstants;
 import net.minecraft.block.Block;
 import net.minecraft.block.entity.BlockEntity;
@@ -21,6 +24,7 @@ import net.minecraft.entity.EntityType;
 import net.minecraft.fluid.Fluid;
 import net.minecraft.fluid.Fluids;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
 import net.minecraft.nbt.NbtList;
 import net.minecraft.nbt.NbtLongArray;
 import net.minecraft.nbt.NbtShort;
@@ -58,6 +62,15 @@ public class ChunkSerializer {
    public static final String field_31413 = "UpgradeData";
 
    public static ProtoChunk deserialize(ServerWorld world, StructureManager structureManager, PointOfInterestStorage poiStorage, ChunkPos pos, NbtCompound nbt) {
+      return deserialize(world, structureManager, poiStorage, pos, ChunkSnapshot.ofNbt(nbt));
+   }
+
+   /**
+    * Deserializes a chunk whose sections may already be decoded, in which case
+    * its block states are adopted without going through NBT.
+    */
+   public static ProtoChunk deserialize(ServerWorld world, StructureManager structureManager, PointOfInterestStorage poiStorage, ChunkPos pos, ChunkSnapshot snapshot) {
+      NbtCompound nbt = snapshot.getNbt();
       ChunkGenerator chunkGenerator = world.getChunkManager().getChunkGenerator();
       BiomeSource biomeSource = chunkGenerator.getBiomeSource();
       NbtCompound nbtCompound = nbt.getCompound("Level");
@@ -85,27 +98,46 @@ public class ChunkSerializer {
          lightingProvider.setRetainData(pos, true);
       }
 
-      for(int j = 0; j < nbtList.size(); ++j) {
-         NbtCompound nbtCompound2 = nbtList.getCompound(j);
-         int k = nbtCompound2.getByte("Y");
-         if (nbtCompound2.contains("Palette", 9) && nbtCompound2.contains("BlockStates", 12)) {
-            ChunkSection chunkSection = new ChunkSection(k);
-            chunkSection.getContainer().read(nbtCompound2.getList("Palette", 10), nbtCompound2.getLongArray("BlockStates"));
-            chunkSection.calculateCounts();
-            if (!chunkSection.isEmpty()) {
-               chunkSections[world.sectionCoordToIndex(k)] = chunkSection;
+      if (snapshot.hasDecodedSections()) {
+         Iterator var17 = snapshot.getSections().iterator();
+
+         while(var17.hasNext()) {
+            ChunkSnapshot.Section section = (ChunkSnapshot.Section)var17.next();
+            int j = section.getY();
+            if (section.getBlockStates() != null) {
+               ChunkSection chunkSection = new ChunkSection(j);
+               chunkSection.getContainer().read(section.getBlockStates());
+               addSection(world, poiStorage, pos, chunkSections, chunkSection);
             }
 
-            poiStorage.initForPalette(pos, chunkSection);
-         }
+            if (bl) {
+               if (section.getBlockLight() != null) {
+                  lightingProvider.enqueueSectionData(LightType.BLOCK, ChunkSectionPos.from(pos, j), new ChunkNibbleArray(section.getBlockLight()), true);
+               }
 
-         if (bl) {
-            if (nbtCompound2.contains("BlockLight", 7)) {
-               lightingProvider.enqueueSectionData(LightType.BLOCK, ChunkSectionPos.from(pos, k), new ChunkNibbleArray(nbtCompound2.getByteArray("BlockLight")), true);
+               if (bl2 && section.getSkyLight() != null) {
+                  lightingProvider.enqueueSectionData(LightType.SKY, ChunkSectionPos.from(pos, j), new ChunkNibbleArray(section.getSkyLight()), true);
+               }
+            }
+         }
+      } else {
+         for(int j = 0; j < nbtList.size(); ++j) {
+            NbtCompound nbtCompound2 = nbtList.getCompound(j);
+            int k = nbtCompound2.getByte("Y");
+            if (nbtCompound2.contains("Palette", 9) && nbtCompound2.contains("BlockStates", 12)) {
+               ChunkSection chunkSection = new ChunkSection(k);
+               chunkSection.getContainer().read(nbtCompound2.getList("Palette", 10), nbtCompound2.getLongArray("BlockStates"));
+               addSection(world, poiStorage, pos, chunkSections, chunkSection);
             }
 
-            if (bl2 && nbtCompound2.contains("SkyLight", 7)) {
-               lightingProvider.enqueueSectionData(LightType.SKY, ChunkSectionPos.from(pos, k), new ChunkNibbleArray(nbtCompound2.getByteArray("SkyLight")), true);
+            if (bl) {
+               if (nbtCompound2.contains("BlockLight", 7)) {
+                  lightingProvider.enqueueSectionData(LightType.BLOCK, ChunkSectionPos.from(pos, k), new ChunkNibbleArray(nbtCompound2.getByteArray("BlockLight")), true);
+               }
+
+               if (bl2 && nbtCompound2.contains("SkyLight", 7)) {
+                  lightingProvider.enqueueSectionData(LightType.SKY, ChunkSectionPos.from(pos, k), new ChunkNibbleArray(nbtCompound2.getByteArray("SkyLight")), true);
+               }
             }
          }
       }
@@ -245,7 +277,29 @@ public class ChunkSerializer {
       }
    }
 
+   private static void addSection(ServerWorld world, PointOfInterestStorage poiStorage, ChunkPos pos, ChunkSection[] chunkSections, ChunkSection chunkSection) {
+      chunkSection.calculateCounts();
+      if (!chunkSection.isEmpty()) {
+         chunkSections[world.sectionCoordToIndex(ChunkSectionPos.getSectionCoord(chunkSection.getYOffset()))] = chunkSection;
+      }
+
+      poiStorage.initForPalette(pos, chunkSection);
+   }
+
    public static NbtCompound serialize(ServerWorld world, Chunk chunk) {
+      return createSnapshot(world, chunk).toNbt();
+   }
+
+   /**
+    * Captures everything needed to serialize {@code chunk}, leaving the
+    * conversion of its block sections, heightmaps and the ticks scheduled in the
+    * world for it to the snapshot, which may convert them on another thread.
+    *
+    * <p>Block entities, and the entities and ticks that proto chunks hold, are
+    * still converted to NBT here on the server thread, as they can only be read
+    * through the live objects, which the server thread keeps modifying.
+    */
+   public static ChunkSnapshot createSnapshot(ServerWorld world, Chunk chunk) {
       ChunkPos chunkPos = chunk.getPos();
       NbtCompound nbtCompound = new NbtCompound();
       NbtCompound nbtCompound2 = new NbtCompound();
@@ -262,7 +316,7 @@ public class ChunkSerializer {
       }
 
       ChunkSection[] chunkSections = chunk.getSectionArray();
-      NbtList nbtList = new NbtList();
+      List<ChunkSnapshot.Section> list = Lists.newArrayList();
       LightingProvider lightingProvider = world.getChunkManager().getLightingProvider();
       boolean bl = chunk.isLightOn();
 
@@ -273,25 +327,10 @@ public class ChunkSerializer {
          ChunkNibbleArray chunkNibbleArray = lightingProvider.get(LightType.BLOCK).getLightSection(ChunkSectionPos.from(chunkPos, i));
          ChunkNibbleArray chunkNibbleArray2 = lightingProvider.get(LightType.SKY).getLightSection(ChunkSectionPos.from(chunkPos, i));
          if (chunkSection != WorldChunk.EMPTY_SECTION || chunkNibbleArray != null || chunkNibbleArray2 != null) {
-            NbtCompound nbtCompound3 = new NbtCompound();
-            nbtCompound3.putByte("Y", (byte)(i & 255));
-            if (chunkSection != WorldChunk.EMPTY_SECTION) {
-               chunkSection.getContainer().write(nbtCompound3, "Palette", "BlockStates");
-            }
-
-            if (chunkNibbleArray != null && !chunkNibbleArray.isUninitialized()) {
-               nbtCompound3.putByteArray("BlockLight", chunkNibbleArray.asByteArray());
-            }
-
-            if (chunkNibbleArray2 != null && !chunkNibbleArray2.isUninitialized()) {
-               nbtCompound3.putByteArray("SkyLight", chunkNibbleArray2.asByteArray());
-            }
-
-            nbtList.add(nbtCompound3);
+            list.add(new ChunkSnapshot.Section(i, chunkSection != WorldChunk.EMPTY_SECTION ? chunkSection.getContainer().createSnapshot() : null, chunkNibbleArray != null && !chunkNibbleArray.isUninitialized() ? chunkNibbleArray.asReadOnlyByteArray() : null, chunkNibbleArray2 != null && !chunkNibbleArray2.isUninitialized() ? chunkNibbleArray2.asReadOnlyByteArray() : null));
          }
       }
 
-      nbtCompound2.put("Sections", nbtList);
       if (bl) {
          nbtCompound2.putBoolean("isLightOn", true);
       }
@@ -335,13 +374,14 @@ public class ChunkSerializer {
          nbtCompound2.put("CarvingMasks", nbtCompound6);
       }
 
+      Map<String, Supplier<? extends NbtElement>> map = Maps.newLinkedHashMap();
       TickScheduler<Block> tickScheduler = chunk.getBlockTickScheduler();
       if (tickScheduler instanceof ChunkTickScheduler) {
          nbtCompound2.put("ToBeTicked", ((ChunkTickScheduler)tickScheduler).toNbt());
       } else if (tickScheduler instanceof SimpleTickScheduler) {
          nbtCompound2.put("TileTicks", ((SimpleTickScheduler)tickScheduler).toNbt());
       } else {
-         nbtCompound2.put("TileTicks", world.getBlockTickScheduler().toNbt(chunkPos));
+         map.put("TileTicks", world.getBlockTickScheduler().toNbtLater(chunkPos));
       }
 
       TickScheduler<Fluid> tickScheduler2 = chunk.getFluidTickScheduler();
@@ -350,22 +390,36 @@ public class ChunkSerializer {
       } else if (tickScheduler2 instanceof SimpleTickScheduler) {
          nbtCompound2.put("LiquidTicks", ((SimpleTickScheduler)tickScheduler2).toNbt());
       } else {
-         nbtCompound2.put("LiquidTicks", world.getFluidTickScheduler().toNbt(chunkPos));
+         map.put("LiquidTicks", world.getFluidTickScheduler().toNbtLater(chunkPos));
       }
 
       nbtCompound2.put("PostProcessing", toNbt(chunk.getPostProcessingLists()));
-      nbtCompound6 = new NbtCompound();
+      Map<String, long[]> map2 = Maps.newLinkedHashMap();
       Iterator var29 = chunk.getHeightmaps().iterator();
 
       while(var29.hasNext()) {
          Entry<Heightmap.Type, Heightmap> entry = (Entry)var29.next();
          if (chunk.getStatus().getHeightmapTypes().contains(entry.getKey())) {
-            nbtCompound6.put(((Heightmap.Type)entry.getKey()).getName(), new NbtLongArray(((Heightmap)entry.getValue()).asLongArray()));
+            map2.put(((Heightmap.Type)entry.getKey()).getName(), (long[])((Heightmap)entry.getValue()).asLongArray().clone());
          }
       }
 
-      nbtCompound2.put("Heightmaps", nbtCompound6);
+      map.put("Heightmaps", () -> {
+         return writeHeightmaps(map2);
+      });
       nbtCompound2.put("Structures", writeStructures(world, chunkPos, chunk.getStructureStarts(), chunk.getStructureReferences()));
+      return new ChunkSnapshot(nbtCompound, nbtCompound2, list, map);
+   }
+
+   private static NbtCompound writeHeightmaps(Map<String, long[]> heightmaps) {
+      NbtCompound nbtCompound = new NbtCompound();
+      Iterator var2 = heightmaps.entrySet().iterator();
+
+      while(var2.hasNext()) {
+         Entry<String, long[]> entry = (Entry)var2.next();
+         nbtCompound.put((String)entry.getKey(), new NbtLongArray((long[])entry.getValue()));
+      }
+
       return nbtCompound;
    }
 
@@ -0,0 +1,222 @@
+package net.minecraft.world;
+
+import com.google.common.collect.Lists;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Supplier;
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The stored form of a chunk: its NBT, with the block sections either still in
+ * the NBT or held decoded beside it.
+ *
+ * <p>Snapshots captured on the server thread by {@link
+ * ChunkSerializer#createSnapshot} and snapshots read by {@link
+ * BinaryChunkSerializer} hold decoded sections. Their block states are
+ * copy-on-write views, and their light arrays are never modified in place, so
+ * the NBT can be built on any thread. Captured snapshots also hold the
+ * heightmaps and scheduled ticks of the chunk, which are put into the level NBT
+ * the first time the NBT is needed, on whichever thread needs it. Block
+ * entities are already in the NBT, as they are written on the server thread.
+ */
+public class ChunkSnapshot {
+   private final NbtCompound nbt;
+   private final NbtCompound levelNbt;
+   @Nullable
+   private final List<ChunkSnapshot.Section> sections;
+   /**
+    * The captured entries of the level NBT by key, or {@code null} once they
+    * have been put into it.
+    */
+   @Nullable
+   private Map<String, Supplier<? extends NbtElement>> pendingEntries;
+
+   ChunkSnapshot(NbtCompound nbt, NbtCompound levelNbt, @Nullable List<ChunkSnapshot.Section> sections) {
+      this(nbt, levelNbt, sections, (Map)null);
+   }
+
+   ChunkSnapshot(NbtCompound nbt, NbtCompound levelNbt, @Nullable List<ChunkSnapshot.Section> sections, @Nullable Map<String, Supplier<? extends NbtElement>> pendingEntries) {
+      this.nbt = nbt;
+      this.levelNbt = levelNbt;
+      this.sections = sections;
+      this.pendingEntries = pendingEntries;
+   }
+
+   /**
+    * Wraps chunk NBT as is, leaving its sections in NBT form.
+    */
+   public static ChunkSnapshot ofNbt(NbtCompound nbt) {
+      return new ChunkSnapshot(nbt, nbt.getCompound("Level"), null);
+   }
+
+   /**
+    * Converts chunk NBT into a snapshot with decoded sections. The NBT is not
+    * modified.
+    */
+   public static ChunkSnapshot fromNbt(NbtCompound nbt) {
+      NbtCompound nbtCompound = nbt.getCompound("Level");
+      NbtCompound nbtCompound2 = copyWithout(nbtCompound, "Sections");
+      NbtCompound nbtCompound3 = copyWithout(nbt, "Level");
+      nbtCompound3.put("Level", nbtCompound2);
+      NbtList nbtList = nbtCompound.getList("Sections", 10);
+      List<ChunkSnapshot.Section> list = Lists.newArrayListWithCapacity(nbtList.size());
+
+      for(int i = 0; i < nbtList.size(); ++i) {
+         NbtCompound nbtCompound4 = nbtList.getCompound(i);
+         int j = nbtCompound4.getByte("Y");
+         PalettedContainer<BlockState>.Snapshot snapshot = null;
+         if (nbtCompound4.contains("Palette", 9) && nbtCompound4.contains("BlockStates", 12)) {
+            ChunkSection chunkSection = new ChunkSection(j);
+            chunkSection.getContainer().read(nbtCompound4.getList("Palette", 10), nbtCompound4.getLongArray("BlockStates"));
+            snapshot = chunkSection.getContainer().createSnapshot();
+         }
+
+         list.add(new ChunkSnapshot.Section(j, snapshot, getLight(nbtCompound4, "BlockLight"), getLight(nbtCompound4, "SkyLight")));
+      }
+
+      return new ChunkSnapshot(nbtCompound3, nbtCompound2, list);
+   }
+
+   @Nullable
+   private static byte[] getLight(NbtCompound nbt, String key) {
+      if (nbt.contains(key, 7)) {
+         byte[] bs = nbt.getByteArray(key);
+         if (bs.length == 2048) {
+            return bs;
+         }
+      }
+
+      return null;
+   }
+
+   private static NbtCompound copyWithout(NbtCompound nbt, String key) {
+      NbtCompound nbtCompound = new NbtCompound();
+
+      for(String string : nbt.getKeys()) {
+         if (!string.equals(key)) {
+            nbtCompound.put(string, nbt.get(string));
+         }
+      }
+
+      return nbtCompound;
+   }
+
+   /**
+    * Returns the chunk NBT, which lacks the sections if they are held decoded.
+    */
+   public NbtCompound getNbt() {
+      this.putPendingEntries();
+      return this.nbt;
+   }
+
+   private synchronized void putPendingEntries() {
+      if (this.pendingEntries != null) {
+         Iterator var1 = this.pendingEntries.entrySet().iterator();
+
+         while(var1.hasNext()) {
+            Entry<String, Supplier<? extends NbtElement>> entry = (Entry)var1.next();
+            this.levelNbt.put((String)entry.getKey(), (NbtElement)((Supplier)entry.getValue()).get());
+         }
+
+         this.pendingEntries = null;
+      }
+
+   }
+
+   /**
+    * Returns whether the block sections are held decoded rather than in the
+    * {@code Sections} list of the level NBT.
+    */
+   public boolean hasDecodedSections() {
+      return this.sections != null;
+   }
+
+   List<ChunkSnapshot.Section> getSections() {
+      return this.sections;
+   }
+
+   /**
+    * Builds the full chunk NBT. Compounds are shared with {@link #getNbt}, except
+    * the root and level compounds that receive the sections.
+    */
+   public NbtCompound toNbt() {
+      this.putPendingEntries();
+      if (this.sections == null) {
+         return this.nbt;
+      } else {
+         NbtList nbtList = new NbtList();
+
+         for(ChunkSnapshot.Section section : this.sections) {
+            nbtList.add(section.toNbt());
+         }
+
+         NbtCompound nbtCompound = copyWithout(this.levelNbt, "Sections");
+         nbtCompound.put("Sections", nbtList);
+         NbtCompound nbtCompound2 = copyWithout(this.nbt, "Level");
+         nbtCompound2.put("Level", nbtCompound);
+         return nbtCompound2;
+      }
+   }
+
+   static class Section {
+      private final int y;
+      @Nullable
+      private final PalettedContainer<BlockState>.Snapshot blockStates;
+      @Nullable
+      private final byte[] blockLight;
+      @Nullable
+      private final byte[] skyLight;
+
+      Section(int y, @Nullable PalettedContainer<BlockState>.Snapshot blockStates, @Nullable byte[] blockLight, @Nullable byte[] skyLight) {
+         this.y = y;
+         this.blockStates = blockStates;
+         this.blockLight = blockLight;
+         this.skyLight = skyLight;
+      }
+
+      int getY() {
+         return this.y;
+      }
+
+      @Nullable
+      PalettedContainer<BlockState>.Snapshot getBlockStates() {
+         return this.blockStates;
+      }
+
+      @Nullable
+      byte[] getBlockLight() {
+         return this.blockLight;
+      }
+
+      @Nullable
+      byte[] getSkyLight() {
+         return this.skyLight;
+      }
+
+      NbtCompound toNbt() {
+         NbtCompound nbtCompound = new NbtCompound();
+         nbtCompound.putByte("Y", (byte)(this.y & 255));
+         if (this.blockStates != null) {
+            this.blockStates.write(nbtCompound, "Palette", "BlockStates");
+         }
+
+         if (this.blockLight != null) {
+            nbtCompound.putByteArray("BlockLight", this.blockLight);
+         }
+
+         if (this.skyLight != null) {
+            nbtCompound.putByteArray("SkyLight", this.skyLight);
+         }
+
+         return nbtCompound;
+      }
+   }
+}
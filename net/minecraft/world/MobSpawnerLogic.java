@@ -15,10 +15,13 @@ import net.minecraft.entity.mob.MobEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtList;
 import net.minecraft.particle.ParticleTypes;
+import net.minecraft.predicate.entity.EntityPredicates;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.ChatUtil;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.InvalidIdentifierException;
+import net.minecraft.util.TypeFilter;
+import net.minecraft.util.Util;
 import net.minecraft.util.collection.Pool;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
@@ -55,7 +58,7 @@ public abstract class MobSpawnerLogic {
       this.maxNearbyEntities = 6;
       this.requiredPlayerRange = 16;
       this.spawnRange = 4;
-      this.random = new Random();
+      this.random = Util.createRandom();
    }
 
    @Nullable
@@ -131,7 +134,7 @@ public abstract class MobSpawnerLogic {
                      return;
                   }
 
-                  int k = world.getNonSpectatingEntities(entity.getClass(), (new Box((double)pos.getX(), (double)pos.getY(), (double)pos.getZ(), (double)(pos.getX() + 1), (double)(pos.getY() + 1), (double)(pos.getZ() + 1))).expand((double)this.spawnRange)).size();
+                  int k = world.countEntitiesByType(TypeFilter.instanceOf(entity.getClass()), (new Box((double)pos.getX(), (double)pos.getY(), (double)pos.getZ(), (double)(pos.getX() + 1), (double)(pos.getY() + 1), (double)(pos.getZ() + 1))).expand((double)this.spawnRange), EntityPredicates.EXCEPT_SPECTATOR);
                   if (k >= this.maxNearbyEntities) {
                      this.updateSpawns(world, pos);
                      return;
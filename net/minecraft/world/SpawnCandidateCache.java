@@ -0,0 +1,261 @@
+package net.minecraft.world;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.SpawnGroup;
+import net.minecraft.entity.SpawnRestriction;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.tag.BlockTags;
+import net.minecraft.tag.FluidTags;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+/**
+ * Caches, per chunk section and {@link SpawnGroup}, the positions where the
+ * mobs of the group could pass the placement checks of {@link
+ * SpawnHelper#canSpawn(SpawnRestriction.Location, WorldView, BlockPos,
+ * EntityType)}, so that {@link SpawnHelper} skips the spawn rules of positions
+ * that are certain to fail.
+ *
+ * <p>A position is a candidate of a group if it passes the checks that do not
+ * depend on the mob for the location of any mob of the group: a spawnable floor
+ * with room above it on the ground, water on water in water, or lava in lava.
+ * Candidates are only a superset of the valid spawn positions, and packs start
+ * where they always did, so spawning consumes the world random and spawns mobs
+ * exactly as it does without the cache. The candidates of a section are
+ * computed for a group the first time the group checks a position in it, and
+ * dropped for all groups after a block in or next to the section changes.
+ */
+public final class SpawnCandidateCache {
+   private static final SpawnGroup[] GROUPS = SpawnGroup.values();
+   /**
+    * The locations of the mobs of each group that have spawn restrictions.
+    * Mobs without restrictions, or whose location is not among those of their
+    * group, are never skipped.
+    */
+   private static final Map<SpawnGroup, Set<SpawnRestriction.Location>> LOCATIONS = (Map)Util.make(Maps.newEnumMap(SpawnGroup.class), (map) -> {
+      SpawnGroup[] var1 = GROUPS;
+      int var2 = var1.length;
+
+      for(int var3 = 0; var3 < var2; ++var3) {
+         SpawnGroup spawnGroup = var1[var3];
+         map.put(spawnGroup, EnumSet.noneOf(SpawnRestriction.Location.class));
+      }
+
+      Iterator var5 = Registry.ENTITY_TYPE.iterator();
+
+      while(var5.hasNext()) {
+         EntityType<?> entityType = (EntityType)var5.next();
+         SpawnRestriction.Location location = SpawnRestriction.getLocation(entityType);
+         if (location != SpawnRestriction.Location.NO_RESTRICTIONS) {
+            ((Set)map.get(entityType.getSpawnGroup())).add(location);
+         }
+      }
+
+   });
+   /**
+    * The mobs of each group that spawn on the ground, whose spawn predicates
+    * decide which floors are candidates. Floors like leaves let only some mobs
+    * spawn on them although their top is not solid.
+    */
+   private static final Map<SpawnGroup, List<EntityType<?>>> GROUND_TYPES = (Map)Util.make(Maps.newEnumMap(SpawnGroup.class), (map) -> {
+      SpawnGroup[] var1 = GROUPS;
+      int var2 = var1.length;
+
+      for(int var3 = 0; var3 < var2; ++var3) {
+         SpawnGroup spawnGroup = var1[var3];
+         map.put(spawnGroup, Lists.newArrayList());
+      }
+
+      Iterator var5 = Registry.ENTITY_TYPE.iterator();
+
+      while(var5.hasNext()) {
+         EntityType<?> entityType = (EntityType)var5.next();
+         if (SpawnRestriction.getLocation(entityType) == SpawnRestriction.Location.ON_GROUND) {
+            ((List)map.get(entityType.getSpawnGroup())).add(entityType);
+         }
+      }
+
+   });
+   private final Long2ObjectOpenHashMap<SpawnCandidateCache.Section> sections = new Long2ObjectOpenHashMap();
+
+   /**
+    * Returns {@code false} if a mob of {@code type} spawning for {@code group} is
+    * certain to fail the placement checks at {@code pos}, or {@code true} if it
+    * may pass them or the chunk of {@code pos} is not loaded.
+    */
+   public boolean canSpawnAt(ServerWorld world, Chunk chunk, SpawnGroup group, EntityType<?> type, BlockPos pos) {
+      SpawnRestriction.Location location = SpawnRestriction.getLocation(type);
+      if (location != SpawnRestriction.Location.NO_RESTRICTIONS && type.getSpawnGroup() == group) {
+         int i = ChunkSectionPos.getSectionCoord(pos.getX());
+         int j = ChunkSectionPos.getSectionCoord(pos.getZ());
+         int k = ChunkSectionPos.getSectionCoord(pos.getY());
+         WorldChunk worldChunk = chunk instanceof WorldChunk && chunk.getPos().x == i && chunk.getPos().z == j ? (WorldChunk)chunk : world.getChunkManager().getWorldChunk(i, j);
+         if (worldChunk != null && k >= world.getBottomSectionCoord() && k < world.getTopSectionCoord()) {
+            long[] ls = this.getSection(world, worldChunk, k).getCandidates(world, worldChunk, k, group);
+            int l = pos.getX() & 15 | (pos.getZ() & 15) << 4 | (pos.getY() & 15) << 8;
+            return (ls[l >> 6] & 1L << l) != 0L;
+         } else {
+            return true;
+         }
+      } else {
+         return true;
+      }
+   }
+
+   private SpawnCandidateCache.Section getSection(World world, WorldChunk chunk, int sectionY) {
+      long l = ChunkSectionPos.asLong(chunk.getPos().x, sectionY, chunk.getPos().z);
+      SpawnCandidateCache.Section section = (SpawnCandidateCache.Section)this.sections.get(l);
+      if (section == null) {
+         section = new SpawnCandidateCache.Section();
+         this.sections.put(l, section);
+      }
+
+      return section;
+   }
+
+   private static long[] createCandidates(World world, WorldChunk chunk, int sectionY, SpawnGroup group) {
+      Set<SpawnRestriction.Location> locations = (Set)LOCATIONS.get(group);
+      List<EntityType<?>> list = (List)GROUND_TYPES.get(group);
+      long[] ls = new long[64];
+      ChunkSection chunkSection = chunk.getSectionArray()[world.sectionCoordToIndex(sectionY)];
+      boolean bl = ChunkSection.isEmpty(chunkSection);
+      if (!locations.isEmpty() && (!bl || locations.contains(SpawnRestriction.Location.ON_GROUND))) {
+         int i = bl ? 1 : 16;
+         int j = ChunkSectionPos.getBlockCoord(sectionY);
+         ChunkPos chunkPos = chunk.getPos();
+         BlockPos.Mutable mutable = new BlockPos.Mutable();
+         BlockPos.Mutable mutable2 = new BlockPos.Mutable();
+
+         for(int k = 0; k < i; ++k) {
+            for(int l = 0; l < 16; ++l) {
+               for(int m = 0; m < 16; ++m) {
+                  mutable.set(chunkPos.getStartX() + m, j + k, chunkPos.getStartZ() + l);
+                  if (isCandidate(chunk, mutable, mutable2, locations, list)) {
+                     int n = m | l << 4 | k << 8;
+                     ls[n >> 6] |= 1L << n;
+                  }
+               }
+            }
+         }
+      }
+
+      return ls;
+   }
+
+   private static boolean isCandidate(WorldChunk chunk, BlockPos pos, BlockPos.Mutable mutable, Set<SpawnRestriction.Location> locations, List<EntityType<?>> groundTypes) {
+      BlockState blockState = chunk.getBlockState(pos);
+      FluidState fluidState = blockState.getFluidState();
+      if (fluidState.isEmpty()) {
+         if (locations.contains(SpawnRestriction.Location.ON_GROUND) && isClear(chunk, pos, blockState)) {
+            mutable.set(pos, Direction.DOWN);
+            BlockState blockState2 = chunk.getBlockState(mutable);
+            if (isFloor(chunk, mutable, blockState2, groundTypes)) {
+               mutable.set(pos, Direction.UP);
+               BlockState blockState3 = chunk.getBlockState(mutable);
+               return blockState3.getFluidState().isEmpty() && isClear(chunk, mutable, blockState3);
+            }
+         }
+
+         return false;
+      } else if (fluidState.isIn(FluidTags.WATER)) {
+         if (locations.contains(SpawnRestriction.Location.IN_WATER)) {
+            mutable.set(pos, Direction.DOWN);
+            if (chunk.getFluidState(mutable).isIn(FluidTags.WATER)) {
+               mutable.set(pos, Direction.UP);
+               return !chunk.getBlockState(mutable).isSolidBlock(chunk, mutable);
+            }
+         }
+
+         return false;
+      } else {
+         return fluidState.isIn(FluidTags.LAVA) && locations.contains(SpawnRestriction.Location.IN_LAVA);
+      }
+   }
+
+   /**
+    * Returns whether any of the given mobs may spawn on a block, by its solid
+    * top or by the spawn predicate of the block for the mob.
+    */
+   private static boolean isFloor(BlockView world, BlockPos pos, BlockState state, List<EntityType<?>> types) {
+      if (state.isSideSolidFullSquare(world, pos, Direction.UP)) {
+         return true;
+      } else {
+         for(int i = 0; i < types.size(); ++i) {
+            if (state.allowsSpawning(world, pos, (EntityType)types.get(i))) {
+               return true;
+            }
+         }
+
+         return false;
+      }
+   }
+
+   /**
+    * Returns whether a block is clear for any mob by the checks of {@link
+    * SpawnHelper#isClearForSpawn} that do not depend on the mob.
+    */
+   private static boolean isClear(BlockView world, BlockPos pos, BlockState state) {
+      return !state.isFullCube(world, pos) && !state.emitsRedstonePower() && !state.isIn(BlockTags.PREVENT_MOB_SPAWNING_INSIDE);
+   }
+
+   /**
+    * Forgets the sections whose candidates may depend on the block at {@code
+    * pos}, which are those of the block and the blocks above and below it.
+    */
+   public void onBlockChanged(BlockPos pos) {
+      int i = ChunkSectionPos.getSectionCoord(pos.getX());
+      int j = ChunkSectionPos.getSectionCoord(pos.getZ());
+      int k = ChunkSectionPos.getSectionCoord(pos.getY() - 1);
+      int l = ChunkSectionPos.getSectionCoord(pos.getY() + 1);
+
+      for(int m = k; m <= l; ++m) {
+         this.sections.remove(ChunkSectionPos.asLong(i, m, j));
+      }
+
+   }
+
+   public void onChunkUnloaded(WorldChunk chunk) {
+      ChunkPos chunkPos = chunk.getPos();
+
+      for(int i = chunk.getBottomSectionCoord(); i < chunk.getTopSectionCoord(); ++i) {
+         this.sections.remove(ChunkSectionPos.asLong(chunkPos.x, i, chunkPos.z));
+      }
+
+   }
+
+   static final class Section {
+      /**
+       * The candidates of each group by {@link SpawnGroup#ordinal}, as bit sets
+       * indexed by local position, four bits each for x, z and y from the
+       * lowest, or {@code null} until the group first checks the section.
+       */
+      private final long[][] candidates = new long[SpawnCandidateCache.GROUPS.length][];
+
+      long[] getCandidates(World world, WorldChunk chunk, int sectionY, SpawnGroup group) {
+         long[] ls = this.candidates[group.ordinal()];
+         if (ls == null) {
+            ls = SpawnCandidateCache.createCandidates(world, chunk, sectionY, group);
+            this.candidates[group.ordinal()] = ls;
+         }
+
+         return ls;
+      }
+   }
+}
@@ -139,6 +139,7 @@ public final class SpawnHelper {
    public static void spawnEntitiesInChunk(SpawnGroup group, ServerWorld world, Chunk chunk, BlockPos pos, SpawnHelper.Checker checker, SpawnHelper.Runner runner) {
       StructureAccessor structureAccessor = world.getStructureAccessor();
       ChunkGenerator chunkGenerator = world.getChunkManager().getChunkGenerator();
+      SpawnCandidateCache spawnCandidateCache = world.getSpawnCandidateCache();
       int i = pos.getY();
       BlockState blockState = chunk.getBlockState(pos);
       if (!blockState.isSolidBlock(chunk, pos)) {
@@ -174,7 +175,7 @@ public final class SpawnHelper {
                         o = spawnEntry.minGroupSize + world.random.nextInt(1 + spawnEntry.maxGroupSize - spawnEntry.minGroupSize);
                      }
 
-                     if (canSpawn(world, group, structureAccessor, chunkGenerator, spawnEntry, mutable, f) && checker.test(spawnEntry.type, mutable, chunk)) {
+                     if ((spawnCandidateCache == null || spawnCandidateCache.canSpawnAt(world, chunk, group, spawnEntry.type, mutable)) && canSpawn(world, group, structureAccessor, chunkGenerator, spawnEntry, mutable, f) && checker.test(spawnEntry.type, mutable, chunk)) {
                         MobEntity mobEntity = createMob(world, spawnEntry.type);
                         if (mobEntity == null) {
                            return;
@@ -12,6 +12,7 @@ import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
+import net.minecraft.util.Util;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.biome.BiomeKeys;
@@ -29,7 +30,7 @@ public class WanderingTraderManager implements Spawner {
    private static final int DEFAULT_SPAWN_CHANCE = 25;
    private static final int field_30635 = 10;
    private static final int field_30636 = 10;
-   private final Random random = new Random();
+   private final Random random = Util.createRandom();
    private final ServerWorldProperties properties;
    private int spawnTimer;
    private int spawnDelay;
@@ -16,6 +16,9 @@ import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.ai.TargetPredicate;
 import net.minecraft.entity.boss.dragon.EnderDragonEntity;
 import net.minecraft.entity.boss.dragon.EnderDragonPart;
 import net.minecraft.entity.damage.DamageSource;
@@ -31,11 +34,13 @@ import net.minecraft.recipe.RecipeManager;
 import net.minecraft.scoreboard.Scoreboard;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.world.ChunkHolder;
+import net.minecraft.server.world.EntityTickIslands;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.sound.SoundEvent;
 import net.minecraft.tag.TagManager;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.TypeFilter;
+import net.minecraft.util.Util;
 import net.minecraft.util.crash.CrashException;
 import net.minecraft.util.crash.CrashReport;
 import net.minecraft.util.crash.CrashReportSection;
@@ -61,6 +66,7 @@ import net.minecraft.world.entity.EntityLookup;
 import net.minecraft.world.event.GameEvent;
 import net.minecraft.world.explosion.Explosion;
 import net.minecraft.world.explosion.ExplosionBehavior;
+import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
@@ -85,13 +91,13 @@ public abstract class World implements WorldAccess, AutoCloseable {
    private final Thread thread;
    private final boolean debugWorld;
    private int ambientDarkness;
-   protected int lcgBlockSeed = (new Random()).nextInt();
+   protected int lcgBlockSeed = Util.createRandom().nextInt();
    protected final int lcgBlockSeedIncrement = 1013904223;
    protected float rainGradientPrev;
    protected float rainGradient;
    protected float thunderGradientPrev;
    protected float thunderGradient;
-   public final Random random = new Random();
+   public final Random random = new EntityTickIslands.WorldRandom();
    private final DimensionType dimension;
    protected final MutableWorldProperties properties;
    private final Supplier<Profiler> profiler;
@@ -209,9 +215,14 @@ public abstract class World implements WorldAccess, AutoCloseable {
 
                if ((flags & Block.FORCE_STATE) == 0 && maxUpdateDepth > 0) {
                   int i = flags & ~(Block.NOTIFY_NEIGHBORS | Block.SKIP_DROPS);
-                  blockState.prepare(this, pos, i, maxUpdateDepth - 1);
-                  state.updateNeighbors(this, pos, i, maxUpdateDepth - 1);
-                  state.prepare(this, pos, i, maxUpdateDepth - 1);
+                  if (EntityTickIslands.isWorkerThread()) {
+                     BlockPos blockPos = pos.toImmutable();
+                     EntityTickIslands.defer(() -> {
+                        this.updateShapes(blockPos, blockState, state, i, maxUpdateDepth - 1);
+                     });
+                  } else {
+                     this.updateShapes(pos, blockState, state, i, maxUpdateDepth - 1);
+                  }
                }
 
                this.onBlockChanged(pos, blockState, blockState2);
@@ -222,6 +233,16 @@ public abstract class World implements WorldAccess, AutoCloseable {
       }
    }
 
+   /**
+    * Updates the shapes of the blocks around {@code pos} after its state changed
+    * from {@code oldState} to {@code newState}.
+    */
+   private void updateShapes(BlockPos pos, BlockState oldState, BlockState newState, int flags, int maxUpdateDepth) {
+      oldState.prepare(this, pos, flags, maxUpdateDepth);
+      newState.updateNeighbors(this, pos, flags, maxUpdateDepth);
+      newState.prepare(this, pos, flags, maxUpdateDepth);
+   }
+
    public void onBlockChanged(BlockPos pos, BlockState oldBlock, BlockState newBlock) {
    }
 
@@ -303,7 +324,13 @@ public abstract class World implements WorldAccess, AutoCloseable {
    }
 
    public void updateNeighbor(BlockPos pos, Block sourceBlock, BlockPos neighborPos) {
-      if (!this.isClient) {
+      if (EntityTickIslands.isWorkerThread()) {
+         BlockPos blockPos = pos.toImmutable();
+         BlockPos blockPos2 = neighborPos.toImmutable();
+         EntityTickIslands.defer(() -> {
+            this.updateNeighbor(blockPos, sourceBlock, blockPos2);
+         });
+      } else if (!this.isClient) {
          BlockState blockState = this.getBlockState(pos);
 
          try {
@@ -398,7 +425,14 @@ public abstract class World implements WorldAccess, AutoCloseable {
    }
 
    public void addBlockEntityTicker(BlockEntityTickInvoker ticker) {
-      (this.iteratingTickingBlockEntities ? this.pendingBlockEntityTickers : this.blockEntityTickers).add(ticker);
+      if (EntityTickIslands.isWorkerThread()) {
+         EntityTickIslands.defer(() -> {
+            this.addBlockEntityTicker(ticker);
+         });
+      } else {
+         (this.iteratingTickingBlockEntities ? this.pendingBlockEntityTickers : this.blockEntityTickers).add(ticker);
+      }
+
    }
 
    protected void tickBlockEntities() {
@@ -571,6 +605,49 @@ public abstract class World implements WorldAccess, AutoCloseable {
       return list;
    }
 
+   /**
+    * Returns the number of entities {@link #getEntitiesByType} would return,
+    * without collecting them.
+    */
+   public <T extends Entity> int countEntitiesByType(TypeFilter<Entity, T> filter, Box box, Predicate<? super T> predicate) {
+      this.getProfiler().visit("countEntities");
+      MutableInt mutableInt = new MutableInt(this.getEntityLookup().count(filter, box, predicate));
+      this.getEntityLookup().forEachIntersects(EntityType.ENDER_DRAGON, box, (enderDragonEntity) -> {
+         if (filter.downcast(enderDragonEntity) != null) {
+            EnderDragonPart[] var4 = enderDragonEntity.getBodyParts();
+            int var5 = var4.length;
+
+            for(int var6 = 0; var6 < var5; ++var6) {
+               EnderDragonPart enderDragonPart = var4[var6];
+               T entity = (Entity)filter.downcast(enderDragonPart);
+               if (entity != null && predicate.test(entity)) {
+                  mutableInt.increment();
+               }
+            }
+         }
+
+      });
+      return mutableInt.intValue();
+   }
+
+   /**
+    * {@inheritDoc}
+    *
+    * <p>This only tests {@code targetPredicate} on entities nearer than the
+    * nearest match so far, instead of on every entity in the box.
+    */
+   @Nullable
+   public <T extends LivingEntity> T getClosestEntity(Class<? extends T> entityClass, TargetPredicate targetPredicate, @Nullable LivingEntity entity, double x, double y, double z, Box box) {
+      this.getProfiler().visit("getEntities");
+      List<T> list = Lists.newArrayListWithCapacity(1);
+      this.getEntityLookup().collectNearest(TypeFilter.instanceOf(entityClass), box, 1, (livingEntity) -> {
+         return targetPredicate.test(entity, (LivingEntity)livingEntity);
+      }, (livingEntity) -> {
+         return livingEntity.squaredDistanceTo(x, y, z);
+      }, list);
+      return list.isEmpty() ? null : (LivingEntity)list.get(0);
+   }
+
    @Nullable
    public abstract Entity getEntityById(int id);
 
@@ -782,20 +859,27 @@ public abstract class World implements WorldAccess, AutoCloseable {
    public abstract Scoreboard getScoreboard();
 
    public void updateComparators(BlockPos pos, Block block) {
-      Iterator var3 = Direction.Type.HORIZONTAL.iterator();
-
-      while(var3.hasNext()) {
-         Direction direction = (Direction)var3.next();
-         BlockPos blockPos = pos.offset(direction);
-         if (this.isChunkLoaded(blockPos)) {
-            BlockState blockState = this.getBlockState(blockPos);
-            if (blockState.isOf(Blocks.COMPARATOR)) {
-               blockState.neighborUpdate(this, blockPos, block, pos, false);
-            } else if (blockState.isSolidBlock(this, blockPos)) {
-               blockPos = blockPos.offset(direction);
-               blockState = this.getBlockState(blockPos);
+      if (EntityTickIslands.isWorkerThread()) {
+         BlockPos blockPos = pos.toImmutable();
+         EntityTickIslands.defer(() -> {
+            this.updateComparators(blockPos, block);
+         });
+      } else {
+         Iterator var3 = Direction.Type.HORIZONTAL.iterator();
+
+         while(var3.hasNext()) {
+            Direction direction = (Direction)var3.next();
+            BlockPos blockPos2 = pos.offset(direction);
+            if (this.isChunkLoaded(blockPos2)) {
+               BlockState blockState = this.getBlockState(blockPos2);
                if (blockState.isOf(Blocks.COMPARATOR)) {
-                  blockState.neighborUpdate(this, blockPos, block, pos, false);
+                  blockState.neighborUpdate(this, blockPos2, block, pos, false);
+               } else if (blockState.isSolidBlock(this, blockPos2)) {
+                  blockPos2 = blockPos2.offset(direction);
+                  blockState = this.getBlockState(blockPos2);
+                  if (blockState.isOf(Blocks.COMPARATOR)) {
+                     blockState.neighborUpdate(this, blockPos2, block, pos, false);
+                  }
                }
             }
          }
@@ -57,6 +57,18 @@ public class ChunkCache implements BlockView, CollisionView {
 
    }
 
+   /**
+    * Creates a cache over {@code chunks}, the first of which is at {@code minX}
+    * and {@code minZ}, for subclasses that do not read the chunks of a world.
+    */
+   protected ChunkCache(World world, int minX, int minZ, Chunk[][] chunks) {
+      this.world = world;
+      this.minX = minX;
+      this.minZ = minZ;
+      this.chunks = chunks;
+      this.empty = false;
+   }
+
    private Chunk getChunk(BlockPos pos) {
       return this.getChunk(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()));
    }
@@ -1,5 +1,6 @@
 package net.minecraft.world.chunk;
 
+import java.util.Arrays;
 import net.minecraft.util.Util;
 import net.minecraft.util.annotation.Debug;
 import org.jetbrains.annotations.Nullable;
@@ -9,21 +10,48 @@ public final class ChunkNibbleArray {
    public static final int COPY_BLOCK_SIZE = 128;
    public static final int BYTES_LENGTH = 2048;
    private static final int field_31405 = 4;
+   /**
+    * The bytes of a uniform array of each value, shared by everything that
+    * reads uniform arrays as bytes. They must never be modified.
+    */
+   private static final byte[][] UNIFORM_BYTES = new byte[16][];
+   /**
+    * The nibbles, or {@code null} while every nibble is {@link #uniformValue}.
+    */
    @Nullable
    protected byte[] bytes;
+   private int uniformValue;
+   /**
+    * Whether this array was ever given nibbles, which a uniform array of zeros
+    * may or may not have been. Arrays that never were stand for sections
+    * without light data, which are neither saved nor sent.
+    */
+   private boolean initialized;
 
    public ChunkNibbleArray() {
    }
 
+   /**
+    * Creates an array of the given bytes, which it keeps unless all nibbles
+    * have the same value, in which case it stays uniform instead.
+    */
    public ChunkNibbleArray(byte[] bytes) {
-      this.bytes = bytes;
       if (bytes.length != 2048) {
          throw (IllegalArgumentException)Util.throwOrPause(new IllegalArgumentException("DataLayer should be 2048 bytes not: " + bytes.length));
+      } else {
+         this.initialized = true;
+         if (isUniform(bytes)) {
+            this.uniformValue = bytes[0] & 15;
+         } else {
+            this.bytes = bytes;
+         }
+
       }
    }
 
    protected ChunkNibbleArray(int size) {
       this.bytes = new byte[size];
+      this.initialized = true;
    }
 
    public int get(int x, int y, int z) {
@@ -40,7 +68,7 @@ public final class ChunkNibbleArray {
 
    private int get(int index) {
       if (this.bytes == null) {
-         return 0;
+         return this.uniformValue;
       } else {
          int i = divideByTwo(index);
          int j = isOdd(index);
@@ -49,15 +77,18 @@ public final class ChunkNibbleArray {
    }
 
    private void set(int index, int value) {
-      if (this.bytes == null) {
-         this.bytes = new byte[2048];
-      }
+      this.initialized = true;
+      if (this.bytes != null || (value & 15) != this.uniformValue) {
+         if (this.bytes == null) {
+            this.bytes = createUniformBytes(this.uniformValue);
+         }
 
-      int i = divideByTwo(index);
-      int j = isOdd(index);
-      int k = ~(15 << 4 * j);
-      int l = (value & 15) << 4 * j;
-      this.bytes[i] = (byte)(this.bytes[i] & k | l);
+         int i = divideByTwo(index);
+         int j = isOdd(index);
+         int k = ~(15 << 4 * j);
+         int l = (value & 15) << 4 * j;
+         this.bytes[i] = (byte)(this.bytes[i] & k | l);
+      }
    }
 
    private static int isOdd(int i) {
@@ -68,16 +99,85 @@ public final class ChunkNibbleArray {
       return i >> 1;
    }
 
+   /**
+    * Returns the backing bytes, allocating them first if this array is uniform.
+    */
    public byte[] asByteArray() {
+      this.initialized = true;
       if (this.bytes == null) {
-         this.bytes = new byte[2048];
+         this.bytes = createUniformBytes(this.uniformValue);
       }
 
       return this.bytes;
    }
 
+   /**
+    * Returns the nibbles as bytes without allocating them for a uniform array,
+    * whose bytes are shared. The returned array must not be modified.
+    */
+   public byte[] asReadOnlyByteArray() {
+      return this.bytes == null ? UNIFORM_BYTES[this.uniformValue] : this.bytes;
+   }
+
    public ChunkNibbleArray copy() {
-      return this.bytes == null ? new ChunkNibbleArray() : new ChunkNibbleArray((byte[])this.bytes.clone());
+      ChunkNibbleArray chunkNibbleArray = new ChunkNibbleArray();
+      chunkNibbleArray.uniformValue = this.uniformValue;
+      chunkNibbleArray.initialized = this.initialized;
+      if (this.bytes != null) {
+         chunkNibbleArray.bytes = (byte[])this.bytes.clone();
+      }
+
+      return chunkNibbleArray;
+   }
+
+   /**
+    * Sets every nibble to {@code value}, dropping the backing bytes.
+    */
+   public void fill(int value) {
+      this.uniformValue = value & 15;
+      this.bytes = null;
+      this.initialized = true;
+   }
+
+   /**
+    * Drops the backing bytes if every nibble has the same value.
+    */
+   public void compact() {
+      if (this.bytes != null && isUniform(this.bytes)) {
+         this.fill(this.bytes[0]);
+      }
+
+   }
+
+   public static ChunkNibbleArray uniform(int value) {
+      ChunkNibbleArray chunkNibbleArray = new ChunkNibbleArray();
+      chunkNibbleArray.uniformValue = value & 15;
+      chunkNibbleArray.initialized = true;
+      return chunkNibbleArray;
+   }
+
+   private static boolean isUniform(byte[] bytes) {
+      byte b = bytes[0];
+      if ((b >> 4 & 15) != (b & 15)) {
+         return false;
+      } else {
+         for(int i = 1; i < bytes.length; ++i) {
+            if (bytes[i] != b) {
+               return false;
+            }
+         }
+
+         return true;
+      }
+   }
+
+   private static byte[] createUniformBytes(int value) {
+      byte[] bs = new byte[2048];
+      if (value != 0) {
+         Arrays.fill(bs, (byte)(value * 17));
+      }
+
+      return bs;
    }
 
    public String toString() {
@@ -111,7 +211,27 @@ public final class ChunkNibbleArray {
       return stringBuilder.toString();
    }
 
+   /**
+    * Returns whether this array was never given nibbles, so that every nibble is
+    * {@code 0}. Arrays that were, even if they have been compacted to a uniform
+    * array of zeros since, are initialized.
+    */
    public boolean isUninitialized() {
+      return !this.initialized;
+   }
+
+   /**
+    * Returns whether every nibble has the same value without any bytes
+    * allocated.
+    */
+   public boolean isUniform() {
       return this.bytes == null;
    }
+
+   static {
+      for(int i = 0; i < 16; ++i) {
+         UNIFORM_BYTES[i] = createUniformBytes(i);
+      }
+
+   }
 }
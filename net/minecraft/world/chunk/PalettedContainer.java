@@ -3,8 +3,10 @@ package net.minecraft.world.chunk;
 import com.mojang.datafixers.util.Pair;
 import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import java.util.List;
 import java.util.concurrent.Semaphore;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtList;
@@ -29,6 +31,11 @@ public class PalettedContainer<T> implements PaletteResizeListener<T> {
    private final Function<T, NbtCompound> elementSerializer;
    private final T defaultValue;
    protected PackedIntegerArray data;
+   /**
+    * Whether {@link #data} is also referenced by a {@link Snapshot}, in which
+    * case it must be copied before it is written to.
+    */
+   private boolean dataShared;
    private Palette<T> palette;
    private int paletteSize;
    private final Semaphore writeLock = new Semaphore(1);
@@ -76,9 +83,18 @@ public class PalettedContainer<T> implements PaletteResizeListener<T> {
 
          this.palette.getIndex(this.defaultValue);
          this.data = new PackedIntegerArray(this.paletteSize, 4096);
+         this.dataShared = false;
       }
    }
 
+   private void unshareData() {
+      if (this.dataShared) {
+         this.data = this.data.copy();
+         this.dataShared = false;
+      }
+
+   }
+
    public int onResize(int i, T object) {
       PackedIntegerArray packedIntegerArray = this.data;
       Palette<T> palette = this.palette;
@@ -112,6 +128,7 @@ public class PalettedContainer<T> implements PaletteResizeListener<T> {
    }
 
    private T setAndGetOldValue(int index, T value) {
+      this.unshareData();
       int i = this.palette.getIndex(value);
       int j = this.data.setAndGetOldValue(index, i);
       T object = this.palette.getByIndex(j);
@@ -129,6 +146,7 @@ public class PalettedContainer<T> implements PaletteResizeListener<T> {
    }
 
    private void set(int index, T object) {
+      this.unshareData();
       int i = this.palette.getIndex(object);
       this.data.set(index, i);
    }
@@ -151,6 +169,7 @@ public class PalettedContainer<T> implements PaletteResizeListener<T> {
          }
 
          this.palette.fromPacket(buf);
+         this.unshareData();
          buf.readLongArray(this.data.getStorage());
       } finally {
          this.unlock();
@@ -179,6 +198,7 @@ public class PalettedContainer<T> implements PaletteResizeListener<T> {
          }
 
          this.palette.readNbt(paletteNbt);
+         this.unshareData();
          int j = data.length * 64 / 4096;
          if (this.palette == this.fallbackPalette) {
             Palette<T> palette = new BiMapPalette(this.idList, i, this.noOpPaletteResizeHandler, this.elementDeserializer, this.elementSerializer);
@@ -203,40 +223,136 @@ public class PalettedContainer<T> implements PaletteResizeListener<T> {
 
    }
 
-   public void write(NbtCompound nbt, String paletteKey, String dataKey) {
+   /**
+    * Replaces the contents of this container with those of {@code snapshot}.
+    *
+    * <p>When the snapshot's palette lines up with the one this container builds,
+    * its packed data is adopted without copying and copied on the next write.
+    */
+   public void read(PalettedContainer<T>.Snapshot snapshot) {
       try {
          this.lock();
-         BiMapPalette<T> biMapPalette = new BiMapPalette(this.idList, this.paletteSize, this.noOpPaletteResizeHandler, this.elementDeserializer, this.elementSerializer);
-         T object = this.defaultValue;
-         int i = biMapPalette.getIndex(this.defaultValue);
-         int[] is = new int[4096];
-
-         for(int j = 0; j < 4096; ++j) {
-            T object2 = this.get(j);
-            if (object2 != object) {
-               object = object2;
-               i = biMapPalette.getIndex(object2);
+         PalettedContainer<T>.Snapshot snapshot2 = snapshot.compact();
+         Object[] objects = snapshot2.paletteEntries;
+         int i = Math.max(4, MathHelper.log2DeBruijn(objects.length));
+         if (i != this.paletteSize) {
+            this.setPaletteSize(i);
+         }
+
+         for(int j = 0; j < objects.length; ++j) {
+            this.palette.getIndex((T)objects[j]);
+         }
+
+         int[] is = new int[objects.length];
+         boolean bl = snapshot2.data.getElementBits() == this.paletteSize && snapshot2.data.getSize() == 4096;
+
+         for(int k = 0; k < objects.length; ++k) {
+            is[k] = this.palette.getIndex((T)objects[k]);
+            bl &= is[k] == k;
+         }
+
+         if (bl) {
+            this.data = snapshot2.data;
+            this.dataShared = true;
+         } else {
+            PackedIntegerArray packedIntegerArray = new PackedIntegerArray(this.paletteSize, 4096);
+            int l = this.palette.getIndex(this.defaultValue);
+
+            for(int m = 0; m < 4096; ++m) {
+               int n = snapshot2.data.get(m);
+               packedIntegerArray.set(m, n < is.length ? is[n] : l);
             }
 
-            is[j] = i;
+            this.data = packedIntegerArray;
+            this.dataShared = false;
          }
+      } finally {
+         this.unlock();
+      }
 
-         NbtList nbtList = new NbtList();
-         biMapPalette.writeNbt(nbtList);
-         nbt.put(paletteKey, nbtList);
-         int k = Math.max(4, MathHelper.log2DeBruijn(nbtList.size()));
-         PackedIntegerArray packedIntegerArray = new PackedIntegerArray(k, 4096);
+   }
+
+   public void write(NbtCompound nbt, String paletteKey, String dataKey) {
+      try {
+         this.lock();
+         this.compact(this::get).write(nbt, paletteKey, dataKey);
+      } finally {
+         this.unlock();
+      }
+   }
 
-         for(int l = 0; l < is.length; ++l) {
-            packedIntegerArray.set(l, is[l]);
+   /**
+    * Builds a snapshot whose palette holds exactly the values returned by {@code
+    * getter}, starting with the default value, and packs them with as few bits
+    * as the palette allows.
+    */
+   private PalettedContainer<T>.Snapshot compact(IntFunction<T> getter) {
+      BiMapPalette<T> biMapPalette = new BiMapPalette(this.idList, this.paletteSize, this.noOpPaletteResizeHandler, this.elementDeserializer, this.elementSerializer);
+      T object = this.defaultValue;
+      int i = biMapPalette.getIndex(this.defaultValue);
+      int[] is = new int[4096];
+
+      for(int j = 0; j < 4096; ++j) {
+         T object2 = getter.apply(j);
+         if (object2 != object) {
+            object = object2;
+            i = biMapPalette.getIndex(object2);
          }
 
-         nbt.putLongArray(dataKey, packedIntegerArray.getStorage());
+         is[j] = i;
+      }
+
+      Object[] objects = new Object[biMapPalette.getIndexBits()];
+
+      for(int k = 0; k < objects.length; ++k) {
+         objects[k] = biMapPalette.getByIndex(k);
+      }
+
+      int l = Math.max(4, MathHelper.log2DeBruijn(objects.length));
+      PackedIntegerArray packedIntegerArray = new PackedIntegerArray(l, 4096);
+
+      for(int m = 0; m < is.length; ++m) {
+         packedIntegerArray.set(m, is[m]);
+      }
+
+      return new PalettedContainer.Snapshot(packedIntegerArray, objects, true);
+   }
+
+   /**
+    * Captures the current contents of this container so they can be written to
+    * NBT on another thread.
+    *
+    * <p>The packed data is not copied; the container copies it on its next write
+    * instead. Only the palette entries are copied, unless the container uses the
+    * global palette, which never changes.
+    */
+   public PalettedContainer<T>.Snapshot createSnapshot() {
+      try {
+         this.lock();
+         Object[] objects = null;
+         if (this.palette != this.fallbackPalette) {
+            objects = new Object[this.palette.getIndexBits()];
+
+            for(int i = 0; i < objects.length; ++i) {
+               objects[i] = this.palette.getByIndex(i);
+            }
+         }
+
+         this.dataShared = true;
+         return new PalettedContainer.Snapshot(this.data, objects, false);
       } finally {
          this.unlock();
       }
    }
 
+   /**
+    * Creates a snapshot of decoded contents, where {@code data} holds indices
+    * into {@code palette}. Neither is copied.
+    */
+   public PalettedContainer<T>.Snapshot createSnapshot(List<T> palette, PackedIntegerArray data) {
+      return new PalettedContainer.Snapshot(data, palette.toArray(), true);
+   }
+
    public int getPacketSize() {
       return 1 + this.palette.getPacketSize() + PacketByteBuf.getVarIntLength(this.data.getSize()) + this.data.getStorage().length * 8;
    }
@@ -255,6 +371,80 @@ public class PalettedContainer<T> implements PaletteResizeListener<T> {
       });
    }
 
+   public class Snapshot {
+      private final PackedIntegerArray data;
+      @Nullable
+      private final Object[] paletteEntries;
+      private final boolean compact;
+      @Nullable
+      private PalettedContainer<T>.Snapshot compacted;
+
+      Snapshot(PackedIntegerArray data, @Nullable Object[] paletteEntries, boolean compact) {
+         this.data = data;
+         this.paletteEntries = paletteEntries;
+         this.compact = compact;
+      }
+
+      private T get(int index) {
+         int i = this.data.get(index);
+         T object;
+         if (this.paletteEntries == null) {
+            object = PalettedContainer.this.idList.get(i);
+         } else {
+            object = i >= 0 && i < this.paletteEntries.length ? (T)this.paletteEntries[i] : null;
+         }
+
+         return object == null ? PalettedContainer.this.defaultValue : object;
+      }
+
+      public T get(int x, int y, int z) {
+         return this.get(PalettedContainer.toIndex(x, y, z));
+      }
+
+      /**
+       * Returns an equivalent snapshot with a local palette that holds only the
+       * values in use, which is built once and then reused.
+       */
+      PalettedContainer<T>.Snapshot compact() {
+         if (this.compact) {
+            return this;
+         } else {
+            if (this.compacted == null) {
+               this.compacted = PalettedContainer.this.compact(this::get);
+            }
+
+            return this.compacted;
+         }
+      }
+
+      public int getPaletteLength() {
+         return this.compact().paletteEntries.length;
+      }
+
+      public T getPaletteEntry(int index) {
+         return (T)this.compact().paletteEntries[index];
+      }
+
+      /**
+       * Returns the packed indices into the entries of {@link #getPaletteEntry}.
+       */
+      public PackedIntegerArray getData() {
+         return this.compact().data;
+      }
+
+      public void write(NbtCompound nbt, String paletteKey, String dataKey) {
+         PalettedContainer<T>.Snapshot snapshot = this.compact();
+         NbtList nbtList = new NbtList();
+
+         for(int i = 0; i < snapshot.paletteEntries.length; ++i) {
+            nbtList.add(PalettedContainer.this.elementSerializer.apply((T)snapshot.paletteEntries[i]));
+         }
+
+         nbt.put(paletteKey, nbtList);
+         nbt.putLongArray(dataKey, snapshot.data.getStorage());
+      }
+   }
+
    @FunctionalInterface
    public interface CountConsumer<T> {
       void accept(T object, int count);
@@ -0,0 +1,97 @@
+package net.minecraft.world.chunk;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.profiler.DummyProfiler;
+import net.minecraft.util.profiler.Profiler;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A chunk cache that reads block states from snapshots of the chunk sections
+ * of its region taken when it was created, so it can be read on another thread
+ * while the world keeps changing.
+ *
+ * <p>It must be created on the thread that owns the world. Sections are only
+ * snapshotted once per {@code sections} map, so caches created in the same tick
+ * should share one. Block entities are not captured, and blocks outside the
+ * region read as air.
+ */
+public class SnapshotChunkCache extends ChunkCache {
+   private static final BlockState AIR = Blocks.AIR.getDefaultState();
+   private final int minSectionY;
+   private final int sizeX;
+   private final int sizeY;
+   private final int sizeZ;
+   private final Object[] sections;
+
+   public SnapshotChunkCache(World world, BlockPos minPos, BlockPos maxPos, Long2ObjectMap<PalettedContainer<BlockState>.Snapshot> sections) {
+      super(world, minPos, maxPos);
+      this.minSectionY = Math.max(world.getBottomSectionCoord(), ChunkSectionPos.getSectionCoord(minPos.getY()));
+      int i = Math.min(world.getTopSectionCoord() - 1, ChunkSectionPos.getSectionCoord(maxPos.getY()));
+      this.sizeX = this.chunks.length;
+      this.sizeY = Math.max(0, i - this.minSectionY + 1);
+      this.sizeZ = this.sizeX > 0 ? this.chunks[0].length : 0;
+      this.sections = new Object[this.sizeX * this.sizeY * this.sizeZ];
+
+      for(int j = 0; j < this.sizeX; ++j) {
+         for(int k = 0; k < this.sizeZ; ++k) {
+            Chunk chunk = this.chunks[j][k];
+            if (chunk != null) {
+               ChunkSection[] chunkSections = chunk.getSectionArray();
+
+               for(int l = 0; l < this.sizeY; ++l) {
+                  int m = this.minSectionY + l;
+                  ChunkSection chunkSection = chunkSections[world.sectionCoordToIndex(m)];
+                  if (!ChunkSection.isEmpty(chunkSection)) {
+                     long n = ChunkSectionPos.asLong(this.minX + j, m, this.minZ + k);
+                     PalettedContainer<BlockState>.Snapshot snapshot = (PalettedContainer.Snapshot)sections.get(n);
+                     if (snapshot == null) {
+                        snapshot = chunkSection.getContainer().createSnapshot();
+                        sections.put(n, snapshot);
+                     }
+
+                     this.sections[(j * this.sizeZ + k) * this.sizeY + l] = snapshot;
+                  }
+               }
+            }
+         }
+      }
+
+   }
+
+   public BlockView getChunkAsView(int chunkX, int chunkZ) {
+      return this;
+   }
+
+   @Nullable
+   public BlockEntity getBlockEntity(BlockPos pos) {
+      return null;
+   }
+
+   public BlockState getBlockState(BlockPos pos) {
+      int i = ChunkSectionPos.getSectionCoord(pos.getX()) - this.minX;
+      int j = ChunkSectionPos.getSectionCoord(pos.getY()) - this.minSectionY;
+      int k = ChunkSectionPos.getSectionCoord(pos.getZ()) - this.minZ;
+      if (i >= 0 && i < this.sizeX && j >= 0 && j < this.sizeY && k >= 0 && k < this.sizeZ) {
+         PalettedContainer<BlockState>.Snapshot snapshot = (PalettedContainer.Snapshot)this.sections[(i * this.sizeZ + k) * this.sizeY + j];
+         return snapshot == null ? AIR : (BlockState)snapshot.get(pos.getX() & 15, pos.getY() & 15, pos.getZ() & 15);
+      } else {
+         return AIR;
+      }
+   }
+
+   public FluidState getFluidState(BlockPos pos) {
+      return this.getBlockState(pos).getFluidState();
+   }
+
+   public Profiler getProfiler() {
+      return DummyProfiler.INSTANCE;
+   }
+}
@@ -36,6 +36,7 @@ import net.minecraft.fluid.FluidState;
 import net.minecraft.fluid.Fluids;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.packet.s2c.play.ChunkDataS2CPacket;
 import net.minecraft.server.world.ChunkHolder;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.server.world.SimpleTickScheduler;
@@ -98,6 +99,12 @@ public class WorldChunk implements Chunk {
    private TickScheduler<Block> blockTickScheduler;
    private TickScheduler<Fluid> fluidTickScheduler;
    private volatile boolean shouldSave;
+   /**
+    * The block data of the chunk data packets of this chunk, built by the first
+    * packet after a block changes.
+    */
+   @Nullable
+   private volatile ChunkDataS2CPacket.ChunkData packetData;
    private long inhabitedTime;
    @Nullable
    private Supplier<ChunkHolder.LevelType> levelTypeProvider;
@@ -285,6 +292,7 @@ public class WorldChunk implements Chunk {
       if (blockState == state) {
          return null;
       } else {
+         this.packetData = null;
          Block block = state.getBlock();
          ((Heightmap)this.heightmaps.get(Heightmap.Type.MOTION_BLOCKING)).trackUpdate(k, i, m, state);
          ((Heightmap)this.heightmaps.get(Heightmap.Type.MOTION_BLOCKING_NO_LEAVES)).trackUpdate(k, i, m, state);
@@ -502,6 +510,20 @@ public class WorldChunk implements Chunk {
       this.shouldSave = true;
    }
 
+   /**
+    * Returns the block data to build chunk data packets of this chunk with, which
+    * is shared by all packets built until a block of this chunk changes.
+    */
+   public ChunkDataS2CPacket.ChunkData getPacketData() {
+      ChunkDataS2CPacket.ChunkData chunkData = this.packetData;
+      if (chunkData == null) {
+         chunkData = new ChunkDataS2CPacket.ChunkData(this);
+         this.packetData = chunkData;
+      }
+
+      return chunkData;
+   }
+
    public boolean isEmpty() {
       return false;
    }
@@ -181,6 +181,10 @@ public abstract class LevelPropagator {
 
    }
 
+   protected final boolean hasPendingUpdate(long id) {
+      return this.pendingUpdates.get(id) != -1;
+   }
+
    protected final boolean hasPendingUpdates() {
       return this.hasPendingUpdates;
    }
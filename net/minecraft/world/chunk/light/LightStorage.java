@@ -377,6 +377,15 @@ public abstract class LightStorage<M extends ChunkToNibbleArrayMap<M>> extends S
 
    protected void notifyChanges() {
       if (!this.dirtySections.isEmpty()) {
+         LongIterator longIterator2 = this.dirtySections.iterator();
+
+         while(longIterator2.hasNext()) {
+            ChunkNibbleArray chunkNibbleArray = this.storage.get(longIterator2.nextLong());
+            if (chunkNibbleArray != null) {
+               chunkNibbleArray.compact();
+            }
+         }
+
          M chunkToNibbleArrayMap = this.storage.copy();
          chunkToNibbleArrayMap.disableCache();
          this.uncachedStorage = chunkToNibbleArrayMap;
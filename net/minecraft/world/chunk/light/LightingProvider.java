@@ -1,5 +1,7 @@
 package net.minecraft.world.chunk.light;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.ChunkSectionPos;
@@ -64,6 +66,34 @@ public class LightingProvider implements LightingView {
       }
    }
 
+   /**
+    * Runs all pending updates, running the block light updates on {@code
+    * executor} while the sky light updates run on the calling thread.
+    *
+    * <p>The two engines keep separate storages and propagation queues and only
+    * read the chunks they light, so the result is the same as that of {@link
+    * #doLightUpdates} with an unlimited budget.
+    */
+   protected void doLightUpdatesInParallel(Executor executor) {
+      if (this.blockLightProvider != null && this.skyLightProvider != null && this.blockLightProvider.hasUpdates() && this.skyLightProvider.hasUpdates()) {
+         ChunkLightProvider<?, ?> chunkLightProvider = this.blockLightProvider;
+         CompletableFuture<Integer> completableFuture = CompletableFuture.supplyAsync(() -> {
+            return chunkLightProvider.doLightUpdates(Integer.MAX_VALUE, true, true);
+         }, executor);
+         this.skyLightProvider.doLightUpdates(Integer.MAX_VALUE, true, true);
+         completableFuture.join();
+      } else {
+         if (this.blockLightProvider != null) {
+            this.blockLightProvider.doLightUpdates(Integer.MAX_VALUE, true, true);
+         }
+
+         if (this.skyLightProvider != null) {
+            this.skyLightProvider.doLightUpdates(Integer.MAX_VALUE, true, true);
+         }
+      }
+
+   }
+
    public void setSectionStatus(ChunkSectionPos pos, boolean notReady) {
       if (this.blockLightProvider != null) {
          this.blockLightProvider.setSectionStatus(pos, notReady);
@@ -5,7 +5,6 @@ import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongIterator;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
-import java.util.Arrays;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.Direction;
@@ -163,8 +162,8 @@ public class SkyLightStorage extends LightStorage<SkyLightStorage.Data> {
    }
 
    private static ChunkNibbleArray copy(ChunkNibbleArray source) {
-      if (source.isUninitialized()) {
-         return new ChunkNibbleArray();
+      if (source.isUniform()) {
+         return ChunkNibbleArray.uniform(source.get(0, 0, 0));
       } else {
          byte[] bs = source.asByteArray();
          byte[] cs = new byte[2048];
@@ -210,7 +209,7 @@ public class SkyLightStorage extends LightStorage<SkyLightStorage.Data> {
                         ((SkyLightStorage.Data)this.storage).replaceWithCopy(l);
                      }
 
-                     Arrays.fill(this.getLightSection(l, true).asByteArray(), (byte)-1);
+                     this.getLightSection(l, true).fill(15);
                      j = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackX(l));
                      k = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackY(l));
                      int m = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackZ(l));
@@ -250,13 +249,7 @@ public class SkyLightStorage extends LightStorage<SkyLightStorage.Data> {
                         }
                      }
 
-                     for(int y = 0; y < 16; ++y) {
-                        for(z = 0; z < 16; ++z) {
-                           long aa = BlockPos.asLong(ChunkSectionPos.getOffsetPos(ChunkSectionPos.unpackX(l), y), ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackY(l)), ChunkSectionPos.getOffsetPos(ChunkSectionPos.unpackZ(l), z));
-                           ab = BlockPos.asLong(ChunkSectionPos.getOffsetPos(ChunkSectionPos.unpackX(l), y), ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackY(l)) - 1, ChunkSectionPos.getOffsetPos(ChunkSectionPos.unpackZ(l), z));
-                           lightProvider.updateLevel(aa, ab, lightProvider.getPropagatedLevel(aa, ab, 0), true);
-                        }
-                     }
+                     this.lightOpenColumns(lightProvider, l);
                   } else {
                      for(j = 0; j < 16; ++j) {
                         for(k = 0; k < 16; ++k) {
@@ -299,6 +292,91 @@ public class SkyLightStorage extends LightStorage<SkyLightStorage.Data> {
       }
    }
 
+   /**
+    * Lights the open sky below the bottom face of a topmost section that was
+    * just filled with full light.
+    *
+    * <p>Sky light keeps its full level straight down through every block it
+    * passes at level {@code 0}, and no path can make a block brighter than that.
+    * Such runs are therefore written directly, column by column, and only the
+    * blocks that can still light something else, the bottom of each run and
+    * the blocks beside a shallower column or the edge of the chunk, are handed
+    * to the propagator. Blocks with a pending update end the run, so the
+    * propagator still settles them.
+    */
+   private void lightOpenColumns(ChunkLightProvider<SkyLightStorage.Data, ?> lightProvider, long sectionPos) {
+      int i = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackX(sectionPos));
+      int j = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackY(sectionPos));
+      int k = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackZ(sectionPos));
+      int[] is = new int[256];
+      LongSet longSet = new LongOpenHashSet();
+
+      int n;
+      for(int m = 0; m < 16; ++m) {
+         for(n = 0; n < 16; ++n) {
+            long l = BlockPos.asLong(i + n, j, k + m);
+            long o = BlockPos.asLong(i + n, j - 1, k + m);
+            int p = j;
+
+            while(true) {
+               long q = ChunkSectionPos.fromBlockPos(o);
+               if (!this.hasSection(q) || lightProvider.hasPendingUpdate(o) || lightProvider.getPropagatedLevel(l, o, 0) != 0) {
+                  break;
+               }
+
+               if (this.dirtySections.add(q)) {
+                  ((SkyLightStorage.Data)this.storage).replaceWithCopy(q);
+               }
+
+               longSet.add(q);
+               --p;
+               this.getLightSection(q, true).set(n, ChunkSectionPos.getLocalCoord(p), m, 15);
+               l = o;
+               o = BlockPos.add(o, 0, -1, 0);
+            }
+
+            is[m * 16 + n] = p;
+            if (p == j) {
+               o = BlockPos.asLong(i + n, j - 1, k + m);
+               lightProvider.updateLevel(l, o, lightProvider.getPropagatedLevel(l, o, 0), true);
+            }
+         }
+      }
+
+      for(int r = 0; r < 16; ++r) {
+         for(n = 0; n < 16; ++n) {
+            int s = is[r * 16 + n];
+            int t;
+            if (n != 0 && n != 15 && r != 0 && r != 15) {
+               t = Math.max(Math.max(is[r * 16 + n - 1], is[r * 16 + n + 1]), Math.max(is[(r - 1) * 16 + n], is[(r + 1) * 16 + n]));
+            } else {
+               t = j;
+            }
+
+            for(int u = s; u < j; ++u) {
+               if (u == s || u < t) {
+                  lightProvider.propagateLevel(BlockPos.asLong(i + n, u, k + r), 0, true);
+               }
+            }
+         }
+      }
+
+      LongIterator longIterator = longSet.iterator();
+
+      while(longIterator.hasNext()) {
+         long v = longIterator.nextLong();
+
+         for(int w = -1; w <= 1; ++w) {
+            for(int x = -1; x <= 1; ++x) {
+               for(int y = -1; y <= 1; ++y) {
+                  this.notifySections.add(ChunkSectionPos.offset(v, x, y, w));
+               }
+            }
+         }
+      }
+
+   }
+
    protected boolean isAboveMinHeight(int sectionY) {
       return sectionY >= ((SkyLightStorage.Data)this.storage).minSectionY;
    }
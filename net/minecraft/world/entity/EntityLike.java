@@ -3,6 +3,7 @@ package net.minecraft.world.entity;
 import java.util.UUID;
 import java.util.stream.Stream;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
 
@@ -26,6 +27,12 @@ public interface EntityLike {
 
    Box getBoundingBox();
 
+   /**
+    * Returns the type of this entity, by which {@link EntityTrackingSection}
+    * buckets its entities.
+    */
+   EntityType<?> getType();
+
    void setListener(EntityChangeListener listener);
 
    /**
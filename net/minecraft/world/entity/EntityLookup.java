@@ -1,7 +1,10 @@
 package net.minecraft.world.entity;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
 import net.minecraft.util.TypeFilter;
 import net.minecraft.util.math.Box;
 import org.jetbrains.annotations.Nullable;
@@ -45,4 +48,17 @@ public interface EntityLookup<T extends EntityLike> {
    void forEachIntersects(Box box, Consumer<T> action);
 
    <U extends T> void forEachIntersects(TypeFilter<T, U> filter, Box box, Consumer<U> action);
+
+   /**
+    * Returns the number of entities of type {@code U} intersecting {@code box}
+    * that pass {@code predicate}, without collecting them.
+    */
+   <U extends T> int count(TypeFilter<T, U> filter, Box box, Predicate<? super U> predicate);
+
+   /**
+    * Appends to {@code dst} up to {@code limit} entities of type {@code U}
+    * intersecting {@code box} that pass {@code predicate}, nearest first by
+    * {@code distance}.
+    */
+   <U extends T> void collectNearest(TypeFilter<T, U> filter, Box box, int limit, Predicate<? super U> predicate, ToDoubleFunction<? super U> distance, List<? super U> dst);
 }
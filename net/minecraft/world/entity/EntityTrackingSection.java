@@ -1,9 +1,16 @@
 package net.minecraft.world.entity;
 
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
+import net.minecraft.entity.EntityType;
 import net.minecraft.util.TypeFilter;
 import net.minecraft.util.annotation.Debug;
 import net.minecraft.util.collection.TypeFilterableList;
@@ -12,10 +19,14 @@ import org.apache.logging.log4j.Logger;
 
 /**
  * A collection of entities tracked within a chunk section.
+ *
+ * <p>Besides by class, the entities are bucketed by {@link EntityType}, so that
+ * queries for a single type only visit the entities of that type.
  */
-public class EntityTrackingSection<T> {
+public class EntityTrackingSection<T extends EntityLike> {
    protected static final Logger LOGGER = LogManager.getLogger();
    private final TypeFilterableList<T> collection;
+   private final Reference2ObjectMap<EntityType<?>, List<T>> entitiesByType = new Reference2ObjectOpenHashMap();
    private EntityTrackingStatus status;
 
    public EntityTrackingSection(Class<T> entityClass, EntityTrackingStatus status) {
@@ -25,12 +36,34 @@ public class EntityTrackingSection<T> {
 
    public void add(T obj) {
       this.collection.add(obj);
+      ((List)this.entitiesByType.computeIfAbsent(obj.getType(), (type) -> {
+         return new ObjectArrayList();
+      })).add(obj);
    }
 
    public boolean remove(T obj) {
+      List<T> list = (List)this.entitiesByType.get(obj.getType());
+      if (list != null) {
+         list.remove(obj);
+      }
+
       return this.collection.remove(obj);
    }
 
+   /**
+    * Returns the entities that may pass {@code type}: those of the type if it is
+    * an {@link EntityType}, otherwise those of its base class. The result must
+    * not be modified.
+    */
+   Collection<T> getCandidates(TypeFilter<T, ?> type) {
+      if (type instanceof EntityType) {
+         List<T> list = (List)this.entitiesByType.get(type);
+         return (Collection)(list == null ? Collections.emptyList() : list);
+      } else {
+         return (Collection)this.collection.getAllOfType(type.getBaseClass());
+      }
+   }
+
    public void forEach(Predicate<? super T> predicate, Consumer<T> action) {
       Iterator var3 = this.collection.iterator();
 
@@ -44,7 +77,7 @@ public class EntityTrackingSection<T> {
    }
 
    public <U extends T> void forEach(TypeFilter<T, U> type, Predicate<? super U> filter, Consumer<? super U> action) {
-      Iterator var4 = this.collection.getAllOfType(type.getBaseClass()).iterator();
+      Iterator var4 = this.getCandidates(type).iterator();
 
       while(var4.hasNext()) {
          T object = var4.next();
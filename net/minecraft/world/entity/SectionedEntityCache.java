@@ -8,11 +8,13 @@ import it.unimi.dsi.fastutil.longs.LongBidirectionalIterator;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.longs.LongSortedSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Spliterators;
 import java.util.PrimitiveIterator.OfLong;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -21,6 +23,7 @@ import net.minecraft.util.annotation.Debug;
 import net.minecraft.util.math.Box;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.ChunkSectionPos;
+import org.apache.commons.lang3.mutable.MutableInt;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -141,6 +144,69 @@ public class SectionedEntityCache<T extends EntityLike> {
       });
    }
 
+   /**
+    * Returns the number of entities passing {@code filter} and {@code predicate}
+    * whose bounding box intersects {@code box}, without collecting them.
+    */
+   public <U extends T> int count(TypeFilter<T, U> filter, Box box, Predicate<? super U> predicate) {
+      MutableInt mutableInt = new MutableInt();
+      this.forEachInBox(box, (entityTrackingSection) -> {
+         for(T entityLike : entityTrackingSection.getCandidates(filter)) {
+            U entityLike2 = filter.downcast(entityLike);
+            if (entityLike2 != null && entityLike.getBoundingBox().intersects(box) && predicate.test(entityLike2)) {
+               mutableInt.increment();
+            }
+         }
+
+      });
+      return mutableInt.intValue();
+   }
+
+   /**
+    * Appends to {@code dst} up to {@code limit} entities passing {@code filter}
+    * and {@code predicate} whose bounding box intersects {@code box}, nearest
+    * first by {@code distance}. Entities at the same distance keep the order
+    * {@link #forEachIntersects} visits them in.
+    *
+    * <p>{@code predicate} is only tested on entities near enough to be
+    * appended, so an expensive predicate such as a line of sight check runs for
+    * few of the entities in the box.
+    */
+   public <U extends T> void collectNearest(TypeFilter<T, U> filter, Box box, int limit, Predicate<? super U> predicate, ToDoubleFunction<? super U> distance, List<? super U> dst) {
+      if (limit > 0) {
+         int i = dst.size();
+         double[] ds = new double[limit];
+         MutableInt mutableInt = new MutableInt();
+         this.forEachInBox(box, (entityTrackingSection) -> {
+            for(T entityLike : entityTrackingSection.getCandidates(filter)) {
+               U entityLike2 = filter.downcast(entityLike);
+               if (entityLike2 != null && entityLike.getBoundingBox().intersects(box)) {
+                  int j = mutableInt.intValue();
+                  double d = distance.applyAsDouble(entityLike2);
+                  if ((j < limit || d < ds[j - 1]) && predicate.test(entityLike2)) {
+                     int k = j;
+
+                     while(k > 0 && d < ds[k - 1]) {
+                        --k;
+                     }
+
+                     if (j == limit) {
+                        dst.remove(i + j - 1);
+                     } else {
+                        mutableInt.increment();
+                     }
+
+                     System.arraycopy(ds, k, ds, k + 1, Math.min(j, limit - 1) - k);
+                     ds[k] = d;
+                     dst.add(i + k, entityLike2);
+                  }
+               }
+            }
+
+         });
+      }
+   }
+
    public void removeSection(long sectionPos) {
       this.trackingSections.remove(sectionPos);
       this.trackedPositions.remove(sectionPos);
@@ -1,7 +1,10 @@
 package net.minecraft.world.entity;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
 import net.minecraft.util.TypeFilter;
 import net.minecraft.util.math.Box;
 import org.jetbrains.annotations.Nullable;
@@ -49,4 +52,12 @@ public class SimpleEntityLookup<T extends EntityLike> implements EntityLookup<T>
    public <U extends T> void forEachIntersects(TypeFilter<T, U> filter, Box box, Consumer<U> action) {
       this.cache.forEachIntersects(filter, box, action);
    }
+
+   public <U extends T> int count(TypeFilter<T, U> filter, Box box, Predicate<? super U> predicate) {
+      return this.cache.count(filter, box, predicate);
+   }
+
+   public <U extends T> void collectNearest(TypeFilter<T, U> filter, Box box, int limit, Predicate<? super U> predicate, ToDoubleFunction<? super U> distance, List<? super U> dst) {
+      this.cache.collectNearest(filter, box, limit, predicate, distance, dst);
+   }
 }
@@ -41,6 +41,7 @@ import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.nbt.NbtIo;
 import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.visitor.SelectiveNbtCollector;
 import net.minecraft.resource.DataPackSettings;
 import net.minecraft.text.TranslatableText;
 import net.minecraft.util.FileNameUtil;
@@ -239,9 +240,9 @@ public class LevelStorage {
    BiFunction<File, DataFixer, LevelSummary> createLevelDataParser(File file, boolean locked) {
       return (file2, dataFixer) -> {
          try {
-            NbtCompound nbtCompound = NbtIo.readCompressed(file2);
-            NbtCompound nbtCompound2 = nbtCompound.getCompound("Data");
-            nbtCompound2.remove("Player");
+            SelectiveNbtCollector selectiveNbtCollector = SelectiveNbtCollector.excluding("Data.Player", "Data.WorldGenSettings");
+            NbtIo.scanCompressed(file2, selectiveNbtCollector);
+            NbtCompound nbtCompound2 = selectiveNbtCollector.getRoot().getCompound("Data");
             int i = nbtCompound2.contains("DataVersion", 99) ? nbtCompound2.getInt("DataVersion") : -1;
             Dynamic<NbtElement> dynamic = dataFixer.update(DataFixTypes.LEVEL.getTypeReference(), new Dynamic(NbtOps.INSTANCE, nbtCompound2), i, SharedConstants.getGameVersion().getWorldVersion());
             SaveVersionInfo saveVersionInfo = SaveVersionInfo.fromDynamic(dynamic);
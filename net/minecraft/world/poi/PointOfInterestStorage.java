@@ -32,6 +32,7 @@ import net.minecraft.world.SectionDistanceLevelPropagator;
 import net.minecraft.world.WorldView;
 import net.minecraft.world.chunk.ChunkSection;
 import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.storage.RegionStorageOptions;
 import net.minecraft.world.storage.SerializingRegionBasedStorage;
 
 public class PointOfInterestStorage extends SerializingRegionBasedStorage<PointOfInterestSet> {
@@ -40,8 +41,8 @@ public class PointOfInterestStorage extends SerializingRegionBasedStorage<PointO
    private final PointOfInterestStorage.PointOfInterestDistanceTracker pointOfInterestDistanceTracker = new PointOfInterestStorage.PointOfInterestDistanceTracker();
    private final LongSet preloadedChunks = new LongOpenHashSet();
 
-   public PointOfInterestStorage(File directory, DataFixer dataFixer, boolean dsync, HeightLimitView world) {
-      super(directory, PointOfInterestSet::createCodec, PointOfInterestSet::new, dataFixer, DataFixTypes.POI_CHUNK, dsync, world);
+   public PointOfInterestStorage(File directory, DataFixer dataFixer, RegionStorageOptions options, boolean dsync, HeightLimitView world) {
+      super(directory, PointOfInterestSet::createCodec, PointOfInterestSet::new, dataFixer, DataFixTypes.POI_CHUNK, options, dsync, world);
    }
 
    public void add(BlockPos pos, PointOfInterestType type) {
@@ -0,0 +1,91 @@
+package net.minecraft.world.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A zlib preset dictionary trained on the keys and values that dominate
+ * serialized chunk, entity and point of interest NBT.
+ *
+ * <p>Entries are laid out the way {@link net.minecraft.nbt.NbtIo} writes them and
+ * ordered from least to most frequent, since zlib prefers matches closer to the
+ * end of the dictionary. Changing the contents makes existing data unreadable;
+ * add a new {@link ChunkStreamVersion} instead.
+ */
+public final class ChunkNbtDictionary {
+   private static final String[] ENTRIES = new String[]{"minecraft:bedrock", "minecraft:deepslate", "minecraft:tuff", "minecraft:granite", "minecraft:diorite", "minecraft:andesite", "minecraft:gravel", "minecraft:dirt", "minecraft:grass_block", "minecraft:sand", "minecraft:sandstone", "minecraft:coal_ore", "minecraft:iron_ore", "minecraft:copper_ore", "minecraft:lava", "minecraft:cave_air", "snowy", "false", "true", "level", "axis", "facing", "waterlogged", "Motion", "Rotation", "Pos", "UUID", "id", "Items", "Count", "Slot", "Tags", "Entities", "TileEntities", "TileTicks", "LiquidTicks", "PostProcessing", "Structures", "References", "Starts", "CarvingMasks", "Heightmaps", "MOTION_BLOCKING", "MOTION_BLOCKING_NO_LEAVES", "OCEAN_FLOOR", "WORLD_SURFACE", "Biomes", "InhabitedTime", "LastUpdate", "isLightOn", "Status", "full", "xPos", "zPos", "DataVersion", "Level", "Sections", "SkyLight", "BlockLight", "Y", "minecraft:water", "minecraft:stone", "minecraft:air", "Properties", "Name", "Palette", "BlockStates"};
+   private static final byte[] DICTIONARY = build();
+
+   private ChunkNbtDictionary() {
+   }
+
+   private static byte[] build() {
+      ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+      DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+
+      try {
+         for(String string : ENTRIES) {
+            dataOutputStream.writeByte(8);
+            dataOutputStream.writeUTF(string);
+         }
+
+         dataOutputStream.flush();
+      } catch (IOException var6) {
+         throw new UncheckedIOException(var6);
+      }
+
+      return byteArrayOutputStream.toByteArray();
+   }
+
+   public static OutputStream wrap(OutputStream outputStream) {
+      Deflater deflater = new Deflater();
+      deflater.setDictionary(DICTIONARY);
+      return new DeflaterOutputStream(outputStream, deflater) {
+         public void close() throws IOException {
+            try {
+               super.close();
+            } finally {
+               deflater.end();
+            }
+
+         }
+      };
+   }
+
+   public static InputStream wrap(InputStream inputStream) {
+      return new InflaterInputStream(inputStream, new Inflater()) {
+         private boolean closed;
+
+         public int read(byte[] bytes, int offset, int length) throws IOException {
+            int i = super.read(bytes, offset, length);
+            if (i == -1 && this.inf.needsDictionary()) {
+               this.inf.setDictionary(DICTIONARY);
+               i = super.read(bytes, offset, length);
+            }
+
+            return i;
+         }
+
+         public void close() throws IOException {
+            if (!this.closed) {
+               this.closed = true;
+
+               try {
+                  super.close();
+               } finally {
+                  this.inf.end();
+               }
+            }
+
+         }
+      };
+   }
+}
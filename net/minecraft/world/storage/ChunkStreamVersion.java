@@ -1,10 +1,13 @@
 package net.minecraft.world.storage;
 
+import com.google.common.collect.Maps;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Map;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -13,25 +16,31 @@ import org.jetbrains.annotations.Nullable;
 
 public class ChunkStreamVersion {
    private static final Int2ObjectMap<ChunkStreamVersion> VERSIONS = new Int2ObjectOpenHashMap();
-   public static final ChunkStreamVersion GZIP = add(new ChunkStreamVersion(1, GZIPInputStream::new, GZIPOutputStream::new));
-   public static final ChunkStreamVersion DEFLATE = add(new ChunkStreamVersion(2, InflaterInputStream::new, DeflaterOutputStream::new));
-   public static final ChunkStreamVersion UNCOMPRESSED = add(new ChunkStreamVersion(3, (inputStream) -> {
+   private static final Map<String, ChunkStreamVersion> VERSIONS_BY_NAME = Maps.newHashMap();
+   public static final ChunkStreamVersion GZIP = add(new ChunkStreamVersion(1, "gzip", GZIPInputStream::new, GZIPOutputStream::new));
+   public static final ChunkStreamVersion DEFLATE = add(new ChunkStreamVersion(2, "deflate", InflaterInputStream::new, DeflaterOutputStream::new));
+   public static final ChunkStreamVersion UNCOMPRESSED = add(new ChunkStreamVersion(3, "none", (inputStream) -> {
       return inputStream;
    }, (outputStream) -> {
       return outputStream;
    }));
+   public static final ChunkStreamVersion LZ4 = add(new ChunkStreamVersion(4, "lz4", Lz4ChunkStream.Input::new, Lz4ChunkStream.Output::new));
+   public static final ChunkStreamVersion DEFLATE_DICTIONARY = add(new ChunkStreamVersion(5, "deflate_dictionary", ChunkNbtDictionary::wrap, ChunkNbtDictionary::wrap));
    private final int id;
+   private final String name;
    private final ChunkStreamVersion.Wrapper<InputStream> inputStreamWrapper;
    private final ChunkStreamVersion.Wrapper<OutputStream> outputStreamWrapper;
 
-   private ChunkStreamVersion(int id, ChunkStreamVersion.Wrapper<InputStream> inputStreamWrapper, ChunkStreamVersion.Wrapper<OutputStream> outputStreamWrapper) {
+   private ChunkStreamVersion(int id, String name, ChunkStreamVersion.Wrapper<InputStream> inputStreamWrapper, ChunkStreamVersion.Wrapper<OutputStream> outputStreamWrapper) {
       this.id = id;
+      this.name = name;
       this.inputStreamWrapper = inputStreamWrapper;
       this.outputStreamWrapper = outputStreamWrapper;
    }
 
    private static ChunkStreamVersion add(ChunkStreamVersion version) {
       VERSIONS.put(version.id, version);
+      VERSIONS_BY_NAME.put(version.name, version);
       return version;
    }
 
@@ -40,6 +49,11 @@ public class ChunkStreamVersion {
       return (ChunkStreamVersion)VERSIONS.get(id);
    }
 
+   @Nullable
+   public static ChunkStreamVersion byName(String name) {
+      return (ChunkStreamVersion)VERSIONS_BY_NAME.get(name.toLowerCase(Locale.ROOT));
+   }
+
    public static boolean exists(int id) {
       return VERSIONS.containsKey(id);
    }
@@ -48,6 +62,10 @@ public class ChunkStreamVersion {
       return this.id;
    }
 
+   public String getName() {
+      return this.name;
+   }
+
    public OutputStream wrap(OutputStream outputStream) throws IOException {
       return (OutputStream)this.outputStreamWrapper.wrap(outputStream);
    }
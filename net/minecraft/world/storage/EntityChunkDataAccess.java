@@ -35,11 +35,11 @@ public class EntityChunkDataAccess implements ChunkDataAccess<Entity> {
    private final TaskExecutor<Runnable> taskExecutor;
    protected final DataFixer dataFixer;
 
-   public EntityChunkDataAccess(ServerWorld world, File chunkFile, DataFixer dataFixer, boolean dsync, Executor executor) {
+   public EntityChunkDataAccess(ServerWorld world, File chunkFile, DataFixer dataFixer, RegionStorageOptions options, boolean dsync, Executor executor) {
       this.world = world;
       this.dataFixer = dataFixer;
       this.taskExecutor = TaskExecutor.create(executor, "entity-deserializer");
-      this.dataLoadWorker = new StorageIoWorker(chunkFile, dsync, "entities");
+      this.dataLoadWorker = new StorageIoWorker(chunkFile, options, dsync, "entities");
    }
 
    public CompletableFuture<ChunkDataList<Entity>> readChunkData(ChunkPos pos) {
@@ -0,0 +1,329 @@
+package net.minecraft.world.storage;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A pure-Java implementation of the LZ4 block format, framed into a stream of
+ * independently compressed blocks.
+ *
+ * <p>Each block starts with its raw length and its stored length as two big-endian
+ * integers. A stored length with the high bit set marks a block that did not
+ * compress and is stored verbatim. A raw length of zero terminates the stream.
+ */
+public final class Lz4ChunkStream {
+   private static final int BLOCK_SIZE = 65536;
+   private static final int MIN_MATCH = 4;
+   private static final int LAST_LITERALS = 5;
+   private static final int MATCH_FIND_LIMIT = 12;
+   private static final int MAX_OFFSET = 65535;
+   private static final int HASH_LOG = 14;
+   private static final int STORED_FLAG = Integer.MIN_VALUE;
+
+   private Lz4ChunkStream() {
+   }
+
+   static int getMaxCompressedLength(int length) {
+      return length + length / 255 + 16;
+   }
+
+   private static int readInt(byte[] bytes, int index) {
+      return bytes[index] & 255 | (bytes[index + 1] & 255) << 8 | (bytes[index + 2] & 255) << 16 | (bytes[index + 3] & 255) << 24;
+   }
+
+   private static int hash(int value) {
+      return value * -1640531535 >>> 32 - HASH_LOG;
+   }
+
+   static int compress(byte[] src, int length, byte[] dst, int[] table) {
+      Arrays.fill(table, -1);
+      int i = 0;
+      int j = 0;
+      int k = 0;
+      int l = length - LAST_LITERALS;
+      int m = length - MATCH_FIND_LIMIT;
+
+      while(j < m) {
+         int n = readInt(src, j);
+         int o = hash(n);
+         int p = table[o];
+         table[o] = j;
+         if (p >= 0 && j - p <= MAX_OFFSET && readInt(src, p) == n) {
+            while(j > i && p > 0 && src[j - 1] == src[p - 1]) {
+               --j;
+               --p;
+            }
+
+            int q = MIN_MATCH;
+
+            while(j + q < l && src[j + q] == src[p + q]) {
+               ++q;
+            }
+
+            k = writeSequence(src, i, j - i, j - p, q, dst, k);
+            j += q;
+            i = j;
+         } else {
+            ++j;
+         }
+      }
+
+      return writeLastLiterals(src, i, length - i, dst, k);
+   }
+
+   private static int writeSequence(byte[] src, int literalStart, int literalLength, int offset, int matchLength, byte[] dst, int index) {
+      int i = matchLength - MIN_MATCH;
+      dst[index++] = (byte)(Math.min(literalLength, 15) << 4 | Math.min(i, 15));
+      index = writeLength(literalLength, dst, index);
+      System.arraycopy(src, literalStart, dst, index, literalLength);
+      index += literalLength;
+      dst[index++] = (byte)offset;
+      dst[index++] = (byte)(offset >>> 8);
+      return writeLength(i, dst, index);
+   }
+
+   private static int writeLastLiterals(byte[] src, int literalStart, int literalLength, byte[] dst, int index) {
+      dst[index++] = (byte)(Math.min(literalLength, 15) << 4);
+      index = writeLength(literalLength, dst, index);
+      System.arraycopy(src, literalStart, dst, index, literalLength);
+      return index + literalLength;
+   }
+
+   private static int writeLength(int length, byte[] dst, int index) {
+      if (length >= 15) {
+         int i;
+         for(i = length - 15; i >= 255; i -= 255) {
+            dst[index++] = -1;
+         }
+
+         dst[index++] = (byte)i;
+      }
+
+      return index;
+   }
+
+   static void decompress(byte[] src, int length, byte[] dst, int rawLength) throws IOException {
+      int i = 0;
+      int j = 0;
+
+      while(i < length) {
+         int k = src[i++] & 255;
+         int l = k >>> 4;
+         int m;
+         if (l == 15) {
+            do {
+               if (i >= length) {
+                  throw new EOFException("Truncated LZ4 literal length");
+               }
+
+               m = src[i++] & 255;
+               l += m;
+            } while(m == 255);
+         }
+
+         if (i + l > length || j + l > rawLength) {
+            throw new IOException("Malformed LZ4 block: literals out of bounds");
+         }
+
+         System.arraycopy(src, i, dst, j, l);
+         i += l;
+         j += l;
+         if (i >= length) {
+            break;
+         }
+
+         if (i + 2 > length) {
+            throw new EOFException("Truncated LZ4 match offset");
+         }
+
+         int n = src[i++] & 255 | (src[i++] & 255) << 8;
+         int o = k & 15;
+         if (o == 15) {
+            do {
+               if (i >= length) {
+                  throw new EOFException("Truncated LZ4 match length");
+               }
+
+               m = src[i++] & 255;
+               o += m;
+            } while(m == 255);
+         }
+
+         o += MIN_MATCH;
+         int p = j - n;
+         if (n == 0 || p < 0 || j + o > rawLength) {
+            throw new IOException("Malformed LZ4 block: match out of bounds");
+         }
+
+         for(int q = 0; q < o; ++q) {
+            dst[j++] = dst[p++];
+         }
+      }
+
+      if (j != rawLength) {
+         throw new IOException("Malformed LZ4 block: expected " + rawLength + " bytes but got " + j);
+      }
+   }
+
+   public static class Output extends OutputStream {
+      private final OutputStream out;
+      private final byte[] buffer = new byte[BLOCK_SIZE];
+      private final byte[] compressed = new byte[getMaxCompressedLength(BLOCK_SIZE)];
+      private final int[] table = new int[1 << HASH_LOG];
+      private int count;
+      private boolean closed;
+
+      public Output(OutputStream out) {
+         this.out = out;
+      }
+
+      public void write(int b) throws IOException {
+         if (this.count == this.buffer.length) {
+            this.writeBlock();
+         }
+
+         this.buffer[this.count++] = (byte)b;
+      }
+
+      public void write(byte[] bytes, int offset, int length) throws IOException {
+         while(length > 0) {
+            if (this.count == this.buffer.length) {
+               this.writeBlock();
+            }
+
+            int i = Math.min(length, this.buffer.length - this.count);
+            System.arraycopy(bytes, offset, this.buffer, this.count, i);
+            this.count += i;
+            offset += i;
+            length -= i;
+         }
+
+      }
+
+      private void writeBlock() throws IOException {
+         if (this.count != 0) {
+            int i = compress(this.buffer, this.count, this.compressed, this.table);
+            writeInt(this.out, this.count);
+            if (i < this.count) {
+               writeInt(this.out, i);
+               this.out.write(this.compressed, 0, i);
+            } else {
+               writeInt(this.out, this.count | STORED_FLAG);
+               this.out.write(this.buffer, 0, this.count);
+            }
+
+            this.count = 0;
+         }
+      }
+
+      private static void writeInt(OutputStream out, int value) throws IOException {
+         out.write(value >>> 24);
+         out.write(value >>> 16);
+         out.write(value >>> 8);
+         out.write(value);
+      }
+
+      public void flush() throws IOException {
+         this.writeBlock();
+         this.out.flush();
+      }
+
+      public void close() throws IOException {
+         if (!this.closed) {
+            this.closed = true;
+
+            try {
+               this.writeBlock();
+               writeInt(this.out, 0);
+            } finally {
+               this.out.close();
+            }
+
+         }
+      }
+   }
+
+   public static class Input extends InputStream {
+      private final DataInputStream in;
+      private byte[] compressed = new byte[0];
+      private final byte[] buffer = new byte[BLOCK_SIZE];
+      private int position;
+      private int limit;
+      private boolean finished;
+
+      public Input(InputStream in) {
+         this.in = new DataInputStream(in);
+      }
+
+      private boolean readBlock() throws IOException {
+         if (this.finished) {
+            return false;
+         } else {
+            int i = this.in.readInt();
+            if (i == 0) {
+               this.finished = true;
+               return false;
+            } else if (i >= 0 && i <= BLOCK_SIZE) {
+               int j = this.in.readInt();
+               if ((j & STORED_FLAG) != 0) {
+                  if ((j & ~STORED_FLAG) != i) {
+                     throw new IOException("Malformed LZ4 stream: stored block size mismatch");
+                  }
+
+                  this.in.readFully(this.buffer, 0, i);
+               } else {
+                  if (j > getMaxCompressedLength(BLOCK_SIZE)) {
+                     throw new IOException("Malformed LZ4 stream: invalid compressed size " + j);
+                  }
+
+                  if (this.compressed.length < j) {
+                     this.compressed = new byte[j];
+                  }
+
+                  this.in.readFully(this.compressed, 0, j);
+                  decompress(this.compressed, j, this.buffer, i);
+               }
+
+               this.position = 0;
+               this.limit = i;
+               return true;
+            } else {
+               throw new IOException("Malformed LZ4 stream: invalid block size " + i);
+            }
+         }
+      }
+
+      public int read() throws IOException {
+         if (this.position == this.limit && !this.readBlock()) {
+            return -1;
+         } else {
+            return this.buffer[this.position++] & 255;
+         }
+      }
+
+      public int read(byte[] bytes, int offset, int length) throws IOException {
+         if (length == 0) {
+            return 0;
+         } else if (this.position == this.limit && !this.readBlock()) {
+            return -1;
+         } else {
+            int i = Math.min(length, this.limit - this.position);
+            System.arraycopy(this.buffer, this.position, bytes, offset, i);
+            this.position += i;
+            return i;
+         }
+      }
+
+      public int available() {
+         return this.limit - this.position;
+      }
+
+      public void close() throws IOException {
+         this.in.close();
+      }
+   }
+}
@@ -0,0 +1,160 @@
+package net.minecraft.world.storage;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import net.minecraft.util.Util;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A region file that serves reads as zero-copy slices of a memory mapping of the
+ * whole file, and writes sectors that lie inside the mapping straight into it.
+ *
+ * <p>Writes past the end of the mapping go through the file channel and grow the
+ * file; the mapping is extended lazily on the next read that needs it. With
+ * {@code dsync}, the pages written through the mapping are forced to the disk
+ * before a write returns, like the writes through the channel.
+ *
+ * <p>A replaced mapping is unmapped right away rather than when it is garbage
+ * collected. The buffers returned by {@link #read} are only valid until the
+ * next read or until the file is closed, which holds for {@link
+ * RegionBasedStorage} as it consumes them under the lock of the region.
+ */
+public class MappedRegionFile extends RegionFile {
+   private static final Logger LOGGER = LogManager.getLogger();
+   private static final long MAX_MAPPED_SIZE = 2147483647L;
+   @Nullable
+   private static final MethodHandle UNMAP = (MethodHandle)Util.make(() -> {
+      try {
+         Class<?> class_ = Class.forName("sun.misc.Unsafe");
+         Field field = class_.getDeclaredField("theUnsafe");
+         field.setAccessible(true);
+         return MethodHandles.lookup().findVirtual(class_, "invokeCleaner", MethodType.methodType(Void.TYPE, ByteBuffer.class)).bindTo(field.get((Object)null));
+      } catch (ReflectiveOperationException | RuntimeException var2) {
+         LOGGER.warn("Region file mappings will be released by the garbage collector: {}", var2.toString());
+         return null;
+      }
+   });
+   private final boolean dsync;
+   @Nullable
+   private MappedByteBuffer mapping;
+   private long mappedSize;
+
+   public MappedRegionFile(Path file, Path directory, ChunkStreamVersion outputChunkStreamVersion, boolean dsync) throws IOException {
+      super(file, directory, outputChunkStreamVersion, dsync);
+      this.dsync = dsync;
+      this.remap();
+   }
+
+   private void remap() throws IOException {
+      long l = Math.min(this.channel.size(), MAX_MAPPED_SIZE);
+      if (l != this.mappedSize || this.mapping == null) {
+         this.unmap();
+         this.mapping = l > 0L ? this.channel.map(FileChannel.MapMode.READ_WRITE, 0L, l) : null;
+         this.mappedSize = l;
+      }
+   }
+
+   /**
+    * Writes the dirty pages of the current mapping back to the file and
+    * releases it.
+    */
+   private void unmap() {
+      MappedByteBuffer mappedByteBuffer = this.mapping;
+      this.mapping = null;
+      this.mappedSize = 0L;
+      if (mappedByteBuffer != null) {
+         try {
+            mappedByteBuffer.force();
+         } finally {
+            if (UNMAP != null) {
+               try {
+                  UNMAP.invoke((ByteBuffer)mappedByteBuffer);
+               } catch (Throwable var8) {
+                  LOGGER.warn("Failed to unmap region file", var8);
+               }
+            }
+
+         }
+      }
+
+   }
+
+   protected synchronized ByteBuffer read(long position, int length) throws IOException {
+      if (position + (long)length > this.mappedSize) {
+         this.remap();
+      }
+
+      if (this.mapping != null && position < this.mappedSize) {
+         ByteBuffer byteBuffer = this.mapping.duplicate();
+         byteBuffer.position((int)position);
+         byteBuffer.limit((int)Math.min(position + (long)length, this.mappedSize));
+         return byteBuffer.slice();
+      } else {
+         return super.read(position, length);
+      }
+   }
+
+   protected synchronized void write(ByteBuffer buffer, long position) throws IOException {
+      if (this.mapping != null && position < this.mappedSize) {
+         int i = (int)Math.min((long)buffer.remaining(), this.mappedSize - position);
+         ByteBuffer byteBuffer = buffer.duplicate();
+         byteBuffer.limit(byteBuffer.position() + i);
+         ByteBuffer byteBuffer2 = this.mapping.duplicate();
+         byteBuffer2.position((int)position);
+         byteBuffer2.put(byteBuffer);
+         if (this.dsync) {
+            this.mapping.force((int)position, i);
+         }
+
+         buffer.position(buffer.position() + i);
+         position += (long)i;
+      }
+
+      if (buffer.hasRemaining()) {
+         super.write(buffer, position);
+      }
+
+   }
+
+   protected synchronized void writeHeader() throws IOException {
+      if (this.mapping != null && this.mappedSize >= (long)this.header.capacity()) {
+         ByteBuffer byteBuffer = this.header.duplicate();
+         byteBuffer.clear();
+         ByteBuffer byteBuffer2 = this.mapping.duplicate();
+         byteBuffer2.position(0);
+         byteBuffer2.put(byteBuffer);
+         if (this.dsync) {
+            this.mapping.force(0, this.header.capacity());
+         }
+      } else {
+         super.writeHeader();
+      }
+
+   }
+
+   public synchronized void sync() throws IOException {
+      if (this.mapping != null) {
+         this.mapping.force();
+      }
+
+      super.sync();
+   }
+
+   public synchronized void close() throws IOException {
+      try {
+         this.unmap();
+      } finally {
+         super.close();
+      }
+
+   }
+}
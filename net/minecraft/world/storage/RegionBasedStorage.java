@@ -1,6 +1,11 @@
 package net.minecraft.world.storage;
 
+import com.google.common.collect.Lists;
+import it.unimi.dsi.fastutil.HashCommon;
 import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongBidirectionalIterator;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import java.io.DataInput;
 import java.io.DataInputStream;
@@ -8,126 +13,303 @@ import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.visitor.SelectiveNbtCollector;
 import net.minecraft.util.ThrowableDeliverer;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.BinaryChunkSerializer;
+import net.minecraft.world.ChunkSnapshot;
 import org.jetbrains.annotations.Nullable;
 
 public final class RegionBasedStorage implements AutoCloseable {
    public static final String field_31425 = ".mca";
    private static final int field_31426 = 256;
+   private static final int LOCK_STRIPES = 16;
    private final Long2ObjectLinkedOpenHashMap<RegionFile> cachedRegionFiles = new Long2ObjectLinkedOpenHashMap();
+   private final Lock[] locks = new Lock[LOCK_STRIPES];
    private final File directory;
+   private final RegionStorageOptions options;
    private final boolean dsync;
 
-   RegionBasedStorage(File directory, boolean dsync) {
+   RegionBasedStorage(File directory, RegionStorageOptions options, boolean dsync) {
       this.directory = directory;
+      this.options = options;
       this.dsync = dsync;
+
+      for(int i = 0; i < this.locks.length; ++i) {
+         this.locks[i] = new ReentrantLock();
+      }
+
    }
 
+   private Lock getLock(long regionPos) {
+      return this.locks[(int)(HashCommon.mix(regionPos) & (long)(LOCK_STRIPES - 1))];
+   }
+
+   private static long getRegionPos(ChunkPos pos) {
+      return ChunkPos.toLong(pos.getRegionX(), pos.getRegionZ());
+   }
+
+   /**
+    * Returns the region file containing {@code pos}, opening it if needed.
+    *
+    * <p>The caller must hold the lock stripe of that region, so that no other
+    * thread opens, evicts or writes the same region file concurrently.
+    *
+    * <p>Before opening a file, the least recently used files are closed until
+    * fewer than 256 stay open. Files whose lock stripe another thread holds are
+    * skipped, and if all of them are, the cache goes over the limit until the
+    * next file is opened.
+    */
    private RegionFile getRegionFile(ChunkPos pos) throws IOException {
-      long l = ChunkPos.toLong(pos.getRegionX(), pos.getRegionZ());
-      RegionFile regionFile = (RegionFile)this.cachedRegionFiles.getAndMoveToFirst(l);
-      if (regionFile != null) {
-         return regionFile;
-      } else {
+      long l = getRegionPos(pos);
+      List<RegionFile> list = Lists.newArrayList();
+      List<Lock> list2 = Lists.newArrayList();
+      synchronized(this.cachedRegionFiles) {
+         RegionFile regionFile = (RegionFile)this.cachedRegionFiles.getAndMoveToFirst(l);
+         if (regionFile != null) {
+            return regionFile;
+         }
+
          if (this.cachedRegionFiles.size() >= 256) {
-            ((RegionFile)this.cachedRegionFiles.removeLast()).close();
+            LongBidirectionalIterator longBidirectionalIterator = this.cachedRegionFiles.keySet().iterator(this.cachedRegionFiles.lastLongKey());
+
+            while(this.cachedRegionFiles.size() - list.size() >= 256 && longBidirectionalIterator.hasPrevious()) {
+               long m = longBidirectionalIterator.previousLong();
+               Lock lock = this.getLock(m);
+               if (lock.tryLock()) {
+                  list.add((RegionFile)this.cachedRegionFiles.get(m));
+                  list2.add(lock);
+                  longBidirectionalIterator.remove();
+               }
+            }
          }
+      }
 
-         if (!this.directory.exists()) {
-            this.directory.mkdirs();
+      ThrowableDeliverer<IOException> throwableDeliverer = new ThrowableDeliverer();
+
+      for(int i = 0; i < list.size(); ++i) {
+         try {
+            ((RegionFile)list.get(i)).close();
+         } catch (IOException var13) {
+            throwableDeliverer.add(var13);
+         } finally {
+            ((Lock)list2.get(i)).unlock();
          }
+      }
+
+      throwableDeliverer.deliver();
+
+      if (!this.directory.exists()) {
+         this.directory.mkdirs();
+      }
 
-         File var10002 = this.directory;
-         int var10003 = pos.getRegionX();
-         File file = new File(var10002, "r." + var10003 + "." + pos.getRegionZ() + ".mca");
-         RegionFile regionFile2 = new RegionFile(file, this.directory, this.dsync);
-         this.cachedRegionFiles.putAndMoveToFirst(l, regionFile2);
-         return regionFile2;
+      File var10002 = this.directory;
+      int var10003 = pos.getRegionX();
+      File file = new File(var10002, "r." + var10003 + "." + pos.getRegionZ() + ".mca");
+      RegionFile regionFile3 = this.options.isMemoryMapped() ? new MappedRegionFile(file.toPath(), this.directory.toPath(), this.options.getOutputChunkStreamVersion(), this.dsync) : new RegionFile(file.toPath(), this.directory.toPath(), this.options.getOutputChunkStreamVersion(), this.dsync);
+      synchronized(this.cachedRegionFiles) {
+         this.cachedRegionFiles.putAndMoveToFirst(l, regionFile3);
       }
+
+      return regionFile3;
    }
 
    @Nullable
    public NbtCompound getTagAt(ChunkPos pos) throws IOException {
+      ChunkSnapshot chunkSnapshot = this.getChunkAt(pos);
+      return chunkSnapshot == null ? null : chunkSnapshot.toNbt();
+   }
+
+   /**
+    * Reads the chunk at {@code pos} in whichever format it was stored in. NBT is
+    * returned as is, while binary chunks keep their sections decoded.
+    */
+   @Nullable
+   public ChunkSnapshot getChunkAt(ChunkPos pos) throws IOException {
+      Lock lock = this.getLock(getRegionPos(pos));
+      lock.lock();
+
+      ChunkSnapshot var3;
+      try {
+         var3 = this.read(pos);
+      } finally {
+         lock.unlock();
+      }
+
+      return var3;
+   }
+
+   @Nullable
+   private ChunkSnapshot read(ChunkPos pos) throws IOException {
       RegionFile regionFile = this.getRegionFile(pos);
       DataInputStream dataInputStream = regionFile.getChunkInputStream(pos);
-
-      NbtCompound var4;
-      label43: {
+      if (dataInputStream == null) {
+         return null;
+      } else {
+         ChunkSnapshot var4;
          try {
-            if (dataInputStream == null) {
-               var4 = null;
-               break label43;
+            dataInputStream.mark(1);
+            if (BinaryChunkSerializer.isBinary(dataInputStream.read())) {
+               var4 = BinaryChunkSerializer.read(dataInputStream);
+            } else {
+               dataInputStream.reset();
+               var4 = ChunkSnapshot.ofNbt(NbtIo.read((DataInput)dataInputStream));
             }
-
-            var4 = NbtIo.read((DataInput)dataInputStream);
          } catch (Throwable var7) {
-            if (dataInputStream != null) {
-               try {
-                  dataInputStream.close();
-               } catch (Throwable var6) {
-                  var7.addSuppressed(var6);
-               }
+            try {
+               dataInputStream.close();
+            } catch (Throwable var6) {
+               var7.addSuppressed(var6);
             }
 
             throw var7;
          }
 
-         if (dataInputStream != null) {
-            dataInputStream.close();
-         }
-
+         dataInputStream.close();
          return var4;
       }
+   }
 
-      if (dataInputStream != null) {
-         dataInputStream.close();
+   /**
+    * Reads only the elements at the given dotted paths of the chunk NBT at {@code
+    * pos}, stopping as soon as all of them have been read.
+    */
+   @Nullable
+   public NbtCompound getTagAt(ChunkPos pos, String... paths) throws IOException {
+      Lock lock = this.getLock(getRegionPos(pos));
+      lock.lock();
+
+      NbtCompound var4;
+      try {
+         var4 = this.scan(pos, SelectiveNbtCollector.including(paths));
+      } finally {
+         lock.unlock();
       }
 
       return var4;
    }
 
-   protected void write(ChunkPos pos, @Nullable NbtCompound nbt) throws IOException {
+   @Nullable
+   private NbtCompound scan(ChunkPos pos, SelectiveNbtCollector collector) throws IOException {
       RegionFile regionFile = this.getRegionFile(pos);
-      if (nbt == null) {
+      DataInputStream dataInputStream = regionFile.getChunkInputStream(pos);
+      if (dataInputStream == null) {
+         return null;
+      } else {
+         try {
+            dataInputStream.mark(1);
+            if (BinaryChunkSerializer.isBinary(dataInputStream.read())) {
+               BinaryChunkSerializer.scanNbt(dataInputStream, collector);
+            } else {
+               dataInputStream.reset();
+               NbtIo.scan(dataInputStream, collector);
+            }
+         } catch (Throwable var7) {
+            try {
+               dataInputStream.close();
+            } catch (Throwable var6) {
+               var7.addSuppressed(var6);
+            }
+
+            throw var7;
+         }
+
+         dataInputStream.close();
+         return collector.getRoot();
+      }
+   }
+
+   /**
+    * Writes or deletes the chunk at {@code pos}.
+    *
+    * @return the number of uncompressed bytes written
+    */
+   protected int write(ChunkPos pos, @Nullable NbtCompound nbt) throws IOException {
+      return this.write(pos, nbt, null);
+   }
+
+   /**
+    * Writes the chunk at {@code pos} in the binary chunk format.
+    *
+    * @return the number of uncompressed bytes written
+    */
+   protected int write(ChunkPos pos, ChunkSnapshot snapshot) throws IOException {
+      return this.write(pos, null, snapshot);
+   }
+
+   private int write(ChunkPos pos, @Nullable NbtCompound nbt, @Nullable ChunkSnapshot snapshot) throws IOException {
+      Lock lock = this.getLock(getRegionPos(pos));
+      lock.lock();
+
+      int var5;
+      try {
+         var5 = this.writeChunk(pos, nbt, snapshot);
+      } finally {
+         lock.unlock();
+      }
+
+      return var5;
+   }
+
+   private int writeChunk(ChunkPos pos, @Nullable NbtCompound nbt, @Nullable ChunkSnapshot snapshot) throws IOException {
+      RegionFile regionFile = this.getRegionFile(pos);
+      if (nbt == null && snapshot == null) {
          regionFile.method_31740(pos);
+         return 0;
       } else {
          DataOutputStream dataOutputStream = regionFile.getChunkOutputStream(pos);
 
+         int i;
          try {
-            NbtIo.write((NbtCompound)nbt, (DataOutput)dataOutputStream);
-         } catch (Throwable var8) {
+            if (snapshot != null) {
+               BinaryChunkSerializer.write(snapshot, dataOutputStream);
+            } else {
+               NbtIo.write((NbtCompound)nbt, (DataOutput)dataOutputStream);
+            }
+
+            i = dataOutputStream.size();
+         } catch (Throwable var9) {
             if (dataOutputStream != null) {
                try {
                   dataOutputStream.close();
-               } catch (Throwable var7) {
-                  var8.addSuppressed(var7);
+               } catch (Throwable var8) {
+                  var9.addSuppressed(var8);
                }
             }
 
-            throw var8;
+            throw var9;
          }
 
          if (dataOutputStream != null) {
             dataOutputStream.close();
          }
-      }
 
+         return i;
+      }
    }
 
    public void close() throws IOException {
       ThrowableDeliverer<IOException> throwableDeliverer = new ThrowableDeliverer();
-      ObjectIterator var2 = this.cachedRegionFiles.values().iterator();
+      ObjectIterator var2 = this.getOpenRegionFiles().long2ObjectEntrySet().iterator();
 
       while(var2.hasNext()) {
-         RegionFile regionFile = (RegionFile)var2.next();
+         Long2ObjectMap.Entry<RegionFile> entry = (Long2ObjectMap.Entry)var2.next();
+         Lock lock = this.getLock(entry.getLongKey());
+         lock.lock();
 
          try {
-            regionFile.close();
-         } catch (IOException var5) {
-            throwableDeliverer.add(var5);
+            if (this.isOpen(entry.getLongKey(), (RegionFile)entry.getValue())) {
+               ((RegionFile)entry.getValue()).close();
+            }
+         } catch (IOException var9) {
+            throwableDeliverer.add(var9);
+         } finally {
+            lock.unlock();
          }
       }
 
@@ -135,12 +317,38 @@ public final class RegionBasedStorage implements AutoCloseable {
    }
 
    public void sync() throws IOException {
-      ObjectIterator var1 = this.cachedRegionFiles.values().iterator();
+      ObjectIterator var1 = this.getOpenRegionFiles().long2ObjectEntrySet().iterator();
 
       while(var1.hasNext()) {
-         RegionFile regionFile = (RegionFile)var1.next();
-         regionFile.sync();
+         Long2ObjectMap.Entry<RegionFile> entry = (Long2ObjectMap.Entry)var1.next();
+         Lock lock = this.getLock(entry.getLongKey());
+         lock.lock();
+
+         try {
+            if (this.isOpen(entry.getLongKey(), (RegionFile)entry.getValue())) {
+               ((RegionFile)entry.getValue()).sync();
+            }
+         } finally {
+            lock.unlock();
+         }
+      }
+
+   }
+
+   /**
+    * Returns the open region files by region position. Each one has to be used
+    * under its lock stripe, after checking with {@link #isOpen} that it was not
+    * evicted in the meantime.
+    */
+   private Long2ObjectMap<RegionFile> getOpenRegionFiles() {
+      synchronized(this.cachedRegionFiles) {
+         return new Long2ObjectOpenHashMap(this.cachedRegionFiles);
       }
+   }
 
+   private boolean isOpen(long regionPos, RegionFile regionFile) {
+      synchronized(this.cachedRegionFiles) {
+         return this.cachedRegionFiles.get(regionPos) == regionFile;
+      }
    }
 }
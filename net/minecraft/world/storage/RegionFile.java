@@ -37,10 +37,10 @@ public class RegionFile implements AutoCloseable {
    private static final int field_31422 = 128;
    private static final int field_31423 = 256;
    private static final int field_31424 = 0;
-   private final FileChannel channel;
+   protected final FileChannel channel;
    private final Path directory;
    final ChunkStreamVersion outputChunkStreamVersion;
-   private final ByteBuffer header;
+   protected final ByteBuffer header;
    private final IntBuffer sectorData;
    private final IntBuffer saveTimes;
    @VisibleForTesting
@@ -116,9 +116,7 @@ public class RegionFile implements AutoCloseable {
          int j = getOffset(i);
          int k = getSize(i);
          int l = k * 4096;
-         ByteBuffer byteBuffer = ByteBuffer.allocate(l);
-         this.channel.read(byteBuffer, (long)(j * 4096));
-         byteBuffer.flip();
+         ByteBuffer byteBuffer = this.read((long)j * 4096L, l);
          if (byteBuffer.remaining() < 5) {
             LOGGER.error((String)"Chunk {} header is truncated: expected {} but read {}", (Object)pos, l, byteBuffer.remaining());
             return null;
@@ -184,8 +182,31 @@ public class RegionFile implements AutoCloseable {
       }
    }
 
-   private static ByteArrayInputStream getInputStream(ByteBuffer buffer, int length) {
-      return new ByteArrayInputStream(buffer.array(), buffer.position(), length);
+   private static InputStream getInputStream(ByteBuffer buffer, int length) {
+      if (buffer.hasArray()) {
+         return new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+      } else {
+         ByteBuffer byteBuffer = buffer.slice();
+         byteBuffer.limit(length);
+         return new RegionFile.ByteBufferInputStream(byteBuffer);
+      }
+   }
+
+   /**
+    * Reads up to {@code length} bytes starting at {@code position}.
+    *
+    * @return a buffer positioned at the first byte read, with the number of bytes
+    * actually read remaining
+    */
+   protected ByteBuffer read(long position, int length) throws IOException {
+      ByteBuffer byteBuffer = ByteBuffer.allocate(length);
+      this.channel.read(byteBuffer, position);
+      byteBuffer.flip();
+      return byteBuffer;
+   }
+
+   protected void write(ByteBuffer buffer, long position) throws IOException {
+      this.channel.write(buffer, position);
    }
 
    private int packSectorData(int offset, int size) {
@@ -211,11 +232,9 @@ public class RegionFile implements AutoCloseable {
       } else {
          int j = getOffset(i);
          int k = getSize(i);
-         ByteBuffer byteBuffer = ByteBuffer.allocate(5);
 
          try {
-            this.channel.read(byteBuffer, (long)(j * 4096));
-            byteBuffer.flip();
+            ByteBuffer byteBuffer = this.read((long)j * 4096L, 5);
             if (byteBuffer.remaining() != 5) {
                return false;
             } else {
@@ -288,13 +307,13 @@ public class RegionFile implements AutoCloseable {
          p = this.sectors.allocate(n);
          outputAction2 = this.writeSafely(path, byteBuffer);
          ByteBuffer byteBuffer2 = this.method_22406();
-         this.channel.write(byteBuffer2, (long)(p * 4096));
+         this.write(byteBuffer2, (long)p * 4096L);
       } else {
          p = this.sectors.allocate(n);
          outputAction2 = () -> {
             Files.deleteIfExists(this.getExternalChunkPath(pos));
          };
-         this.channel.write(byteBuffer, (long)(p * 4096));
+         this.write(byteBuffer, (long)p * 4096L);
       }
 
       this.sectorData.put(i, this.packSectorData(p, n));
@@ -343,7 +362,7 @@ public class RegionFile implements AutoCloseable {
       };
    }
 
-   private void writeHeader() throws IOException {
+   protected void writeHeader() throws IOException {
       this.header.position(0);
       this.channel.write(this.header, 0L);
    }
@@ -404,6 +423,40 @@ public class RegionFile implements AutoCloseable {
       }
    }
 
+   static class ByteBufferInputStream extends InputStream {
+      private final ByteBuffer buffer;
+
+      ByteBufferInputStream(ByteBuffer buffer) {
+         this.buffer = buffer;
+      }
+
+      public int read() {
+         return this.buffer.hasRemaining() ? this.buffer.get() & 255 : -1;
+      }
+
+      public int read(byte[] bytes, int offset, int length) {
+         if (length == 0) {
+            return 0;
+         } else if (!this.buffer.hasRemaining()) {
+            return -1;
+         } else {
+            int i = Math.min(length, this.buffer.remaining());
+            this.buffer.get(bytes, offset, i);
+            return i;
+         }
+      }
+
+      public long skip(long n) {
+         int i = (int)Math.max(0L, Math.min(n, (long)this.buffer.remaining()));
+         this.buffer.position(this.buffer.position() + i);
+         return (long)i;
+      }
+
+      public int available() {
+         return this.buffer.remaining();
+      }
+   }
+
    private interface OutputAction {
       void run() throws IOException;
    }
@@ -0,0 +1,49 @@
+package net.minecraft.world.storage;
+
+/**
+ * Server-wide settings for how region-based storages lay out and access their
+ * files on disk.
+ */
+public final class RegionStorageOptions {
+   public static final RegionStorageOptions DEFAULT = new RegionStorageOptions(ChunkStreamVersion.DEFLATE, false, 1, false);
+   private final ChunkStreamVersion outputChunkStreamVersion;
+   private final boolean memoryMapped;
+   private final int ioThreads;
+   private final boolean binaryChunks;
+
+   public RegionStorageOptions(ChunkStreamVersion outputChunkStreamVersion, boolean memoryMapped, int ioThreads, boolean binaryChunks) {
+      if (ioThreads < 1) {
+         throw new IllegalArgumentException("Expected at least one IO thread, got " + ioThreads);
+      } else {
+         this.outputChunkStreamVersion = outputChunkStreamVersion;
+         this.memoryMapped = memoryMapped;
+         this.ioThreads = ioThreads;
+         this.binaryChunks = binaryChunks;
+      }
+   }
+
+   public ChunkStreamVersion getOutputChunkStreamVersion() {
+      return this.outputChunkStreamVersion;
+   }
+
+   public boolean isMemoryMapped() {
+      return this.memoryMapped;
+   }
+
+   /**
+    * Returns the number of lanes each {@link StorageIoWorker} shards its regions
+    * across.
+    */
+   public int getIoThreads() {
+      return this.ioThreads;
+   }
+
+   /**
+    * Returns whether chunk storages write chunks in the binary format of {@link
+    * net.minecraft.world.BinaryChunkSerializer} instead of NBT. Both formats are
+    * always readable.
+    */
+   public boolean usesBinaryChunks() {
+      return this.binaryChunks;
+   }
+}
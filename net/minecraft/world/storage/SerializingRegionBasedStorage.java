@@ -43,13 +43,13 @@ public class SerializingRegionBasedStorage<R> implements AutoCloseable {
    private final DataFixTypes dataFixTypes;
    protected final HeightLimitView world;
 
-   public SerializingRegionBasedStorage(File directory, Function<Runnable, Codec<R>> codecFactory, Function<Runnable, R> factory, DataFixer dataFixer, DataFixTypes dataFixTypes, boolean dsync, HeightLimitView world) {
+   public SerializingRegionBasedStorage(File directory, Function<Runnable, Codec<R>> codecFactory, Function<Runnable, R> factory, DataFixer dataFixer, DataFixTypes dataFixTypes, RegionStorageOptions options, boolean dsync, HeightLimitView world) {
       this.codecFactory = codecFactory;
       this.factory = factory;
       this.dataFixer = dataFixer;
       this.dataFixTypes = dataFixTypes;
       this.world = world;
-      this.worker = new StorageIoWorker(directory, dsync, directory.getName());
+      this.worker = new StorageIoWorker(directory, options, dsync, directory.getName());
    }
 
    protected void tick(BooleanSupplier shouldKeepTicking) {
@@ -2,6 +2,7 @@ package net.minecraft.world.storage;
 
 import com.google.common.collect.Maps;
 import com.mojang.datafixers.util.Either;
+import it.unimi.dsi.fastutil.HashCommon;
 import java.io.File;
 import java.io.IOException;
 import java.util.Iterator;
@@ -10,6 +11,7 @@ import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import net.minecraft.nbt.NbtCompound;
@@ -18,38 +20,77 @@ import net.minecraft.util.Util;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.thread.TaskExecutor;
 import net.minecraft.util.thread.TaskQueue;
+import net.minecraft.world.ChunkSnapshot;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * Reads and writes chunk NBT for one region-based storage off the server thread.
+ *
+ * <p>Work is split across one or more lanes, each with its own task queue and
+ * pending results. A chunk always maps to the lane of its region, so reads and
+ * writes of the same chunk keep their submission order while different regions
+ * are served in parallel.
+ */
 public class StorageIoWorker implements AutoCloseable {
    private static final Logger LOGGER = LogManager.getLogger();
    private final AtomicBoolean closed = new AtomicBoolean();
-   private final TaskExecutor<TaskQueue.PrioritizedTask> executor;
+   private final AtomicLong bytesWritten = new AtomicLong();
+   private final StorageIoWorker.Lane[] lanes;
    private final RegionBasedStorage storage;
-   private final Map<ChunkPos, StorageIoWorker.Result> results = Maps.newLinkedHashMap();
 
    protected StorageIoWorker(File directory, boolean dsync, String name) {
-      this.storage = new RegionBasedStorage(directory, dsync);
-      this.executor = new TaskExecutor(new TaskQueue.Prioritized(StorageIoWorker.Priority.values().length), Util.getIoWorkerExecutor(), "IOWorker-" + name);
+      this(directory, RegionStorageOptions.DEFAULT, dsync, name);
+   }
+
+   protected StorageIoWorker(File directory, RegionStorageOptions options, boolean dsync, String name) {
+      this.storage = new RegionBasedStorage(directory, options, dsync);
+      int i = options.getIoThreads();
+      this.lanes = new StorageIoWorker.Lane[i];
+
+      for(int j = 0; j < i; ++j) {
+         this.lanes[j] = new StorageIoWorker.Lane(i == 1 ? "IOWorker-" + name : "IOWorker-" + name + "-" + j);
+      }
+
+   }
+
+   private StorageIoWorker.Lane getLane(ChunkPos pos) {
+      if (this.lanes.length == 1) {
+         return this.lanes[0];
+      } else {
+         long l = ChunkPos.toLong(pos.getRegionX(), pos.getRegionZ());
+         return this.lanes[(int)((HashCommon.mix(l) & Long.MAX_VALUE) % (long)this.lanes.length)];
+      }
    }
 
    public CompletableFuture<Void> setResult(ChunkPos pos, @Nullable NbtCompound nbt) {
-      return this.run(() -> {
-         StorageIoWorker.Result result = (StorageIoWorker.Result)this.results.computeIfAbsent(pos, (chunkPos) -> {
-            return new StorageIoWorker.Result(nbt);
-         });
-         result.nbt = nbt;
-         return Either.left(result.future);
-      }).thenCompose(Function.identity());
+      return this.getLane(pos).setResult(pos, nbt, null);
+   }
+
+   /**
+    * Stores {@code snapshot} in the binary chunk format.
+    */
+   public CompletableFuture<Void> setResult(ChunkPos pos, ChunkSnapshot snapshot) {
+      return this.getLane(pos).setResult(pos, null, snapshot);
    }
 
    @Nullable
    public NbtCompound getNbt(ChunkPos pos) throws IOException {
-      CompletableFuture completableFuture = this.readChunkData(pos);
+      ChunkSnapshot chunkSnapshot = this.getChunk(pos);
+      return chunkSnapshot == null ? null : chunkSnapshot.toNbt();
+   }
+
+   /**
+    * Reads a chunk without converting sections stored in the binary chunk
+    * format to NBT.
+    */
+   @Nullable
+   public ChunkSnapshot getChunk(ChunkPos pos) throws IOException {
+      CompletableFuture completableFuture = this.getLane(pos).readChunk(pos);
 
       try {
-         return (NbtCompound)completableFuture.join();
+         return (ChunkSnapshot)completableFuture.join();
       } catch (CompletionException var4) {
          if (var4.getCause() instanceof IOException) {
             throw (IOException)var4.getCause();
@@ -59,33 +100,49 @@ public class StorageIoWorker implements AutoCloseable {
       }
    }
 
-   protected CompletableFuture<NbtCompound> readChunkData(ChunkPos pos) {
-      return this.run(() -> {
-         StorageIoWorker.Result result = (StorageIoWorker.Result)this.results.get(pos);
-         if (result != null) {
-            return Either.left(result.nbt);
+   /**
+    * Reads only the elements at the given dotted paths of the chunk NBT. Chunks
+    * that are still waiting to be written are returned whole.
+    */
+   @Nullable
+   public NbtCompound getSelectedNbt(ChunkPos pos, String... paths) throws IOException {
+      CompletableFuture completableFuture = this.getLane(pos).readSelected(pos, paths);
+
+      try {
+         return (NbtCompound)completableFuture.join();
+      } catch (CompletionException var5) {
+         if (var5.getCause() instanceof IOException) {
+            throw (IOException)var5.getCause();
          } else {
-            try {
-               NbtCompound nbtCompound = this.storage.getTagAt(pos);
-               return Either.left(nbtCompound);
-            } catch (Exception var4) {
-               LOGGER.warn((String)"Failed to read chunk {}", (Object)pos, (Object)var4);
-               return Either.right(var4);
-            }
+            throw var5;
          }
+      }
+   }
+
+   protected CompletableFuture<NbtCompound> readChunkData(ChunkPos pos) {
+      return this.getLane(pos).readChunk(pos).thenApply((chunkSnapshot) -> {
+         return chunkSnapshot == null ? null : chunkSnapshot.toNbt();
       });
    }
 
+   /**
+    * Returns the total number of uncompressed NBT bytes this worker has written
+    * since it was created.
+    */
+   public long getBytesWritten() {
+      return this.bytesWritten.get();
+   }
+
    public CompletableFuture<Void> completeAll(boolean sync) {
-      CompletableFuture<Void> completableFuture = this.run(() -> {
-         return Either.left(CompletableFuture.allOf((CompletableFuture[])this.results.values().stream().map((result) -> {
-            return result.future;
-         }).toArray((i) -> {
-            return new CompletableFuture[i];
-         })));
-      }).thenCompose(Function.identity());
+      CompletableFuture<?>[] completableFutures = new CompletableFuture[this.lanes.length];
+
+      for(int i = 0; i < this.lanes.length; ++i) {
+         completableFutures[i] = this.lanes[i].completeAll();
+      }
+
+      CompletableFuture<Void> completableFuture = CompletableFuture.allOf(completableFutures);
       return sync ? completableFuture.thenCompose((void_) -> {
-         return this.run(() -> {
+         return this.lanes[0].run(() -> {
             try {
                this.storage.sync();
                return Either.left((Object)null);
@@ -94,81 +151,168 @@ public class StorageIoWorker implements AutoCloseable {
                return Either.right(var2);
             }
          });
-      }) : completableFuture.thenCompose((void_) -> {
+      }) : completableFuture;
+   }
+
+   public void close() throws IOException {
+      if (this.closed.compareAndSet(false, true)) {
+         StorageIoWorker.Lane[] var1 = this.lanes;
+         int var2 = var1.length;
+
+         for(int var3 = 0; var3 < var2; ++var3) {
+            StorageIoWorker.Lane lane = var1[var3];
+            lane.close();
+         }
+
+         try {
+            this.storage.close();
+         } catch (Exception var5) {
+            LOGGER.error((String)"Failed to close storage", (Throwable)var5);
+         }
+
+      }
+   }
+
+   static enum Priority {
+      FOREGROUND,
+      BACKGROUND,
+      SHUTDOWN;
+   }
+
+   class Lane {
+      private final TaskExecutor<TaskQueue.PrioritizedTask> executor;
+      private final Map<ChunkPos, StorageIoWorker.Result> results = Maps.newLinkedHashMap();
+
+      Lane(String name) {
+         this.executor = new TaskExecutor(new TaskQueue.Prioritized(StorageIoWorker.Priority.values().length), Util.getIoWorkerExecutor(), name);
+      }
+
+      CompletableFuture<Void> setResult(ChunkPos pos, @Nullable NbtCompound nbt, @Nullable ChunkSnapshot snapshot) {
          return this.run(() -> {
-            return Either.left((Object)null);
+            StorageIoWorker.Result result = (StorageIoWorker.Result)this.results.computeIfAbsent(pos, (chunkPos) -> {
+               return new StorageIoWorker.Result(nbt);
+            });
+            result.nbt = nbt;
+            result.snapshot = snapshot;
+            return Either.left(result.future);
+         }).thenCompose(Function.identity());
+      }
+
+      CompletableFuture<ChunkSnapshot> readChunk(ChunkPos pos) {
+         return this.run(() -> {
+            StorageIoWorker.Result result = (StorageIoWorker.Result)this.results.get(pos);
+            if (result != null) {
+               return Either.left(result.getChunk());
+            } else {
+               try {
+                  ChunkSnapshot chunkSnapshot = StorageIoWorker.this.storage.getChunkAt(pos);
+                  return Either.left(chunkSnapshot);
+               } catch (Exception var4) {
+                  StorageIoWorker.LOGGER.warn((String)"Failed to read chunk {}", (Object)pos, (Object)var4);
+                  return Either.right(var4);
+               }
+            }
          });
-      });
-   }
+      }
 
-   private <T> CompletableFuture<T> run(Supplier<Either<T, Exception>> task) {
-      return this.executor.askFallible((messageListener) -> {
-         return new TaskQueue.PrioritizedTask(StorageIoWorker.Priority.FOREGROUND.ordinal(), () -> {
-            if (!this.closed.get()) {
-               messageListener.send((Either)task.get());
+      CompletableFuture<NbtCompound> readSelected(ChunkPos pos, String[] paths) {
+         return this.run(() -> {
+            StorageIoWorker.Result result = (StorageIoWorker.Result)this.results.get(pos);
+            if (result != null) {
+               ChunkSnapshot chunkSnapshot = result.getChunk();
+               return Either.left(chunkSnapshot == null ? null : chunkSnapshot.getNbt());
+            } else {
+               try {
+                  NbtCompound nbtCompound = StorageIoWorker.this.storage.getTagAt(pos, paths);
+                  return Either.left(nbtCompound);
+               } catch (Exception var5) {
+                  StorageIoWorker.LOGGER.warn((String)"Failed to read chunk {}", (Object)pos, (Object)var5);
+                  return Either.right(var5);
+               }
             }
+         });
+      }
 
-            this.writeRemainingResults();
+      CompletableFuture<Void> completeAll() {
+         return this.run(() -> {
+            return Either.left(CompletableFuture.allOf((CompletableFuture[])this.results.values().stream().map((result) -> {
+               return result.future;
+            }).toArray((i) -> {
+               return new CompletableFuture[i];
+            })));
+         }).thenCompose(Function.identity()).thenCompose((void_) -> {
+            return this.run(() -> {
+               return Either.left((Object)null);
+            });
          });
-      });
-   }
+      }
+
+      <T> CompletableFuture<T> run(Supplier<Either<T, Exception>> task) {
+         return this.executor.askFallible((messageListener) -> {
+            return new TaskQueue.PrioritizedTask(StorageIoWorker.Priority.FOREGROUND.ordinal(), () -> {
+               if (!StorageIoWorker.this.closed.get()) {
+                  messageListener.send((Either)task.get());
+               }
 
-   private void writeResult() {
-      if (!this.results.isEmpty()) {
-         Iterator<Entry<ChunkPos, StorageIoWorker.Result>> iterator = this.results.entrySet().iterator();
-         Entry<ChunkPos, StorageIoWorker.Result> entry = (Entry)iterator.next();
-         iterator.remove();
-         this.write((ChunkPos)entry.getKey(), (StorageIoWorker.Result)entry.getValue());
-         this.writeRemainingResults();
+               this.writeRemainingResults();
+            });
+         });
       }
-   }
 
-   private void writeRemainingResults() {
-      this.executor.send(new TaskQueue.PrioritizedTask(StorageIoWorker.Priority.BACKGROUND.ordinal(), this::writeResult));
-   }
+      private void writeResult() {
+         if (!this.results.isEmpty()) {
+            Iterator<Entry<ChunkPos, StorageIoWorker.Result>> iterator = this.results.entrySet().iterator();
+            Entry<ChunkPos, StorageIoWorker.Result> entry = (Entry)iterator.next();
+            iterator.remove();
+            this.write((ChunkPos)entry.getKey(), (StorageIoWorker.Result)entry.getValue());
+            this.writeRemainingResults();
+         }
+      }
 
-   private void write(ChunkPos pos, StorageIoWorker.Result result) {
-      try {
-         this.storage.write(pos, result.nbt);
-         result.future.complete((Object)null);
-      } catch (Exception var4) {
-         LOGGER.error((String)"Failed to store chunk {}", (Object)pos, (Object)var4);
-         result.future.completeExceptionally(var4);
+      private void writeRemainingResults() {
+         this.executor.send(new TaskQueue.PrioritizedTask(StorageIoWorker.Priority.BACKGROUND.ordinal(), this::writeResult));
       }
 
-   }
+      private void write(ChunkPos pos, StorageIoWorker.Result result) {
+         try {
+            int i = result.snapshot != null ? StorageIoWorker.this.storage.write(pos, result.snapshot) : StorageIoWorker.this.storage.write(pos, result.nbt);
+            StorageIoWorker.this.bytesWritten.addAndGet((long)i);
+            result.future.complete((Object)null);
+         } catch (Exception var4) {
+            StorageIoWorker.LOGGER.error((String)"Failed to store chunk {}", (Object)pos, (Object)var4);
+            result.future.completeExceptionally(var4);
+         }
 
-   public void close() throws IOException {
-      if (this.closed.compareAndSet(false, true)) {
+      }
+
+      void close() {
          this.executor.ask((messageListener) -> {
             return new TaskQueue.PrioritizedTask(StorageIoWorker.Priority.SHUTDOWN.ordinal(), () -> {
                messageListener.send(Unit.INSTANCE);
             });
          }).join();
          this.executor.close();
-
-         try {
-            this.storage.close();
-         } catch (Exception var2) {
-            LOGGER.error((String)"Failed to close storage", (Throwable)var2);
-         }
-
       }
    }
 
-   static enum Priority {
-      FOREGROUND,
-      BACKGROUND,
-      SHUTDOWN;
-   }
-
    private static class Result {
       @Nullable
       NbtCompound nbt;
+      @Nullable
+      ChunkSnapshot snapshot;
       final CompletableFuture<Void> future = new CompletableFuture();
 
       public Result(@Nullable NbtCompound nbt) {
          this.nbt = nbt;
       }
+
+      @Nullable
+      ChunkSnapshot getChunk() {
+         if (this.snapshot != null) {
+            return this.snapshot;
+         } else {
+            return this.nbt == null ? null : ChunkSnapshot.ofNbt(this.nbt);
+         }
+      }
    }
 }
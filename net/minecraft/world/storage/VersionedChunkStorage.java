@@ -1,29 +1,44 @@
 package net.minecraft.world.storage;
 
+import com.google.common.collect.Maps;
 import com.mojang.datafixers.DataFixer;
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 import net.minecraft.SharedConstants;
 import net.minecraft.datafixer.DataFixTypes;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtHelper;
+import net.minecraft.util.Util;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.ChunkSnapshot;
 import net.minecraft.world.FeatureUpdater;
 import net.minecraft.world.PersistentStateManager;
 import net.minecraft.world.World;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
 
 public class VersionedChunkStorage implements AutoCloseable {
+   private static final Logger LOGGER = LogManager.getLogger();
    private final StorageIoWorker worker;
+   private final Map<ChunkPos, CompletableFuture<Void>> pendingSnapshots = Maps.newConcurrentMap();
+   private final boolean binaryChunks;
    protected final DataFixer dataFixer;
    @Nullable
    private FeatureUpdater featureUpdater;
 
    public VersionedChunkStorage(File directory, DataFixer dataFixer, boolean dsync) {
+      this(directory, dataFixer, RegionStorageOptions.DEFAULT, dsync);
+   }
+
+   public VersionedChunkStorage(File directory, DataFixer dataFixer, RegionStorageOptions options, boolean dsync) {
       this.dataFixer = dataFixer;
-      this.worker = new StorageIoWorker(directory, dsync, "chunk");
+      this.worker = new StorageIoWorker(directory, options, dsync, "chunk");
+      this.binaryChunks = options.usesBinaryChunks();
    }
 
    public NbtCompound updateChunkNbt(RegistryKey<World> worldKey, Supplier<PersistentStateManager> persistentStateManagerFactory, NbtCompound nbt) {
@@ -48,28 +63,139 @@ public class VersionedChunkStorage implements AutoCloseable {
       return nbt;
    }
 
+   /**
+    * Like {@link #updateChunkNbt}, but passes chunks stored in the binary format
+    * at the current data version through without converting them to NBT.
+    */
+   public ChunkSnapshot updateChunk(RegistryKey<World> worldKey, Supplier<PersistentStateManager> persistentStateManagerFactory, ChunkSnapshot snapshot) {
+      if (snapshot.hasDecodedSections() && getDataVersion(snapshot.getNbt()) == SharedConstants.getGameVersion().getWorldVersion()) {
+         return snapshot;
+      } else {
+         return ChunkSnapshot.ofNbt(this.updateChunkNbt(worldKey, persistentStateManagerFactory, snapshot.toNbt()));
+      }
+   }
+
    public static int getDataVersion(NbtCompound nbt) {
       return nbt.contains("DataVersion", 99) ? nbt.getInt("DataVersion") : -1;
    }
 
    @Nullable
    public NbtCompound getNbt(ChunkPos chunkPos) throws IOException {
+      CompletableFuture<Void> completableFuture = (CompletableFuture)this.pendingSnapshots.get(chunkPos);
+      if (completableFuture != null) {
+         completableFuture.join();
+      }
+
       return this.worker.getNbt(chunkPos);
    }
 
+   /**
+    * Reads a chunk, keeping the sections of chunks stored in the binary format
+    * decoded.
+    */
+   @Nullable
+   public ChunkSnapshot getChunk(ChunkPos chunkPos) throws IOException {
+      CompletableFuture<Void> completableFuture = (CompletableFuture)this.pendingSnapshots.get(chunkPos);
+      if (completableFuture != null) {
+         completableFuture.join();
+      }
+
+      return this.worker.getChunk(chunkPos);
+   }
+
+   /**
+    * Reads only the elements at the given dotted paths of the chunk NBT, such as
+    * {@code Level.Status}. The result may contain more than was asked for.
+    */
+   @Nullable
+   public NbtCompound getSelectedNbt(ChunkPos chunkPos, String... paths) throws IOException {
+      CompletableFuture<Void> completableFuture = (CompletableFuture)this.pendingSnapshots.get(chunkPos);
+      if (completableFuture != null) {
+         completableFuture.join();
+      }
+
+      return this.worker.getSelectedNbt(chunkPos, paths);
+   }
+
    public void setNbt(ChunkPos chunkPos, NbtCompound nbt) {
-      this.worker.setResult(chunkPos, nbt);
+      this.afterPending(chunkPos, () -> {
+         if (this.binaryChunks) {
+            this.worker.setResult(chunkPos, ChunkSnapshot.ofNbt(nbt));
+         } else {
+            this.worker.setResult(chunkPos, nbt);
+         }
+
+      });
       if (this.featureUpdater != null) {
          this.featureUpdater.markResolved(chunkPos.toLong());
       }
 
    }
 
+   /**
+    * Hands {@code snapshot} to the IO worker once any earlier pending save of the
+    * same chunk has been handed over. Unless chunks are stored in the binary
+    * format, its NBT is built on a worker thread first. Reads of the chunk wait
+    * until then.
+    */
+   public void setNbt(ChunkPos chunkPos, ChunkSnapshot snapshot) {
+      if (this.featureUpdater != null) {
+         this.featureUpdater.markResolved(chunkPos.toLong());
+      }
+
+      if (this.binaryChunks) {
+         this.afterPending(chunkPos, () -> {
+            this.worker.setResult(chunkPos, snapshot);
+         });
+      } else {
+         CompletableFuture<NbtCompound> completableFuture = CompletableFuture.supplyAsync(snapshot::toNbt, Util.getMainWorkerExecutor());
+         CompletableFuture<Void> completableFuture2 = (CompletableFuture)this.pendingSnapshots.get(chunkPos);
+         CompletableFuture<NbtCompound> completableFuture3 = completableFuture2 == null ? completableFuture : completableFuture2.thenCompose((void_) -> {
+            return completableFuture;
+         });
+         this.enqueue(chunkPos, completableFuture3.thenAccept((nbt) -> {
+            this.worker.setResult(chunkPos, nbt);
+         }));
+      }
+
+   }
+
+   private void afterPending(ChunkPos chunkPos, Runnable runnable) {
+      CompletableFuture<Void> completableFuture = (CompletableFuture)this.pendingSnapshots.get(chunkPos);
+      if (completableFuture != null) {
+         this.enqueue(chunkPos, completableFuture.thenRun(runnable));
+      } else {
+         runnable.run();
+      }
+
+   }
+
+   private void enqueue(ChunkPos chunkPos, CompletableFuture<Void> future) {
+      CompletableFuture<Void> completableFuture = future.exceptionally((throwable) -> {
+         LOGGER.error((String)"Failed to save chunk {}", (Object)chunkPos, (Object)throwable);
+         return null;
+      });
+      this.pendingSnapshots.put(chunkPos, completableFuture);
+      completableFuture.thenRun(() -> {
+         this.pendingSnapshots.remove(chunkPos, completableFuture);
+      });
+   }
+
+   private void awaitPendingSnapshots() {
+      CompletableFuture.allOf((CompletableFuture[])this.pendingSnapshots.values().toArray(new CompletableFuture[0])).join();
+   }
+
+   public long getBytesWritten() {
+      return this.worker.getBytesWritten();
+   }
+
    public void completeAll() {
+      this.awaitPendingSnapshots();
       this.worker.completeAll(true).join();
    }
 
    public void close() throws IOException {
+      this.awaitPendingSnapshots();
       this.worker.close();
    }
 }